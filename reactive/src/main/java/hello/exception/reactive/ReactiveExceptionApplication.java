@@ -0,0 +1,13 @@
+package hello.exception.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveExceptionApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveExceptionApplication.class, args);
+	}
+
+}
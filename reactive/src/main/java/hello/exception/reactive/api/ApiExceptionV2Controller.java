@@ -0,0 +1,42 @@
+package hello.exception.reactive.api;
+
+import hello.exception.reactive.exception.UserException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * 서블릿 버전 ApiExceptionV2Controller의 /api2/members/{id}와 같은 WebFlux 컨트롤러
+ * 예외는 ApiExceptionWebExceptionHandler가 ExControllerAdvice와 같은 ErrorResult로 처리
+ *
+ * Mono.error로 반환하지 않고 바로 던짐
+ * Mono.error는 응답 미디어 타입을 고른 뒤에 구독되므로 Accept: text/html 요청은 예외 처리 전에 406이 됨
+ * 바로 던지면 서블릿 버전과 같이 핸들러 호출 단계에서 예외 처리로 넘어감
+ */
+@RestController
+public class ApiExceptionV2Controller {
+
+    @GetMapping("/api2/members/{id}")
+    public Mono<MemberDto> getMember(@PathVariable("id") String id) {
+        if (id.equals("ex")) {
+            throw new RuntimeException("잘못된 사용자");
+        }
+        if (id.equals("bad")) {
+            throw new IllegalArgumentException("잘못된 입력 값");
+        }
+        if (id.equals("user-ex")) {
+            throw new UserException("사용자 오류");
+        }
+        return Mono.just(new MemberDto(id, "hello " + id));
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class MemberDto {
+        private String memberId;
+        private String name;
+    }
+}
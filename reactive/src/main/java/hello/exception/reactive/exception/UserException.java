@@ -0,0 +1,17 @@
+package hello.exception.reactive.exception;
+
+/**
+ * [사용자 정의 예외]
+ * 서블릿 버전(hello.exception.exception.UserException)과 같은 역할
+ * ApiExceptionWebExceptionHandler가 400으로 처리함
+ */
+public class UserException extends RuntimeException {
+
+    public UserException(String message) {
+        super(message);
+    }
+
+    public UserException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,130 @@
+package hello.exception.reactive.exhandler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.reactive.api.ApiExceptionV2Controller;
+import hello.exception.reactive.exception.UserException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * [WebFlux 예외 처리] 서블릿 버전의 ExControllerAdvice + MyHandlerExceptionResolver 역할
+ *
+ * WebFlux에는 HandlerExceptionResolver가 없고, 처리되지 않은 예외는 WebExceptionHandler 체인으로 넘어감
+ * 스프링 부트 DefaultErrorWebExceptionHandler(@Order(-1), BasicErrorController 역할)보다 먼저 실행되도록 -2
+ *
+ * 1. 핸들러가 ApiExceptionV2Controller -> ExControllerAdvice(assignableTypes)와 같음
+ *    IllegalArgumentException 400 {"BAD", message}, UserException 400 {"USER-EX", message},
+ *    그 외 Exception 500 {"EX", "내부 오류"}
+ * 2. 그 외 핸들러 -> MyHandlerExceptionResolver와 같음
+ *    IllegalArgumentException -> sendError(400) 대신 ResponseStatusException(400)으로 바꿔서 부트 기본 오류 처리로 넘김
+ *    UserException -> Accept가 application/json이면 400 {"ex", "message"}, 아니면 400으로 부트 기본 오류 처리
+ *    (서블릿 버전의 error/4xx 뷰 대신. 이 모듈에는 뷰 템플릿이 없음)
+ * 3. 처리하지 않는 예외는 Mono.error로 다음 WebExceptionHandler에 넘김
+ */
+@Slf4j
+@Component
+@Order(-2)
+public class ApiExceptionWebExceptionHandler implements WebExceptionHandler {
+
+    private static final ErrorResult INTERNAL_ERROR = new ErrorResult("EX", "내부 오류");
+    private static final int MAX_CACHED = 256;
+
+    private final ObjectMapper objectMapper;
+    //서블릿 버전 ErrorResultCache와 같이 (code, message) -> JSON 바이트를 한 번만 직렬화
+    private final ConcurrentMap<ErrorResult, byte[]> serialized = new ConcurrentHashMap<>();
+
+    public ApiExceptionWebExceptionHandler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        serialized.put(INTERNAL_ERROR, serialize(INTERNAL_ERROR));
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        Object handler = exchange.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod) || exchange.getResponse().isCommitted()) {
+            return Mono.error(ex);
+        }
+        if (((HandlerMethod) handler).getBeanType() == ApiExceptionV2Controller.class) {
+            return adviceHandle(exchange, ex);
+        }
+        return resolverHandle(exchange, ex);
+    }
+
+    private Mono<Void> adviceHandle(ServerWebExchange exchange, Throwable ex) {
+        if (!(ex instanceof Exception)) {
+            return Mono.error(ex);
+        }
+        log.debug("[exceptionHandle] ex", ex);
+        if (ex instanceof IllegalArgumentException) {
+            return write(exchange.getResponse(), HttpStatus.BAD_REQUEST, cached(new ErrorResult("BAD", ex.getMessage())));
+        }
+        if (ex instanceof UserException) {
+            return write(exchange.getResponse(), HttpStatus.BAD_REQUEST, cached(new ErrorResult("USER-EX", ex.getMessage())));
+        }
+        return write(exchange.getResponse(), HttpStatus.INTERNAL_SERVER_ERROR, serialized.get(INTERNAL_ERROR));
+    }
+
+    private Mono<Void> resolverHandle(ServerWebExchange exchange, Throwable ex) {
+        if (ex instanceof IllegalArgumentException) {
+            log.info("IllegalArgumentException resolver to 400");
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex));
+        }
+        if (ex instanceof UserException) {
+            log.info("UserException resolver to 400");
+            String acceptHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT);
+            if ("application/json".equals(acceptHeader)) {
+                Map<String, Object> errorResult = new HashMap<>();
+                errorResult.put("ex", ex.getClass());
+                errorResult.put("message", ex.getMessage());
+                return write(exchange.getResponse(), HttpStatus.BAD_REQUEST, serialize(errorResult));
+            }
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, null, ex));
+        }
+        return Mono.error(ex);
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, HttpStatus status, byte[] body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private byte[] cached(ErrorResult result) {
+        byte[] body = serialized.get(result);
+        if (body != null) {
+            return body;
+        }
+        body = serialize(result);
+        if (serialized.size() < MAX_CACHED) {
+            serialized.putIfAbsent(result, body);
+        }
+        return body;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package hello.exception.reactive.exhandler;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * 예외가 발생했을 때 API 응답으로 사용할 객체
+ * 서블릿 버전(hello.exception.exhandler.ErrorResult)과 같은 JSON 형식: {"code": ..., "message": ...}
+ */
+@Value
+@AllArgsConstructor
+public class ErrorResult {
+    String code;
+    String message;
+}
@@ -0,0 +1,54 @@
+package hello.exception.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * 서블릿 버전과 같은 상태 코드, 같은 ErrorResult JSON을 반환하는지 확인
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+class ApiExceptionWebExceptionHandlerTest {
+
+    @Autowired
+    WebTestClient client;
+
+    @Test
+    void api2ErrorResult() {
+        expectErrorResult("/api2/members/bad", 400, "{\"code\":\"BAD\",\"message\":\"잘못된 입력 값\"}");
+        expectErrorResult("/api2/members/user-ex", 400, "{\"code\":\"USER-EX\",\"message\":\"사용자 오류\"}");
+        expectErrorResult("/api2/members/ex", 500, "{\"code\":\"EX\",\"message\":\"내부 오류\"}");
+        client.get().uri("/api2/members/spring").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"memberId\":\"spring\",\"name\":\"hello spring\"}");
+    }
+
+    @Test
+    void apiResolver() {
+        client.get().uri("/api/members/user-ex").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.ex").isEqualTo("hello.exception.reactive.exception.UserException")
+                .jsonPath("$.message").isEqualTo("사용자 오류");
+        //IllegalArgumentException, HTML UserException은 부트 기본 오류 처리(400)
+        client.get().uri("/api/members/bad").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.status").isEqualTo(400);
+        client.get().uri("/api/members/user-ex").accept(MediaType.TEXT_HTML).exchange()
+                .expectStatus().isBadRequest();
+        //처리하지 않는 예외는 500
+        client.get().uri("/api/members/ex").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().is5xxServerError();
+    }
+
+    private void expectErrorResult(String uri, int status, String json) {
+        client.get().uri(uri).accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isEqualTo(status)
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody().json(json, true);
+    }
+}
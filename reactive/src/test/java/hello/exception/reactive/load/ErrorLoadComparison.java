@@ -0,0 +1,164 @@
+package hello.exception.reactive.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * [서블릿 vs WebFlux 오류 응답 부하 비교]
+ * 같은 오류 경로(/api2/members/ex 등)를 높은 동시성으로 호출해서 처리량과 지연 시간을 비교
+ *
+ * 실행 순서
+ * 1. ./gradlew bootRun            (서블릿, 8080)
+ * 2. ./gradlew :reactive:bootRun  (WebFlux, 8081)
+ * 3. ./gradlew :reactive:loadCompare -Pload.args="--concurrency=1000 --duration=20"
+ *
+ * 옵션: --servlet=URL --reactive=URL --concurrency=N(동시 요청 수) --duration=초 --warmup=초 --paths=경로,경로
+ * 두 서버는 서로 영향을 주지 않도록 순서대로 측정함
+ * 서블릿 버전은 동시 요청이 Tomcat 스레드 수(기본 200)를 넘으면 요청이 큐에서 기다리므로 지연 시간 차이가 커짐
+ */
+public class ErrorLoadComparison {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("servlet", "http://localhost:8080");
+        options.put("reactive", "http://localhost:8081");
+        options.put("concurrency", "1000");
+        options.put("duration", "20");
+        options.put("warmup", "5");
+        options.put("paths", "/api2/members/ex,/api2/members/bad,/api2/members/user-ex,/api/members/user-ex");
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<Result> results = new ArrayList<>();
+        for (String path : options.get("paths").split(",")) {
+            for (String target : List.of("servlet", "reactive")) {
+                URI uri = URI.create(options.get(target) + path);
+                run(client, uri, concurrency, warmup);
+                Result result = run(client, uri, concurrency, duration);
+                result.target = target;
+                result.path = path;
+                results.add(result);
+                System.out.println(result);
+            }
+        }
+        executor.shutdownNow();
+
+        System.out.println();
+        System.out.printf("concurrency=%d, duration=%ds%n", concurrency, duration.toSeconds());
+        System.out.printf("%-9s %-24s %10s %10s %10s %10s %10s %8s%n",
+                "target", "path", "requests", "req/s", "p50(ms)", "p99(ms)", "max(ms)", "failed");
+        for (Result result : results) {
+            System.out.printf("%-9s %-24s %10d %10.0f %10.2f %10.2f %10.2f %8d%n",
+                    result.target, result.path, result.requests, result.throughput,
+                    result.percentileMillis(0.50), result.percentileMillis(0.99), result.maxMicros / 1000.0, result.failed);
+        }
+    }
+
+    /**
+     * 최대 concurrency개의 요청을 동시에 보내고, 응답이 오면 바로 다음 요청을 보냄
+     * 오류 경로를 호출하므로 4xx, 5xx 응답은 정상으로 보고, 연결 실패와 타임아웃만 failed로 셈
+     */
+    private static Result run(HttpClient client, URI uri, int concurrency, Duration duration) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        Result result = new Result();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        while (System.nanoTime() < end) {
+            if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        result.record(System.nanoTime() - sent, error == null);
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+        result.requests = result.count.sum();
+        result.failed = result.failedCount.sum();
+        result.maxMicros = result.max.get();
+        result.throughput = result.requests / ((System.nanoTime() - start) / 1_000_000_000.0);
+        return result;
+    }
+
+    /**
+     * 2의 거듭제곱(마이크로초) 버킷 히스토그램
+     */
+    static class Result {
+        private static final int BUCKETS = 32;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failedCount = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        String target;
+        String path;
+        long requests;
+        long failed;
+        long maxMicros;
+        double throughput;
+
+        void record(long nanos, boolean success) {
+            long micros = Math.max(1, nanos / 1000);
+            buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(micros - 1), BUCKETS - 1));
+            count.increment();
+            if (!success) {
+                failedCount.increment();
+            }
+            max.accumulate(micros);
+        }
+
+        double percentileMillis(double quantile) {
+            long rank = (long) Math.ceil(requests * quantile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    //버킷 상한이 실제 최댓값보다 크면 최댓값으로
+                    return Math.min(1L << i, maxMicros) / 1000.0;
+                }
+            }
+            return maxMicros / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %d requests, %.0f req/s, p99 %.2fms",
+                    target, path, requests, throughput, percentileMillis(0.99));
+        }
+    }
+}
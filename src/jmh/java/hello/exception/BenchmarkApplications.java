@@ -0,0 +1,47 @@
+package hello.exception;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 애플리케이션 기동 헬퍼
+ * 랜덤 포트로 실제 톰캣을 띄우고, 벤치마크마다 필요한 설정만 덮어씀
+ */
+public final class BenchmarkApplications {
+
+    private BenchmarkApplications() {
+    }
+
+    /**
+     * @param errorPageMode     exception.error-page.mode (boot, redispatch, in-place)
+     * @param logLevel          오류 처리 중 남기는 로그 레벨 (OFF로 두면 로깅 비용 제외)
+     *                          hello.exception 패키지와 예외를 로그로 남기는 톰캣 컨테이너에 적용
+     * @param properties        추가 설정 (key=value)
+     */
+    public static ServletWebServerApplicationContext start(String errorPageMode, String logLevel,
+                                                           String... properties) {
+        //application.properties 보다 우선하도록 커맨드라인 인자로 전달
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--spring.main.banner-mode=off");
+        args.add("--logging.level.root=WARN");
+        args.add("--logging.level.hello.exception=" + logLevel);
+        args.add("--logging.level.org.apache.catalina.core=" + logLevel);
+        args.add("--exception.error-page.mode=" + errorPageMode);
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(ExceptionApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(args.toArray(new String[0]));
+    }
+
+    public static String baseUrl(ServletWebServerApplicationContext context) {
+        return "http://localhost:" + context.getWebServer().getPort();
+    }
+}
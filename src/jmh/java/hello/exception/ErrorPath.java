@@ -0,0 +1,49 @@
+package hello.exception;
+
+/**
+ * 벤치마크 대상 오류 처리 흐름
+ * 이름은 @Param 값으로 사용됨 (-p path=ADVICE_USER,RESOLVER_JSON)
+ */
+public enum ErrorPath {
+    //비교 기준: 예외 없는 정상 응답
+    SUCCESS("/api/members/spring", "application/json"),
+
+    //ExControllerAdvice (ExceptionHandlerExceptionResolver)
+    ADVICE_ILLEGAL("/api2/members/bad", "application/json"),
+    ADVICE_USER("/api2/members/user-ex", "application/json"),
+    ADVICE_EX("/api2/members/ex", "application/json"),
+
+    //MyHandlerExceptionResolver
+    RESOLVER_JSON("/api/members/user-ex", "application/json"),
+    RESOLVER_VIEW("/api/members/user-ex", "text/html"),
+    RESOLVER_SEND_ERROR("/api/members/bad", "application/json"),
+
+    //ResponseStatusExceptionResolver
+    RESPONSE_STATUS_ANNOTATION("/api/response-status-ex1", "application/json"),
+    RESPONSE_STATUS_EXCEPTION("/api/response-status-ex2", "application/json"),
+
+    //DefaultHandlerExceptionResolver (TypeMismatchException)
+    DEFAULT_HANDLER("/api/default-handler-ex?data=hello", "application/json"),
+
+    //예외가 WAS까지 전파 -> 오류 페이지 재요청 (ErrorPageController 또는 BasicErrorController)
+    SERVLET_EXCEPTION("/error-ex", "text/html"),
+    SERVLET_EXCEPTION_API("/error-ex", "application/json"),
+    SERVLET_SEND_ERROR_404("/error-404", "text/html"),
+    SERVLET_SEND_ERROR_500("/error-500", "text/html");
+
+    private final String uri;
+    private final String accept;
+
+    ErrorPath(String uri, String accept) {
+        this.uri = uri;
+        this.accept = accept;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public String getAccept() {
+        return accept;
+    }
+}
@@ -0,0 +1,104 @@
+package hello.exception;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [톰캣 실행기별 블로킹 오류 경로 처리량]
+ * 수천 개의 연결이 동시에 오류 경로를 호출할 때 exception.server.executor.mode 별로 비교
+ * /error-blocking: 요청 스레드가 millis 동안 블로킹된 뒤 예외 -> WAS가 오류 페이지 재요청
+ *
+ * executor=default  : 톰캣 기본 스레드 풀 (스레드 200개, accept-count 100)
+ * executor=platform : platform-pool 프로필 (스레드 400개, 큐 크기 제한, accept-count 1000)
+ * executor=virtual  : virtual-threads 프로필 (JDK 21 이상으로 실행해야 가상 스레드 사용)
+ *
+ * 벤치마크 한 번 = connections개의 요청을 동시에 보내고 모두 응답받을 때까지 (ops/s = 초당 wave 수)
+ * 보조 카운터: requests(초당 응답 수), failed(연결 실패, 타임아웃 개수)
+ * 실행: ./gradlew jmh -Pjmh.includes=ErrorPathExecutorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ErrorPathExecutorBenchmark {
+
+    @Param({"default", "platform", "virtual"})
+    String executor;
+
+    @Param({"2000", "4000"})
+    int connections;
+
+    @Param({"/error-blocking?millis=50", "/error-ex"})
+    String uri;
+
+    @Param({"redispatch"})
+    String errorPages;
+
+    private ServletWebServerApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String profile = "default".equals(executor) ? "default"
+                : "platform".equals(executor) ? "platform-pool" : "virtual-threads";
+        context = BenchmarkApplications.start(errorPages, "OFF", "spring.profiles.active=" + profile);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create(BenchmarkApplications.baseUrl(context) + uri))
+                .header("Accept", "text/html")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long requests;
+        public long failed;
+    }
+
+    @Benchmark
+    public void wave(Counters counters) {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> error == null);
+        }
+        for (CompletableFuture<?> response : responses) {
+            if ((Boolean) response.join()) {
+                counters.requests++;
+            } else {
+                counters.failed++;
+            }
+        }
+    }
+}
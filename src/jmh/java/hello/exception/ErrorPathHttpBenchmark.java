@@ -0,0 +1,80 @@
+package hello.exception;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실제 톰캣 + HTTP 요청으로 오류 처리 흐름 전체를 측정
+ * sendError, 예외 전파 시 WAS의 ERROR 디스패치(필터, 서블릿, 인터셉터, 컨트롤러 재호출)까지 포함됨
+ *
+ * errorPages=boot       : 스프링 부트 기본 ErrorPage(/error, BasicErrorController)
+ * errorPages=redispatch : WebServerCustomizer의 ErrorPage(/error-page/*, ErrorPageController)
+ * errorPages=in-place   : 같은 ErrorPage를 InPlaceErrorPageFilter가 재요청 없이 처리
+ *
+ * logLevel=INFO, asyncLog=true/false : 오류 로그를 build/jmh-error-path.log 파일에 남길 때 AsyncErrorLog 사용 여부 비교
+ *   ex) -p logLevel=INFO -p asyncLog=false,true -bm sample (p99는 sample 모드의 p0.99)
+ *
+ * gc 프로파일러의 할당량에는 같은 JVM의 HttpClient 할당도 포함되므로 SUCCESS 경로와 비교해서 볼 것
+ * 실행: ./gradlew jmh -Pjmh.includes=ErrorPathHttpBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ErrorPathHttpBenchmark {
+
+    @Param({"boot", "redispatch", "in-place"})
+    String errorPages;
+
+    @Param
+    ErrorPath path;
+
+    @Param({"OFF"})
+    String logLevel;
+
+    @Param({"true"})
+    String asyncLog;
+
+    private ServletWebServerApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //로그는 콘솔(JMH 출력) 대신 파일로
+        context = BenchmarkApplications.start(errorPages, logLevel,
+                "exception.log.async.enabled=" + asyncLog,
+                "logging.file.name=build/jmh-error-path.log",
+                "logging.pattern.console=");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create(BenchmarkApplications.baseUrl(context) + path.getUri()))
+                .header("Accept", path.getAccept())
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> request() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
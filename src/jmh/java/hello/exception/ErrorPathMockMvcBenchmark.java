@@ -0,0 +1,66 @@
+package hello.exception;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * DispatcherServlet 안에서의 오류 처리 비용만 측정 (네트워크, WAS 재요청 제외)
+ * ExceptionResolver 체인, 메시지 컨버터, 뷰 렌더링의 처리량과 할당량(gc 프로파일러) 비교용
+ *
+ * MockMvc는 sendError 후 ERROR 디스패치를 하지 않으므로
+ * 재요청 비용은 ErrorPathHttpBenchmark 결과와의 차이로 확인
+ * 실행: ./gradlew jmh -Pjmh.includes=ErrorPathMockMvcBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ErrorPathMockMvcBenchmark {
+
+    @Param
+    ErrorPath path;
+
+    @Param({"OFF"})
+    String logLevel;
+
+    private ServletWebServerApplicationContext context;
+    private MockMvc mockMvc;
+    private RequestBuilder request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplications.start("boot", logLevel);
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        request = get(path.getUri()).header("Accept", path.getAccept());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object dispatch() {
+        try {
+            return mockMvc.perform(request).andReturn();
+        } catch (Exception e) {
+            //처리되지 않은 예외는 DispatcherServlet 밖으로 던져짐 (WAS까지 전파되는 경우)
+            return e;
+        }
+    }
+}
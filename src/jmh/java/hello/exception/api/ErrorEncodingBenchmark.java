@@ -0,0 +1,99 @@
+package hello.exception.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import hello.exception.exhandler.ErrorEncoders;
+import hello.exception.exhandler.ErrorResult;
+import hello.exception.negotiation.ErrorResponseNegotiator.Encoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ErrorResult, MemberDto 응답 인코딩별 크기와 직렬화 / 역직렬화 비용 비교 (JSON, CBOR, Smile)
+ * - encode: 서버 쪽 비용 (ErrorEncoders의 재사용되는 ObjectWriter)
+ * - decode: 내부 서비스 클라이언트 쪽 비용 (ObjectReader 재사용, Map/List로 읽음)
+ * 크기(bytes)는 Trial 시작할 때 한 줄로 출력
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=ErrorEncodingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ErrorEncodingBenchmark {
+
+    public enum Payload {
+        //{"code":"BAD","message":"잘못된 입력 값"}
+        ERROR_RESULT,
+        //{"memberId":"spring","name":"hello spring"}
+        MEMBER,
+        //일괄 조회 응답 100건 (80건 회원, 20건 오류)
+        BATCH
+    }
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    Encoding encoding;
+
+    @Param
+    Payload payload;
+
+    private Object value;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ErrorEncoders encoders = new ErrorEncoders(new ObjectMapper(),
+                new MappingJackson2CborHttpMessageConverter(new ObjectMapper(new CBORFactory())),
+                new MappingJackson2SmileHttpMessageConverter(new ObjectMapper(new SmileFactory())));
+        value = value(payload);
+        writer = encoders.writer(encoding, value.getClass());
+        reader = encoders.mapper(encoding).readerFor(Object.class);
+        encoded = writer.writeValueAsBytes(value);
+        System.out.println("[size] " + encoding + " " + payload + " " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    private static Object value(Payload payload) {
+        switch (payload) {
+            case ERROR_RESULT:
+                return new ErrorResult("BAD", "잘못된 입력 값");
+            case MEMBER:
+                return new ApiExceptionV2Controller.MemberDto("spring", "hello spring");
+            default:
+                List<MemberBatchItem> items = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    items.add(i % 5 == 4
+                            ? MemberBatchItem.error("bad-" + i, 400, new ErrorResult("BAD", "잘못된 입력 값"))
+                            : MemberBatchItem.member("member-" + i, "hello member-" + i));
+                }
+                return items;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package hello.exception.exception;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExceptionFactory 모드별 UserException 생성 + throw/catch 비용 비교
+ * 실제 요청은 필터, DispatcherServlet, 핸들러 어댑터를 거치므로 스택이 깊음
+ * depth 파라미터로 호출 스택 깊이를 흉내내서 fillInStackTrace 비용 차이를 확인
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=FastExceptionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FastExceptionBenchmark {
+
+    @Param({"10", "100"})
+    int depth;
+
+    @Param({"FULL", "STACKLESS", "SHARED"})
+    StackTraceMode mode;
+
+    private ExceptionFactory factory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StackTracePolicy policy = new StackTracePolicy(true, StackTraceMode.FULL,
+                Map.of("UserException", mode, "BadRequestException", mode));
+        factory = new ExceptionFactory(policy, 64);
+    }
+
+    @Benchmark
+    public Object throwUserException() {
+        try {
+            return recurse(depth);
+        } catch (UserException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object throwBadRequestException() {
+        try {
+            return recurseBadRequest(depth);
+        } catch (BadRequestException e) {
+            return e;
+        }
+    }
+
+    private Object recurse(int remaining) {
+        if (remaining == 0) {
+            throw factory.userException("사용자 오류");
+        }
+        return recurse(remaining - 1);
+    }
+
+    private Object recurseBadRequest(int remaining) {
+        if (remaining == 0) {
+            throw factory.badRequest();
+        }
+        return recurseBadRequest(remaining - 1);
+    }
+}
@@ -0,0 +1,68 @@
+package hello.exception.servlet;
+
+import hello.exception.BenchmarkApplications;
+import hello.exception.ErrorPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 오류 1건당 응답 시간: WAS 재요청(redispatch) vs 원래 요청에서 렌더링(in-place)
+ * SampleTime 모드라서 p50/p90/p99 백분위도 함께 출력됨
+ * 두 모드의 차이가 ERROR 디스패치(필터, 인터셉터, 핸들러 매핑 재실행) 비용
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=ErrorPageModeLatencyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ErrorPageModeLatencyBenchmark {
+
+    @Param({"redispatch", "in-place"})
+    String mode;
+
+    @Param({"SERVLET_EXCEPTION", "SERVLET_EXCEPTION_API", "SERVLET_SEND_ERROR_404", "SERVLET_SEND_ERROR_500"})
+    ErrorPath path;
+
+    @Param({"OFF"})
+    String logLevel;
+
+    private ServletWebServerApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplications.start(mode, logLevel);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create(BenchmarkApplications.baseUrl(context) + path.getUri()))
+                .header("Accept", path.getAccept())
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> errorResponse() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -1,13 +1,19 @@
 package hello.exception;
 
+import hello.exception.startup.StartupTimelineWriter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class ExceptionApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(ExceptionApplication.class, args);
+		SpringApplication application = new SpringApplication(ExceptionApplication.class);
+		//--exception.startup.timeline.enabled=true 이면 시작 단계별 시간 기록 (StartupTimelineWriter)
+		application.setApplicationStartup(StartupTimelineWriter.applicationStartup(args));
+		application.run(args);
 	}
 
 }
@@ -1,12 +1,55 @@
 package hello.exception;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.binding.BindingErrorProperties;
+import hello.exception.binding.BindingErrorResolver;
+import hello.exception.exhandler.ErrorEncoders;
+import hello.exception.jfr.ErrorDispatchRecordingInterceptor;
+import hello.exception.jfr.RecordingExceptionResolver;
+import hello.exception.journal.ErrorJournal;
+import hello.exception.journal.ErrorJournalFilter;
+import hello.exception.journal.ErrorJournalProperties;
+import hello.exception.log.AsyncErrorLog;
+import hello.exception.log.ErrorLogDeduplicator;
+import hello.exception.metrics.ErrorMetrics;
+import hello.exception.metrics.ErrorPageMetricsInterceptor;
+import hello.exception.negotiation.ErrorPathNegotiationStrategy;
+import hello.exception.negotiation.ErrorResponseNegotiator;
+import hello.exception.resolver.DispatchTableExceptionResolver;
 import hello.exception.resolver.MyHandlerExceptionResolver;
+import hello.exception.servlet.ErrorContextInterceptor;
+import hello.exception.servlet.ErrorPageController;
+import hello.exception.servlet.InPlaceErrorPageFilter;
+import hello.exception.storm.DegradedResponses;
+import hello.exception.storm.ErrorStormGuard;
+import hello.exception.storm.ErrorStormInterceptor;
+import hello.exception.storm.ErrorStormProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
 import org.springframework.stereotype.Component;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.accept.ContentNegotiationStrategy;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
 import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.stream.Collectors;
 
 /**
  * HandlerExceptionResolver
@@ -16,6 +59,46 @@ import java.util.List;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    //true면 ExceptionResolver 체인을 DispatchTableExceptionResolver 하나로 대체
+    @Value("${exception.resolver.dispatch-table:false}")
+    private boolean dispatchTableEnabled;
+
+    private DispatchTableExceptionResolver dispatchTable;
+
+    //true면 resolver 체인, 오류 페이지 재요청마다 JFR 이벤트(ExceptionResolutionEvent) 기록 (녹화 중일 때만)
+    @Value("${exception.jfr.enabled:true}")
+    private boolean jfrEnabled;
+
+    private final ErrorLogDeduplicator errorLog;
+    private final AsyncErrorLog asyncLog;
+    private final ErrorMetrics errorMetrics;
+    private final ErrorResponseNegotiator negotiator;
+    private final ErrorStormGuard errorStormGuard;
+    private final DegradedResponses degradedResponses;
+    private final ErrorStormProperties errorStormProperties;
+    private final ErrorEncoders errorEncoders;
+    private final ErrorAttributes errorAttributes;
+    private final BindingErrorProperties bindingErrorProperties;
+    private final MessageSource messageSource;
+
+    public WebConfig(ErrorLogDeduplicator errorLog, AsyncErrorLog asyncLog, ErrorMetrics errorMetrics,
+                     ErrorResponseNegotiator negotiator, ErrorStormGuard errorStormGuard,
+                     DegradedResponses degradedResponses, ErrorStormProperties errorStormProperties,
+                     ErrorEncoders errorEncoders, ErrorAttributes errorAttributes,
+                     BindingErrorProperties bindingErrorProperties, MessageSource messageSource) {
+        this.errorLog = errorLog;
+        this.asyncLog = asyncLog;
+        this.errorMetrics = errorMetrics;
+        this.negotiator = negotiator;
+        this.errorStormGuard = errorStormGuard;
+        this.degradedResponses = degradedResponses;
+        this.errorStormProperties = errorStormProperties;
+        this.errorEncoders = errorEncoders;
+        this.errorAttributes = errorAttributes;
+        this.bindingErrorProperties = bindingErrorProperties;
+        this.messageSource = messageSource;
+    }
+
     /* //이 메서드를 사용하면 스프링이 기본으로 등록하는 ExceptionResolver가 제거됨 주의!!
     @Override
     public void configureHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
@@ -23,6 +106,128 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
-        resolvers.add(new MyHandlerExceptionResolver());
+        //바인딩 오류 JSON 응답: @ExceptionHandler(ExceptionHandlerExceptionResolver) 다음, DefaultHandlerExceptionResolver 앞
+        resolvers.add(defaultHandlerIndex(resolvers),
+                new BindingErrorResolver(bindingErrorProperties, messageSource, negotiator, errorMetrics));
+        resolvers.add(new MyHandlerExceptionResolver(errorLog, asyncLog, errorMetrics, negotiator, errorEncoders));
+
+        if (dispatchTableEnabled) {
+            //기본 resolver + MyHandlerExceptionResolver를 그대로 위임 대상으로 사용
+            dispatchTable = new DispatchTableExceptionResolver(resolvers);
+            resolvers.clear();
+            resolvers.add(dispatchTable);
+        }
+
+        if (jfrEnabled) {
+            //위에서 만든 목록(또는 디스패치 테이블)을 그대로 감싸서 처리한 resolver를 기록
+            RecordingExceptionResolver recording = new RecordingExceptionResolver(resolvers);
+            resolvers.clear();
+            resolvers.add(recording);
+        }
+    }
+
+    private static int defaultHandlerIndex(List<HandlerExceptionResolver> resolvers) {
+        for (int i = 0; i < resolvers.size(); i++) {
+            if (resolvers.get(i) instanceof DefaultHandlerExceptionResolver) {
+                return i;
+            }
+        }
+        return resolvers.size();
+    }
+
+    /**
+     * 오류 재요청(/error, /error-page/**)에서는 Accept 파싱 결과를 캐시하는 ErrorResponseNegotiator 사용
+     * ErrorPageController, BasicErrorController의 produces 매핑도 오류 경로와 같은 파싱 결과로 선택됨
+     * 스프링 부트가 만든 ContentNegotiationManager의 HeaderContentNegotiationStrategy 자리만 바꾸므로
+     * 나머지 전략(spring.mvc.contentnegotiation.favor-parameter 등)과 일반 요청의 협상은 그대로
+     * (BeanPostProcessor이므로 static으로 등록, negotiator는 ContentNegotiationManager를 만들 때 조회)
+     */
+    @Bean
+    public static BeanPostProcessor errorPathContentNegotiation(ObjectProvider<ErrorResponseNegotiator> negotiator) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ContentNegotiationManager) {
+                    ListIterator<ContentNegotiationStrategy> strategies =
+                            ((ContentNegotiationManager) bean).getStrategies().listIterator();
+                    while (strategies.hasNext()) {
+                        ContentNegotiationStrategy strategy = strategies.next();
+                        if (strategy instanceof HeaderContentNegotiationStrategy) {
+                            strategies.set(new ErrorPathNegotiationStrategy(negotiator.getObject(), strategy));
+                        }
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    //ErrorPageController 처리 시간(뷰 렌더링 포함) 기록, 오류 페이지 재요청 JFR 이벤트
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        //exception.storm.enabled=true: 저하 모드 거절이 다른 인터셉터보다 먼저 일어나도록 가장 먼저 등록
+        if (errorStormProperties.isEnabled()) {
+            registry.addInterceptor(new ErrorStormInterceptor(errorStormGuard, degradedResponses,
+                    errorStormProperties.isShed()));
+        }
+        //afterCompletion은 등록 역순이므로 ErrorContext는 메트릭 기록이 끝난 뒤에 풀로 돌아감
+        registry.addInterceptor(new ErrorContextInterceptor())
+                .addPathPatterns("/error-page/**");
+        registry.addInterceptor(new ErrorPageMetricsInterceptor(errorMetrics))
+                .addPathPatterns("/error-page/**");
+        if (jfrEnabled) {
+            registry.addInterceptor(new ErrorDispatchRecordingInterceptor(errorAttributes))
+                    .addPathPatterns("/error-page/**", "/error");
+        }
+    }
+
+    //모든 컨트롤러, 어드바이스 등록이 끝난 뒤 디스패치 테이블 계산
+    @EventListener(ContextRefreshedEvent.class)
+    public void precompileDispatchTable(ContextRefreshedEvent event) {
+        if (dispatchTable != null) {
+            dispatchTable.precompile(event.getApplicationContext());
+        }
+    }
+
+    /**
+     * exception.error-page.mode=in-place
+     * WebServerCustomizer의 ErrorPage 목록을 WAS 대신 필터가 원래 요청 안에서 처리
+     * 다른 필터에서 발생한 예외도 WAS처럼 처리하기 위해 바깥쪽에 등록 (ErrorJournalFilter 다음)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "exception.error-page.mode", havingValue = "in-place")
+    public FilterRegistrationBean<InPlaceErrorPageFilter> inPlaceErrorPageFilter(
+            ErrorPageController errorPageController,
+            ObjectProvider<ViewResolver> viewResolvers,
+            ObjectMapper objectMapper,
+            ErrorMetrics errorMetrics) {
+        FilterRegistrationBean<InPlaceErrorPageFilter> registration = new FilterRegistrationBean<>(
+                new InPlaceErrorPageFilter(WebServerCustomizer.errorPages(), errorPageController,
+                        viewResolvers.orderedStream().collect(Collectors.toList()), objectMapper, errorMetrics, negotiator));
+        //ErrorJournalFilter 바로 안쪽
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * exception.journal.enabled=true (기본 false)
+     * 오류 응답마다 메모리 매핑한 바이너리 저널에 이벤트 기록 (분석: ErrorJournalReader)
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "exception.journal.enabled", havingValue = "true")
+    public ErrorJournal errorJournal(ErrorJournalProperties properties) throws IOException {
+        return new ErrorJournal(properties.getDirectory(), properties.getSegmentSize().toBytes(),
+                properties.getMaxSegments());
+    }
+
+    //InPlaceErrorPageFilter가 렌더링한 최종 상태 코드를 보도록 가장 바깥쪽에 등록
+    @Bean
+    @ConditionalOnProperty(name = "exception.journal.enabled", havingValue = "true")
+    public FilterRegistrationBean<ErrorJournalFilter> errorJournalFilter(ErrorJournal errorJournal,
+                                                                         ErrorAttributes errorAttributes) {
+        FilterRegistrationBean<ErrorJournalFilter> registration = new FilterRegistrationBean<>(
+                new ErrorJournalFilter(errorJournal, errorAttributes, errorLog));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
     }
 }
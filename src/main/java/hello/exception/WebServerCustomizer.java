@@ -1,5 +1,11 @@
 package hello.exception;
 
+import hello.exception.server.ServerExecutorProperties;
+import hello.exception.server.TomcatExecutorCustomizer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.ConfigurableTomcatWebServerFactory;
 import org.springframework.boot.web.server.ConfigurableWebServerFactory;
 import org.springframework.boot.web.server.ErrorPage;
 import org.springframework.boot.web.server.WebServerFactoryCustomizer;
@@ -14,14 +20,53 @@ import org.springframework.stereotype.Component;
  * [예외 발생과 오류 페이지 요청 흐름]
  * 예외가 발생해서 WAS까지 전파되면 WAS는 오류 페이지(ErrorPage) 경로를 찾아 내부에서 오류 페이지를 호출
  * 이때 오류 페이지 경로로 필터, 서블릿, 인터셉터, 컨트롤러가 모두 다시 호출됨
+ *
+ * [exception.error-page.mode]
+ * boot(기본)  : ErrorPage를 등록하지 않음. 스프링 부트 BasicErrorController(/error) 사용
+ * redispatch : ErrorPage를 등록해서 WAS가 /error-page/* 로 재요청
+ * in-place   : WAS에 등록하지 않고 InPlaceErrorPageFilter가 같은 ErrorPage 목록으로 원래 요청 안에서 바로 렌더링
+ *
+ * [exception.server.executor.mode] 오류 페이지 모드와 관계없이 적용
+ * 톰캣 커넥터가 요청(오류 페이지 재요청 포함)을 처리할 실행기 선택 (TomcatExecutorCustomizer)
+ * default(기본) : 톰캣 기본 스레드 풀, platform: 큐 크기를 제한한 스레드 풀, virtual: 요청마다 가상 스레드
  */
-//@Component //API 예외 처리에서 스프링 부트 제공 BasicErrorController를 사용하기 위해 주석
-public class WebServerCustomizer implements WebServerFactoryCustomizer<ConfigurableWebServerFactory> {
+@Component
+public class WebServerCustomizer implements WebServerFactoryCustomizer<ConfigurableWebServerFactory>, DisposableBean {
+
+    //ErrorPage는 redispatch일 때만 등록 (실행기 설정 때문에 빈은 항상 등록)
+    private final boolean redispatch;
+    private final TomcatExecutorCustomizer executorCustomizer;
+
+    public WebServerCustomizer(@Value("${exception.error-page.mode:boot}") String errorPageMode,
+                               ServerExecutorProperties executorProperties, ServerProperties serverProperties) {
+        this.redispatch = "redispatch".equals(errorPageMode);
+        this.executorCustomizer = new TomcatExecutorCustomizer(executorProperties, serverProperties.getTomcat());
+    }
+
     /**
      * 앞서 ServletExController 에서 설정한 예외들로 오류 페이지 처리 예시를 작성했음
      */
     @Override
     public void customize(ConfigurableWebServerFactory factory) {
+        //에러 페이지 등록
+        if (redispatch) {
+            factory.addErrorPages(errorPages());
+        }
+        if (factory instanceof ConfigurableTomcatWebServerFactory) {
+            ((ConfigurableTomcatWebServerFactory) factory).addConnectorCustomizers(executorCustomizer);
+        }
+    }
+
+    //톰캣은 외부에서 지정한 실행기를 종료하지 않음 (웹 서버가 멈춘 뒤에 호출됨)
+    @Override
+    public void destroy() {
+        executorCustomizer.shutdown();
+    }
+
+    /**
+     * in-place 모드에서도 같은 목록을 사용하도록 분리
+     */
+    public static ErrorPage[] errorPages() {
         //response.sendError(404): errorPage404 호출
         ErrorPage errorPage404 = new ErrorPage(HttpStatus.NOT_FOUND,"/error-page/404");
         //response.sendError(500): errorPage500 호출
@@ -29,7 +74,6 @@ public class WebServerCustomizer implements WebServerFactoryCustomizer<Configura
         //RuntimeException 또는 그 자식 타입의 예외: errorException 호출
         //500 예외가 서버 내부 발생 오류라는 뜻을 포함하고 있기 때문에 500 에러 페이지로 처리함
         ErrorPage errorException = new ErrorPage(RuntimeException.class,"/error-page/500");
-        //에러 페이지 등록
-        factory.addErrorPages(errorPage404,errorPage500,errorException);
+        return new ErrorPage[]{errorPage404, errorPage500, errorException};
     }
 }
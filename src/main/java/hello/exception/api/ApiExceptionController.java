@@ -1,48 +1,69 @@
 package hello.exception.api;
 
-import hello.exception.exception.BadRequestException;
-import hello.exception.exception.UserException;
+import hello.exception.exception.ExceptionFactory;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
 /**
  * 단순히 회원을 조회하는 기능을 가진 예외 발생 RestController.
- * 예외 테스트를 위해 URL에 전달된 id의 값이 ex이면 예외가 발생하도록 코드를 심어둠
+ * 예외 테스트를 위해 URL에 전달된 id의 값이 ex이면 예외가 발생하도록 코드를 심어둠 (MemberLookup)
  */
 @Slf4j
 @RestController
+@RequiredArgsConstructor
 public class ApiExceptionController {
-    @GetMapping("/api/members/{id}")
-    public MemberDto getMember(@PathVariable("id") String id) {
-        if (id.equals("ex")) {
-            throw new RuntimeException("잘못된 사용자");
-        }
 
-        //HandlerExceptionResolver 강의에서 사용할 오류 값
-        //PostMan 실행 시 500 에러 처리됨
-        //기대하는 것: WAS까지 예외가 넘어가더라도 500 에러 코드(default)가 아닌
-                    //예외에 따라 다른 상태코드로 처리
-        if(id.equals("bad")){
-            throw new IllegalArgumentException("잘못된 입력 값");
-        }
+    //exception.fast.* 설정에 따라 스택 트레이스 없는 예외를 만들어줌
+    private final ExceptionFactory exceptionFactory;
+    private final MemberLookup memberLookup;
 
-        //HandlerExceptionResolver 강의에서 사용할 예외 발생 값
-        //기대하는 것: WAS까지 예외가 넘어가서 처리되지 않고,
-                    //ExceptionResolver에서 예외처리가 끝나는 것.
-        if(id.equals("user-ex")){
-            throw new UserException("사용자 오류");
-        }
+    @GetMapping("/api/members/{id}")
+    public MemberDto getMember(@PathVariable("id") String id) {
+        //id가 ex, bad, user-ex 이면 MemberLookup에서 예외 발생 (exception.fault.ids)
+        return new MemberDto(id, memberLookup.findName(MemberLookup.MEMBERS, id));
+    }
 
-        return new MemberDto(id, "hello " + id);
+    /**
+     * [회원 등록] POST /api/members, 바디: {"memberId": "a", "name": "kim", "age": 20}
+     * 검증 오류(MethodArgumentNotValidException)는 exception.binding.enabled=true면 BindingErrorResolver가 400 + 필드 오류 목록으로 응답
+     * (기본은 DefaultHandlerExceptionResolver -> sendError(400) -> BasicErrorController)
+     * (/api2는 ExControllerAdvice의 Exception 핸들러가 먼저 처리하므로 @ExceptionHandler가 없는 이 컨트롤러에 둠)
+     */
+    @PostMapping("/api/members")
+    public MemberDto addMember(@Valid @RequestBody MemberForm form) {
+        return new MemberDto(form.getMemberId(), form.getName());
     }
 
+    @Data
+    static class MemberForm {
+        @NotBlank
+        private String memberId;
+        @NotBlank
+        //검증 대상 값을 쓰는 메시지 -> 요청마다 다르므로 캐시하지 않음 (BindingErrorResolver, CachingMessageInterpolator)
+        @Size(max = 20, message = "{max}자 이하로 입력해주세요. (입력: ${validatedValue})")
+        private String name;
+        @NotNull
+        @Min(0)
+        @Max(150)
+        private Integer age;
+    }
 
     @Data
     @AllArgsConstructor //Lombok 애노테이션, 클래스의 모든 필드를 인자로 받는 생성자 자동 생성
@@ -58,7 +79,7 @@ public class ApiExceptionController {
     //WAS까지 넘어갔기 떄문에 BasicErrorController에서 제공하는 json과 /error페이지 반환
     @GetMapping("/api/response-status-ex1")
     public String responseStatusEx1(){
-        throw new BadRequestException();
+        throw exceptionFactory.badRequest();
     }
 
     //스프링 부트 제공 ExceptionResolver 강의에서 사용할 예외 발생 값
@@ -1,36 +1,69 @@
 package hello.exception.api;
 
-import hello.exception.exception.UserException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import hello.exception.exhandler.ErrorResult;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.List;
 
 @Slf4j
 @RestController
+@RequiredArgsConstructor
 public class ApiExceptionV2Controller {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final MemberLookup memberLookup;
+    private final MemberBatchLookup memberBatchLookup;
+    private final ObjectMapper objectMapper;
+
     /**
      * 예외를 발생 시킬 매핑
      * 위에 지정한 @ExceptionHandler 는 이 콘트롤러에서 발생한 오류에만 사용 가능
      */
     @GetMapping("/api2/members/{id}")
     public MemberDto getMember(@PathVariable("id") String id) {
-        if (id.equals("ex")) {
-            throw new RuntimeException("잘못된 사용자");
-        }
-        if (id.equals("bad")) {
-            throw new IllegalArgumentException("잘못된 입력 값");
-        }
-        if (id.equals("user-ex")) {
-            throw new UserException("사용자 오류");
-        }
-        return new MemberDto(id, "hello " + id);
+        return new MemberDto(id, memberLookup.findName(MemberLookup.MEMBERS_V2, id));
+    }
+
+    /**
+     * [회원 일괄 조회] POST /api2/members/batch, 바디: ["a", "bad", "user-ex"]
+     * id마다 회원 또는 ErrorResult를 담은 항목을 id 순서대로 반환 (일부 id가 실패해도 200)
+     * 항목별 오류는 이 컨트롤러의 @ExceptionHandler(ExControllerAdvice)와 같은 code, message, 상태 코드를 사용
+     */
+    @PostMapping("/api2/members/batch")
+    public List<MemberBatchItem> getMembers(@RequestBody List<String> ids) {
+        return memberBatchLookup.findAll(ids);
+    }
+
+    /**
+     * Accept: application/x-ndjson 이면 항목을 한 줄에 하나씩(NDJSON) 조회가 끝나는 순서대로 바로 씀
+     * (id 순서가 아니므로 항목의 id로 구분, 느린 id가 앞의 결과를 붙잡지 않음)
+     * 큰 배치도 전체 결과를 메모리에 모으지 않음
+     */
+    @PostMapping(value = "/api2/members/batch", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> getMembersStream(@RequestBody List<String> ids) {
+        Iterator<MemberBatchItem> items = memberBatchLookup.inCompletionOrder(ids);
+        //StreamingResponseBody는 produces의 Content-Type을 직접 설정하지 않음
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(out -> {
+            while (items.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(items.next()));
+                out.write('\n');
+                out.flush();
+            }
+        });
     }
+
     @Data
     @AllArgsConstructor
     static class MemberDto {
@@ -0,0 +1,35 @@
+package hello.exception.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import hello.exception.exhandler.ErrorResult;
+import lombok.Getter;
+
+/**
+ * 일괄 조회 결과 항목 하나
+ * 성공: {"id": "a", "status": 200, "member": {...}}
+ * 실패: {"id": "bad", "status": 400, "error": {"code": "BAD", "message": "잘못된 입력 값"}}
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MemberBatchItem {
+
+    private final String id;
+    private final int status;
+    private final ApiExceptionV2Controller.MemberDto member;
+    private final ErrorResult error;
+
+    private MemberBatchItem(String id, int status, ApiExceptionV2Controller.MemberDto member, ErrorResult error) {
+        this.id = id;
+        this.status = status;
+        this.member = member;
+        this.error = error;
+    }
+
+    static MemberBatchItem member(String id, String name) {
+        return new MemberBatchItem(id, 200, new ApiExceptionV2Controller.MemberDto(id, name), null);
+    }
+
+    static MemberBatchItem error(String id, int status, ErrorResult error) {
+        return new MemberBatchItem(id, status, null, error);
+    }
+}
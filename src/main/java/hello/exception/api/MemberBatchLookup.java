@@ -0,0 +1,174 @@
+package hello.exception.api;
+
+import hello.exception.exhandler.ErrorResultMapping;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * [회원 일괄 조회]
+ * id마다 MemberLookup을 전용 스레드 풀에서 병렬로 실행하고,
+ * 실패한 id는 예외를 ExControllerAdvice와 같은 기준(ErrorResultMapping)으로 항목별 ErrorResult로 바꿈
+ * -> id 하나가 실패해도 전체 요청은 200
+ *
+ * - 풀 크기는 exception.member-batch.parallelism (0이면 CPU 코어 수), 공용 ForkJoinPool과 분리해서 사용
+ *   대기열 크기는 exception.member-batch.queue-capacity, 가득 차거나 종료 중이면 요청한 스레드가 직접 조회
+ *   (CallerRunsPolicy와 같지만 종료 중에도 버리지 않음 -> 결과를 기다리는 요청이 멈추지 않음)
+ * - 한 요청이 동시에 실행하는 조회는 exception.member-batch.in-flight개 (0이면 parallelism)
+ *   하나가 끝나야 다음 id를 넣으므로 큰 배치도 id 수만큼 작업을 한꺼번에 만들지 않음
+ * - 한 번에 받는 id 개수는 exception.member-batch.max-ids로 제한, 넘으면 IllegalArgumentException(400 BAD)
+ */
+@Slf4j
+@Component
+public class MemberBatchLookup {
+
+    private final MemberLookup memberLookup;
+    private final ErrorResultMapping errorResultMapping;
+    private final int maxIds;
+    private final int inFlight;
+    private final ThreadPoolExecutor executor;
+
+    public MemberBatchLookup(MemberLookup memberLookup, ErrorResultMapping errorResultMapping,
+                             @Value("${exception.member-batch.parallelism:0}") int parallelism,
+                             @Value("${exception.member-batch.max-ids:1000}") int maxIds,
+                             @Value("${exception.member-batch.in-flight:0}") int inFlight,
+                             @Value("${exception.member-batch.queue-capacity:1000}") int queueCapacity) {
+        this.memberLookup = memberLookup;
+        this.errorResultMapping = errorResultMapping;
+        this.maxIds = maxIds;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.inFlight = inFlight > 0 ? inFlight : threads;
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "member-batch-" + index.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, pool) -> runnable.run());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 조회가 끝나는 순서대로 결과 항목을 돌려주는 Iterator (NDJSON 스트리밍)
+     * 처음 in-flight개를 바로 시작하고, next()로 하나를 꺼낼 때마다 다음 id를 시작함
+     * 항목은 예외로 끝나지 않음 (조회 실패는 오류 항목)
+     */
+    public Iterator<MemberBatchItem> inCompletionOrder(List<String> ids) {
+        Batch batch = new Batch(ids);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return batch.hasNext();
+            }
+
+            @Override
+            public MemberBatchItem next() {
+                return batch.next().item;
+            }
+        };
+    }
+
+    /**
+     * id 순서대로 결과 항목
+     */
+    public List<MemberBatchItem> findAll(List<String> ids) {
+        Batch batch = new Batch(ids);
+        MemberBatchItem[] items = new MemberBatchItem[ids.size()];
+        while (batch.hasNext()) {
+            Completed completed = batch.next();
+            items[completed.index] = completed.item;
+        }
+        return Arrays.asList(items);
+    }
+
+    private MemberBatchItem lookup(String id) {
+        try {
+            if (id == null) {
+                throw new IllegalArgumentException("잘못된 입력 값");
+            }
+            return MemberBatchItem.member(id, memberLookup.findName(MemberLookup.MEMBERS_BATCH, id));
+        } catch (RuntimeException e) {
+            log.debug("[batch] id={} ex", id, e);
+            return MemberBatchItem.error(id, errorResultMapping.statusOf(e).value(),
+                    errorResultMapping.errorResultOf(e).getResult());
+        }
+    }
+
+    //대기열에 남은 조회는 끝까지 실행 (결과를 기다리는 요청이 있음)
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * 요청 하나의 조회 진행 상태, 요청 스레드 하나만 사용함 (completed 대기열만 풀 스레드와 공유)
+     */
+    private final class Batch {
+
+        private final List<String> ids;
+        private final BlockingQueue<Completed> completed = new LinkedBlockingQueue<>();
+        private int submitted;
+        private int taken;
+
+        private Batch(List<String> ids) {
+            if (ids.size() > maxIds) {
+                throw new IllegalArgumentException("한 번에 조회할 수 있는 id는 최대 " + maxIds + "개");
+            }
+            this.ids = ids;
+            while (submitted < ids.size() && submitted < inFlight) {
+                submitNext();
+            }
+        }
+
+        private boolean hasNext() {
+            return taken < ids.size();
+        }
+
+        private Completed next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Completed next;
+            try {
+                next = completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("batch lookup interrupted", e);
+            }
+            taken++;
+            if (submitted < ids.size()) {
+                submitNext();
+            }
+            return next;
+        }
+
+        private void submitNext() {
+            int index = submitted++;
+            String id = ids.get(index);
+            executor.execute(() -> completed.add(new Completed(index, lookup(id))));
+        }
+    }
+
+    private static final class Completed {
+
+        private final int index;
+        private final MemberBatchItem item;
+
+        private Completed(int index, MemberBatchItem item) {
+            this.index = index;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package hello.exception.api;
+
+import hello.exception.cache.NegativeLookupCache;
+import hello.exception.fault.FaultInjector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * ApiExceptionController, ApiExceptionV2Controller가 함께 사용하는 회원 조회
+ * 예외 테스트를 위해 FaultInjector로 예외와 지연을 주입함
+ * - exception.fault.ids: id의 값이 ex, bad, user-ex 이면 항상 예외 (설정으로 추가, 변경 가능)
+ * - exception.fault.endpoints: 호출한 엔드포인트(members, members-v2, members-batch)별 확률로 예외, 지연
+ *
+ * 한 번 실패한 id는 NegativeLookupCache가 기억하고 있다가
+ * 다음 요청에는 조회 없이 기억한 (같은 타입, 같은 메시지의 스택 트레이스 없는) 예외를 다시 던짐
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberLookup {
+
+    public static final String MEMBERS = "members";
+    public static final String MEMBERS_V2 = "members-v2";
+    public static final String MEMBERS_BATCH = "members-batch";
+
+    private final FaultInjector faultInjector;
+    private final NegativeLookupCache negativeLookupCache;
+
+    /**
+     * @param endpoint 오류 주입 설정을 찾을 엔드포인트 이름
+     * @return 회원 이름
+     */
+    public String findName(String endpoint, String id) {
+        //확률로 주입한 예외는 id와 무관하므로 NegativeLookupCache에 기억하지 않음
+        faultInjector.inject(endpoint);
+        NegativeLookupCache.Failure failure = negativeLookupCache.get(id);
+        if (failure != null) {
+            throw failure.getException();
+        }
+        try {
+            return lookup(id);
+        } catch (RuntimeException e) {
+            negativeLookupCache.put(id, e);
+            throw e;
+        }
+    }
+
+    //실무에서는 저장소를 조회한 뒤에 실패하는 부분
+    private String lookup(String id) {
+        //ex: RuntimeException -> 500
+        //bad: IllegalArgumentException, HandlerExceptionResolver 강의에서 사용할 오류 값
+        //     기대하는 것: WAS까지 예외가 넘어가더라도 500 에러 코드(default)가 아닌 예외에 따라 다른 상태코드로 처리
+        //user-ex: UserException, HandlerExceptionResolver 강의에서 사용할 예외 발생 값
+        //     기대하는 것: WAS까지 예외가 넘어가서 처리되지 않고, ExceptionResolver에서 예외처리가 끝나는 것.
+        faultInjector.injectById(id);
+
+        return "hello " + id;
+    }
+}
@@ -0,0 +1,32 @@
+package hello.exception.binding;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 바인딩, 타입 변환, 검증 오류 응답 설정
+ * ex) exception.binding.enabled=true
+ *     exception.binding.max-errors=32
+ *
+ * enabled=false(기본) 이면 기존처럼 DefaultHandlerExceptionResolver -> sendError(400) -> WAS 오류 페이지로 처리
+ * enabled=true는 JSON 바인딩 오류 응답 바디가 BasicErrorController 형식({"timestamp", "status", "error", "path"})에서
+ * {"code":"BIND", "message", "errors"} 형식으로 바뀌므로 기존 API 클라이언트를 확인한 뒤 켬
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.binding")
+public class BindingErrorProperties {
+
+    private boolean enabled = false;
+
+    //응답에 담는 필드 오류 최대 개수 (넘으면 "truncated": true)
+    private int maxErrors = 32;
+
+    //응답에 담는 거부된 값(rejected)의 최대 길이(문자 수)
+    private int maxRejectedLength = 64;
+
+    //(대상 타입, 필드, 오류 코드, 로케일) -> 미리 인코딩한 필드 오류 JSON 조각 캐시 최대 개수
+    //검증 메시지 캐시(CachingMessageInterpolator)도 같은 값 사용
+    private int cacheMaxEntries = 1024;
+}
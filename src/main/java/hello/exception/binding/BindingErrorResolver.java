@@ -0,0 +1,369 @@
+package hello.exception.binding;
+
+import hello.exception.metrics.ErrorMetrics;
+import hello.exception.negotiation.ErrorResponseNegotiator;
+import hello.exception.resolver.ExceptionTypeDeclaring;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.validator.internal.engine.ConstraintViolationImpl;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.ObjectUtils;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * [바인딩, 타입 변환, 검증 오류 응답]
+ * /api/default-handler-ex?data=hello 처럼 요청 값을 바인딩할 수 없으면 기존에는
+ * TypeMismatchException -> DefaultHandlerExceptionResolver -> sendError(400)
+ * -> WAS 오류 페이지 재요청(/error) -> BasicErrorController 순서로 처리됨
+ *
+ * JSON 요청이면 DefaultHandlerExceptionResolver 대신 이 resolver가 처리해서 400 + 필드 오류 목록을 바로 응답함 (오류 페이지 재요청 없음)
+ * {"code":"BIND","message":"요청 값이 올바르지 않습니다.","errors":[{"field":"data","code":"typeMismatch","message":"...","rejected":"hello"}]}
+ *
+ * - 처리 대상: @RequestParam, @PathVariable 타입 변환 실패, 필수 파라미터 누락, @ModelAttribute 바인딩 오류,
+ *   @Valid @RequestBody 검증 오류, @Validated 메서드 검증 오류, 읽을 수 없는 요청 바디
+ * - (대상 타입, 필드, 오류 코드, 로케일)마다 {"field":..,"code":..,"message":.. 부분을 UTF-8 JSON 조각으로 한 번만 만들고 재사용
+ *   -> 요청마다 남는 작업은 거부된 값(rejected) 인코딩뿐
+ *   인자에 따라 메시지가 바뀔 수 있는 오류(직접 rejectValue 한 오류 등)는 캐시하지 않음
+ *   검증 오류도 CachingMessageInterpolator와 같은 기준으로 값에 따라 바뀌는 메시지(${...}, 위반마다 추가한 파라미터)는 캐시하지 않음
+ * - 응답 바디는 스레드마다 재사용하는 버퍼(JsonBuffer)에 만들고 Content-Length와 함께 한 번에 씀
+ * - HTML 요청은 처리하지 않음 (기존처럼 오류 페이지)
+ *
+ * WebConfig가 스프링 MVC 기본 resolver 체인의 DefaultHandlerExceptionResolver 앞에 추가함
+ * -> @ExceptionHandler, @ControllerAdvice(ExceptionHandlerExceptionResolver)가 같은 예외를 처리하면 그쪽이 우선
+ *    (빈으로 등록하면 DispatcherServlet이 체인 밖에서 따로 호출하므로 빈으로 등록하지 않음)
+ */
+@Slf4j
+public class BindingErrorResolver implements HandlerExceptionResolver, ExceptionTypeDeclaring {
+
+    private static final String CODE = "BIND";
+    private static final String MESSAGE_CODE = "error.binding";
+    private static final String DEFAULT_MESSAGE = "요청 값이 올바르지 않습니다.";
+    private static final byte[] ERRORS_END = "]}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUNCATED_END = "],\"truncated\":true}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REJECTED = ",\"rejected\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FIELD = "{\"field\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CODE_FIRST = "{\"code\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CODE_NEXT = ",\"code\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MESSAGE = ",\"message\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERRORS = ",\"errors\":[".getBytes(StandardCharsets.US_ASCII);
+
+    private final boolean enabled;
+    private final int maxErrors;
+    private final int maxRejectedLength;
+    private final int cacheMaxEntries;
+    private final MessageSource messageSource;
+    private final ErrorResponseNegotiator negotiator;
+    private final ErrorMetrics.Handler metrics;
+    //로케일 -> {"code":"BIND","message":"...","errors":[
+    private final ConcurrentMap<Locale, byte[]> prefixes = new ConcurrentHashMap<>();
+    //(대상, 필드, 오류 코드, 로케일) -> {"field":"..","code":"..","message":".."
+    private final ConcurrentMap<Key, byte[]> fragments = new ConcurrentHashMap<>();
+
+    public BindingErrorResolver(BindingErrorProperties properties, MessageSource messageSource,
+                                ErrorResponseNegotiator negotiator, ErrorMetrics errorMetrics) {
+        this.enabled = properties.isEnabled();
+        this.maxErrors = properties.getMaxErrors();
+        this.maxRejectedLength = properties.getMaxRejectedLength();
+        this.cacheMaxEntries = properties.getCacheMaxEntries();
+        this.messageSource = messageSource;
+        this.negotiator = negotiator;
+        this.metrics = errorMetrics.handler("BindingErrorResolver");
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Exception ex) {
+        if (!enabled || !isBindingError(ex) || response.isCommitted()
+                || negotiator.negotiate(request) != ErrorResponseNegotiator.Representation.JSON) {
+            return null;
+        }
+        long start = System.nanoTime();
+        //DispatcherServlet이 요청마다 LocaleResolver 결과를 설정해 둠
+        Locale locale = LocaleContextHolder.getLocale();
+        JsonBuffer body = JsonBuffer.get();
+        body.raw(prefix(locale));
+        boolean complete = encodeErrors(body, handler, ex, locale);
+        body.raw(complete ? ERRORS_END : TRUNCATED_END);
+        try {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(body.length());
+            ServletOutputStream out = response.getOutputStream();
+            out.write(body.bytes(), 0, body.length());
+            out.flush();
+        } catch (IOException e) {
+            log.warn("[binding] response write failed: {}", e.toString());
+            return null;
+        }
+        metrics.record(ex.getClass(), start, body.length());
+        return new ModelAndView();
+    }
+
+    //isBindingError()와 같은 타입 (HTML 요청이면 null을 반환하므로 다음 resolver로 넘어감)
+    @Override
+    public boolean canResolve(Class<?> handlerType, Class<? extends Exception> exceptionType) {
+        return enabled && (TypeMismatchException.class.isAssignableFrom(exceptionType)
+                || BindingResult.class.isAssignableFrom(exceptionType)
+                || MissingServletRequestParameterException.class.isAssignableFrom(exceptionType)
+                || ConstraintViolationException.class.isAssignableFrom(exceptionType)
+                || HttpMessageNotReadableException.class.isAssignableFrom(exceptionType));
+    }
+
+    static boolean isBindingError(Exception ex) {
+        //MethodArgumentNotValidException은 BindException의 자식, MethodArgumentTypeMismatchException은 TypeMismatchException의 자식
+        return ex instanceof TypeMismatchException
+                || ex instanceof BindingResult
+                || ex instanceof MissingServletRequestParameterException
+                || ex instanceof ConstraintViolationException
+                || ex instanceof HttpMessageNotReadableException;
+    }
+
+    /**
+     * @return false면 max-errors에서 잘림
+     */
+    private boolean encodeErrors(JsonBuffer body, Object handler, Exception ex, Locale locale) {
+        if (ex instanceof BindingResult) {
+            return encode(body, (BindingResult) ex, locale);
+        }
+        if (ex instanceof ConstraintViolationException) {
+            return encode(body, ((ConstraintViolationException) ex).getConstraintViolations(), locale);
+        }
+        //@RequestParam, @PathVariable 오류는 핸들러 메서드 파라미터 단위 (같은 이름이라도 메서드마다 타입이 다를 수 있음)
+        Object scope = handler instanceof HandlerMethod ? ((HandlerMethod) handler).getMethod() : handler;
+        if (ex instanceof TypeMismatchException) {
+            TypeMismatchException mismatch = (TypeMismatchException) ex;
+            String field = mismatch instanceof MethodArgumentTypeMismatchException
+                    ? ((MethodArgumentTypeMismatchException) mismatch).getName() : mismatch.getPropertyName();
+            Class<?> requiredType = mismatch.getRequiredType();
+            String[] codes = field == null
+                    ? new String[]{"typeMismatch"}
+                    : requiredType == null
+                    ? new String[]{"typeMismatch." + field, "typeMismatch"}
+                    : new String[]{"typeMismatch." + field, "typeMismatch." + requiredType.getName(), "typeMismatch"};
+            body.raw(fragment(scope, field, codes, new Object[]{field}, locale));
+            rejected(body, mismatch.getValue());
+            return true;
+        }
+        if (ex instanceof MissingServletRequestParameterException) {
+            String field = ((MissingServletRequestParameterException) ex).getParameterName();
+            body.raw(fragment(scope, field, new String[]{"required." + field, "required"}, new Object[]{field}, locale));
+            body.raw('}');
+            return true;
+        }
+        //HttpMessageNotReadableException: 바디 JSON 형식 오류, 필드 정보 없음 (예외 메시지는 내부 정보가 섞여 있어 응답하지 않음)
+        body.raw(fragment(scope, null, new String[]{"messageNotReadable"}, null, locale));
+        body.raw('}');
+        return true;
+    }
+
+    private boolean encode(JsonBuffer body, BindingResult result, Locale locale) {
+        Object target = result.getTarget();
+        Object scope = target != null ? target.getClass() : result.getObjectName();
+        int count = 0;
+        for (ObjectError error : result.getAllErrors()) {
+            if (count == maxErrors) {
+                return false;
+            }
+            if (count++ > 0) {
+                body.raw(',');
+            }
+            FieldError fieldError = error instanceof FieldError ? (FieldError) error : null;
+            String field = fieldError != null ? fieldError.getField() : null;
+            //검증 애노테이션, 바인딩 실패 오류는 메시지가 (대상, 필드, 코드)로 정해짐 (검증 대상 값을 쓰는 메시지는 제외)
+            boolean cacheable = error.contains(ConstraintViolation.class)
+                    ? !isDynamic(error.unwrap(ConstraintViolation.class))
+                    : fieldError != null && fieldError.isBindingFailure();
+            body.raw(cacheable ? fragment(scope, field, error, locale) : encodeFragment(field, error, locale));
+            if (fieldError != null) {
+                rejected(body, fieldError.getRejectedValue());
+            } else {
+                body.raw('}');
+            }
+        }
+        return true;
+    }
+
+    private boolean encode(JsonBuffer body, Iterable<ConstraintViolation<?>> violations, Locale locale) {
+        int count = 0;
+        for (ConstraintViolation<?> violation : violations) {
+            if (count == maxErrors) {
+                return false;
+            }
+            if (count++ > 0) {
+                body.raw(',');
+            }
+            String field = violation.getPropertyPath().toString();
+            String code = violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName();
+            //메시지는 검증기가 이미 해석함 (CachingMessageInterpolator)
+            if (isDynamic(violation)) {
+                body.raw(encode(field, code, violation.getMessage()));
+            } else {
+                Key key = new Key(violation.getRootBeanClass(), field, code, locale);
+                byte[] fragment = fragments.get(key);
+                if (fragment == null) {
+                    fragment = cache(key, encode(field, code, violation.getMessage()));
+                }
+                body.raw(fragment);
+            }
+            rejected(body, violation.getInvalidValue());
+        }
+        return true;
+    }
+
+    /**
+     * 위반마다 메시지가 달라질 수 있는지 (CachingMessageInterpolator와 같은 기준)
+     * - 검증 대상 값을 쓸 수 있는 EL 표현식(${validatedValue} 등)
+     * - 검증기가 addMessageParameter / addExpressionVariable로 추가한 값
+     * Hibernate Validator가 아닌 구현의 위반은 추가한 값을 알 수 없으므로 달라질 수 있다고 봄
+     */
+    static boolean isDynamic(ConstraintViolation<?> violation) {
+        if (violation.getMessageTemplate().contains("${")) {
+            return true;
+        }
+        if (!(violation instanceof ConstraintViolationImpl)) {
+            return true;
+        }
+        ConstraintViolationImpl<?> impl = (ConstraintViolationImpl<?>) violation;
+        return !impl.getMessageParameters().isEmpty() || !impl.getExpressionVariables().isEmpty();
+    }
+
+    private byte[] fragment(Object scope, String field, MessageSourceResolvable error, Locale locale) {
+        String[] codes = error.getCodes();
+        String code = codes != null && codes.length > 0 ? codes[codes.length - 1] : "invalid";
+        Key key = new Key(scope, field, code, locale);
+        byte[] fragment = fragments.get(key);
+        if (fragment == null) {
+            fragment = cache(key, encodeFragment(field, error, locale));
+        }
+        return fragment;
+    }
+
+    private byte[] fragment(Object scope, String field, String[] codes, Object[] args, Locale locale) {
+        Key key = new Key(scope, field, codes[codes.length - 1], locale);
+        byte[] fragment = fragments.get(key);
+        if (fragment == null) {
+            fragment = cache(key, encodeFragment(field, new DefaultMessageSourceResolvable(codes, args), locale));
+        }
+        return fragment;
+    }
+
+    private byte[] cache(Key key, byte[] fragment) {
+        if (fragments.size() < cacheMaxEntries) {
+            byte[] previous = fragments.putIfAbsent(key, fragment);
+            return previous != null ? previous : fragment;
+        }
+        return fragment;
+    }
+
+    private byte[] encodeFragment(String field, MessageSourceResolvable error, Locale locale) {
+        String[] codes = error.getCodes();
+        //응답 code는 가장 일반적인 코드(typeMismatch, NotBlank ...)
+        String code = codes != null && codes.length > 0 ? codes[codes.length - 1] : "invalid";
+        return encode(field, code, message(error, code, locale));
+    }
+
+    private static byte[] encode(String field, String code, String message) {
+        JsonBuffer fragment = new JsonBuffer();
+        if (field != null) {
+            fragment.raw(FIELD).string(field, Integer.MAX_VALUE).raw(CODE_NEXT);
+        } else {
+            fragment.raw(CODE_FIRST);
+        }
+        fragment.string(code, Integer.MAX_VALUE).raw(MESSAGE).string(message, Integer.MAX_VALUE);
+        return fragment.toByteArray();
+    }
+
+    private String message(MessageSourceResolvable error, String code, Locale locale) {
+        String defaultMessage = error.getDefaultMessage();
+        String message = messageSource.getMessage(new DefaultMessageSourceResolvable(error.getCodes(),
+                error.getArguments(), defaultMessage != null ? defaultMessage : code), locale);
+        return message != null ? message : code;
+    }
+
+    private byte[] prefix(Locale locale) {
+        byte[] prefix = prefixes.get(locale);
+        if (prefix == null) {
+            String message = messageSource.getMessage(MESSAGE_CODE, null, DEFAULT_MESSAGE, locale);
+            JsonBuffer buffer = new JsonBuffer();
+            buffer.raw(CODE_FIRST).string(CODE, Integer.MAX_VALUE)
+                    .raw(MESSAGE).string(message != null ? message : DEFAULT_MESSAGE, Integer.MAX_VALUE)
+                    .raw(ERRORS);
+            prefix = buffer.toByteArray();
+            //로케일 수만큼만 생김
+            prefixes.putIfAbsent(locale, prefix);
+        }
+        return prefix;
+    }
+
+    private void rejected(JsonBuffer body, Object value) {
+        if (value instanceof String[] && ((String[]) value).length == 1) {
+            value = ((String[]) value)[0];
+        } else if (value != null && value.getClass().isArray()) {
+            value = ObjectUtils.nullSafeToString(value);
+        }
+        body.raw(REJECTED).value(value, maxRejectedLength).raw('}');
+    }
+
+    int cachedFragments() {
+        return fragments.size();
+    }
+
+    private static final class Key {
+
+        private final Object scope;
+        private final String field;
+        private final String code;
+        private final Locale locale;
+        private final int hash;
+
+        private Key(Object scope, String field, String code, Locale locale) {
+            this.scope = scope;
+            this.field = field;
+            this.code = code;
+            this.locale = locale;
+            this.hash = Objects.hash(scope, field, code, locale);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(scope, other.scope) && Objects.equals(field, other.field)
+                    && code.equals(other.code) && Objects.equals(locale, other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
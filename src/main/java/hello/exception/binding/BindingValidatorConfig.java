@@ -0,0 +1,36 @@
+package hello.exception.binding;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.validation.MessageInterpolatorFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * [검증기 설정]
+ * 스프링 부트 ValidationAutoConfiguration이 등록하는 defaultValidator와 같은 LocalValidatorFactoryBean에
+ * 메시지 해석 결과를 캐시하는 CachingMessageInterpolator만 끼워 넣음
+ * (defaultValidator 빈이 있으면 자동 설정은 동작하지 않음 -> 자동 설정과 같이 @Primary, 인프라 빈으로 등록)
+ *
+ * 제약 조건 메타데이터(@NotBlank, @Size ... 의 ConstraintDescriptor)는 Hibernate Validator가 클래스마다 한 번만 만들고 재사용함
+ * 위반할 때마다 반복되던 메시지 템플릿 해석만 캐시하면 됨
+ */
+@Configuration(proxyBeanMethods = false)
+public class BindingValidatorConfig {
+
+    //BeanPostProcessor(MethodValidationPostProcessor)가 사용하므로 static으로 등록
+    @Bean
+    @Primary
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static LocalValidatorFactoryBean defaultValidator(ApplicationContext applicationContext, Environment environment) {
+        int maxEntries = environment.getProperty("exception.binding.cache-max-entries", Integer.class, 1024);
+        LocalValidatorFactoryBean factoryBean = new LocalValidatorFactoryBean();
+        factoryBean.setMessageInterpolator(new CachingMessageInterpolator(
+                new MessageInterpolatorFactory(applicationContext).getObject(), maxEntries));
+        return factoryBean;
+    }
+}
@@ -0,0 +1,100 @@
+package hello.exception.binding;
+
+import org.hibernate.validator.messageinterpolation.HibernateMessageInterpolatorContext;
+
+import javax.validation.MessageInterpolator;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * [검증 메시지 캐시]
+ * Hibernate Validator는 제약 조건 위반마다 메시지 템플릿({javax.validation.constraints.Size.message} 등)을
+ * 다시 해석하고 속성 값({min}, {max})을 채움
+ * 같은 필드의 같은 제약 조건(ConstraintDescriptor) + 같은 로케일이면 결과가 항상 같으므로 한 번만 해석하고 보관
+ *
+ * - 검증 대상 값을 사용할 수 있는 EL 표현식(${...})이 있는 템플릿은 캐시하지 않음
+ * - 검증기가 위반마다 추가한 파라미터가 있으면 캐시하지 않음
+ *   (HibernateConstraintValidatorContext.addMessageParameter / addExpressionVariable -> 같은 템플릿이라도 결과가 다름)
+ * - Hibernate Validator가 아닌 구현의 Context는 추가 파라미터를 알 수 없으므로 캐시하지 않음
+ * - max-entries를 넘으면 새 조합은 보관하지 않고 매번 해석
+ */
+final class CachingMessageInterpolator implements MessageInterpolator {
+
+    private final MessageInterpolator delegate;
+    private final int maxEntries;
+    private final ConcurrentMap<Key, String> cache = new ConcurrentHashMap<>();
+
+    CachingMessageInterpolator(MessageInterpolator delegate, int maxEntries) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public String interpolate(String messageTemplate, Context context) {
+        return interpolate(messageTemplate, context, Locale.getDefault());
+    }
+
+    @Override
+    public String interpolate(String messageTemplate, Context context, Locale locale) {
+        if (messageTemplate.contains("${") || hasDynamicParameters(context)) {
+            return delegate.interpolate(messageTemplate, context, locale);
+        }
+        Key key = new Key(messageTemplate, context.getConstraintDescriptor(), locale);
+        String message = cache.get(key);
+        if (message == null) {
+            message = delegate.interpolate(messageTemplate, context, locale);
+            if (cache.size() < maxEntries) {
+                cache.putIfAbsent(key, message);
+            }
+        }
+        return message;
+    }
+
+    private static boolean hasDynamicParameters(Context context) {
+        if (!(context instanceof HibernateMessageInterpolatorContext)) {
+            return true;
+        }
+        HibernateMessageInterpolatorContext hibernateContext = (HibernateMessageInterpolatorContext) context;
+        return !hibernateContext.getMessageParameters().isEmpty() || !hibernateContext.getExpressionVariables().isEmpty();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private static final class Key {
+
+        private final String template;
+        private final ConstraintDescriptor<?> descriptor;
+        private final Locale locale;
+        private final int hash;
+
+        private Key(String template, ConstraintDescriptor<?> descriptor, Locale locale) {
+            this.template = template;
+            this.descriptor = descriptor;
+            this.locale = locale;
+            this.hash = Objects.hash(template, descriptor, locale);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return template.equals(other.template) && Objects.equals(descriptor, other.descriptor)
+                    && Objects.equals(locale, other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
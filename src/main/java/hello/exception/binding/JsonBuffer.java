@@ -0,0 +1,141 @@
+package hello.exception.binding;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 바인딩 오류 응답용 UTF-8 JSON 바이트 버퍼
+ * 스레드마다 하나를 만들어 두고 요청마다 재사용 (응답 바디를 만들 때 새 배열, 문자열을 할당하지 않음)
+ * 큰 응답으로 커진 버퍼는 다음 요청에서 처음 크기로 되돌림
+ */
+final class JsonBuffer {
+
+    private static final int INITIAL = 1024;
+    private static final int RETAIN = 16 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<JsonBuffer> BUFFERS = ThreadLocal.withInitial(JsonBuffer::new);
+
+    private byte[] bytes = new byte[INITIAL];
+    private int length;
+
+    /**
+     * 캐시에 보관할 조각을 만들 때 사용 (요청용 스레드 버퍼와 별개)
+     */
+    JsonBuffer() {
+    }
+
+    static JsonBuffer get() {
+        JsonBuffer buffer = BUFFERS.get();
+        if (buffer.bytes.length > RETAIN) {
+            buffer.bytes = new byte[INITIAL];
+        }
+        buffer.length = 0;
+        return buffer;
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    int length() {
+        return length;
+    }
+
+    byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, 0, copy, 0, length);
+        return copy;
+    }
+
+    JsonBuffer raw(byte[] value) {
+        ensure(value.length);
+        System.arraycopy(value, 0, bytes, length, value.length);
+        length += value.length;
+        return this;
+    }
+
+    JsonBuffer raw(char ascii) {
+        ensure(1);
+        bytes[length++] = (byte) ascii;
+        return this;
+    }
+
+    /**
+     * 문자열은 따옴표로 감싸고 이스케이프, 숫자와 boolean은 그대로, null은 null
+     * maxChars를 넘는 문자열은 잘라내고 "..."을 붙임
+     */
+    JsonBuffer value(Object value, int maxChars) {
+        if (value == null) {
+            return raw(NULL);
+        }
+        if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            return ascii(value.toString());
+        }
+        return string(value.toString(), maxChars);
+    }
+
+    JsonBuffer string(String value, int maxChars) {
+        int end = Math.min(value.length(), maxChars);
+        //서로게이트 쌍 중간에서 자르지 않음
+        if (end < value.length() && end > 0 && Character.isHighSurrogate(value.charAt(end - 1))) {
+            end--;
+        }
+        raw('"');
+        for (int i = 0; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                raw('\\').raw(c);
+            } else if (c < 0x20) {
+                ensure(6);
+                bytes[length++] = '\\';
+                bytes[length++] = 'u';
+                bytes[length++] = '0';
+                bytes[length++] = '0';
+                bytes[length++] = HEX[c >> 4];
+                bytes[length++] = HEX[c & 0xF];
+            } else if (c < 0x80) {
+                raw(c);
+            } else if (c < 0x800) {
+                ensure(2);
+                bytes[length++] = (byte) (0xC0 | (c >> 6));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensure(4);
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                //짝이 없는 서로게이트
+                raw('?');
+            } else {
+                ensure(3);
+                bytes[length++] = (byte) (0xE0 | (c >> 12));
+                bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (end < value.length()) {
+            raw('.').raw('.').raw('.');
+        }
+        return raw('"');
+    }
+
+    private JsonBuffer ascii(String value) {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            bytes[length++] = (byte) value.charAt(i);
+        }
+        return this;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            byte[] grown = new byte[Math.max(bytes.length * 2, length + extra)];
+            System.arraycopy(bytes, 0, grown, 0, length);
+            bytes = grown;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package hello.exception.cache;
+
+import hello.exception.exception.ExceptionFactory;
+import hello.exception.exhandler.ErrorResult;
+import hello.exception.exhandler.ErrorResultMapping;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * [실패한 조회 결과 캐시]
+ * 클라이언트가 잘못된 id로 같은 요청을 계속 재시도하면 매번 조회(실무에서는 저장소 접근) 후 예외를 새로 만들게 됨
+ * -> id별로 처음 실패한 결과(상태 코드, ErrorResult, 같은 타입과 메시지의 스택 트레이스 없는 예외)를 ttl 동안 기억하고
+ *    다음 요청에는 조회도, 예외 생성도 없이 기억한 예외를 그대로 던짐 (적중 비용은 map 조회 하나)
+ *    (예외 처리 흐름(ExControllerAdvice, MyHandlerExceptionResolver, BasicErrorController)은 그대로)
+ *    여러 요청이 한 인스턴스를 공유하므로 받은 쪽에서 예외를 변경(addSuppressed, initCause)하면 안 됨
+ *    (UserException, BadRequestException은 suppression을 끈 생성자로 만들어 addSuppressed가 무시됨)
+ *
+ * - 크기는 max-entries로 제한 (ErrorResultCache와 같이 가득 차면 새 id는 보관하지 않음)
+ * - 스택 트레이스 없이 다시 만들 수 없는 예외 타입(ExceptionFactory.stacklessCopier가 null)은 보관하지 않음
+ * - 조회: /actuator/negativecache, 무효화: DELETE /actuator/negativecache(/{id})
+ * - Micrometer: member.lookup.negative-cache(result=hit|miss), member.lookup.negative-cache.size,
+ *   member.lookup.negative-cache.rejected
+ */
+@Component
+public class NegativeLookupCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ErrorResultMapping errorResultMapping;
+    private final ExceptionFactory exceptionFactory;
+    private final ConcurrentMap<String, Failure> failures = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    //가득 차서 보관하지 못한 실패 횟수
+    private final LongAdder rejected = new LongAdder();
+
+    public NegativeLookupCache(NegativeLookupCacheProperties properties, ErrorResultMapping errorResultMapping,
+                               ExceptionFactory exceptionFactory, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.maxEntries = properties.getMaxEntries();
+        this.errorResultMapping = errorResultMapping;
+        this.exceptionFactory = exceptionFactory;
+        meterRegistry.ifAvailable(this::bind);
+    }
+
+    /**
+     * @return ttl 안에 기억하고 있는 실패 결과, 없으면 null (조회를 실행해야 함)
+     */
+    public Failure get(String id) {
+        if (!enabled) {
+            return null;
+        }
+        Failure failure = failures.get(id);
+        if (failure != null && failure.isExpired(System.nanoTime())) {
+            failures.remove(id, failure);
+            failure = null;
+        }
+        if (failure == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return failure;
+    }
+
+    /**
+     * 조회가 던진 예외를 기억함
+     * 상태 코드, ErrorResult는 ExControllerAdvice와 같은 기준(ErrorResultMapping)으로 정함
+     */
+    public void put(String id, RuntimeException exception) {
+        if (!enabled) {
+            return;
+        }
+        Function<String, RuntimeException> copier = exceptionFactory.stacklessCopier(exception.getClass());
+        if (copier == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (failures.size() >= maxEntries && !failures.containsKey(id)) {
+            failures.values().removeIf(failure -> failure.isExpired(now));
+            if (failures.size() >= maxEntries) {
+                rejected.increment();
+                return;
+            }
+        }
+        //실패(miss)마다 한 번만 만들고 적중할 때는 재사용
+        failures.put(id, new Failure(copier.apply(exception.getMessage()), errorResultMapping.statusOf(exception),
+                errorResultMapping.errorResultOf(exception).getResult(), now + ttlNanos));
+    }
+
+    public boolean invalidate(String id) {
+        return failures.remove(id) != null;
+    }
+
+    public int invalidateAll() {
+        int size = failures.size();
+        failures.clear();
+        return size;
+    }
+
+    public Map<String, Object> snapshot() {
+        long now = System.nanoTime();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("hits", hitCount);
+        result.put("misses", missCount);
+        result.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        result.put("rejected", rejected.sum());
+        result.put("size", failures.size());
+        Map<String, Object> entries = new TreeMap<>();
+        failures.forEach((id, failure) -> {
+            if (!failure.isExpired(now)) {
+                entries.put(id, failure.snapshot(now));
+            }
+        });
+        result.put("entries", entries);
+        return result;
+    }
+
+    private void bind(MeterRegistry registry) {
+        FunctionCounter.builder("member.lookup.negative-cache", hits, LongAdder::sum)
+                .description("실패한 조회 결과 캐시 조회 횟수 (hit: 조회 생략, miss: 조회 실행)")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("member.lookup.negative-cache", misses, LongAdder::sum)
+                .description("실패한 조회 결과 캐시 조회 횟수 (hit: 조회 생략, miss: 조회 실행)")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("member.lookup.negative-cache.rejected", rejected, LongAdder::sum)
+                .description("캐시가 가득 차서 보관하지 못한 실패 횟수")
+                .register(registry);
+        Gauge.builder("member.lookup.negative-cache.size", failures, Map::size)
+                .register(registry);
+    }
+
+    /**
+     * 기억하고 있는 실패 결과
+     * 원래 예외 인스턴스는 보관하지 않고 같은 타입, 같은 메시지의 스택 트레이스 없는 예외를 보관함
+     * (원래 예외의 스택 트레이스, 원인 예외가 ttl 동안 메모리에 남지 않음)
+     */
+    public static final class Failure {
+
+        private final RuntimeException exception;
+        private final HttpStatus status;
+        private final ErrorResult errorResult;
+        private final long expiresAtNanos;
+
+        private Failure(RuntimeException exception, HttpStatus status, ErrorResult errorResult, long expiresAtNanos) {
+            this.exception = exception;
+            this.status = status;
+            this.errorResult = errorResult;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        /**
+         * 기억한 스택 트레이스 없는 예외 (요청마다 같은 인스턴스)
+         */
+        public RuntimeException getException() {
+            return exception;
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+
+        public ErrorResult getErrorResult() {
+            return errorResult;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+
+        private Map<String, Object> snapshot(long now) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("exception", exception.getClass().getName());
+            result.put("status", status.value());
+            result.put("errorResult", errorResult);
+            result.put("expiresInMillis", TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - now));
+            return result;
+        }
+    }
+}
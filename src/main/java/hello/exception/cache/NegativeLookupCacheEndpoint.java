@@ -0,0 +1,40 @@
+package hello.exception.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/negativecache: 적중/미스 횟수와 기억하고 있는 실패 결과
+ * DELETE /actuator/negativecache: 전체 무효화, DELETE /actuator/negativecache/{id}: id 하나만 무효화
+ * (인증 없는 삭제 작업이므로 exception.negative-cache.enabled=true일 때만 등록, management.endpoints.web.exposure.include에도 있어야 노출됨)
+ */
+@Component
+@ConditionalOnProperty(name = "exception.negative-cache.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Endpoint(id = "negativecache")
+public class NegativeLookupCacheEndpoint {
+
+    private final NegativeLookupCache negativeLookupCache;
+
+    @ReadOperation
+    public Map<String, Object> negativeCache() {
+        return negativeLookupCache.snapshot();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> invalidateAll() {
+        return Map.of("invalidated", negativeLookupCache.invalidateAll());
+    }
+
+    @DeleteOperation
+    public Map<String, Object> invalidate(@Selector String id) {
+        return Map.of("invalidated", negativeLookupCache.invalidate(id) ? 1 : 0);
+    }
+}
@@ -0,0 +1,29 @@
+package hello.exception.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 실패한 조회 결과(negative) 캐시 설정
+ * ex) exception.negative-cache.enabled=true
+ *     exception.negative-cache.ttl=30s
+ *
+ * enabled=false(기본) 이면 매번 조회를 다시 실행하고 예외를 새로 만듦 (기존 동작)
+ * 켜면 실패한 id는 ttl 동안 다시 조회하지 않으므로 그 사이 데이터가 바뀌어도 같은 오류 응답
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.negative-cache")
+public class NegativeLookupCacheProperties {
+
+    private boolean enabled = false;
+
+    //실패 결과를 기억하는 시간, 지나면 다음 요청에서 다시 조회
+    private Duration ttl = Duration.ofSeconds(30);
+
+    //보관할 id 최대 개수, 가득 차면 만료된 항목을 정리하고 그래도 가득 차 있으면 새 id는 보관하지 않음
+    private int maxEntries = 1024;
+}
@@ -30,4 +30,13 @@ public class BadRequestException extends RuntimeException{
     //ResponseStatusExceptionResolver 코드를 확인해보면
     //결국 response.sendError(statusCode,resolvedReason)을 호출하는 것을 확인 가능
     //sendError를 호출했기 때문에 WAS에서 다시 오류 페이지(/error)를 내부 요청하게 됨
+
+    public BadRequestException(){
+        super();
+    }
+
+    //ExceptionFactory에서 스택 트레이스 없는 예외를 만들 때 사용
+    protected BadRequestException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace){
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
 }
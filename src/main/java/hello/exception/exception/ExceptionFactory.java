@@ -0,0 +1,121 @@
+package hello.exception.exception;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * [비즈니스 예외 생성 팩토리]
+ * 컨트롤러에서 new UserException(...) 대신 이 팩토리를 사용하면
+ * StackTracePolicy에 따라 스택 트레이스 없는 예외 또는 미리 만든 예외를 돌려받음
+ *
+ * UserException, BadRequestException의 protected 생성자
+ * (message, cause, enableSuppression, writableStackTrace)를 사용함
+ */
+@Component
+public class ExceptionFactory {
+
+    private static final StackTraceElement[] NO_STACK_TRACE = new StackTraceElement[0];
+
+    private static final ClassValue<Function<String, RuntimeException>> COPIERS = new ClassValue<>() {
+        @Override
+        protected Function<String, RuntimeException> computeValue(Class<?> type) {
+            if (type == UserException.class) {
+                return message -> new UserException(message, null, false, false);
+            }
+            if (type == BadRequestException.class) {
+                return message -> new BadRequestException(message, null, false, false);
+            }
+            Constructor<?> constructor;
+            try {
+                constructor = type.getConstructor(String.class);
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+            return message -> {
+                try {
+                    RuntimeException copy = (RuntimeException) constructor.newInstance(message);
+                    copy.setStackTrace(NO_STACK_TRACE);
+                    return copy;
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("cannot copy " + type.getName(), e);
+                }
+            };
+        }
+    };
+
+    private final StackTracePolicy policy;
+    private final int sharedCacheSize;
+
+    private final ConcurrentMap<String, UserException> sharedUserExceptions = new ConcurrentHashMap<>();
+    //BadRequestException은 메시지 없이 @ResponseStatus의 reason을 사용하므로 인스턴스 하나면 충분
+    private final BadRequestException sharedBadRequest = new BadRequestException(null, null, false, false);
+
+    @Autowired
+    public ExceptionFactory(FastExceptionProperties properties) {
+        this(StackTracePolicy.from(properties), properties.getSharedCacheSize());
+    }
+
+    public ExceptionFactory(StackTracePolicy policy, int sharedCacheSize) {
+        this.policy = policy;
+        this.sharedCacheSize = sharedCacheSize;
+    }
+
+    public UserException userException(String message) {
+        switch (policy.modeOf(UserException.class)) {
+            case STACKLESS:
+                return new UserException(message, null, false, false);
+            case SHARED:
+                return shared(message);
+            default:
+                return new UserException(message);
+        }
+    }
+
+    public BadRequestException badRequest() {
+        switch (policy.modeOf(BadRequestException.class)) {
+            case STACKLESS:
+                return new BadRequestException(null, null, false, false);
+            case SHARED:
+                return sharedBadRequest;
+            default:
+                return new BadRequestException();
+        }
+    }
+
+    /**
+     * 같은 타입, 같은 메시지의 스택 트레이스 없는 예외를 만드는 함수 (원인 예외는 복사하지 않음), 만들 수 없는 타입이면 null
+     * NegativeLookupCache가 실패를 기억할 때 한 번 사용 (원래 예외의 스택 트레이스, 원인 예외를 보관하지 않도록)
+     * - UserException, BadRequestException: 스택 트레이스를 채우지 않고 suppression을 끈 생성자
+     * - 그 외: public (String) 생성자로 만든 뒤 스택 트레이스를 비움 (JDK 예외는 채우지 않는 생성자를 열어 두지 않으므로
+     *   생성할 때 스택 트레이스를 한 번 채움 -> 요청마다 부르지 말 것)
+     */
+    public Function<String, RuntimeException> stacklessCopier(Class<? extends RuntimeException> type) {
+        return COPIERS.get(type);
+    }
+
+    public StackTracePolicy getPolicy() {
+        return policy;
+    }
+
+    private UserException shared(String message) {
+        if (message == null) {
+            return new UserException(null, null, false, false);
+        }
+        UserException cached = sharedUserExceptions.get(message);
+        if (cached != null) {
+            return cached;
+        }
+        UserException created = new UserException(message, null, false, false);
+        //메시지가 매번 달라지는 경우 캐시가 무한히 커지지 않도록 상한을 넘으면 보관하지 않음
+        if (sharedUserExceptions.size() >= sharedCacheSize) {
+            return created;
+        }
+        UserException previous = sharedUserExceptions.putIfAbsent(message, created);
+        return previous != null ? previous : created;
+    }
+}
@@ -0,0 +1,33 @@
+package hello.exception.exception;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * "fast exceptions" 모드 설정
+ * ex) exception.fast.enabled=true
+ *     exception.fast.modes.UserException=shared
+ *     exception.fast.modes.BadRequestException=stackless
+ *
+ * 모드를 지정하지 않은 타입은 default-mode를 따름
+ * enabled=false 이면 모든 타입이 FULL (기존 동작)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.fast")
+public class FastExceptionProperties {
+
+    private boolean enabled = false;
+
+    private StackTraceMode defaultMode = StackTraceMode.FULL;
+
+    //key: 예외 클래스의 simple name
+    private Map<String, StackTraceMode> modes = new HashMap<>();
+
+    //SHARED 모드에서 메시지별로 보관할 예외 인스턴스 최대 개수
+    private int sharedCacheSize = 64;
+}
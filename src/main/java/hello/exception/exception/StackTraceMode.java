@@ -0,0 +1,22 @@
+package hello.exception.exception;
+
+/**
+ * [예외 생성 모드]
+ * 예외 생성 비용의 대부분은 생성자에서 호출되는 fillInStackTrace()가 차지함
+ * 스택 트레이스가 필요 없는 비즈니스 예외는 모드를 바꿔서 이 비용을 없앨 수 있음
+ */
+public enum StackTraceMode {
+    /**
+     * 기존과 동일하게 매번 새 예외를 만들고 스택 트레이스도 채움
+     */
+    FULL,
+    /**
+     * 매번 새 예외를 만들지만 스택 트레이스를 채우지 않음 (writableStackTrace = false)
+     */
+    STACKLESS,
+    /**
+     * 메시지별로 미리 만든 스택 트레이스 없는 예외를 재사용 (생성 비용 0)
+     * suppression, stackTrace, cause 모두 변경 불가능하므로 여러 요청이 공유해도 안전함
+     */
+    SHARED
+}
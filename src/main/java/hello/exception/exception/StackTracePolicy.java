@@ -0,0 +1,60 @@
+package hello.exception.exception;
+
+import java.util.Map;
+
+/**
+ * 예외 타입별로 스택 트레이스를 남길지 결정하는 정책
+ * 설정값은 시작 시점에 한 번만 읽고, 이후에는 ClassValue로 타입별 결과를 캐시함
+ */
+public class StackTracePolicy {
+
+    private final boolean enabled;
+    private final StackTraceMode defaultMode;
+    private final Map<String, StackTraceMode> modes;
+
+    private final ClassValue<StackTraceMode> cache = new ClassValue<>() {
+        @Override
+        protected StackTraceMode computeValue(Class<?> type) {
+            return lookup(type);
+        }
+    };
+
+    public StackTracePolicy(boolean enabled, StackTraceMode defaultMode, Map<String, StackTraceMode> modes) {
+        this.enabled = enabled;
+        this.defaultMode = defaultMode;
+        this.modes = Map.copyOf(modes);
+    }
+
+    public static StackTracePolicy from(FastExceptionProperties properties) {
+        return new StackTracePolicy(properties.isEnabled(), properties.getDefaultMode(), properties.getModes());
+    }
+
+    /**
+     * 기존 동작(모든 예외가 스택 트레이스를 가짐)
+     */
+    public static StackTracePolicy fullStackTrace() {
+        return new StackTracePolicy(false, StackTraceMode.FULL, Map.of());
+    }
+
+    public StackTraceMode modeOf(Class<? extends Throwable> type) {
+        return cache.get(type);
+    }
+
+    public boolean keepsStackTrace(Class<? extends Throwable> type) {
+        return modeOf(type) == StackTraceMode.FULL;
+    }
+
+    private StackTraceMode lookup(Class<?> type) {
+        if (!enabled) {
+            return StackTraceMode.FULL;
+        }
+        //자식 예외에 설정이 없으면 부모 예외 설정을 따름
+        for (Class<?> current = type; current != null && current != Throwable.class; current = current.getSuperclass()) {
+            StackTraceMode mode = modes.get(current.getSimpleName());
+            if (mode != null) {
+                return mode;
+            }
+        }
+        return defaultMode;
+    }
+}
@@ -0,0 +1,33 @@
+package hello.exception.exhandler;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * [CBOR, Smile 메시지 컨버터]
+ * jackson-dataformat-cbor, smile이 클래스패스에 있으면 스프링 MVC가 기본 컨버터로 추가하지만
+ * 스프링 부트 Jackson 설정(spring.jackson.*, 모듈)이 적용되지 않은 ObjectMapper를 따로 만듦
+ *
+ * 부트의 Jackson2ObjectMapperBuilder로 만든 컨버터를 빈으로 등록하면 기본 컨버터를 대체함 (HttpMessageConverters)
+ * - @RestController의 MemberDto 반환: Accept에 맞는 컨버터가 선택됨
+ * - 오류 응답(ExControllerAdvice, MyHandlerExceptionResolver): ErrorEncoders가 같은 ObjectMapper를 사용
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryEncodingConfig {
+
+    //Jackson2ObjectMapperBuilder 빈은 prototype이므로 주입받을 때마다 새 builder
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
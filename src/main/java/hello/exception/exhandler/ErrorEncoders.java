@@ -0,0 +1,60 @@
+package hello.exception.exhandler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import hello.exception.negotiation.ErrorResponseNegotiator.Encoding;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * [오류 응답 인코더]
+ * JSON / CBOR / Smile ObjectMapper를 메시지 컨버터와 공유하고
+ * 타입마다 ObjectWriter(직렬화기가 미리 결정된 writer)를 한 번만 만들어 재사용
+ * -> 요청마다 타입 조회, 직렬화기 탐색(리플렉션)을 하지 않음
+ */
+@Component
+public class ErrorEncoders {
+
+    private final Map<Encoding, ObjectMapper> mappers = new EnumMap<>(Encoding.class);
+    //타입 -> Encoding 순서의 ObjectWriter 배열
+    private final ClassValue<ObjectWriter[]> writers = new ClassValue<>() {
+        @Override
+        protected ObjectWriter[] computeValue(Class<?> type) {
+            Encoding[] encodings = Encoding.values();
+            ObjectWriter[] created = new ObjectWriter[encodings.length];
+            for (Encoding encoding : encodings) {
+                created[encoding.ordinal()] = mappers.get(encoding).writerFor(type);
+            }
+            return created;
+        }
+    };
+
+    public ErrorEncoders(ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cborConverter,
+                         MappingJackson2SmileHttpMessageConverter smileConverter) {
+        mappers.put(Encoding.JSON, objectMapper);
+        mappers.put(Encoding.CBOR, cborConverter.getObjectMapper());
+        mappers.put(Encoding.SMILE, smileConverter.getObjectMapper());
+    }
+
+    public ObjectWriter writer(Encoding encoding, Class<?> type) {
+        return writers.get(type)[encoding.ordinal()];
+    }
+
+    public byte[] encode(Encoding encoding, Object value) {
+        try {
+            return writer(encoding, value.getClass()).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public ObjectMapper mapper(Encoding encoding) {
+        return mappers.get(encoding);
+    }
+}
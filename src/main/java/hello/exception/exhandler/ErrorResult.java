@@ -1,14 +1,17 @@
 package hello.exception.exhandler;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
 
 /**
  * 예외가 발생했을 때 API 응답으로 사용할 객체 정의
  * @ExceptionHandler에서 사용할 것.
+ *
+ * 불변 객체로 만들어서 고정 메시지(ex. "EX", "내부 오류")는
+ * ErrorResultCache가 만든 하나의 인스턴스를 여러 요청이 공유할 수 있음
  */
-@Data
+@Value
 @AllArgsConstructor
 public class ErrorResult {
-    private String code;
-    private String message;
-}
\ No newline at end of file
+    String code;
+    String message;
+}
@@ -0,0 +1,139 @@
+package hello.exception.exhandler;
+
+import hello.exception.negotiation.ErrorResponseNegotiator.Encoding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * [ErrorResult 직렬화 캐시]
+ * 같은 (code, message) 조합은 JSON(UTF-8) 바이트로 한 번만 직렬화해서 보관하고
+ * 이후에는 같은 ErrorResult 인스턴스(flyweight)와 바이트 배열을 그대로 재사용
+ *
+ * - get()은 코드에 적힌 고정 (code, message) 상수만 사용 (code -> message 2단계 맵이라 조회할 때 키 객체를 만들지 않음)
+ * - 예외 메시지(e.getMessage())처럼 요청마다 달라질 수 있는 값은 dynamic()으로 캐시를 아예 거치지 않음
+ * - 캐시 크기는 max-entries로 제한됨. 가득 차면 새로운 조합은 보관하지 않고 매번 직렬화
+ * - CBOR, Smile 바이트는 처음 요청될 때 만들어서 같은 Entry에 보관 (JSON만 쓰는 클라이언트에게는 비용 없음)
+ */
+@Component
+public class ErrorResultCache {
+
+    public static final ErrorResult INTERNAL_ERROR = new ErrorResult("EX", "내부 오류");
+
+    private final ErrorEncoders encoders;
+    private final int maxEntries;
+    private final AtomicInteger size = new AtomicInteger();
+    //code -> (message -> Entry)
+    private final ConcurrentMap<String, ConcurrentMap<String, Entry>> cache = new ConcurrentHashMap<>();
+
+    public ErrorResultCache(ErrorEncoders encoders,
+                            @Value("${exception.error-result.cache.max-entries:256}") int maxEntries) {
+        this.encoders = encoders;
+        this.maxEntries = maxEntries;
+        //고정 메시지는 시작 시점에 미리 직렬화
+        put(new Entry(INTERNAL_ERROR, serialize(INTERNAL_ERROR)));
+    }
+
+    /**
+     * 고정 메시지(코드에 적힌 상수)용 조회. 캐시에 있으면 같은 인스턴스를 돌려줌
+     */
+    public Entry get(String code, String message) {
+        Entry entry = lookup(code, message);
+        if (entry != null) {
+            return entry;
+        }
+        ErrorResult result = new ErrorResult(code, message);
+        return put(new Entry(result, serialize(result)));
+    }
+
+    /**
+     * 가변 메시지용. 캐시에 저장하지 않고 매번 직렬화
+     */
+    public Entry dynamic(String code, String message) {
+        ErrorResult result = new ErrorResult(code, message);
+        return new Entry(result, serialize(result));
+    }
+
+    public Entry of(ErrorResult result) {
+        Entry entry = lookup(result.getCode(), result.getMessage());
+        return entry != null ? entry : new Entry(result, serialize(result));
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private Entry lookup(String code, String message) {
+        if (code == null || message == null) {
+            return null;
+        }
+        ConcurrentMap<String, Entry> byMessage = cache.get(code);
+        return byMessage != null ? byMessage.get(message) : null;
+    }
+
+    //가득 찼거나 null이 섞이면 보관하지 않고 그대로 돌려줌
+    private Entry put(Entry entry) {
+        String code = entry.result.getCode();
+        String message = entry.result.getMessage();
+        if (code == null || message == null || size.get() >= maxEntries) {
+            return entry;
+        }
+        Entry previous = cache.computeIfAbsent(code, key -> new ConcurrentHashMap<>()).putIfAbsent(message, entry);
+        if (previous != null) {
+            return previous;
+        }
+        size.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * 인코딩에 맞는 바이트(공유되는 배열이므로 호출하는 쪽에서 수정하면 안 됨), JSON이 아니면 처음 한 번만 직렬화하고 Entry에 보관
+     * (동시에 처음 요청되면 두 번 직렬화될 수 있지만 결과는 같음)
+     */
+    byte[] bytes(Entry entry, Encoding encoding) {
+        switch (encoding) {
+            case CBOR:
+                byte[] cbor = entry.cbor;
+                if (cbor == null) {
+                    cbor = encoders.encode(Encoding.CBOR, entry.result);
+                    entry.cbor = cbor;
+                }
+                return cbor;
+            case SMILE:
+                byte[] smile = entry.smile;
+                if (smile == null) {
+                    smile = encoders.encode(Encoding.SMILE, entry.result);
+                    entry.smile = smile;
+                }
+                return smile;
+            default:
+                return entry.json;
+        }
+    }
+
+    private byte[] serialize(ErrorResult result) {
+        return encoders.encode(Encoding.JSON, result);
+    }
+
+    /**
+     * 캐시된 ErrorResult와 직렬화된 JSON(+ CBOR, Smile) 바이트
+     */
+    public static final class Entry {
+        private final ErrorResult result;
+        private final byte[] json;
+        private volatile byte[] cbor;
+        private volatile byte[] smile;
+
+        private Entry(ErrorResult result, byte[] json) {
+            this.result = result;
+            this.json = json;
+        }
+
+        public ErrorResult getResult() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package hello.exception.exhandler;
+
+import hello.exception.exception.UserException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * ExControllerAdvice의 예외 -> (상태 코드, ErrorResult) 기준
+ * @ExceptionHandler를 거치지 않고 예외를 응답으로 바꿔야 하는 곳(일괄 조회의 항목별 오류, 실패 결과 캐시)에서 사용
+ *
+ * IllegalArgumentException -> 400 {"BAD", message}
+ * UserException            -> 400 {"USER-EX", message}
+ * 그 외                    -> 500 {"EX", "내부 오류"}
+ *
+ * 예외 메시지는 요청마다 달라질 수 있으므로 캐시하지 않음(dynamic), 고정 메시지인 INTERNAL_ERROR만 캐시된 Entry 사용
+ */
+@Component
+@RequiredArgsConstructor
+public class ErrorResultMapping {
+
+    private final ErrorResultCache errorResultCache;
+
+    public HttpStatus statusOf(Throwable e) {
+        if (e instanceof IllegalArgumentException || e instanceof UserException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    public ErrorResultCache.Entry errorResultOf(Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            return errorResultCache.dynamic("BAD", e.getMessage());
+        }
+        if (e instanceof UserException) {
+            return errorResultCache.dynamic("USER-EX", e.getMessage());
+        }
+        return errorResultCache.of(ErrorResultCache.INTERNAL_ERROR);
+    }
+}
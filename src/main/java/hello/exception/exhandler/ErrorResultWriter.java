@@ -0,0 +1,52 @@
+package hello.exception.exhandler;
+
+import hello.exception.negotiation.ErrorResponseNegotiator.Encoding;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 캐시된 ErrorResult JSON 바이트를 메시지 컨버터를 거치지 않고 응답 스트림에 바로 씀
+ *
+ * @ExceptionHandler 메서드가 HttpServletResponse를 파라미터로 받고 void를 반환하면
+ * 스프링은 응답이 이미 처리된 것으로 보고 메시지 컨버터, 뷰 렌더링을 생략함
+ * Encoding을 지정하면 같은 ErrorResult를 CBOR, Smile로 씀 (ErrorResponseNegotiator.encoding())
+ */
+@Component
+@RequiredArgsConstructor
+public class ErrorResultWriter {
+
+    private final ErrorResultCache errorResultCache;
+
+    /**
+     * @return 응답 바디 크기(bytes)
+     */
+    public int write(HttpServletResponse response, HttpStatus status, ErrorResultCache.Entry entry) throws IOException {
+        return write(response, status, entry, Encoding.JSON);
+    }
+
+    public int write(HttpServletResponse response, HttpStatus status, ErrorResultCache.Entry entry,
+                     Encoding encoding) throws IOException {
+        byte[] body = errorResultCache.bytes(entry, encoding);
+        response.setStatus(status.value());
+        response.setContentType(encoding.getMediaType().toString());
+        response.setContentLength(body.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+        return body.length;
+    }
+
+    public int write(HttpServletResponse response, HttpStatus status, ErrorResult result) throws IOException {
+        return write(response, status, errorResultCache.of(result));
+    }
+
+    public int write(HttpServletResponse response, HttpStatus status, ErrorResult result,
+                     Encoding encoding) throws IOException {
+        return write(response, status, errorResultCache.of(result), encoding);
+    }
+}
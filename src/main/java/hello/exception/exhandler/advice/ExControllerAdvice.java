@@ -1,14 +1,20 @@
 package hello.exception.exhandler.advice;
 import hello.exception.api.ApiExceptionV2Controller;
 import hello.exception.exception.UserException;
-import hello.exception.exhandler.ErrorResult;
+import hello.exception.exhandler.ErrorResultCache;
+import hello.exception.exhandler.ErrorResultWriter;
+import hello.exception.log.ErrorLogDeduplicator;
+import hello.exception.metrics.ErrorMetrics;
+import hello.exception.negotiation.ErrorResponseNegotiator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
 /*
  * [@ExceptionHandler 예외 처리 방법]
  * @ExceptionHandler 애노테이션을 선언하고 해당 컨트롤러에서 처리하고 싶은 예외를 지정
@@ -46,6 +52,38 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @Slf4j
 @RestControllerAdvice(assignableTypes = ApiExceptionV2Controller.class)
 public class ExControllerAdvice {
+
+    /**
+     * [ErrorResult 응답 최적화]
+     * 매번 new ErrorResult() + 메시지 컨버터(Jackson) 직렬화를 하는 대신
+     * ErrorResultCache에 캐시된 JSON 바이트를 ErrorResultWriter로 응답 스트림에 바로 씀
+     * (예외 메시지가 들어가는 응답은 dynamic()으로 매번 직렬화, 고정 메시지인 INTERNAL_ERROR만 캐시 사용)
+     * 응답 형식({"code": ..., "message": ...})과 상태 코드는 기존과 동일
+     * Accept: application/cbor, application/x-jackson-smile 이면 같은 ErrorResult를 바이너리로 응답
+     */
+    private final ErrorResultCache errorResultCache;
+    private final ErrorResultWriter errorResultWriter;
+    //같은 예외가 반복되면 스택 트레이스는 처음 한 번만 남기고 이후에는 횟수만 요약
+    private final ErrorLogDeduplicator errorLog;
+    private final ErrorResponseNegotiator negotiator;
+
+    //핸들러별 처리 횟수, 지연 시간, 응답 크기
+    private final ErrorMetrics.Handler illegalExMetrics;
+    private final ErrorMetrics.Handler userExMetrics;
+    private final ErrorMetrics.Handler exMetrics;
+
+    public ExControllerAdvice(ErrorResultCache errorResultCache, ErrorResultWriter errorResultWriter,
+                              ErrorLogDeduplicator errorLog, ErrorMetrics errorMetrics,
+                              ErrorResponseNegotiator negotiator) {
+        this.errorResultCache = errorResultCache;
+        this.errorResultWriter = errorResultWriter;
+        this.errorLog = errorLog;
+        this.negotiator = negotiator;
+        this.illegalExMetrics = errorMetrics.handler("illegalExHandle");
+        this.userExMetrics = errorMetrics.handler("userExHandle");
+        this.exMetrics = errorMetrics.handler("exHandle");
+    }
+
     /**
      * [@ExceptionHandler(IllegalArgumentException.class)]
      * IllegalArgumentException 또는 그 하위 자식 클래스 모두 처리 가능
@@ -60,14 +98,18 @@ public class ExControllerAdvice {
      * 4. illegalExHandle() 를 실행. @RestController 이므로 illegalExHandle() 에도
      * @ResponseBody 가 적용. 따라서 HTTP 컨버터가 사용되고, 응답이 다음과 같은 JSON으로 반환됨.
      * 5. @ResponseStatus(HttpStatus.BAD_REQUEST) 를 지정했으므로 HTTP 상태 코드 400으로 응답함.
+     *    (지금은 ErrorResultWriter가 400 상태 코드와 캐시된 JSON을 직접 씀)
      */
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(IllegalArgumentException.class)
-    public ErrorResult illegalExHandle(IllegalArgumentException e) {
-        log.error("[exceptionHandle] ex", e);
+    public void illegalExHandle(IllegalArgumentException e, HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        long start = System.nanoTime();
+        errorLog.error(log, "[exceptionHandle] ex", e);
 
-        //예외 처리 객체로 반환 시킴. JSON으로 반환됨
-        return new ErrorResult("BAD", e.getMessage());
+        //예외 처리 객체를 JSON으로 반환
+        int bytes = errorResultWriter.write(response, HttpStatus.BAD_REQUEST, errorResultCache.dynamic("BAD", e.getMessage()),
+                negotiator.encoding(request));
+        illegalExMetrics.record(e.getClass(), start, bytes);
     }
 
     /**
@@ -77,13 +119,16 @@ public class ExControllerAdvice {
      * ResponseEntity를 반환(HTTP 메시지 바디에 직접 응담_HTTP 컨버터 사용됨)하면
      * HTTP 응답 코드를 프로그래밍해서 동적으로 변경 가능,
      * 앞서 살펴본 @ResponseStatus 는 애노테이션이므로 HTTP 응답 코드를 동적으로 변경 불가.
+     * ErrorResultWriter도 상태 코드를 인자로 받으므로 ResponseEntity처럼 동적으로 변경 가능
      */
     @ExceptionHandler
-    public ResponseEntity<ErrorResult> userExHandle(UserException e) {
-        log.error("[exceptionHandle] ex", e);
-        ErrorResult errorResult = new ErrorResult("USER-EX", e.getMessage());
-
-        return new ResponseEntity<>(errorResult, HttpStatus.BAD_REQUEST);
+    public void userExHandle(UserException e, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        long start = System.nanoTime();
+        errorLog.error(log, "[exceptionHandle] ex", e);
+        int bytes = errorResultWriter.write(response, HttpStatus.BAD_REQUEST, errorResultCache.dynamic("USER-EX", e.getMessage()),
+                negotiator.encoding(request));
+        userExMetrics.record(e.getClass(), start, bytes);
     }
 
     /**
@@ -91,11 +136,13 @@ public class ExControllerAdvice {
      * 따로 @Exception 설정 안한 Exception의 자식 예외들이 적용됨
      * -> 구체적일 수록 우선순위가 높기 때문
      */
-    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler
-    public ErrorResult exHandle(Exception e) {
-        log.error("[exceptionHandle] ex", e);
-        return new ErrorResult("EX", "내부 오류");
+    public void exHandle(Exception e, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long start = System.nanoTime();
+        errorLog.error(log, "[exceptionHandle] ex", e);
+        int bytes = errorResultWriter.write(response, HttpStatus.INTERNAL_SERVER_ERROR, ErrorResultCache.INTERNAL_ERROR,
+                negotiator.encoding(request));
+        exMetrics.record(e.getClass(), start, bytes);
     }
 
 
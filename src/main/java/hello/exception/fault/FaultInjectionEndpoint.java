@@ -0,0 +1,80 @@
+package hello.exception.fault;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/faultinjection: seed, 오류 id, 엔드포인트별 설정과 호출 수, 주입한 예외 수, 지연 수
+ * POST /actuator/faultinjection {"seed": 42, "enabled": true}: 켜고 끄기, seed 변경, 호출 번호와 집계 초기화
+ * POST /actuator/faultinjection/{endpoint} {"mix": "illegal-argument=0.05,user=0.02", "latency": "20ms",
+ *                                           "latencyJitter": "10ms", "latencyRate": 0.5}: 엔드포인트 설정
+ * DELETE /actuator/faultinjection/{endpoint}: 엔드포인트 설정 제거
+ * (인증 없는 쓰기 작업이므로 exception.fault.enabled=true일 때만 등록, management.endpoints.web.exposure.include에도 있어야 노출됨)
+ */
+@Component
+@ConditionalOnProperty(name = "exception.fault.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Endpoint(id = "faultinjection")
+public class FaultInjectionEndpoint {
+
+    private final FaultInjector faultInjector;
+
+    @ReadOperation
+    public Map<String, Object> faultInjection() {
+        return faultInjector.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> reset(@Nullable Long seed, @Nullable Boolean enabled) {
+        faultInjector.reset(seed, enabled);
+        return faultInjector.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Selector String endpoint, @Nullable String mix, @Nullable String latency,
+                                         @Nullable String latencyJitter, @Nullable Double latencyRate) {
+        faultInjector.configure(endpoint, parseMix(mix), duration(latency), duration(latencyJitter),
+                latencyRate != null ? latencyRate : 1.0);
+        return faultInjector.snapshot();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> remove(@Selector String endpoint) {
+        return Map.of("removed", faultInjector.remove(endpoint) ? 1 : 0);
+    }
+
+    /**
+     * "illegal-argument=0.05,user=0.02" -> {ILLEGAL_ARGUMENT: 0.05, USER: 0.02}
+     */
+    static Map<FaultType, Double> parseMix(String mix) {
+        Map<FaultType, Double> parsed = new EnumMap<>(FaultType.class);
+        if (mix == null || mix.isBlank()) {
+            return parsed;
+        }
+        for (String entry : mix.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("mix 형식은 type=확률: " + entry);
+            }
+            parsed.put(FaultType.parse(entry.substring(0, separator)),
+                    Double.parseDouble(entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+
+    private static Duration duration(String value) {
+        return value == null || value.isBlank() ? Duration.ZERO : DurationStyle.detectAndParse(value.trim());
+    }
+}
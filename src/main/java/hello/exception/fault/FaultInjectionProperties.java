@@ -0,0 +1,58 @@
+package hello.exception.fault;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 오류 주입(fault injection) 설정
+ * ex) exception.fault.enabled=true
+ *     exception.fault.seed=42
+ *     exception.fault.endpoints.members-v2.mix.illegal-argument=0.05
+ *     exception.fault.endpoints.members-v2.mix.user=0.02
+ *     exception.fault.endpoints.members-v2.latency=20ms
+ *     exception.fault.endpoints.default.mix.runtime=0.01
+ *
+ * 실행 중 변경은 /actuator/faultinjection (FaultInjectionEndpoint)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.fault")
+public class FaultInjectionProperties {
+
+    //false면 엔드포인트별 확률 주입, 지연은 하지 않음 (ids는 항상 적용)
+    private boolean enabled = false;
+
+    //같은 seed면 엔드포인트마다 n번째 호출의 결과(예외 종류, 지연)가 항상 같음, 없으면 시작할 때 임의로 정하고 /actuator/faultinjection에 표시
+    private Long seed;
+
+    //latency + latency-jitter 상한 (요청 스레드, 일괄 조회 풀 스레드를 오래 붙잡지 않도록), 넘는 설정은 거절
+    private Duration maxLatency = Duration.ofSeconds(1);
+
+    //이 id로 조회하면 항상 해당 예외 (강의에서 사용하는 오류 id, 실패 결과는 NegativeLookupCache에 기억됨)
+    private Map<String, FaultType> ids = new LinkedHashMap<>(Map.of(
+            "ex", FaultType.RUNTIME,
+            "bad", FaultType.ILLEGAL_ARGUMENT,
+            "user-ex", FaultType.USER));
+
+    //엔드포인트 이름(members, members-v2, members-batch) -> 주입 설정, default는 따로 설정하지 않은 엔드포인트에 적용
+    private Map<String, EndpointFaults> endpoints = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class EndpointFaults {
+
+        //예외 종류 -> 호출당 확률, 합은 1 이하 (나머지는 정상 처리)
+        private Map<FaultType, Double> mix = new EnumMap<>(FaultType.class);
+
+        //지연: latency + [0, latency-jitter) 사이의 임의 값, latency-rate 비율의 호출에만
+        private Duration latency = Duration.ZERO;
+        private Duration latencyJitter = Duration.ZERO;
+        private double latencyRate = 1.0;
+    }
+}
@@ -0,0 +1,282 @@
+package hello.exception.fault;
+
+import hello.exception.exception.ExceptionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * [오류 주입]
+ * 오류 처리 코드를 실제 운영과 비슷한 예외 비율로 프로파일링하기 위해 조회에 예외와 지연을 주입
+ * 이전에는 MemberLookup에 하드코딩한 id(ex, bad, user-ex)로만 한 번에 한 가지 예외를 만들 수 있었음
+ *
+ * - inject(endpoint): 엔드포인트별 확률(mix)로 예외 종류를 고르고, 설정된 지연을 먼저 줌 (NegativeLookupCache에 기억되지 않음)
+ * - injectById(id): exception.fault.ids에 등록된 id면 항상 해당 예외 (기존 오류 id 동작)
+ *
+ * [반복 가능한 실행]
+ * 엔드포인트마다 호출 번호(n)를 세고, (seed, 엔드포인트 이름, n)에서 난수를 계산함 (공유 난수 생성기 없음, 락 없음)
+ * -> 같은 seed면 스레드 실행 순서와 관계없이 n번째 호출의 결과가 항상 같음
+ * 설정을 바꾸거나 reset 하면 호출 번호는 0부터 다시 시작
+ *
+ * 설정은 불변 Plan 객체로 만들어 통째로 교체함 (요청 스레드는 volatile 읽기 한 번)
+ */
+@Slf4j
+@Component
+public class FaultInjector {
+
+    private static final String DEFAULT_ENDPOINT = "default";
+
+    private final ExceptionFactory exceptionFactory;
+    private final long maxLatencyNanos;
+    private volatile Plan plan;
+
+    public FaultInjector(FaultInjectionProperties properties, ExceptionFactory exceptionFactory) {
+        this.exceptionFactory = exceptionFactory;
+        this.maxLatencyNanos = properties.getMaxLatency().toNanos();
+        long seed = properties.getSeed() != null ? properties.getSeed() : ThreadLocalRandom.current().nextLong();
+        Map<String, EndpointPlan> endpoints = new LinkedHashMap<>();
+        properties.getEndpoints().forEach((name, faults) -> endpoints.put(name, endpointPlan(name,
+                faults.getMix(), faults.getLatency(), faults.getLatencyJitter(), faults.getLatencyRate())));
+        this.plan = new Plan(properties.isEnabled(), seed, Map.copyOf(properties.getIds()), endpoints);
+        if (properties.isEnabled()) {
+            log.info("[fault] enabled seed={} endpoints={}", seed, endpoints.keySet());
+        }
+    }
+
+    /**
+     * 엔드포인트 설정에 따라 지연 후 예외를 던지거나 그냥 반환
+     */
+    public void inject(String endpoint) {
+        Plan current = plan;
+        if (!current.enabled) {
+            return;
+        }
+        EndpointPlan target = current.endpoints.get(endpoint);
+        if (target == null) {
+            target = current.endpoints.get(DEFAULT_ENDPOINT);
+            if (target == null) {
+                return;
+            }
+        }
+        long n = target.calls.getAndIncrement();
+        long random = mix64(current.seed ^ target.salt ^ (n * 0x9E3779B97F4A7C15L));
+        if (target.latencyNanos > 0 || target.jitterNanos > 0) {
+            long latencyRandom = mix64(random);
+            if (unit(latencyRandom) < target.latencyRate) {
+                target.delayed.increment();
+                sleep(target.latencyNanos + (long) (unit(mix64(latencyRandom)) * target.jitterNanos));
+            }
+        }
+        double u = unit(random);
+        for (int i = 0; i < target.thresholds.length; i++) {
+            if (u < target.thresholds[i]) {
+                target.injected[i].increment();
+                throw exception(target.types[i]);
+            }
+        }
+    }
+
+    /**
+     * exception.fault.ids에 등록된 id면 예외
+     */
+    public void injectById(String id) {
+        FaultType type = plan.ids.get(id);
+        if (type != null) {
+            throw exception(type);
+        }
+    }
+
+    /**
+     * 엔드포인트 설정을 바꾸거나 추가 (호출 번호는 0부터)
+     */
+    public void configure(String endpoint, Map<FaultType, Double> mix, Duration latency, Duration latencyJitter,
+                          double latencyRate) {
+        EndpointPlan created = endpointPlan(endpoint, mix, latency, latencyJitter, latencyRate);
+        synchronized (this) {
+            Plan current = plan;
+            Map<String, EndpointPlan> endpoints = new LinkedHashMap<>(current.endpoints);
+            endpoints.put(endpoint, created);
+            plan = new Plan(current.enabled, current.seed, current.ids, endpoints);
+        }
+        log.info("[fault] {} mix={} latency={} jitter={} rate={}", endpoint, mix, latency, latencyJitter, latencyRate);
+    }
+
+    public synchronized boolean remove(String endpoint) {
+        Plan current = plan;
+        if (!current.endpoints.containsKey(endpoint)) {
+            return false;
+        }
+        Map<String, EndpointPlan> endpoints = new LinkedHashMap<>(current.endpoints);
+        endpoints.remove(endpoint);
+        plan = new Plan(current.enabled, current.seed, current.ids, endpoints);
+        return true;
+    }
+
+    /**
+     * 모든 엔드포인트의 호출 번호, 집계를 0으로 (같은 seed로 같은 실행을 반복할 때)
+     *
+     * @param seed    null이면 기존 seed 유지
+     * @param enabled null이면 기존 값 유지
+     */
+    public synchronized void reset(Long seed, Boolean enabled) {
+        Plan current = plan;
+        Map<String, EndpointPlan> endpoints = new LinkedHashMap<>();
+        current.endpoints.forEach((name, endpoint) -> endpoints.put(name, endpoint.copy()));
+        plan = new Plan(enabled != null ? enabled : current.enabled, seed != null ? seed : current.seed,
+                current.ids, endpoints);
+        log.info("[fault] reset enabled={} seed={}", plan.enabled, plan.seed);
+    }
+
+    public Map<String, Object> snapshot() {
+        Plan current = plan;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        current.endpoints.forEach((name, endpoint) -> endpoints.put(name, endpoint.snapshot()));
+        Map<String, Object> ids = new LinkedHashMap<>();
+        current.ids.forEach((id, type) -> ids.put(id, type.key()));
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", current.enabled);
+        snapshot.put("seed", current.seed);
+        snapshot.put("ids", ids);
+        snapshot.put("endpoints", endpoints);
+        return snapshot;
+    }
+
+    private EndpointPlan endpointPlan(String name, Map<FaultType, Double> mix, Duration latency,
+                                      Duration latencyJitter, double latencyRate) {
+        if (latency.isNegative() || latencyJitter.isNegative()
+                || latency.toNanos() + latencyJitter.toNanos() > maxLatencyNanos) {
+            throw new IllegalArgumentException("latency + latency-jitter는 0 ~ max-latency("
+                    + Duration.ofNanos(maxLatencyNanos) + "): " + name + "=" + latency + "+" + latencyJitter);
+        }
+        return new EndpointPlan(name, mix, latency, latencyJitter, latencyRate);
+    }
+
+    private RuntimeException exception(FaultType type) {
+        switch (type) {
+            case RUNTIME:
+                return new RuntimeException("잘못된 사용자");
+            case ILLEGAL_ARGUMENT:
+                return new IllegalArgumentException("잘못된 입력 값");
+            case USER:
+                return exceptionFactory.userException("사용자 오류");
+            default:
+                return exceptionFactory.badRequest();
+        }
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //SplitMix64 마무리 함수: 연속된 입력도 고르게 퍼진 64비트 값으로
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    //[0, 1)
+    private static double unit(long random) {
+        return (random >>> 11) * 0x1.0p-53;
+    }
+
+    private static final class Plan {
+
+        private final boolean enabled;
+        private final long seed;
+        private final Map<String, FaultType> ids;
+        private final Map<String, EndpointPlan> endpoints;
+
+        private Plan(boolean enabled, long seed, Map<String, FaultType> ids, Map<String, EndpointPlan> endpoints) {
+            this.enabled = enabled;
+            this.seed = seed;
+            this.ids = ids;
+            this.endpoints = Collections.unmodifiableMap(endpoints);
+        }
+    }
+
+    private static final class EndpointPlan {
+
+        private final String name;
+        private final Map<FaultType, Double> mix;
+        private final Duration latency;
+        private final Duration latencyJitter;
+        //엔드포인트마다 다른 난수열
+        private final long salt;
+        private final FaultType[] types;
+        //누적 확률 (u < thresholds[i] 이면 types[i])
+        private final double[] thresholds;
+        private final long latencyNanos;
+        private final long jitterNanos;
+        private final double latencyRate;
+        private final AtomicLong calls = new AtomicLong();
+        private final LongAdder[] injected;
+        private final LongAdder delayed = new LongAdder();
+
+        private EndpointPlan(String name, Map<FaultType, Double> mix, Duration latency, Duration latencyJitter,
+                             double latencyRate) {
+            if (latencyRate < 0 || latencyRate > 1) {
+                throw new IllegalArgumentException("latency-rate는 0 ~ 1: " + name + "=" + latencyRate);
+            }
+            this.name = name;
+            this.mix = mix.isEmpty() ? Map.of() : Collections.unmodifiableMap(new EnumMap<>(mix));
+            this.latency = latency;
+            this.latencyJitter = latencyJitter;
+            this.salt = mix64(name.hashCode());
+            this.types = this.mix.keySet().toArray(new FaultType[0]);
+            this.thresholds = new double[types.length];
+            this.injected = new LongAdder[types.length];
+            double sum = 0;
+            for (int i = 0; i < types.length; i++) {
+                double probability = this.mix.get(types[i]);
+                if (probability < 0) {
+                    throw new IllegalArgumentException("확률은 0 이상: " + name + "." + types[i].key() + "=" + probability);
+                }
+                sum += probability;
+                thresholds[i] = sum;
+                injected[i] = new LongAdder();
+            }
+            if (sum > 1.0 + 1e-9) {
+                throw new IllegalArgumentException("확률 합은 1 이하: " + name + " " + mix);
+            }
+            this.latencyNanos = latency.toNanos();
+            this.jitterNanos = latencyJitter.toNanos();
+            this.latencyRate = latencyRate;
+        }
+
+        private EndpointPlan copy() {
+            return new EndpointPlan(name, mix, latency, latencyJitter, latencyRate);
+        }
+
+        private Map<String, Object> snapshot() {
+            Map<String, Object> configuredMix = new LinkedHashMap<>();
+            Map<String, Object> injectedCounts = new LinkedHashMap<>();
+            for (int i = 0; i < types.length; i++) {
+                configuredMix.put(types[i].key(), mix.get(types[i]));
+                injectedCounts.put(types[i].key(), injected[i].sum());
+            }
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("mix", configuredMix);
+            snapshot.put("latency", latency.toString());
+            snapshot.put("latencyJitter", latencyJitter.toString());
+            snapshot.put("latencyRate", latencyRate);
+            snapshot.put("calls", calls.get());
+            snapshot.put("injected", injectedCounts);
+            snapshot.put("delayed", delayed.sum());
+            return snapshot;
+        }
+    }
+}
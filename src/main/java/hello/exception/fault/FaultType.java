@@ -0,0 +1,30 @@
+package hello.exception.fault;
+
+import java.util.Locale;
+
+/**
+ * 주입할 수 있는 예외 종류 (기존 오류 id와 같은 예외, 같은 메시지)
+ * 설정에서는 runtime, illegal-argument, user, bad-request
+ */
+public enum FaultType {
+
+    //RuntimeException("잘못된 사용자") -> 500
+    RUNTIME,
+    //IllegalArgumentException("잘못된 입력 값") -> 400
+    ILLEGAL_ARGUMENT,
+    //UserException("사용자 오류") -> 400 (ExControllerAdvice, MyHandlerExceptionResolver)
+    USER,
+    //BadRequestException -> @ResponseStatus 400
+    BAD_REQUEST;
+
+    /**
+     * illegal-argument, ILLEGAL_ARGUMENT, illegal_argument 모두 허용
+     */
+    public static FaultType parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,91 @@
+package hello.exception.jfr;
+
+import hello.exception.metrics.ErrorPageMetricsInterceptor;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * [JFR: 오류 페이지 재요청 기록]
+ * WAS가 오류 페이지(/error-page/**, /error)로 다시 요청한 처리를 ExceptionResolutionEvent로 기록
+ * resolver는 처리한 컨트롤러 메서드 (ErrorPageController#errorPage500Api, BasicErrorController#error 등)
+ * 시간은 preHandle ~ afterCompletion (뷰 렌더링 포함), redispatch는 항상 true
+ *
+ * 녹화 중이 아니면 preHandle에서 isEnabled() 확인만 하고 요청 속성에 아무것도 남기지 않음
+ * (exception.error-page.mode=in-place면 재요청이 없으므로 기록되지 않음)
+ */
+public class ErrorDispatchRecordingInterceptor implements HandlerInterceptor {
+
+    private static final String EVENT = ErrorDispatchRecordingInterceptor.class.getName() + ".EVENT";
+
+    private final ErrorAttributes errorAttributes;
+    private final ConcurrentMap<Method, String> handlerNames = new ConcurrentHashMap<>();
+
+    public ErrorDispatchRecordingInterceptor(ErrorAttributes errorAttributes) {
+        this.errorAttributes = errorAttributes;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        //오류 페이지 경로를 직접 요청한 경우는 제외
+        if (request.getDispatcherType() != DispatcherType.ERROR) {
+            return true;
+        }
+        ExceptionResolutionEvent event = new ExceptionResolutionEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            request.setAttribute(EVENT, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object attribute = request.getAttribute(EVENT);
+        if (!(attribute instanceof ExceptionResolutionEvent)) {
+            return;
+        }
+        request.removeAttribute(EVENT);
+        ExceptionResolutionEvent event = (ExceptionResolutionEvent) attribute;
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.exceptionType = exceptionType(request);
+        event.resolver = handlerName(handler);
+        event.status = response.getStatus();
+        event.redispatch = true;
+        event.dispatcherType = request.getDispatcherType().name();
+        Object requestUri = request.getAttribute(RequestDispatcher.ERROR_REQUEST_URI);
+        event.requestUri = requestUri != null ? requestUri.toString() : request.getRequestURI();
+        event.commit();
+    }
+
+    //WAS가 남긴 예외 타입이 없으면(sendError로 재요청 등) resolver 체인에서 DefaultErrorAttributes가 보관한 예외
+    private Class<?> exceptionType(HttpServletRequest request) {
+        Class<?> type = ErrorPageMetricsInterceptor.exceptionType(request);
+        if (type != null) {
+            return type;
+        }
+        Throwable error = errorAttributes.getError(new ServletWebRequest(request));
+        return error != null ? error.getClass() : null;
+    }
+
+    private String handlerName(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return handler != null ? handler.getClass().getSimpleName() : null;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        return handlerNames.computeIfAbsent(handlerMethod.getMethod(),
+                method -> handlerMethod.getBeanType().getSimpleName() + "#" + method.getName());
+    }
+}
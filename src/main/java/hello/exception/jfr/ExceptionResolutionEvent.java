@@ -0,0 +1,50 @@
+package hello.exception.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * [JFR 이벤트] 예외 처리 한 번 (resolver 체인 한 바퀴, 또는 오류 페이지 재요청 한 번)
+ * - REQUEST: RecordingExceptionResolver가 resolver 체인 호출 시간을 기록
+ * - ERROR: ErrorDispatchRecordingInterceptor가 오류 페이지 컨트롤러 처리 시간(뷰 렌더링 포함)을 기록
+ *
+ * 녹화 중이 아니면 isEnabled()가 false -> 필드를 채우지도, 응답을 감싸지도 않음
+ * 같은 스레드, 같은 시간대의 GC(jdk.GarbageCollection), 할당(jdk.ObjectAllocationSample) 이벤트와 함께 JMC에서 분석
+ * 스택 트레이스는 수집하지 않음 (항상 켜 두는 녹화에서 비용을 줄이기 위해, 예외 위치는 handler로 구분)
+ */
+@Name(ExceptionResolutionEvent.NAME)
+@Label("Exception Resolution")
+@Description("예외 하나가 resolver 체인 또는 오류 페이지에서 처리된 과정")
+@Category({"Spring MVC", "Error Handling"})
+@StackTrace(false)
+public class ExceptionResolutionEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "hello.exception.ExceptionResolution";
+
+    @Label("Exception Type")
+    Class<?> exceptionType;
+
+    //처리한 resolver (ExceptionHandlerExceptionResolver는 처리한 @ExceptionHandler 메서드, 예: ExControllerAdvice#illegalExHandle)
+    @Label("Resolver")
+    String resolver;
+
+    @Label("Status")
+    int status;
+
+    //sendError 또는 처리되지 않은 예외 -> WAS가 오류 페이지로 다시 요청 (ERROR 이벤트가 하나 더 기록됨)
+    @Label("Redispatch")
+    boolean redispatch;
+
+    //예외를 던진 컨트롤러 메서드 (BeanType#method)
+    @Label("Handler")
+    String handler;
+
+    @Label("Dispatcher Type")
+    String dispatcherType;
+
+    @Label("Request URI")
+    String requestUri;
+}
@@ -0,0 +1,186 @@
+package hello.exception.jfr;
+
+import hello.exception.resolver.DispatchTableExceptionResolver;
+import org.springframework.web.method.ControllerAdviceBean;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * [JFR: resolver 체인 기록]
+ * WebConfig가 기본 resolver 목록(ExceptionHandlerExceptionResolver -> ResponseStatusExceptionResolver
+ * -> BindingErrorResolver -> DefaultHandlerExceptionResolver -> MyHandlerExceptionResolver)을 이 resolver 하나로 감쌈
+ * 목록을 직접 순서대로 호출하면서 처리한 resolver를 알아내고 ExceptionResolutionEvent로 기록
+ * (exception.resolver.dispatch-table=true면 DispatchTableExceptionResolver.route()가 고른 위치부터 호출)
+ *
+ * - 녹화 중이 아니면: 이벤트 객체 하나(탈출하지 않으므로 JIT가 제거) + isEnabled() 확인 후 기존 체인과 똑같이 호출
+ * - 녹화 중이면: 응답을 감싸서 sendError(-> 오류 페이지 재요청) 여부를 확인
+ *   처리한 @ExceptionHandler 메서드 이름은 (예외 타입, 핸들러 타입)마다 처음 한 번만 찾고 캐시
+ *
+ * 체인 밖에서 먼저 처리하는 ErrorStormExceptionResolver(저하 모드 고정 응답)는 기록하지 않음
+ */
+public class RecordingExceptionResolver implements HandlerExceptionResolver {
+
+    private static final String UNRESOLVED = "unresolved";
+
+    private final List<HandlerExceptionResolver> delegates;
+    private final DispatchTableExceptionResolver dispatchTable;
+    private final String[] names;
+
+    //예외 타입 -> (핸들러 타입 -> 처리한 @ExceptionHandler 메서드 이름), 핸들러 메서드가 아니면 Object.class
+    private final ClassValue<ConcurrentMap<Class<?>, String>> exceptionHandlerNames =
+            new ClassValue<ConcurrentMap<Class<?>, String>>() {
+                @Override
+                protected ConcurrentMap<Class<?>, String> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+    private final ConcurrentMap<Method, String> handlerNames = new ConcurrentHashMap<>();
+
+    public RecordingExceptionResolver(List<HandlerExceptionResolver> resolvers) {
+        if (resolvers.size() == 1 && resolvers.get(0) instanceof DispatchTableExceptionResolver) {
+            this.dispatchTable = (DispatchTableExceptionResolver) resolvers.get(0);
+            this.delegates = dispatchTable.getDelegates();
+        } else {
+            this.dispatchTable = null;
+            this.delegates = List.copyOf(resolvers);
+        }
+        this.names = new String[delegates.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = delegates.get(i).getClass().getSimpleName();
+        }
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Exception ex) {
+        ExceptionResolutionEvent event = new ExceptionResolutionEvent();
+        int start = dispatchTable != null ? dispatchTable.route(handler, ex) : 0;
+        if (!event.isEnabled()) {
+            for (int i = start; i < delegates.size(); i++) {
+                ModelAndView mav = delegates.get(i).resolveException(request, response, handler, ex);
+                if (mav != null) {
+                    return mav;
+                }
+            }
+            return null;
+        }
+
+        event.begin();
+        SendErrorTrackingResponse tracking = new SendErrorTrackingResponse(response);
+        ModelAndView mav = null;
+        int resolvedBy = start;
+        for (; resolvedBy < delegates.size(); resolvedBy++) {
+            mav = delegates.get(resolvedBy).resolveException(request, tracking, handler, ex);
+            if (mav != null) {
+                break;
+            }
+        }
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.exceptionType = ex.getClass();
+            event.handler = handlerName(handler);
+            event.dispatcherType = request.getDispatcherType().name();
+            event.requestUri = request.getRequestURI();
+            if (mav == null) {
+                //처리되지 않은 예외 -> WAS까지 전달되고 오류 페이지로 다시 요청
+                event.resolver = UNRESOLVED;
+                event.status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+                event.redispatch = true;
+            } else {
+                event.resolver = resolverName(resolvedBy, handler, ex);
+                event.status = tracking.sendErrorStatus > 0 ? tracking.sendErrorStatus
+                        : mav.getStatus() != null ? mav.getStatus().value() : response.getStatus();
+                event.redispatch = tracking.sendErrorStatus > 0;
+            }
+            event.commit();
+        }
+        return mav;
+    }
+
+    private String resolverName(int index, Object handler, Exception ex) {
+        HandlerExceptionResolver resolver = delegates.get(index);
+        if (!(resolver instanceof ExceptionHandlerExceptionResolver)) {
+            return names[index];
+        }
+        Class<?> handlerType = handler instanceof HandlerMethod ? ((HandlerMethod) handler).getBeanType() : null;
+        ConcurrentMap<Class<?>, String> byHandler = exceptionHandlerNames.get(ex.getClass());
+        Class<?> key = handlerType != null ? handlerType : Object.class;
+        String name = byHandler.get(key);
+        if (name == null) {
+            name = byHandler.computeIfAbsent(key, type ->
+                    exceptionHandlerName((ExceptionHandlerExceptionResolver) resolver, handlerType, ex.getClass()));
+        }
+        return name != null && !name.isEmpty() ? name : names[index];
+    }
+
+    /**
+     * ExceptionHandlerExceptionResolver.getExceptionHandlerMethod()와 같은 순서: 컨트롤러 내부 -> 어드바이스
+     * 예외 타입으로 찾지 못하면(원인 예외로 처리된 경우 등) 빈 문자열 -> resolver 이름으로 기록
+     */
+    private static String exceptionHandlerName(ExceptionHandlerExceptionResolver resolver, Class<?> handlerType,
+                                               Class<? extends Throwable> exceptionType) {
+        if (handlerType != null) {
+            Method method = new ExceptionHandlerMethodResolver(handlerType).resolveMethodByExceptionType(exceptionType);
+            if (method != null) {
+                return handlerType.getSimpleName() + "#" + method.getName();
+            }
+        }
+        for (Map.Entry<ControllerAdviceBean, ExceptionHandlerMethodResolver> entry
+                : resolver.getExceptionHandlerAdviceCache().entrySet()) {
+            if (entry.getKey().isApplicableToBeanType(handlerType)) {
+                Method method = entry.getValue().resolveMethodByExceptionType(exceptionType);
+                if (method != null) {
+                    return entry.getKey().getBeanType().getSimpleName() + "#" + method.getName();
+                }
+            }
+        }
+        return "";
+    }
+
+    private String handlerName(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return handler != null ? handler.getClass().getSimpleName() : null;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        return handlerNames.computeIfAbsent(handlerMethod.getMethod(),
+                method -> handlerMethod.getBeanType().getSimpleName() + "#" + method.getName());
+    }
+
+    /**
+     * resolver가 sendError를 호출했는지 확인 (상태 코드만 기억하고 그대로 전달)
+     */
+    private static final class SendErrorTrackingResponse extends HttpServletResponseWrapper {
+
+        private int sendErrorStatus;
+
+        private SendErrorTrackingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            sendErrorStatus = sc;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            sendErrorStatus = sc;
+            super.sendError(sc, msg);
+        }
+    }
+}
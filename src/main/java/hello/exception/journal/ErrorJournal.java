@@ -0,0 +1,284 @@
+package hello.exception.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * [오류 이벤트 저널]
+ * 처리한 예외마다 (시각, URI, 상태 코드, 예외 타입 id, fingerprint, handler id)를
+ * 메모리 매핑한 세그먼트 파일에 고정 형식 바이너리 레코드로 덧붙임
+ * 장애 후 분석은 텍스트 로그를 grep 하는 대신 ErrorJournalReader로 집계
+ *
+ * [덧붙이기]
+ * - 세그먼트의 쓰기 위치를 getAndAdd로 예약하고 그 영역에만 씀 -> 스레드끼리 락 없이 동시에 기록
+ * - 레코드 길이(헤더)를 setRelease로 마지막에 써서 완료를 표시
+ *   예약한 뒤 길이를 쓰지 못한 자리(기록 중 종료)는 ErrorJournalReader가 건너뛰고 다음 레코드를 찾음
+ * - 예약이 세그먼트 끝을 넘으면 그 위치에 END_OF_SEGMENT를 쓰고 다음 세그먼트를 만듦 (이때만 동기화)
+ *
+ * [파일 형식] errors-{생성 시각}-{순번}.journal, 빅 엔디언, 레코드는 8바이트 정렬
+ * 세그먼트 헤더(16): int MAGIC, int VERSION, long 생성 시각(epoch ms)
+ * 레코드 공통: int 길이(헤더 포함), byte 종류
+ * - EVENT(28 + uri): byte 0, short 상태 코드, long 시각, int 타입 id, int fingerprint, short handler id, short uri 길이, uri(UTF-8)
+ * - TYPE, HANDLER(12 + 이름): byte 0, short 이름 길이, int id, 이름(UTF-8)
+ * 타입, handler 이름은 세그먼트마다 처음 쓰일 때 그 세그먼트에 한 번 기록 (세그먼트 하나만으로 해석 가능)
+ */
+@Slf4j
+public class ErrorJournal implements Closeable {
+
+    static final int MAGIC = 0x45524A4E; //"ERJN"
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER = 16;
+    static final int END_OF_SEGMENT = -1;
+
+    static final byte EVENT = 1;
+    static final byte TYPE = 2;
+    static final byte HANDLER = 3;
+    static final int EVENT_FIXED = 28;
+    static final int NAME_FIXED = 12;
+    static final int MAX_URI_BYTES = 512;
+    //예외 없이 상태 코드만 있는 오류(sendError(404) 등)
+    static final int NO_TYPE = 0;
+
+    static final String PREFIX = "errors-";
+    static final String SUFFIX = ".journal";
+
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+    //다른 스레드가 쓴 레코드 헤더의 가시성 보장 (다이렉트 버퍼, 4바이트 정렬 위치에서만 사용)
+    static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    //프로세스 안에서 고정되는 이름 -> id, 세그먼트에는 처음 쓰일 때 이름 레코드를 남김
+    private final ConcurrentMap<String, Integer> typeIds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> handlerIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTypeId = new AtomicInteger(NO_TYPE + 1);
+    private final AtomicInteger nextHandlerId = new AtomicInteger(1);
+
+    private int sequence;
+    private volatile Segment current;
+
+    public ErrorJournal(Path directory, long segmentSize, int maxSegments) throws IOException {
+        if (segmentSize < 4096 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segment size must be between 4KB and 1GB: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = (int) (segmentSize & ~7L);
+        this.maxSegments = Math.max(1, maxSegments);
+        Files.createDirectories(directory);
+        this.current = openSegment();
+        //재시작할 때마다 세그먼트가 하나씩 늘어나므로 시작할 때도 max-segments 적용
+        deleteOldSegments();
+    }
+
+    /**
+     * @param type        예외 타입 이름, 없으면 null
+     * @param fingerprint 예외 fingerprint, 없으면 0
+     */
+    public void append(long timestamp, String uri, int status, String type, int fingerprint, String handler) {
+        int typeId = type == null ? NO_TYPE : typeIds.computeIfAbsent(type, k -> nextTypeId.getAndIncrement());
+        int handlerId = handlerIds.computeIfAbsent(handler, k -> nextHandlerId.getAndIncrement());
+        byte[] uriBytes = truncate(uri == null ? new byte[0] : uri.getBytes(StandardCharsets.UTF_8), MAX_URI_BYTES);
+        int length = align(EVENT_FIXED + uriBytes.length);
+        while (true) {
+            Segment segment = current;
+            if (segment == null) {
+                return;
+            }
+            //이름 레코드를 쓰다가 세그먼트가 가득 차면 다음 세그먼트에서 처음부터 다시
+            if (typeId != NO_TYPE && !define(segment, segment.types, TYPE, typeId, type)
+                    || !define(segment, segment.handlers, HANDLER, handlerId, handler)) {
+                continue;
+            }
+            int offset = segment.reserve(length);
+            if (offset < 0) {
+                roll(segment);
+                continue;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.put(offset + 4, EVENT);
+            buffer.putShort(offset + 6, (short) status);
+            buffer.putLong(offset + 8, timestamp);
+            buffer.putInt(offset + 16, typeId);
+            buffer.putInt(offset + 20, fingerprint);
+            buffer.putShort(offset + 24, (short) handlerId);
+            buffer.putShort(offset + 26, (short) uriBytes.length);
+            put(buffer, offset + EVENT_FIXED, uriBytes);
+            INT.setRelease(buffer, offset, length);
+            return;
+        }
+    }
+
+    /**
+     * 이 세그먼트에 id의 이름 레코드가 있으면 true, 없으면 기록
+     * 이름 레코드가 기록된 뒤에만 id를 defined에 넣으므로, 이 id를 쓰는 이벤트는 항상 이름 레코드 뒤에 위치함
+     * @return 세그먼트가 가득 차서 기록하지 못하면 false
+     */
+    private boolean define(Segment segment, Set<Integer> defined, byte kind, int id, String name) {
+        if (defined.contains(id)) {
+            return true;
+        }
+        byte[] nameBytes = truncate(name.getBytes(StandardCharsets.UTF_8), Short.MAX_VALUE);
+        int length = align(NAME_FIXED + nameBytes.length);
+        int offset = segment.reserve(length);
+        if (offset < 0) {
+            roll(segment);
+            return false;
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.put(offset + 4, kind);
+        buffer.putShort(offset + 6, (short) nameBytes.length);
+        buffer.putInt(offset + 8, id);
+        put(buffer, offset + NAME_FIXED, nameBytes);
+        INT.setRelease(buffer, offset, length);
+        defined.add(id);
+        return true;
+    }
+
+    private synchronized void roll(Segment full) {
+        if (current != full) {
+            //다른 스레드가 이미 교체함
+            return;
+        }
+        try {
+            current = openSegment();
+            deleteOldSegments();
+        } catch (IOException e) {
+            log.warn("error journal disabled: cannot open next segment in {}", directory, e);
+            current = null;
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        long now = System.currentTimeMillis();
+        FileChannel opened = null;
+        Path path = null;
+        //같은 밀리초에 재시작한 이전 프로세스의 파일과 겹치면 다음 순번으로
+        while (opened == null) {
+            path = directory.resolve(String.format("%s%d-%04d%s", PREFIX, now, sequence++ % 10000, SUFFIX));
+            try {
+                opened = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (FileAlreadyExistsException e) {
+                if (sequence >= 10000) {
+                    throw e;
+                }
+            }
+        }
+        try (FileChannel channel = opened) {
+            //매핑은 채널을 닫아도 유지됨
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, now);
+            return new Segment(path, buffer);
+        }
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    /**
+     * 디렉터리의 세그먼트 파일, 오래된 순서
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * 디스크에 반영하고 더 이상 기록하지 않음
+     */
+    @Override
+    public synchronized void close() {
+        Segment segment = current;
+        current = null;
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    static int align(int length) {
+        return (length + 7) & ~7;
+    }
+
+    private static byte[] truncate(byte[] bytes, int max) {
+        if (bytes.length <= max) {
+            return bytes;
+        }
+        byte[] truncated = new byte[max];
+        System.arraycopy(bytes, 0, truncated, 0, max);
+        return truncated;
+    }
+
+    //절대 위치 put(int, byte[])는 자바 16부터 있음
+    private static void put(MappedByteBuffer buffer, int offset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(offset + i, bytes[i]);
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final AtomicInteger position = new AtomicInteger(SEGMENT_HEADER);
+        private final Set<Integer> types = ConcurrentHashMap.newKeySet();
+        private final Set<Integer> handlers = ConcurrentHashMap.newKeySet();
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        /**
+         * @return 예약한 위치, 세그먼트가 가득 찼으면 -1
+         */
+        private int reserve(int length) {
+            int start = position.getAndAdd(length);
+            if (start + length <= capacity && start >= 0) {
+                return start;
+            }
+            //끝을 처음 넘은 스레드가 끝 표시를 남김 (다음 레코드가 들어갈 자리가 없다는 뜻)
+            if (start >= 0 && start < capacity) {
+                INT.setRelease(buffer, start, END_OF_SEGMENT);
+            }
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+}
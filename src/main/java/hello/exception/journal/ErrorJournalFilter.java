@@ -0,0 +1,84 @@
+package hello.exception.journal;
+
+import hello.exception.log.ErrorLogDeduplicator;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 요청이 끝난 뒤 오류 응답(예외 또는 4xx, 5xx)이면 ErrorJournal에 이벤트 하나를 기록
+ *
+ * - 예외: ExceptionResolver 체인에서 처리된 예외는 DefaultErrorAttributes가 request에 남긴 것을 사용,
+ *         처리되지 않고 WAS로 넘어가는 예외는 직접 잡음 (이때 상태 코드는 500)
+ * - handler: 요청을 처리한 컨트롤러 메서드 (ex. ApiExceptionV2Controller#getMember), 없으면 none
+ * - InPlaceErrorPageFilter가 렌더링한 최종 상태 코드를 보도록 가장 바깥쪽에 등록
+ */
+public class ErrorJournalFilter extends OncePerRequestFilter {
+
+    private static final String NO_HANDLER = "none";
+
+    private final ErrorJournal journal;
+    private final ErrorAttributes errorAttributes;
+    //로그의 [fp=...]와 같은 값, 로그를 남길 때 계산한 값이 있으면 재사용
+    private final ErrorLogDeduplicator errorLog;
+    private final ConcurrentMap<Method, String> handlerNames = new ConcurrentHashMap<>();
+
+    public ErrorJournalFilter(ErrorJournal journal, ErrorAttributes errorAttributes, ErrorLogDeduplicator errorLog) {
+        this.journal = journal;
+        this.errorAttributes = errorAttributes;
+        this.errorLog = errorLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Throwable thrown = null;
+        try {
+            chain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            thrown = e;
+            throw e;
+        } finally {
+            //비동기 요청(StreamingResponseBody 등)은 아직 응답이 끝나지 않았으므로 기록하지 않음
+            if (!request.isAsyncStarted()) {
+                record(request, response, thrown);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, Throwable thrown) {
+        Throwable error = thrown != null ? thrown : errorAttributes.getError(new ServletWebRequest(request));
+        int status = thrown != null ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+        if (error == null && status < 400) {
+            return;
+        }
+        //DispatcherServlet이 감싼 NestedServletException은 원인 예외로 기록
+        if (error instanceof ServletException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        journal.append(System.currentTimeMillis(), request.getRequestURI(), status,
+                error != null ? error.getClass().getName() : null,
+                error != null ? errorLog.fingerprint(request, error) : 0,
+                handlerName(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)));
+    }
+
+    private String handlerName(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return handlerNames.computeIfAbsent(handlerMethod.getMethod(),
+                    method -> handlerMethod.getBeanType().getSimpleName() + "#" + method.getName());
+        }
+        return handler != null ? handler.getClass().getSimpleName() : NO_HANDLER;
+    }
+}
@@ -0,0 +1,33 @@
+package hello.exception.journal;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 오류 이벤트 저널 설정
+ * ex) exception.journal.enabled=true
+ *     exception.journal.directory=build/error-journal
+ *     exception.journal.segment-size=64MB
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.journal")
+public class ErrorJournalProperties {
+
+    //켜면 세그먼트 파일(segment-size)을 미리 매핑하므로 필요할 때만 켬
+    private boolean enabled = false;
+
+    //세그먼트 파일을 만들 디렉터리
+    private Path directory = Paths.get("build", "error-journal");
+
+    //세그먼트 하나의 크기, 가득 차면 다음 세그먼트 파일로 넘어감 (최대 1GB)
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    //보관할 세그먼트 파일 개수, 넘으면 오래된 파일부터 삭제
+    private int maxSegments = 16;
+}
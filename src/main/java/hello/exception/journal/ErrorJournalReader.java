@@ -0,0 +1,256 @@
+package hello.exception.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static hello.exception.journal.ErrorJournal.*;
+
+/**
+ * [오류 이벤트 저널 리더 / CLI]
+ * 세그먼트 파일을 메모리 매핑해서 처음부터 순서대로 읽음
+ * 길이가 기록되지 않은 자리는 건너뛰고 세그먼트 끝(END_OF_SEGMENT 또는 파일 끝)까지 다음 레코드를 찾음
+ * 이름(타입, handler)은 세그먼트마다 int[] -> String 배열로 풀어 두므로 이벤트마다 문자열을 만들지 않음
+ *
+ * 실행: ./gradlew errorJournal -Pjournal.args="build/error-journal --by=type,status --top=20"
+ * 옵션: --by=type,status,handler,uri,fingerprint (집계 기준, 기본 type,status,handler)
+ *       --from=2026-01-01T00:00:00Z --to=... (시각 범위), --top=N (출력할 그룹 수)
+ */
+public final class ErrorJournalReader {
+
+    /**
+     * 디렉터리의 모든 세그먼트를 오래된 순서로 읽음
+     */
+    public static void read(Path directory, EventVisitor visitor) throws IOException {
+        for (Path segment : segments(directory)) {
+            readSegment(segment, visitor);
+        }
+    }
+
+    public static void readSegment(Path path, EventVisitor visitor) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < SEGMENT_HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("not an error journal segment: " + path);
+        }
+        Event event = new Event(buffer);
+        int offset = SEGMENT_HEADER;
+        while (offset + 8 <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length == END_OF_SEGMENT) {
+                break;
+            }
+            //예약만 하고 길이를 쓰지 못한 자리(기록 중 종료, 아직 기록 중인 다른 스레드)나 아직 기록되지 않은 끝부분
+            //-> 멈추지 않고 다음 8바이트 정렬 위치에서 레코드 헤더를 찾음 (뒤에 발행된 레코드를 숨기지 않도록)
+            if (!isRecord(buffer, offset, length)) {
+                offset += 8;
+                continue;
+            }
+            byte kind = buffer.get(offset + 4);
+            if (kind == EVENT) {
+                event.offset = offset;
+                visitor.visit(event);
+            } else {
+                int nameLength = buffer.getShort(offset + 6) & 0xFFFF;
+                int id = buffer.getInt(offset + 8);
+                event.define(kind, id, string(buffer, offset + NAME_FIXED, nameLength));
+            }
+            offset += length;
+        }
+    }
+
+    /**
+     * 길이, 종류, 가변 길이 필드(uri, 이름 길이)가 서로 맞는 레코드 헤더인지 확인
+     * 길이를 쓰지 못한 레코드 안쪽(시각, fingerprint ...)을 헤더로 잘못 읽지 않도록 모두 맞아야 레코드로 봄
+     */
+    private static boolean isRecord(MappedByteBuffer buffer, int offset, int length) {
+        if (length < NAME_FIXED || (length & 7) != 0 || offset + length > buffer.capacity()
+                || buffer.get(offset + 5) != 0) {
+            return false;
+        }
+        byte kind = buffer.get(offset + 4);
+        if (kind == EVENT) {
+            return length == align(EVENT_FIXED + (buffer.getShort(offset + 26) & 0xFFFF));
+        }
+        if (kind == TYPE || kind == HANDLER) {
+            return length == align(NAME_FIXED + (buffer.getShort(offset + 6) & 0xFFFF));
+        }
+        return false;
+    }
+
+    //절대 위치 get(int, byte[], int, int)는 자바 13부터 있음
+    private static String string(MappedByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    public interface EventVisitor {
+        /**
+         * @param event 세그먼트를 읽는 동안 재사용되는 객체, 보관하려면 값을 꺼내서 보관
+         */
+        void visit(Event event);
+    }
+
+    /**
+     * 현재 읽고 있는 이벤트 레코드에 대한 뷰
+     */
+    public static final class Event {
+
+        private final MappedByteBuffer buffer;
+        private String[] types = new String[16];
+        private String[] handlers = new String[16];
+        private int offset;
+
+        private Event(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            types[NO_TYPE] = "none";
+        }
+
+        public long timestamp() {
+            return buffer.getLong(offset + 8);
+        }
+
+        public int status() {
+            return buffer.getShort(offset + 6);
+        }
+
+        public String type() {
+            return name(types, buffer.getInt(offset + 16));
+        }
+
+        public int fingerprint() {
+            return buffer.getInt(offset + 20);
+        }
+
+        public String handler() {
+            return name(handlers, buffer.getShort(offset + 24) & 0xFFFF);
+        }
+
+        public String uri() {
+            return string(buffer, offset + EVENT_FIXED, buffer.getShort(offset + 26) & 0xFFFF);
+        }
+
+        private void define(byte kind, int id, String name) {
+            if (kind == TYPE) {
+                types = set(types, id, name);
+            } else {
+                handlers = set(handlers, id, name);
+            }
+        }
+
+        private static String[] set(String[] names, int id, String name) {
+            String[] result = id < names.length ? names : Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+            result[id] = name;
+            return result;
+        }
+
+        private static String name(String[] names, int id) {
+            String name = id < names.length ? names[id] : null;
+            return name != null ? name : "#" + id;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("by", "type,status,handler");
+        options.put("top", "20");
+        Path directory = Paths.get("build", "error-journal");
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                directory = Paths.get(arg);
+            }
+        }
+        if (!Files.isDirectory(directory)) {
+            System.err.println("journal directory not found: " + directory.toAbsolutePath());
+            System.exit(1);
+        }
+        String[] by = options.get("by").split(",");
+        long from = options.containsKey("from") ? Instant.parse(options.get("from")).toEpochMilli() : Long.MIN_VALUE;
+        long to = options.containsKey("to") ? Instant.parse(options.get("to")).toEpochMilli() : Long.MAX_VALUE;
+        int top = Integer.parseInt(options.get("top"));
+
+        Map<String, long[]> groups = new HashMap<>();
+        long[] total = new long[1];
+        long[] range = {Long.MAX_VALUE, Long.MIN_VALUE};
+        StringBuilder key = new StringBuilder();
+        long start = System.nanoTime();
+        List<Path> segments = segments(directory);
+        for (Path segment : segments) {
+            readSegment(segment, event -> {
+                long timestamp = event.timestamp();
+                if (timestamp < from || timestamp >= to) {
+                    return;
+                }
+                total[0]++;
+                range[0] = Math.min(range[0], timestamp);
+                range[1] = Math.max(range[1], timestamp);
+                key.setLength(0);
+                for (String field : by) {
+                    if (key.length() > 0) {
+                        key.append("  ");
+                    }
+                    appendField(key, field.trim(), event);
+                }
+                groups.computeIfAbsent(key.toString(), k -> new long[1])[0]++;
+            });
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%d segments, %d events in %dms%n", segments.size(), total[0], elapsedMillis);
+        if (total[0] > 0) {
+            System.out.printf("from %s to %s%n", Instant.ofEpochMilli(range[0]), Instant.ofEpochMilli(range[1]));
+        }
+        System.out.printf("%n%10s %7s  %s%n", "count", "%", String.join("  ", by));
+        List<Map.Entry<String, long[]>> sorted = new ArrayList<>(groups.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        for (Map.Entry<String, long[]> group : sorted.subList(0, Math.min(top, sorted.size()))) {
+            long count = group.getValue()[0];
+            System.out.printf("%10d %6.2f%%  %s%n", count, count * 100.0 / total[0], group.getKey());
+        }
+    }
+
+    private static void appendField(StringBuilder key, String field, Event event) {
+        switch (field) {
+            case "type":
+                key.append(event.type());
+                break;
+            case "status":
+                key.append(event.status());
+                break;
+            case "handler":
+                key.append(event.handler());
+                break;
+            case "uri":
+                key.append(event.uri());
+                break;
+            case "fingerprint":
+                key.append(Integer.toHexString(event.fingerprint()));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown --by field: " + field);
+        }
+    }
+
+    private ErrorJournalReader() {
+    }
+}
@@ -0,0 +1,354 @@
+package hello.exception.log;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * [비동기 오류 로그]
+ * 오류 처리 코드(ExControllerAdvice, MyHandlerExceptionResolver, ErrorPageController, ErrorLogDeduplicator)의 로그를
+ * 요청 스레드에서 바로 쓰지 않고 미리 할당한 링 버퍼에 넣고, 전용 스레드(error-log-writer)가 꺼내서 SLF4J로 씀
+ *
+ * - 요청 스레드: 레벨 확인 + 빈 칸 하나를 CAS로 차지하고 참조(logger, 포맷, 인자, 예외)만 저장
+ *   인자 2개까지는 고정 인자 메서드로 칸에 바로 저장하므로 할당 없음 (SLF4J의 info(format, arg1, arg2)와 같은 이유)
+ *   3개 이상은 호출하는 쪽에서 varargs 배열이 만들어짐
+ * - 메시지 포맷팅, 스택 트레이스 출력, appender I/O는 모두 writer 스레드에서 처리
+ *   -> 디스크가 느려도 오류 응답 지연에는 더해지지 않음
+ * - 버퍼가 가득 차면 full-policy: DROP(버리고 개수만 셈, writer가 버린 개수를 WARN으로 남김) 또는 BLOCK(빈 칸이 생길 때까지 대기)
+ *
+ * 인자는 나중에 포맷팅되므로 요청이 끝난 뒤 바뀌는 객체(ErrorContext 등)는 넘기지 말고 값을 꺼내서 넘겨야 함
+ * 로그의 스레드 이름은 error-log-writer, 원래 요청 스레드 이름은 MDC "requestThread"
+ * Micrometer: exception.log.async.written, exception.log.async.dropped, exception.log.async.pending
+ */
+@Slf4j
+@Component
+public class AsyncErrorLog {
+
+    private static final String REQUEST_THREAD = "requestThread";
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private enum Level {
+        INFO, WARN, ERROR
+    }
+
+    private final boolean enabled;
+    private final AsyncLogProperties.FullPolicy fullPolicy;
+    private final Slot[] slots;
+    private final int mask;
+    //다음에 차지할 칸 번호 (요청 스레드들이 CAS로 증가)
+    private final AtomicLong tail = new AtomicLong();
+    //다음에 꺼낼 칸 번호 (writer 스레드만 변경)
+    private volatile long head;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    public AsyncErrorLog(AsyncLogProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.fullPolicy = properties.getFullPolicy();
+        int size = Integer.highestOneBit(Math.max(2, properties.getBufferSize() - 1)) << 1;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+        if (enabled) {
+            writer = new Thread(this::drain, "error-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            writer = null;
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            bind(registry);
+        }
+    }
+
+    public void info(Logger logger, String message) {
+        if (logger.isInfoEnabled()) {
+            publish(logger, Level.INFO, message, 0, null, null, null, null);
+        }
+    }
+
+    public void info(Logger logger, String format, Object arg) {
+        if (logger.isInfoEnabled()) {
+            publish(logger, Level.INFO, format, 1, arg, null, null, null);
+        }
+    }
+
+    public void info(Logger logger, String format, Object arg1, Object arg2) {
+        if (logger.isInfoEnabled()) {
+            publish(logger, Level.INFO, format, 2, arg1, arg2, null, null);
+        }
+    }
+
+    public void info(Logger logger, String format, Object... args) {
+        if (logger.isInfoEnabled()) {
+            publish(logger, Level.INFO, format, args.length, null, null, args, null);
+        }
+    }
+
+    public void warn(Logger logger, String message) {
+        if (logger.isWarnEnabled()) {
+            publish(logger, Level.WARN, message, 0, null, null, null, null);
+        }
+    }
+
+    public void warn(Logger logger, String format, Object arg) {
+        if (logger.isWarnEnabled()) {
+            publish(logger, Level.WARN, format, 1, arg, null, null, null);
+        }
+    }
+
+    public void warn(Logger logger, String format, Object arg1, Object arg2) {
+        if (logger.isWarnEnabled()) {
+            publish(logger, Level.WARN, format, 2, arg1, arg2, null, null);
+        }
+    }
+
+    public void warn(Logger logger, String format, Object... args) {
+        if (logger.isWarnEnabled()) {
+            publish(logger, Level.WARN, format, args.length, null, null, args, null);
+        }
+    }
+
+    public void error(Logger logger, String message, Throwable e) {
+        if (logger.isErrorEnabled()) {
+            publish(logger, Level.ERROR, message, 0, null, null, null, e);
+        }
+    }
+
+    public void error(Logger logger, String format, Object arg, Throwable e) {
+        if (logger.isErrorEnabled()) {
+            publish(logger, Level.ERROR, format, 1, arg, null, null, e);
+        }
+    }
+
+    /**
+     * ErrorLogDeduplicator의 "{} [fp={}]" + 예외
+     */
+    public void error(Logger logger, String format, Object arg1, Object arg2, Throwable e) {
+        if (logger.isErrorEnabled()) {
+            publish(logger, Level.ERROR, format, 2, arg1, arg2, null, e);
+        }
+    }
+
+    /**
+     * SLF4J와 같이 마지막 인자가 예외이면 스택 트레이스로 출력
+     */
+    public void error(Logger logger, String format, Object... args) {
+        if (logger.isErrorEnabled()) {
+            publish(logger, Level.ERROR, format, args.length, null, null, args, null);
+        }
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long pending() {
+        return tail.get() - head;
+    }
+
+    /**
+     * args가 null이면 인자는 argCount개(0~2)의 arg1, arg2
+     */
+    private void publish(Logger logger, Level level, String format, int argCount, Object arg1, Object arg2,
+                         Object[] args, Throwable error) {
+        if (!enabled || !running) {
+            write(logger, level, format, arguments(argCount, arg1, arg2, args), error);
+            return;
+        }
+        while (true) {
+            long position = tail.get();
+            Slot slot = slots[(int) position & mask];
+            long available = slot.sequence - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slot.logger = logger;
+                    slot.level = level;
+                    slot.format = format;
+                    slot.argCount = argCount;
+                    slot.arg1 = arg1;
+                    slot.arg2 = arg2;
+                    slot.args = args;
+                    slot.error = error;
+                    slot.thread = Thread.currentThread().getName();
+                    //writer는 sequence를 보고 칸을 꺼내므로 가장 마지막에 기록
+                    slot.sequence = position + 1;
+                    if (parked) {
+                        LockSupport.unpark(writer);
+                    }
+                    return;
+                }
+            } else if (available < 0) {
+                //한 바퀴 전의 칸을 writer가 아직 꺼내지 않음 = 가득 참
+                if (fullPolicy == AsyncLogProperties.FullPolicy.DROP) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                if (!running) {
+                    write(logger, level, format, arguments(argCount, arg1, arg2, args), error);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        long reportedDrops = 0;
+        while (true) {
+            long position = head;
+            Slot slot = slots[(int) position & mask];
+            if (slot.sequence == position + 1) {
+                consume(slot);
+                slot.sequence = position + slots.length;
+                head = position + 1;
+                continue;
+            }
+            long drops = dropped.sum();
+            if (drops != reportedDrops) {
+                log.warn("[async-log] {} records dropped (buffer full, buffer-size={})", drops - reportedDrops,
+                        slots.length);
+                reportedDrops = drops;
+            }
+            if (!running) {
+                return;
+            }
+            parked = true;
+            //parked 기록 후 다시 확인 (그 사이에 들어온 기록을 놓치지 않도록)
+            if (slot.sequence != position + 1) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            parked = false;
+        }
+    }
+
+    private void consume(Slot slot) {
+        MDC.put(REQUEST_THREAD, slot.thread);
+        try {
+            write(slot.logger, slot.level, slot.format,
+                    arguments(slot.argCount, slot.arg1, slot.arg2, slot.args), slot.error);
+            written.increment();
+        } catch (RuntimeException e) {
+            //appender 오류로 writer 스레드가 멈추지 않도록
+            log.warn("[async-log] write failed", e);
+        } finally {
+            MDC.remove(REQUEST_THREAD);
+            slot.clear();
+        }
+    }
+
+    //인자 배열은 writer 스레드(또는 비동기를 사용하지 않을 때)에서 만듦
+    private static Object[] arguments(int argCount, Object arg1, Object arg2, Object[] args) {
+        if (args != null) {
+            return args;
+        }
+        switch (argCount) {
+            case 0:
+                return NO_ARGS;
+            case 1:
+                return new Object[]{arg1};
+            default:
+                return new Object[]{arg1, arg2};
+        }
+    }
+
+    private static void write(Logger logger, Level level, String format, Object[] args, Throwable error) {
+        Object[] arguments = args;
+        if (error != null) {
+            arguments = args == null ? new Object[]{error} : append(args, error);
+        }
+        switch (level) {
+            case INFO:
+                logger.info(format, arguments);
+                break;
+            case WARN:
+                logger.warn(format, arguments);
+                break;
+            default:
+                logger.error(format, arguments);
+        }
+    }
+
+    private static Object[] append(Object[] args, Throwable error) {
+        Object[] arguments = new Object[args.length + 1];
+        System.arraycopy(args, 0, arguments, 0, args.length);
+        arguments[args.length] = error;
+        return arguments;
+    }
+
+    private void bind(MeterRegistry registry) {
+        FunctionCounter.builder("exception.log.async.written", written, LongAdder::sum)
+                .description("비동기 오류 로그 기록 수")
+                .register(registry);
+        FunctionCounter.builder("exception.log.async.dropped", dropped, LongAdder::sum)
+                .description("버퍼가 가득 차서 버린 오류 로그 수")
+                .register(registry);
+        Gauge.builder("exception.log.async.pending", this, AsyncErrorLog::pending)
+                .description("링 버퍼에서 기록을 기다리는 오류 로그 수")
+                .register(registry);
+    }
+
+    /**
+     * 남은 기록을 모두 쓰고 종료 (ErrorLogDeduplicator가 종료하면서 남기는 요약까지 기록되도록 나중에 종료됨)
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Slot {
+
+        //position + 1 이면 기록됨(writer가 꺼낼 차례), position이면 비어 있음(요청 스레드가 차지할 차례)
+        private volatile long sequence;
+        private Logger logger;
+        private Level level;
+        private String format;
+        private int argCount;
+        private Object arg1;
+        private Object arg2;
+        private Object[] args;
+        private Throwable error;
+        private String thread;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        private void clear() {
+            logger = null;
+            format = null;
+            arg1 = null;
+            arg2 = null;
+            args = null;
+            error = null;
+            thread = null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package hello.exception.log;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 비동기 오류 로그 설정
+ * ex) exception.log.async.enabled=true
+ *     exception.log.async.buffer-size=8192
+ *     exception.log.async.full-policy=drop
+ *
+ * enabled=false(기본) 이면 요청 스레드에서 바로 로그를 남김 (기존 동작)
+ * 켜면 full-policy=drop일 때 버퍼가 가득 차면 오류 로그가 버려지므로 로그 출력이 병목인 경우에만 켜서 사용
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.log.async")
+public class AsyncLogProperties {
+
+    public enum FullPolicy {
+        //버리고 버린 개수만 셈 (요청 스레드가 기다리지 않음)
+        DROP,
+        //빈 칸이 생길 때까지 요청 스레드가 기다림 (로그 유실 없음)
+        BLOCK
+    }
+
+    private boolean enabled = false;
+
+    //링 버퍼 칸 수, 2의 거듭제곱으로 올림
+    private int bufferSize = 8192;
+
+    //버퍼가 가득 찼을 때 동작
+    private FullPolicy fullPolicy = FullPolicy.DROP;
+}
@@ -0,0 +1,210 @@
+package hello.exception.log;
+
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.ServletRequest;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * [오류 로그 중복 제거]
+ * 장애 상황에서는 같은 예외가 초당 수천 번 발생하고, 매번 같은 스택 트레이스를 남기면
+ * 로그 디스크와 appender I/O 때문에 애플리케이션까지 느려짐
+ *
+ * - 예외 타입 + 위쪽 스택 프레임(+ 원인 예외 타입)으로 int fingerprint를 만듦 (메시지는 id 같은 가변 값이 섞이므로 제외)
+ *   문자열을 만들지 않고 각 이름의 (캐시된) hashCode를 조합, 로그의 [fp=...]와 오류 이벤트 저널의 fingerprint는 같은 값
+ * - 중복 판단 키는 (fingerprint, 로그 메시지 해시), 처음 나온 키는 스택 트레이스를 전부 남기고 이후에는 횟수만 셈
+ * - 계산한 fingerprint는 request attribute에 남겨서 ErrorJournalFilter가 다시 계산하지 않음
+ * - summary-interval 마다 반복된 fingerprint별로 요약 한 줄을 남김
+ *
+ * 스택 트레이스가 없는 예외(ExceptionFactory stackless/shared)는 타입만으로 구분됨
+ * 실제 기록은 AsyncErrorLog가 writer 스레드에서 처리 (스택 트레이스 포맷팅도 요청 스레드 밖에서)
+ */
+@Component
+public class ErrorLogDeduplicator {
+
+    /**
+     * 마지막으로 기록한 예외와 fingerprint (FingerprintedError)
+     */
+    public static final String FINGERPRINT_ATTRIBUTE = ErrorLogDeduplicator.class.getName() + ".FINGERPRINT";
+
+    //순환 참조하는 cause 체인 방지
+    private static final int MAX_CAUSE_DEPTH = 8;
+
+    private final ErrorLogProperties properties;
+    private final AsyncErrorLog asyncLog;
+    private final ConcurrentMap<Long, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile long windowStart = System.nanoTime();
+
+    public ErrorLogDeduplicator(ErrorLogProperties properties, AsyncErrorLog asyncLog) {
+        this.properties = properties;
+        this.asyncLog = asyncLog;
+        if (properties.isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "error-log-summary");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getSummaryInterval().toMillis();
+            scheduler.scheduleAtFixedRate(this::summarize, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * log.error(message, e)와 같음. 같은 fingerprint가 이미 기록됐으면 횟수만 셈
+     */
+    public void error(Logger logger, String message, Throwable e) {
+        if (!properties.isEnabled()) {
+            asyncLog.error(logger, message, e);
+            return;
+        }
+        int hash = fingerprint(e);
+        remember(e, hash);
+        //같은 예외라도 로그를 남기는 위치(메시지)가 다르면 따로 셈
+        Long key = ((long) hash << 32) | (message.hashCode() & 0xFFFFFFFFL);
+        Fingerprint fingerprint = fingerprints.get(key);
+        if (fingerprint == null) {
+            if (fingerprints.size() >= properties.getMaxFingerprints()) {
+                //보관 한도를 넘으면 중복 제거 없이 기존처럼 기록
+                asyncLog.error(logger, message, e);
+                return;
+            }
+            Fingerprint created = new Fingerprint(logger, message, e.getClass().getName(), hash);
+            fingerprint = fingerprints.putIfAbsent(key, created);
+            if (fingerprint == null) {
+                asyncLog.error(logger, "{} [fp={}]", message, created.id, e);
+                return;
+            }
+        }
+        if (!fingerprint.message.equals(message)) {
+            //메시지 해시 충돌, 다른 메시지를 같은 요약에 섞지 않음
+            asyncLog.error(logger, "{} [fp={}]", message, fingerprint.id, e);
+            return;
+        }
+        fingerprint.repeats.increment();
+    }
+
+    /**
+     * 마지막 요약 이후 반복된 fingerprint마다 요약 한 줄
+     */
+    void summarize() {
+        long now = System.nanoTime();
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(now - windowStart);
+        windowStart = now;
+        boolean full = fingerprints.size() >= properties.getMaxFingerprints();
+        for (Iterator<Fingerprint> it = fingerprints.values().iterator(); it.hasNext(); ) {
+            Fingerprint fingerprint = it.next();
+            long repeats = fingerprint.repeats.sumThenReset();
+            if (repeats == 0) {
+                if (full) {
+                    it.remove();
+                }
+                continue;
+            }
+            fingerprint.total += repeats;
+            asyncLog.warn(fingerprint.logger, "{} [fp={}] {} repeated {} times in last {}s (total {})",
+                    fingerprint.message, fingerprint.id, fingerprint.type, repeats, seconds, fingerprint.total + 1);
+        }
+    }
+
+    /**
+     * 예외 타입 + 위쪽 스택 프레임(+ 원인 예외 타입)의 해시 (로그의 [fp=...], 오류 이벤트 저널에 기록)
+     */
+    public int fingerprint(Throwable e) {
+        return fingerprintOf(e);
+    }
+
+    /**
+     * 같은 요청에서 이미 기록한 예외이면 그때 계산한 값을 사용 (ErrorJournalFilter)
+     */
+    public int fingerprint(ServletRequest request, Throwable e) {
+        Object remembered = request.getAttribute(FINGERPRINT_ATTRIBUTE);
+        if (remembered instanceof FingerprintedError && ((FingerprintedError) remembered).error == e) {
+            return ((FingerprintedError) remembered).fingerprint;
+        }
+        return fingerprintOf(e);
+    }
+
+    /**
+     * 요청 스레드에서 기록했으면 ErrorJournalFilter가 다시 계산하지 않도록 남겨 둠
+     * (ExceptionResolver는 DispatcherServlet 안에서 실행되므로 RequestContextHolder가 설정되어 있음)
+     */
+    private static void remember(Throwable e, int fingerprint) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(FINGERPRINT_ATTRIBUTE, new FingerprintedError(e, fingerprint),
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    int fingerprintOf(Throwable e) {
+        int hash = e.getClass().getName().hashCode();
+        StackTraceElement[] stackTrace = e.getStackTrace();
+        int frames = Math.min(properties.getFrames(), stackTrace.length);
+        for (int i = 0; i < frames; i++) {
+            StackTraceElement frame = stackTrace[i];
+            hash = 31 * hash + frame.getClassName().hashCode();
+            hash = 31 * hash + frame.getMethodName().hashCode();
+            hash = 31 * hash + frame.getLineNumber();
+        }
+        //감싼 예외는 원인 타입까지 구분 (ex. NestedServletException(UserException))
+        Throwable cause = e.getCause();
+        for (int depth = 0; cause != null && depth < MAX_CAUSE_DEPTH; depth++, cause = cause.getCause()) {
+            hash = 31 * hash + cause.getClass().getName().hashCode();
+        }
+        return hash;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            //종료 전에 남은 횟수를 기록
+            summarize();
+        }
+    }
+
+    private static final class Fingerprint {
+        private final Logger logger;
+        private final String message;
+        private final String type;
+        private final String id;
+        private final LongAdder repeats = new LongAdder();
+        //요약 스레드에서만 변경
+        private long total;
+
+        Fingerprint(Logger logger, String message, String type, int fingerprint) {
+            this.logger = logger;
+            this.message = message;
+            this.type = type;
+            this.id = Integer.toHexString(fingerprint);
+        }
+    }
+
+    private static final class FingerprintedError {
+        private final Throwable error;
+        private final int fingerprint;
+
+        FingerprintedError(Throwable error, int fingerprint) {
+            this.error = error;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package hello.exception.log;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 오류 로그 중복 제거 설정
+ * ex) exception.log.dedup.enabled=true
+ *     exception.log.dedup.summary-interval=60s
+ *
+ * enabled=false 이면 매번 스택 트레이스를 전부 남김 (기존 동작)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.log.dedup")
+public class ErrorLogProperties {
+
+    private boolean enabled = true;
+
+    //반복 횟수 요약 로그를 남기는 주기
+    private Duration summaryInterval = Duration.ofSeconds(60);
+
+    //fingerprint에 사용할 스택 프레임 개수 (위에서부터)
+    private int frames = 5;
+
+    //보관할 fingerprint 최대 개수, 넘으면 요약 시점에 반복이 없던 fingerprint부터 정리
+    private int maxFingerprints = 1024;
+}
@@ -0,0 +1,183 @@
+package hello.exception.message;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 시작 시점(또는 reload 시점)에 만든 불변 메시지 카탈로그
+ *
+ * ResourceBundleMessageSource는 조회할 때마다 로케일 후보(ko_KR -> ko -> 시스템 로케일 -> 기본)를 따라가며
+ * 번들을 찾고, 인자가 있으면 MessageFormat을 캐시에서 꺼내 씀
+ * 이 카탈로그는 번들 체인(basename마다 실제로 사용할 번들 로케일 목록, 예: [messages_en, messages])마다
+ * 그 결과를 미리 펼쳐 둔 Map(code -> CompiledMessage) 하나로 만듦
+ * - 인자 없는 메시지: Map 조회 두 번으로 원본 문자열을 그대로 반환 (할당 없음)
+ * - 인자 있는 메시지: 요청 로케일로 파싱한 MessageFormat을 메시지마다 캐시해서 사용
+ *
+ * 번들 체인 수는 메시지 파일 조합으로 정해지므로 Accept-Language로 어떤 로케일이 들어와도
+ * 카탈로그를 새로 펼치지 않음 (fr, de, ja ... 처럼 번들이 없는 로케일은 모두 같은 기본 체인)
+ * 요청 로케일 -> 체인 결과는 MAX_CACHED_LOCALES개까지만 캐시하고, 넘으면 체인만 다시 계산
+ */
+final class MessageCatalog {
+
+    //Accept-Language로 임의의 로케일이 계속 들어와도 캐시가 무한히 커지지 않도록 제한
+    private static final int MAX_CACHED_LOCALES = 64;
+    //메시지 하나가 로케일별로 캐시하는 MessageFormat 수
+    private static final int MAX_FORMATS_PER_MESSAGE = 16;
+
+    //basename 순서 유지, basename -> (번들 로케일 -> code -> message)
+    private final Map<String, Map<Locale, Map<String, String>>> bundles;
+    private final boolean fallbackToSystemLocale;
+    private final Locale systemLocale;
+    //번들 체인(basename 순서대로 체인 하나씩) -> code -> CompiledMessage
+    private final ConcurrentMap<List<List<Locale>>, Map<String, CompiledMessage>> compiled = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Locale, Map<String, CompiledMessage>> byLocale = new ConcurrentHashMap<>();
+
+    MessageCatalog(Map<String, Map<Locale, Map<String, String>>> bundles, boolean fallbackToSystemLocale,
+                   Locale systemLocale) {
+        this.bundles = bundles;
+        this.fallbackToSystemLocale = fallbackToSystemLocale;
+        this.systemLocale = systemLocale;
+        //파일이 있는 로케일과 시스템 로케일은 미리 펼쳐 둠
+        for (Map<Locale, Map<String, String>> byBundleLocale : bundles.values()) {
+            for (Locale locale : byBundleLocale.keySet()) {
+                messages(locale);
+            }
+        }
+        messages(systemLocale);
+    }
+
+    CompiledMessage get(String code, Locale locale) {
+        return messages(locale).get(code);
+    }
+
+    /**
+     * 펼쳐 둔 번들 체인 수
+     */
+    int size() {
+        return compiled.size();
+    }
+
+    private Map<String, CompiledMessage> messages(Locale locale) {
+        Map<String, CompiledMessage> messages = byLocale.get(locale);
+        if (messages != null) {
+            return messages;
+        }
+        messages = compiled.computeIfAbsent(chains(locale), this::compile);
+        if (byLocale.size() < MAX_CACHED_LOCALES) {
+            byLocale.putIfAbsent(locale, messages);
+        }
+        return messages;
+    }
+
+    private List<List<Locale>> chains(Locale locale) {
+        List<List<Locale>> chains = new ArrayList<>(bundles.size());
+        for (Map<Locale, Map<String, String>> byBundleLocale : bundles.values()) {
+            chains.add(bundleChain(byBundleLocale.keySet(), locale));
+        }
+        return chains;
+    }
+
+    /**
+     * 앞쪽 basename이 우선, 같은 basename 안에서는 구체적인 로케일 번들이 우선
+     */
+    private Map<String, CompiledMessage> compile(List<List<Locale>> chains) {
+        Map<String, CompiledMessage> result = new HashMap<>();
+        int index = 0;
+        for (Map<Locale, Map<String, String>> byBundleLocale : bundles.values()) {
+            for (Locale bundleLocale : chains.get(index++)) {
+                Map<String, String> bundle = byBundleLocale.get(bundleLocale);
+                for (Map.Entry<String, String> entry : bundle.entrySet()) {
+                    if (!result.containsKey(entry.getKey())) {
+                        result.put(entry.getKey(), new CompiledMessage(entry.getValue()));
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * ResourceBundle.getBundle()과 같은 순서
+     * 요청 로케일 후보 중 있는 번들 -> 하나도 없으면 시스템 로케일 후보 -> 기본 번들(Locale.ROOT)
+     */
+    private List<Locale> bundleChain(Set<Locale> available, Locale locale) {
+        List<Locale> chain = new ArrayList<>();
+        addCandidates(chain, available, locale);
+        //Locale.ROOT로 요청하면 기본 번들만 사용 (ResourceBundle과 같이 시스템 로케일로 넘어가지 않음)
+        if (chain.isEmpty() && fallbackToSystemLocale && !locale.equals(Locale.ROOT) && !locale.equals(systemLocale)) {
+            addCandidates(chain, available, systemLocale);
+        }
+        if (available.contains(Locale.ROOT)) {
+            chain.add(Locale.ROOT);
+        }
+        return chain;
+    }
+
+    private static void addCandidates(List<Locale> chain, Set<Locale> available, Locale locale) {
+        List<Locale> candidates = List.of(
+                locale,
+                new Locale(locale.getLanguage(), locale.getCountry()),
+                new Locale(locale.getLanguage()));
+        for (Locale candidate : candidates) {
+            if (!candidate.equals(Locale.ROOT) && available.contains(candidate) && !chain.contains(candidate)) {
+                chain.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * 메시지 원본 + 로케일별 MessageFormat
+     * 숫자, 날짜 형식은 요청 로케일을 따르므로 (ResourceBundleMessageSource와 같이) 같은 번들 체인이라도 로케일마다 파싱함
+     * 인자와 함께 처음 조회될 때 만들고 MAX_FORMATS_PER_MESSAGE개까지 보관, 넘으면 매번 파싱
+     */
+    static final class CompiledMessage {
+
+        private final String message;
+        //잘못된 형식이면 인자와 함께 조회할 때 ResourceBundleMessageSource와 같이 IllegalArgumentException
+        private final IllegalArgumentException invalid;
+        private final ConcurrentMap<Locale, MessageFormat> formats = new ConcurrentHashMap<>();
+
+        CompiledMessage(String message) {
+            this.message = message;
+            IllegalArgumentException error = null;
+            try {
+                new MessageFormat(message, Locale.ROOT);
+            } catch (IllegalArgumentException e) {
+                error = e;
+            }
+            this.invalid = error;
+        }
+
+        String message() {
+            return message;
+        }
+
+        String format(Object[] args, Locale locale) {
+            if (invalid != null) {
+                throw new IllegalArgumentException(invalid.getMessage() + ": " + message, invalid);
+            }
+            MessageFormat format = formats.get(locale);
+            if (format == null) {
+                format = new MessageFormat(message, locale);
+                if (formats.size() < MAX_FORMATS_PER_MESSAGE) {
+                    MessageFormat previous = formats.putIfAbsent(locale, format);
+                    if (previous != null) {
+                        format = previous;
+                    }
+                }
+            }
+            //MessageFormat은 thread-safe 하지 않음 (AbstractMessageSource와 같이 동기화)
+            synchronized (format) {
+                return format.format(args);
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package hello.exception.message;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [미리 컴파일한 MessageSource]
+ * 스프링 부트가 등록하는 ResourceBundleMessageSource 대신 "messageSource" 이름으로 등록됨
+ * (MessageSourceAutoConfiguration은 messageSource 빈이 있으면 동작하지 않음)
+ *
+ * @ResponseStatus(reason = "error.bad"), ResponseStatusException("error.bad")의 reason은
+ * ResponseStatusExceptionResolver가 예외가 발생할 때마다 MessageSource에서 찾음
+ * -> 시작 시점에 messages*.properties를 모두 읽어서 MessageCatalog로 만들어 두고 조회만 함
+ *
+ * spring.messages.basename, encoding, fallback-to-system-locale 설정은 그대로 사용
+ * exception.messages.reload=true 이면 파일 시스템에 있는 메시지 파일이 바뀔 때 카탈로그를 새로 만들어 통째로 교체함
+ * (jar 안의 파일은 감시하지 않음)
+ */
+@Slf4j
+@Component("messageSource")
+public class PrecompiledMessageSource implements MessageSource {
+
+    private static final String SUFFIX = ".properties";
+
+    private final String[] basenames;
+    private final Charset encoding;
+    private final boolean fallbackToSystemLocale;
+    private final ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+
+    //reload 시 새 카탈로그로 한 번에 교체 (조회 중인 스레드는 이전 카탈로그를 끝까지 사용)
+    private volatile MessageCatalog catalog;
+    private WatchService watchService;
+
+    public PrecompiledMessageSource(@Value("${spring.messages.basename:messages}") String[] basenames,
+                                    @Value("${spring.messages.encoding:UTF-8}") Charset encoding,
+                                    @Value("${spring.messages.fallback-to-system-locale:true}") boolean fallbackToSystemLocale,
+                                    @Value("${exception.messages.reload:false}") boolean reload) {
+        this.basenames = basenames;
+        this.encoding = encoding;
+        this.fallbackToSystemLocale = fallbackToSystemLocale;
+        this.catalog = compile();
+        if (reload) {
+            watch();
+        }
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+        String message = resolve(code, args, locale);
+        if (message != null) {
+            return message;
+        }
+        return defaultMessage == null ? null : render(defaultMessage, args, locale);
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, Locale locale) throws NoSuchMessageException {
+        String message = resolve(code, args, locale);
+        if (message == null) {
+            throw new NoSuchMessageException(code, locale(locale));
+        }
+        return message;
+    }
+
+    @Override
+    public String getMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
+        String[] codes = resolvable.getCodes();
+        if (codes != null) {
+            for (String code : codes) {
+                String message = resolve(code, resolvable.getArguments(), locale);
+                if (message != null) {
+                    return message;
+                }
+            }
+        }
+        String defaultMessage = resolvable.getDefaultMessage();
+        if (defaultMessage != null) {
+            return render(defaultMessage, resolvable.getArguments(), locale);
+        }
+        throw new NoSuchMessageException(!ObjectUtils.isEmpty(codes) ? codes[codes.length - 1] : "", locale(locale));
+    }
+
+    /**
+     * 인자가 없으면 원본 문자열을 그대로 반환 (AbstractMessageSource와 같이 MessageFormat을 거치지 않음)
+     */
+    private String resolve(String code, Object[] args, Locale locale) {
+        if (code == null) {
+            return null;
+        }
+        MessageCatalog.CompiledMessage message = catalog.get(code, locale(locale));
+        if (message == null) {
+            return null;
+        }
+        if (ObjectUtils.isEmpty(args)) {
+            return message.message();
+        }
+        return message.format(resolveArguments(args, locale), locale(locale));
+    }
+
+    private String render(String defaultMessage, Object[] args, Locale locale) {
+        if (ObjectUtils.isEmpty(args)) {
+            return defaultMessage;
+        }
+        try {
+            return new MessageFormat(defaultMessage, locale(locale)).format(resolveArguments(args, locale));
+        } catch (IllegalArgumentException e) {
+            return defaultMessage;
+        }
+    }
+
+    private Object[] resolveArguments(Object[] args, Locale locale) {
+        Object[] resolved = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof MessageSourceResolvable) {
+                if (resolved == null) {
+                    resolved = args.clone();
+                }
+                resolved[i] = getMessage((MessageSourceResolvable) args[i], locale);
+            }
+        }
+        return resolved != null ? resolved : args;
+    }
+
+    private static Locale locale(Locale locale) {
+        return locale != null ? locale : Locale.getDefault();
+    }
+
+    /**
+     * basename마다 basename.properties, basename_언어.properties, basename_언어_국가.properties 를 읽음
+     */
+    private MessageCatalog compile() {
+        Map<String, Map<Locale, Map<String, String>>> bundles = new LinkedHashMap<>();
+        int files = 0;
+        for (String basename : basenames) {
+            String path = path(basename);
+            Map<Locale, Map<String, String>> byLocale = new HashMap<>();
+            try {
+                //클래스패스 루트의 jar 안은 패턴으로 찾지 못할 수 있으므로 기본 파일과 시스템 로케일 파일은 직접 확인
+                Locale system = Locale.getDefault();
+                for (String suffix : List.of("", "_" + system.getLanguage(), "_" + system)) {
+                    Resource resource = resourceResolver.getResource("classpath:" + path + suffix + SUFFIX);
+                    Locale locale = localeOf(path, resource.getFilename());
+                    if (resource.exists() && locale != null && !byLocale.containsKey(locale)) {
+                        byLocale.put(locale, load(resource));
+                        files++;
+                    }
+                }
+                for (Resource resource : resourceResolver.getResources("classpath*:" + path + "*" + SUFFIX)) {
+                    Locale locale = localeOf(path, resource.getFilename());
+                    //클래스패스에 같은 파일이 여러 개 있으면 ResourceBundle과 같이 앞의 것을 사용
+                    if (locale != null && !byLocale.containsKey(locale)) {
+                        byLocale.put(locale, load(resource));
+                        files++;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bundles.put(path, byLocale);
+        }
+        MessageCatalog compiled = new MessageCatalog(bundles, fallbackToSystemLocale, Locale.getDefault());
+        log.info("message catalog compiled: {} files, {} bundle chains", files, compiled.size());
+        return compiled;
+    }
+
+    //"classpath:i18n/messages" -> "i18n/messages"
+    private static String path(String basename) {
+        return StringUtils.trimLeadingCharacter(StringUtils.trimAllWhitespace(basename).replace("classpath:", ""), '/');
+    }
+
+    private static Locale localeOf(String path, String filename) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (filename == null || !filename.startsWith(name) || !filename.endsWith(SUFFIX)) {
+            return null;
+        }
+        String suffix = filename.substring(name.length(), filename.length() - SUFFIX.length());
+        if (suffix.isEmpty()) {
+            return Locale.ROOT;
+        }
+        if (!suffix.startsWith("_")) {
+            return null;
+        }
+        String[] parts = suffix.substring(1).split("_", 3);
+        return new Locale(parts[0], parts.length > 1 ? parts[1] : "", parts.length > 2 ? parts[2] : "");
+    }
+
+    private Map<String, String> load(Resource resource) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), encoding)) {
+            properties.load(reader);
+        }
+        Map<String, String> messages = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            messages.put(key, properties.getProperty(key));
+        }
+        return messages;
+    }
+
+    /**
+     * 파일 시스템에 있는 메시지 파일의 디렉터리를 감시하고, 변경되면 다시 컴파일해서 교체
+     */
+    private void watch() {
+        Set<Path> directories = new LinkedHashSet<>();
+        for (String basename : basenames) {
+            String path = path(basename);
+            try {
+                for (Resource resource : resourceResolver.getResources("classpath*:" + path + "*" + SUFFIX)) {
+                    if (resource.isFile()) {
+                        directories.add(resource.getFile().toPath().getParent());
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("message reload disabled: {}", path, e);
+            }
+        }
+        if (directories.isEmpty()) {
+            log.info("message reload: no message files on the file system");
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path directory : directories) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            log.warn("message reload disabled", e);
+            return;
+        }
+        Thread watcher = new Thread(this::watchLoop, "message-reload");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("message reload: watching {}", directories);
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                //저장 중에 여러 이벤트가 연속으로 오므로 잠시 모았다가 한 번만 다시 컴파일
+                TimeUnit.MILLISECONDS.sleep(200);
+                boolean changed = key.pollEvents().stream()
+                        .anyMatch(event -> String.valueOf(event.context()).endsWith(SUFFIX));
+                key.reset();
+                if (changed) {
+                    try {
+                        catalog = compile();
+                    } catch (RuntimeException e) {
+                        //잘못된 파일이면 이전 카탈로그를 계속 사용
+                        log.warn("message reload failed, keep previous catalog", e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //종료
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package hello.exception.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * [예외 처리 메트릭]
+ * 예외를 처리한 곳(handler) x 예외 타입 별로 처리 횟수, 처리 지연 시간(고정 버킷 히스토그램), 응답 크기를 기록
+ * handler: illegalExHandle, userExHandle, exHandle(ExControllerAdvice), MyHandlerExceptionResolver,
+ *          errorPage404, errorPage500, errorPage500Api(ErrorPageController)
+ *
+ * - 기록은 LongAdder, LongAccumulator만 사용 (스레드마다 다른 셀에 더하므로 경합 없음)
+ * - handler(name)은 시작 시점에 한 번 꺼내서 필드로 보관하고, 예외 타입별 통계는 처음 한 번만 생성
+ * - 조회: /actuator/errormetrics (JSON), Micrometer: exception.resolution, exception.response.size
+ */
+@Component
+public class ErrorMetrics {
+
+    //바디 크기를 아는 뷰(StaticErrorPage 등)가 렌더링하면서 남기는 request attribute (Integer)
+    public static final String RESPONSE_BYTES_ATTRIBUTE = ErrorMetrics.class.getName() + ".RESPONSE_BYTES";
+
+    //예외 없이 상태 코드만 있는 오류(sendError(404) 등)
+    private static final Class<?> NO_EXCEPTION = Void.class;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ConcurrentMap<String, Handler> handlers = new ConcurrentHashMap<>();
+
+    public ErrorMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Handler handler(String name) {
+        return handlers.computeIfAbsent(name, Handler::new);
+    }
+
+    /**
+     * handler -> 예외 타입 -> 통계
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        handlers.forEach((name, handler) -> {
+            Map<String, Object> byType = new TreeMap<>();
+            handler.stats.forEach((type, stats) -> byType.put(stats.exception, stats.snapshot()));
+            result.put(name, byType);
+        });
+        return result;
+    }
+
+    public final class Handler {
+
+        private final String name;
+        private final ConcurrentMap<Class<?>, Stats> stats = new ConcurrentHashMap<>();
+
+        private Handler(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param exceptionType null이면 예외 없는 오류로 기록
+         * @param startNanos    처리 시작 시점의 System.nanoTime()
+         * @param responseBytes 응답 바디 크기, 알 수 없으면 음수 (횟수, 지연 시간만 기록)
+         */
+        public void record(Class<?> exceptionType, long startNanos, long responseBytes) {
+            long elapsed = System.nanoTime() - startNanos;
+            Class<?> key = exceptionType != null ? exceptionType : NO_EXCEPTION;
+            Stats s = stats.get(key);
+            if (s == null) {
+                s = stats.computeIfAbsent(key, this::create);
+            }
+            s.latency.record(elapsed);
+            if (responseBytes >= 0) {
+                s.sized.increment();
+                s.bytes.add(responseBytes);
+                s.maxBytes.accumulate(responseBytes);
+            }
+        }
+
+        private Stats create(Class<?> type) {
+            Stats created = new Stats(type == NO_EXCEPTION ? "none" : type.getName());
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                created.bind(registry, name);
+            }
+            return created;
+        }
+    }
+
+    private static final class Stats {
+
+        private final String exception;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder sized = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAccumulator maxBytes = new LongAccumulator(Math::max, 0);
+
+        private Stats(String exception) {
+            this.exception = exception;
+        }
+
+        private void bind(MeterRegistry registry, String handler) {
+            FunctionTimer.builder("exception.resolution", latency,
+                            LatencyHistogram::count, LatencyHistogram::totalNanos, TimeUnit.NANOSECONDS)
+                    .description("예외 처리 횟수와 처리 시간")
+                    .tag("handler", handler).tag("exception", exception)
+                    .register(registry);
+            FunctionCounter.builder("exception.response.size", bytes, LongAdder::sum)
+                    .description("예외 응답 바디 크기 합계")
+                    .baseUnit("bytes")
+                    .tag("handler", handler).tag("exception", exception)
+                    .register(registry);
+            Gauge.builder("exception.response.size.max", maxBytes, LongAccumulator::get)
+                    .baseUnit("bytes")
+                    .tag("handler", handler).tag("exception", exception)
+                    .register(registry);
+        }
+
+        private Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            Map<String, Object> latencySnapshot = latency.snapshot();
+            result.put("count", latencySnapshot.get("count"));
+            result.put("latency", latencySnapshot);
+            long sizedCount = sized.sum();
+            long totalBytes = bytes.sum();
+            Map<String, Object> size = new LinkedHashMap<>();
+            size.put("count", sizedCount);
+            size.put("totalBytes", totalBytes);
+            size.put("meanBytes", sizedCount == 0 ? 0 : totalBytes / sizedCount);
+            size.put("maxBytes", maxBytes.get());
+            result.put("responseSize", size);
+            return result;
+        }
+    }
+}
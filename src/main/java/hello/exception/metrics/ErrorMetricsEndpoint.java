@@ -0,0 +1,25 @@
+package hello.exception.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/errormetrics
+ * ErrorMetrics 스냅샷을 JSON으로 반환 (management.endpoints.web.exposure.include에 추가해야 노출됨)
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "errormetrics")
+public class ErrorMetricsEndpoint {
+
+    private final ErrorMetrics errorMetrics;
+
+    @ReadOperation
+    public Map<String, Object> errorMetrics() {
+        return errorMetrics.snapshot();
+    }
+}
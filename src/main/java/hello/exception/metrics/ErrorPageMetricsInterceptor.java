@@ -0,0 +1,62 @@
+package hello.exception.metrics;
+
+import hello.exception.servlet.ErrorContext;
+import hello.exception.servlet.ErrorPageController;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * ErrorPageController(/error-page/**) 처리 시간을 뷰 렌더링까지 포함해서 기록
+ * handler 이름은 컨트롤러 메서드 이름 (errorPage404, errorPage500, errorPage500Api)
+ *
+ * 응답 크기는 뷰가 ErrorMetrics.RESPONSE_BYTES_ATTRIBUTE를 남긴 경우(미리 렌더링한 오류 페이지 등)에만 기록
+ * (Thymeleaf, 메시지 컨버터는 바디를 스트림으로 바로 쓰므로 크기를 알 수 없음)
+ */
+public class ErrorPageMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START = ErrorPageMetricsInterceptor.class.getName() + ".START";
+
+    private final ErrorMetrics errorMetrics;
+
+    public ErrorPageMetricsInterceptor(ErrorMetrics errorMetrics) {
+        this.errorMetrics = errorMetrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START);
+        if (!(start instanceof Long) || !(handler instanceof HandlerMethod)) {
+            return;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        if (handlerMethod.getBeanType() != ErrorPageController.class) {
+            return;
+        }
+        errorMetrics.handler(handlerMethod.getMethod().getName())
+                .record(exceptionType(request), (Long) start, responseBytes(request));
+    }
+
+    public static Class<?> exceptionType(HttpServletRequest request) {
+        ErrorContext context = ErrorContext.current(request);
+        if (context != null) {
+            return context.getExceptionType();
+        }
+        Object type = request.getAttribute(RequestDispatcher.ERROR_EXCEPTION_TYPE);
+        return type instanceof Class ? (Class<?>) type : null;
+    }
+
+    public static long responseBytes(HttpServletRequest request) {
+        Object bytes = request.getAttribute(ErrorMetrics.RESPONSE_BYTES_ATTRIBUTE);
+        return bytes instanceof Integer ? (Integer) bytes : -1;
+    }
+}
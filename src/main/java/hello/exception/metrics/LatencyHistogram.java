@@ -0,0 +1,90 @@
+package hello.exception.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 고정 버킷 지연 시간 히스토그램
+ * 버킷 상한: 1us, 2us, 4us ... 2^24us(약 16.8초), 그 이상은 마지막 버킷
+ *
+ * 기록할 때는 버킷 위치 계산 + LongAdder 증가만 하므로 락이나 CAS 경합이 없음
+ * 백분위수는 버킷 상한으로 근사함
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 26;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = Math.max(nanos, 0) / 1000;
+        //micros <= 2^i 인 가장 작은 i
+        int index = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+        buckets[Math.min(index, BUCKETS - 1)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", total);
+        result.put("meanMicros", total == 0 ? 0 : totalNanos.sum() / total / 1000.0);
+        result.put("maxMicros", maxNanos.get() / 1000.0);
+        result.put("p50Micros", percentile(counts, total, 0.50));
+        result.put("p90Micros", percentile(counts, total, 0.90));
+        result.put("p99Micros", percentile(counts, total, 0.99));
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                histogram.put(i == BUCKETS - 1 ? "+Inf" : "le " + upperMicros(i) + "us", counts[i]);
+            }
+        }
+        result.put("buckets", histogram);
+        return result;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperMicros(i);
+            }
+        }
+        return upperMicros(BUCKETS - 1);
+    }
+
+    private static long upperMicros(int index) {
+        return 1L << index;
+    }
+}
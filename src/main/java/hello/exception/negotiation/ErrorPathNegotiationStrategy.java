@@ -0,0 +1,38 @@
+package hello.exception.negotiation;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+
+import javax.servlet.RequestDispatcher;
+import java.util.List;
+
+/**
+ * 오류 재요청(/error, /error-page/**)에서만 ErrorResponseNegotiator로 Accept를 해석하고
+ * 나머지 요청은 원래 전략(HeaderContentNegotiationStrategy)에 그대로 위임
+ *
+ * WebConfig가 ContentNegotiationManager의 HeaderContentNegotiationStrategy 자리만 이 전략으로 바꿈
+ * -> 전략 목록과 순서(spring.mvc.contentnegotiation.favor-parameter 등)는 스프링 부트 설정 그대로
+ * -> 일반 컨트롤러의 produces 매핑, 메시지 컨버터 선택은 기존과 같음
+ */
+public class ErrorPathNegotiationStrategy implements ContentNegotiationStrategy {
+
+    private final ErrorResponseNegotiator negotiator;
+    private final ContentNegotiationStrategy delegate;
+
+    public ErrorPathNegotiationStrategy(ErrorResponseNegotiator negotiator, ContentNegotiationStrategy delegate) {
+        this.negotiator = negotiator;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<MediaType> resolveMediaTypes(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        //오류 재요청에는 WAS가 오류 상태 코드를 요청 속성으로 넣어 줌
+        if (request.getAttribute(RequestDispatcher.ERROR_STATUS_CODE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return negotiator.resolveMediaTypes(request);
+        }
+        return delegate.resolveMediaTypes(request);
+    }
+}
@@ -0,0 +1,236 @@
+package hello.exception.negotiation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * [오류 응답 Accept 협상]
+ * 오류 응답을 JSON으로 줄지 HTML(뷰)로 줄지 Accept 헤더로 결정
+ *
+ * 이전에는 경로마다 다르게 판단함
+ * - MyHandlerExceptionResolver: Accept가 정확히 "application/json"일 때만 JSON
+ *   (application/json, * / * 같은 값은 HTML 뷰로 빠짐)
+ * - ErrorPageController, BasicErrorController: produces 매핑 (요청마다 Accept를 다시 파싱하고 정렬)
+ * - InPlaceErrorPageFilter: 직접 파싱
+ *
+ * 모든 오류 경로가 이 클래스 하나를 사용
+ * - negotiate(): 오류 경로에서 JSON / HTML 선택
+ * - encoding(): 데이터 응답 인코딩 선택 JSON / CBOR / Smile (내부 서비스 클라이언트용 바이너리 응답)
+ * - resolveMediaTypes(): 오류 재요청에서 ContentNegotiationManager가 사용 (ErrorPathNegotiationStrategy)
+ *   (오류 경로의 produces 매핑, 메시지 컨버터 선택도 같은 파싱 결과 사용)
+ *
+ * 실제 클라이언트가 보내는 Accept 값은 몇 가지뿐이므로 원본 헤더 문자열 -> 파싱, 정렬 결과를 캐시
+ * 캐시에 있으면 ConcurrentHashMap 조회 한 번으로 끝남
+ * 임의의 헤더 값이 계속 들어와도 max-entries를 넘으면 가장 오래 사용하지 않은 값부터 제거 (LRU)
+ */
+@Component
+public class ErrorResponseNegotiator implements ContentNegotiationStrategy {
+
+    public enum Representation {
+        JSON, HTML
+    }
+
+    /**
+     * 데이터(ErrorResult, MemberDto) 응답 인코딩
+     */
+    public enum Encoding {
+        JSON(MediaType.APPLICATION_JSON),
+        CBOR(MediaType.APPLICATION_CBOR),
+        SMILE(new MediaType("application", "x-jackson-smile"));
+
+        private final MediaType mediaType;
+
+        Encoding(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public boolean isBinary() {
+            return this != JSON;
+        }
+    }
+
+    private final int maxEntries;
+    private final ConcurrentMap<String, Negotiated> cache = new ConcurrentHashMap<>();
+    //캐시 미스마다 1 증가, 조회된 항목은 마지막으로 본 값을 기록 (미스가 없으면 조회 시 쓰기도 없음)
+    private final AtomicLong clock = new AtomicLong();
+
+    public ErrorResponseNegotiator(@Value("${exception.negotiation.max-entries:256}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Accept 헤더가 없거나 잘못된 값이면 HTML
+     */
+    public Representation negotiate(HttpServletRequest request) {
+        return negotiate(request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    public Representation negotiate(String accept) {
+        if (accept == null) {
+            return Representation.HTML;
+        }
+        return negotiated(accept).representation;
+    }
+
+    /**
+     * Accept에서 CBOR, Smile이 JSON이나 와일드카드보다 먼저 나오면 바이너리, 나머지는 모두 JSON
+     * (바이너리는 명시적으로 요청한 클라이언트에게만)
+     * 바이너리가 아니면 기존처럼 negotiate()로 JSON / HTML을 결정
+     */
+    public Encoding encoding(HttpServletRequest request) {
+        return encoding(request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    public Encoding encoding(String accept) {
+        if (accept == null) {
+            return Encoding.JSON;
+        }
+        return negotiated(accept).encoding;
+    }
+
+    /**
+     * HeaderContentNegotiationStrategy와 같은 결과 (정렬된 목록, 없으면 * / *, 잘못된 값이면 406 예외)
+     * 반환하는 목록은 캐시에 보관된 것이므로 수정할 수 없음
+     */
+    @Override
+    public List<MediaType> resolveMediaTypes(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        String[] values = request.getHeaderValues(HttpHeaders.ACCEPT);
+        if (values == null) {
+            return MEDIA_TYPE_ALL_LIST;
+        }
+        Negotiated negotiated = negotiated(values.length == 1 ? values[0] : String.join(",", values));
+        if (negotiated.mediaTypes == null) {
+            throw new HttpMediaTypeNotAcceptableException(
+                    "Could not parse 'Accept' header " + List.of(values) + ": " + negotiated.error);
+        }
+        return negotiated.mediaTypes;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private Negotiated negotiated(String accept) {
+        Negotiated negotiated = cache.get(accept);
+        if (negotiated != null) {
+            long now = clock.get();
+            if (negotiated.lastUsed != now) {
+                negotiated.lastUsed = now;
+            }
+            return negotiated;
+        }
+        negotiated = parse(accept);
+        negotiated.lastUsed = clock.incrementAndGet();
+        if (cache.size() >= maxEntries) {
+            evictLeastRecentlyUsed();
+        }
+        Negotiated existing = cache.putIfAbsent(accept, negotiated);
+        return existing != null ? existing : negotiated;
+    }
+
+    //캐시가 가득 찬 상태의 미스에서만 호출됨
+    private void evictLeastRecentlyUsed() {
+        String eldest = null;
+        long eldestUsed = Long.MAX_VALUE;
+        for (Map.Entry<String, Negotiated> entry : cache.entrySet()) {
+            if (entry.getValue().lastUsed < eldestUsed) {
+                eldestUsed = entry.getValue().lastUsed;
+                eldest = entry.getKey();
+            }
+        }
+        if (eldest != null) {
+            cache.remove(eldest);
+        }
+    }
+
+    private static Negotiated parse(String accept) {
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return new Negotiated(null, e.getMessage(), Representation.HTML, Encoding.JSON);
+        }
+        if (mediaTypes.isEmpty()) {
+            return new Negotiated(MEDIA_TYPE_ALL_LIST, null, Representation.HTML, Encoding.JSON);
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        return new Negotiated(Collections.unmodifiableList(mediaTypes), null, representation(mediaTypes),
+                encoding(mediaTypes));
+    }
+
+    /**
+     * produces = application/json 매핑과 produces가 없는(HTML) 매핑 중 스프링이 고르는 쪽과 같음
+     * (ProducesRequestCondition.compareTo: 정렬된 Accept를 앞에서부터 보며 먼저 맞는 매핑을 선택)
+     * - * / * 가 먼저 나오면 HTML
+     * - application/json을 포함하는 타입(application/json, application/*)이 먼저 나오면 JSON
+     * - 둘 다 없으면(text/html, image/png ...) produces 매핑이 선택되지 않으므로 HTML
+     * 정렬은 구체적인 타입이 먼저이고, 스프링과 같이 q=0도 따로 제외하지 않음
+     * ex) "application/json, * / *" -> JSON, "text/html, application/json" -> JSON, "text/html" -> HTML
+     */
+    private static Representation representation(List<MediaType> sorted) {
+        for (MediaType mediaType : sorted) {
+            if (mediaType.isWildcardType()) {
+                return Representation.HTML;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return Representation.JSON;
+            }
+        }
+        return Representation.HTML;
+    }
+
+    private static Encoding encoding(List<MediaType> sorted) {
+        for (MediaType mediaType : sorted) {
+            if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+                return Encoding.JSON;
+            }
+            if (mediaType.equalsTypeAndSubtype(Encoding.CBOR.mediaType)) {
+                return Encoding.CBOR;
+            }
+            if (mediaType.equalsTypeAndSubtype(Encoding.SMILE.mediaType)) {
+                return Encoding.SMILE;
+            }
+            if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)) {
+                return Encoding.JSON;
+            }
+        }
+        return Encoding.JSON;
+    }
+
+    private static final class Negotiated {
+
+        //null이면 잘못된 Accept 값
+        private final List<MediaType> mediaTypes;
+        private final String error;
+        private final Representation representation;
+        private final Encoding encoding;
+        //동기화하지 않음, 제거 대상이 조금 부정확해져도 상관없음
+        private long lastUsed;
+
+        private Negotiated(List<MediaType> mediaTypes, String error, Representation representation,
+                           Encoding encoding) {
+            this.mediaTypes = mediaTypes;
+            this.error = error;
+            this.representation = representation;
+            this.encoding = encoding;
+        }
+    }
+}
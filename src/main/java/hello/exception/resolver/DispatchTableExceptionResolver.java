@@ -0,0 +1,277 @@
+package hello.exception.resolver;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.ConversionNotSupportedException;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.validation.BindException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingPathVariableException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.method.ControllerAdviceBean;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.NoHandlerFoundException;
+import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * [디스패치 테이블 ExceptionResolver]
+ * 스프링은 예외가 발생하면 ExceptionResolver 목록을 순서대로 호출함
+ * ExceptionHandlerExceptionResolver -> ResponseStatusExceptionResolver
+ * -> DefaultHandlerExceptionResolver -> MyHandlerExceptionResolver(WebConfig에서 추가)
+ * 각 resolver는 자기가 처리할 수 없으면 null을 반환하고 다음 resolver로 넘어감
+ *
+ * 이 resolver는 (핸들러 타입, 예외 타입) 조합마다 "처음으로 처리할 수 있는 resolver의 위치"를
+ * 시작 시점에 계산해 두고, 예외 발생 시 그 위치부터 호출함
+ * - 앞쪽 resolver들은 어차피 null을 반환하므로 건너뛰어도 결과가 같음
+ * - 선택한 resolver가 null을 반환하면(처리 중 오류 등) 기존 체인처럼 다음 resolver로 이어서 진행
+ * - 테이블에 없는 예외 자식 타입은 ClassValue로 처음 한 번만 계산하고 캐시
+ *
+ * 활성화: exception.resolver.dispatch-table=true (WebConfig 참고)
+ */
+@Slf4j
+public class DispatchTableExceptionResolver implements HandlerExceptionResolver {
+
+    //DefaultHandlerExceptionResolver가 처리하는 스프링 내부 예외 (spring-webmvc 5.3 기준)
+    private static final List<Class<? extends Exception>> DEFAULT_HANDLER_TYPES = List.of(
+            HttpRequestMethodNotSupportedException.class, HttpMediaTypeNotSupportedException.class,
+            HttpMediaTypeNotAcceptableException.class, MissingPathVariableException.class,
+            MissingServletRequestParameterException.class, ServletRequestBindingException.class,
+            ConversionNotSupportedException.class, TypeMismatchException.class,
+            HttpMessageNotReadableException.class, HttpMessageNotWritableException.class,
+            MethodArgumentNotValidException.class, MissingServletRequestPartException.class,
+            BindException.class, NoHandlerFoundException.class, AsyncRequestTimeoutException.class);
+
+    private final List<HandlerExceptionResolver> delegates;
+
+    //precompile() 전에는 null -> 기존 체인과 똑같이 처음부터 호출
+    private volatile Table table;
+
+    public DispatchTableExceptionResolver(List<HandlerExceptionResolver> delegates) {
+        this.delegates = List.copyOf(delegates);
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Exception ex) {
+        for (int i = route(handler, ex); i < delegates.size(); i++) {
+            ModelAndView mav = delegates.get(i).resolveException(request, response, handler, ex);
+            if (mav != null) {
+                return mav;
+            }
+        }
+        return null;
+    }
+
+    public List<HandlerExceptionResolver> getDelegates() {
+        return delegates;
+    }
+
+    /**
+     * 컨트롤러 어드바이스와 핸들러 매핑 정보가 모두 준비된 뒤(ContextRefreshedEvent) 호출
+     * 등록된 모든 핸들러 타입 x 알려진 예외 타입 조합을 미리 계산함
+     */
+    public void precompile(ApplicationContext context) {
+        List<Advice> advices = new ArrayList<>();
+        for (ControllerAdviceBean adviceBean : ControllerAdviceBean.findAnnotatedBeans(context)) {
+            Class<?> beanType = adviceBean.getBeanType();
+            if (beanType == null) {
+                continue;
+            }
+            ExceptionHandlerMethodResolver resolver = new ExceptionHandlerMethodResolver(beanType);
+            if (resolver.hasExceptionMappings()) {
+                advices.add(new Advice(adviceBean, resolver));
+            }
+        }
+        Table built = new Table(advices);
+
+        Set<Class<?>> handlerTypes = new LinkedHashSet<>();
+        for (RequestMappingHandlerMapping mapping : context.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                handlerTypes.add(handlerMethod.getBeanType());
+            }
+        }
+        Set<Class<? extends Exception>> exceptionTypes = new LinkedHashSet<>(DEFAULT_HANDLER_TYPES);
+        exceptionTypes.add(ResponseStatusException.class);
+        exceptionTypes.add(RuntimeException.class);
+        exceptionTypes.add(Exception.class);
+        for (Advice advice : advices) {
+            exceptionTypes.addAll(declaredExceptionTypes(advice.adviceBean.getBeanType()));
+        }
+        for (Class<?> handlerType : handlerTypes) {
+            exceptionTypes.addAll(declaredExceptionTypes(handlerType));
+        }
+
+        for (Class<?> handlerType : handlerTypes) {
+            for (Class<? extends Exception> exceptionType : exceptionTypes) {
+                built.route(handlerType, exceptionType, false);
+                built.route(handlerType, exceptionType, true);
+            }
+        }
+        this.table = built;
+        log.info("exception dispatch table: {} handler types x {} exception types, {} resolvers",
+                handlerTypes.size(), exceptionTypes.size(), delegates.size());
+    }
+
+    /**
+     * 호출을 시작할 delegates 인덱스. delegates.size()면 아무도 처리하지 않음
+     * (RecordingExceptionResolver가 어떤 delegate가 처리했는지 기록하려고 직접 호출)
+     */
+    public int route(Object handler, Exception ex) {
+        Table current = table;
+        if (current == null || !(handler instanceof HandlerMethod)) {
+            //핸들러 메서드가 아닌 경우(정적 리소스 등)는 resolver마다 적용 조건이 달라서 전체 체인을 그대로 호출
+            return 0;
+        }
+        return current.route(((HandlerMethod) handler).getBeanType(), ex.getClass(), ex.getCause() != null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Class<? extends Exception>> declaredExceptionTypes(Class<?> type) {
+        Set<Class<? extends Exception>> result = new LinkedHashSet<>();
+        for (Method method : type.getMethods()) {
+            ExceptionHandler annotation = AnnotatedElementUtils.findMergedAnnotation(method, ExceptionHandler.class);
+            if (annotation == null) {
+                continue;
+            }
+            for (Class<? extends Throwable> declared : annotation.value()) {
+                if (Exception.class.isAssignableFrom(declared)) {
+                    result.add((Class<? extends Exception>) declared);
+                }
+            }
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (Exception.class.isAssignableFrom(parameterType)) {
+                    result.add((Class<? extends Exception>) parameterType);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Advice {
+        private final ControllerAdviceBean adviceBean;
+        private final ExceptionHandlerMethodResolver resolver;
+
+        private Advice(ControllerAdviceBean adviceBean, ExceptionHandlerMethodResolver resolver) {
+            this.adviceBean = adviceBean;
+            this.resolver = resolver;
+        }
+    }
+
+    /**
+     * 예외 타입 -> (핸들러 타입 -> 시작 인덱스)
+     * cause가 있는 예외는 @ExceptionHandler, @ResponseStatus가 cause까지 확인하므로 별도 테이블 사용
+     */
+    private final class Table {
+
+        private final List<Advice> advices;
+        private final ConcurrentMap<Class<?>, ExceptionHandlerMethodResolver> localResolvers = new ConcurrentHashMap<>();
+
+        private final ClassValue<ConcurrentMap<Class<?>, Integer>> routes = new RouteCache();
+        private final ClassValue<ConcurrentMap<Class<?>, Integer>> routesWithCause = new RouteCache();
+
+        private Table(List<Advice> advices) {
+            this.advices = advices;
+        }
+
+        int route(Class<?> handlerType, Class<? extends Exception> exceptionType, boolean hasCause) {
+            ConcurrentMap<Class<?>, Integer> byHandler = (hasCause ? routesWithCause : routes).get(exceptionType);
+            Integer index = byHandler.get(handlerType);
+            if (index == null) {
+                index = byHandler.computeIfAbsent(handlerType, type -> compute(type, exceptionType, hasCause));
+            }
+            return index;
+        }
+
+        private int compute(Class<?> handlerType, Class<? extends Exception> exceptionType, boolean hasCause) {
+            for (int i = 0; i < delegates.size(); i++) {
+                if (canResolve(delegates.get(i), handlerType, exceptionType, hasCause)) {
+                    return i;
+                }
+            }
+            return delegates.size();
+        }
+
+        private boolean canResolve(HandlerExceptionResolver resolver, Class<?> handlerType,
+                                   Class<? extends Exception> exceptionType, boolean hasCause) {
+            if (resolver instanceof ExceptionHandlerExceptionResolver) {
+                return hasExceptionHandler(handlerType, exceptionType, hasCause);
+            }
+            if (resolver instanceof ResponseStatusExceptionResolver) {
+                return hasCause
+                        || ResponseStatusException.class.isAssignableFrom(exceptionType)
+                        || AnnotatedElementUtils.findMergedAnnotation(exceptionType, ResponseStatus.class) != null;
+            }
+            if (resolver instanceof DefaultHandlerExceptionResolver) {
+                for (Class<? extends Exception> type : DEFAULT_HANDLER_TYPES) {
+                    if (type.isAssignableFrom(exceptionType)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (resolver instanceof ExceptionTypeDeclaring) {
+                return ((ExceptionTypeDeclaring) resolver).canResolve(handlerType, exceptionType);
+            }
+            //어떤 예외를 처리하는지 알 수 없는 resolver는 항상 호출
+            return true;
+        }
+
+        private boolean hasExceptionHandler(Class<?> handlerType, Class<? extends Exception> exceptionType,
+                                            boolean hasCause) {
+            //ExceptionHandlerExceptionResolver.getExceptionHandlerMethod()와 같은 순서: 컨트롤러 내부 -> 어드바이스
+            ExceptionHandlerMethodResolver local =
+                    localResolvers.computeIfAbsent(handlerType, ExceptionHandlerMethodResolver::new);
+            if (matches(local, exceptionType, hasCause)) {
+                return true;
+            }
+            for (Advice advice : advices) {
+                if (advice.adviceBean.isApplicableToBeanType(handlerType) && matches(advice.resolver, exceptionType, hasCause)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matches(ExceptionHandlerMethodResolver resolver, Class<? extends Exception> exceptionType,
+                                boolean hasCause) {
+            //cause로도 매칭될 수 있으므로 매핑이 하나라도 있으면 호출 대상
+            return hasCause ? resolver.hasExceptionMappings()
+                    : resolver.resolveMethodByExceptionType(exceptionType) != null;
+        }
+    }
+
+    private static final class RouteCache extends ClassValue<ConcurrentMap<Class<?>, Integer>> {
+        @Override
+        protected ConcurrentMap<Class<?>, Integer> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    }
+}
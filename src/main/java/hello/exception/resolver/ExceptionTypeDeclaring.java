@@ -0,0 +1,17 @@
+package hello.exception.resolver;
+
+/**
+ * 어떤 (핸들러 타입, 예외 타입) 조합을 처리하는지 미리 알려줄 수 있는 ExceptionResolver
+ * DispatchTableExceptionResolver가 시작 시점에 디스패치 테이블을 만들 때 사용함
+ *
+ * 구현하지 않은 직접 만든 resolver는 항상 호출 대상으로 취급됨
+ */
+public interface ExceptionTypeDeclaring {
+
+    /**
+     * @param handlerType   예외가 발생한 핸들러(컨트롤러) 타입
+     * @param exceptionType 발생한 예외 타입
+     * @return false를 반환하면 이 조합에서 resolveException()이 항상 null을 반환해야 함
+     */
+    boolean canResolve(Class<?> handlerType, Class<? extends Exception> exceptionType);
+}
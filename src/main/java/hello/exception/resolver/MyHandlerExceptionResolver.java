@@ -1,7 +1,12 @@
 package hello.exception.resolver;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import hello.exception.exception.UserException;
+import hello.exception.exhandler.ErrorEncoders;
+import hello.exception.log.AsyncErrorLog;
+import hello.exception.log.ErrorLogDeduplicator;
+import hello.exception.metrics.ErrorMetrics;
+import hello.exception.negotiation.ErrorResponseNegotiator;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.ModelAndView;
@@ -9,8 +14,6 @@ import org.springframework.web.servlet.ModelAndView;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * [HandlerExceptionResolver]
@@ -29,15 +32,30 @@ import java.util.Map;
  * 이 후 강의에서 스프링이 제공하는 ExceptionResolver 들을 알아봄
  */
 @Slf4j
-public class MyHandlerExceptionResolver implements HandlerExceptionResolver {
-
-
-    private final ObjectMapper objectMapper = new ObjectMapper();
+public class MyHandlerExceptionResolver implements HandlerExceptionResolver, ExceptionTypeDeclaring {
+
+    private final ErrorLogDeduplicator errorLog;
+    //요청 스레드에서는 링 버퍼에 넣기만 하고 포맷팅, 출력은 writer 스레드에서
+    private final AsyncErrorLog asyncLog;
+    private final ErrorMetrics.Handler metrics;
+    private final ErrorResponseNegotiator negotiator;
+    //JSON, CBOR, Smile 응답용 (메시지 컨버터와 같은 ObjectMapper, 타입별 ObjectWriter 재사용)
+    private final ErrorEncoders errorEncoders;
+
+    public MyHandlerExceptionResolver(ErrorLogDeduplicator errorLog, AsyncErrorLog asyncLog, ErrorMetrics errorMetrics,
+                                      ErrorResponseNegotiator negotiator, ErrorEncoders errorEncoders) {
+        this.errorLog = errorLog;
+        this.asyncLog = asyncLog;
+        this.negotiator = negotiator;
+        this.errorEncoders = errorEncoders;
+        this.metrics = errorMetrics.handler("MyHandlerExceptionResolver");
+    }
 
     @Override
     public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
                                          Object handler, Exception ex) {
         //handler: 핸들러(컨트롤러) 정보, Exception ex: 핸들러(컨트롤러)에서 발생한 발생한 예외
+        long start = System.nanoTime();
 
 
         try{
@@ -45,8 +63,10 @@ public class MyHandlerExceptionResolver implements HandlerExceptionResolver {
             //WAS까지 sendError됨
             //스프링 부트 BasicErrorController 제공 오류 페이지와 application/json 값을 받게 됨
             if(ex instanceof IllegalArgumentException){
-                log.info("IllegalArgumentException resolver to 400");
+                asyncLog.info(log, "IllegalArgumentException resolver to 400");
                 response.sendError(HttpServletResponse.SC_BAD_REQUEST,ex.getMessage());
+                //바디는 WAS 오류 페이지가 만듦 (크기는 오류 페이지 쪽에서 기록, 여기서는 횟수와 지연 시간만)
+                metrics.record(ex.getClass(), start, -1);
 
                 //ExceptionResolver가 ModelAndView를 반환하는 이유
                 //마치 try, catch를 하듯, Exception을 처리해서 정상 흐름처럼 변경하는 것이 목적
@@ -65,37 +85,70 @@ public class MyHandlerExceptionResolver implements HandlerExceptionResolver {
              //WAS로 넘기지 않음 (WAS 입장에서 정상 호출)
              //BasicErrorController를 이용하지 않음
             if(ex instanceof UserException){
-                log.info("UserException resolver to 400");
+                asyncLog.info(log, "UserException resolver to 400");
 
-                String acceptHeader = request.getHeader("accept");
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
 
-                if("application/json".equals(acceptHeader)){
-                    //JSON에 담을 값 Map으로 처리
-                    Map<String,Object> errorResult = new HashMap<>();
-                    errorResult.put("ex",ex.getClass());
-                    errorResult.put("message",ex.getMessage());
+                //내부 서비스 클라이언트가 CBOR, Smile을 요청하면 같은 내용을 바이너리로 응답
+                ErrorResponseNegotiator.Encoding encoding = negotiator.encoding(request);
+                if(encoding.isBinary()){
+                    byte[] result = errorEncoders.encode(encoding, new UserErrorBody(ex));
+                    response.setContentType(encoding.getMediaType().toString());
+                    response.setContentLength(result.length);
+                    response.getOutputStream().write(result);
+
+                    metrics.record(ex.getClass(), start, result.length);
+                    return new ModelAndView();
+                }
 
-                    //JSON으로 변환시킬 Map을 String으로 변환
-                    String result= objectMapper.writeValueAsString(errorResult);
+                //Accept 헤더를 정확히 "application/json"과 비교하지 않고 파싱해서 판단
+                //(application/json, */* 같은 값도 JSON, 같은 헤더 값은 캐시된 결과 사용)
+                if(negotiator.negotiate(request) == ErrorResponseNegotiator.Representation.JSON){
+                    //JSON에 담을 값 (Map 대신 고정된 타입 -> 캐시된 ObjectWriter로 UTF-8 바이트를 바로 만듦)
+                    byte[] result = errorEncoders.encode(ErrorResponseNegotiator.Encoding.JSON, new UserErrorBody(ex));
 
                     //응답 헤더 설정
                     response.setContentType("application/json");
                     response.setCharacterEncoding("utf-8");
+                    response.setContentLength(result.length);
 
-                    //response body에 JSON으로 변환시킬 String 값 담은
-                    response.getWriter().write(result);
+                    //response body에 JSON 바이트를 담음
+                    response.getOutputStream().write(result);
 
+                    metrics.record(ex.getClass(), start, result.length);
                     return new ModelAndView();
                 }else{
 
-                    //TEXT/HTML
+                    //TEXT/HTML (뷰 렌더링 전이므로 응답 크기는 알 수 없음)
+                    metrics.record(ex.getClass(), start, -1);
                     return new ModelAndView("error/4xx");
                 }
             }
         }catch (IOException e){
-            log.error("resolver ex",e);
+            errorLog.error(log, "resolver ex", e);
         }
         return null;
     }
+
+    /**
+     * UserException 응답 바디 {"ex": 예외 클래스 이름, "message": 메시지}
+     * 타입이 고정되어 있으므로 ErrorEncoders가 JSON, CBOR, Smile ObjectWriter를 한 번씩만 만들어 재사용
+     */
+    @Getter
+    static final class UserErrorBody {
+        private final String ex;
+        private final String message;
+
+        UserErrorBody(Exception e) {
+            this.ex = e.getClass().getName();
+            this.message = e.getMessage();
+        }
+    }
+
+    //resolveException()에서 instanceof로 확인하는 예외와 동일하게 유지해야 함
+    @Override
+    public boolean canResolve(Class<?> handlerType, Class<? extends Exception> exceptionType) {
+        return IllegalArgumentException.class.isAssignableFrom(exceptionType)
+                || UserException.class.isAssignableFrom(exceptionType);
+    }
 }
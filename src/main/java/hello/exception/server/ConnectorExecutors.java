@@ -0,0 +1,53 @@
+package hello.exception.server;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 톰캣 커넥터에 넣을 실행기 생성
+ * 톰캣은 외부에서 지정한 실행기를 종료하지 않으므로 만든 쪽(WebServerCustomizer)이 종료해야 함
+ */
+@Slf4j
+final class ConnectorExecutors {
+
+    private ConnectorExecutors() {
+    }
+
+    /**
+     * 톰캣 내부 실행기(AbstractEndpoint.createExecutor)와 같은 구성에서 큐 크기만 제한
+     * 스레드가 max보다 적으면 큐에 넣지 않고 스레드를 늘리고(TaskQueue), 큐가 가득 차면 RejectedExecutionException
+     * -> 톰캣은 그 연결을 닫음 (요청이 끝없이 쌓이는 대신 바로 실패)
+     */
+    static ExecutorService platform(String name, int minSpareThreads, int maxThreads,
+                                    ServerExecutorProperties properties) {
+        TaskQueue queue = new TaskQueue(properties.getMaxQueueSize());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(minSpareThreads, maxThreads,
+                properties.getThreadIdleTimeout().toMillis(), TimeUnit.MILLISECONDS, queue,
+                new TaskThreadFactory(name + "-exec-", true, Thread.NORM_PRIORITY));
+        queue.setParent(executor);
+        return executor;
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() (JDK 21)
+     * 소스는 Java 11 기준이므로 리플렉션으로 호출, 사용할 수 없으면 null
+     */
+    static ExecutorService virtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            //JDK 19, 20에서 --enable-preview 없이 호출하면 UnsupportedOperationException
+            log.debug("virtual threads unavailable", e.getCause());
+            return null;
+        }
+    }
+}
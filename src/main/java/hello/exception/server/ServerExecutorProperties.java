@@ -0,0 +1,38 @@
+package hello.exception.server;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 내장 톰캣 커넥터가 요청을 처리할 실행기 설정 (WebServerCustomizer)
+ * ex) exception.server.executor.mode=virtual
+ *     exception.server.executor.max-queue-size=1000
+ *
+ * 스레드 수, accept-count, keep-alive, 최대 연결 수는 스프링 부트 server.tomcat.* 설정을 그대로 사용
+ * (application-platform-pool.properties, application-virtual-threads.properties 참고)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.server.executor")
+public class ServerExecutorProperties {
+
+    public enum Mode {
+        //톰캣이 만드는 기본 스레드 풀 (큐 크기 제한 없음)
+        DEFAULT,
+        //server.tomcat.threads.max/min-spare + 크기를 제한한 큐
+        PLATFORM,
+        //요청마다 가상 스레드 (JDK 21 이상, 사용할 수 없으면 PLATFORM)
+        VIRTUAL
+    }
+
+    private Mode mode = Mode.DEFAULT;
+
+    //PLATFORM: 모든 스레드가 사용 중일 때 대기할 수 있는 요청 수, 넘으면 톰캣이 연결을 닫음
+    private int maxQueueSize = Integer.MAX_VALUE;
+
+    //PLATFORM: min-spare를 넘는 스레드가 이 시간 동안 일이 없으면 종료
+    private Duration threadIdleTimeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,78 @@
+package hello.exception.server;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * exception.server.executor.mode에 따라 커넥터 실행기를 교체
+ * default 이면 아무것도 하지 않음 (톰캣이 server.tomcat.threads.* 로 만든 기본 실행기)
+ *
+ * 오류 처리 흐름은 실행기와 관계없이 같음
+ * - ERROR 디스패치(오류 페이지 재요청)는 원래 요청을 처리하던 스레드에서 이어서 실행됨
+ * - 요청 스레드에 묶인 상태(RequestContextHolder, MDC 등)도 요청마다 새로 설정되므로 가상 스레드에서도 같게 동작
+ */
+@Slf4j
+public class TomcatExecutorCustomizer implements TomcatConnectorCustomizer {
+
+    private final ServerExecutorProperties properties;
+    private final ServerProperties.Tomcat tomcat;
+    //커넥터마다 하나씩 (애플리케이션 컨텍스트를 다시 띄우는 테스트에서도 모두 종료할 수 있도록 보관)
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    public TomcatExecutorCustomizer(ServerExecutorProperties properties, ServerProperties.Tomcat tomcat) {
+        this.properties = properties;
+        this.tomcat = tomcat;
+    }
+
+    @Override
+    public void customize(Connector connector) {
+        ServerExecutorProperties.Mode mode = properties.getMode();
+        ProtocolHandler handler = connector.getProtocolHandler();
+        if (mode == ServerExecutorProperties.Mode.DEFAULT || !(handler instanceof AbstractProtocol)) {
+            return;
+        }
+        AbstractProtocol<?> protocol = (AbstractProtocol<?>) handler;
+        ExecutorService executor = null;
+        if (mode == ServerExecutorProperties.Mode.VIRTUAL) {
+            executor = ConnectorExecutors.virtual();
+            if (executor == null) {
+                log.warn("virtual threads need JDK 21+ (running {}), fall back to platform pool",
+                        System.getProperty("java.version"));
+            }
+        }
+        if (executor == null) {
+            executor = ConnectorExecutors.platform(protocol.getName(), tomcat.getThreads().getMinSpare(),
+                    tomcat.getThreads().getMax(), properties);
+            log.info("connector executor: platform threads={}..{}, queue={}", tomcat.getThreads().getMinSpare(),
+                    tomcat.getThreads().getMax(), properties.getMaxQueueSize());
+        } else {
+            log.info("connector executor: virtual thread per request");
+        }
+        protocol.setExecutor(executor);
+        executors.add(executor);
+    }
+
+    public void shutdown() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        executors.clear();
+    }
+}
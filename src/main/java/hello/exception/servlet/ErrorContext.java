@@ -0,0 +1,175 @@
+package hello.exception.servlet;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * [오류 정보]
+ * WAS가 request에 넘겨주는 javax.servlet.error.* 속성을 오류 요청마다 한 번만 읽어서 담아 두는 객체
+ * 로그, JSON 응답 바디(errorPage500Api), 뷰 모델(request 속성 "errorContext")이 모두 같은 객체를 사용
+ *
+ * - 객체는 풀에서 꺼내 쓰고 요청이 끝나면(ErrorContextInterceptor, InPlaceErrorPageFilter) 돌려줌
+ * - 요청이 끝난 뒤에는 다른 요청이 재사용하므로 보관하면 안 됨
+ * - JSON으로는 기존 errorPage500Api와 같이 message, status만 나감
+ */
+@JsonPropertyOrder({"message", "status"})
+public final class ErrorContext {
+
+    public static final String ATTRIBUTE = "errorContext";
+
+    private static final int POOL_SIZE = 64;
+    private static final AtomicReferenceArray<ErrorContext> POOL = new AtomicReferenceArray<>(POOL_SIZE);
+
+    private int status;
+    private String message;
+    private Throwable exception;
+    private Class<?> exceptionType;
+    private String requestUri;
+    private String servletName;
+    private DispatcherType dispatcherType;
+
+    private ErrorContext() {
+    }
+
+    /**
+     * 이 요청의 ErrorContext, 처음 호출할 때 WAS가 넘겨준 속성을 읽어서 만듦
+     */
+    public static ErrorContext capture(HttpServletRequest request) {
+        ErrorContext context = current(request);
+        if (context != null) {
+            return context;
+        }
+        context = acquire();
+        Object status = request.getAttribute(RequestDispatcher.ERROR_STATUS_CODE);
+        context.status = status instanceof Integer ? (Integer) status : HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        Object exception = request.getAttribute(RequestDispatcher.ERROR_EXCEPTION);
+        context.exception = exception instanceof Throwable ? (Throwable) exception : null;
+        Object exceptionType = request.getAttribute(RequestDispatcher.ERROR_EXCEPTION_TYPE);
+        context.exceptionType = exceptionType instanceof Class ? (Class<?>) exceptionType
+                : context.exception != null ? context.exception.getClass() : null;
+        Object message = request.getAttribute(RequestDispatcher.ERROR_MESSAGE);
+        //예외가 없는 오류(sendError)는 WAS가 넘겨준 메시지
+        context.message = context.exception != null ? context.exception.getMessage()
+                : message instanceof String && !((String) message).isEmpty() ? (String) message : null;
+        Object requestUri = request.getAttribute(RequestDispatcher.ERROR_REQUEST_URI);
+        context.requestUri = requestUri instanceof String ? (String) requestUri : request.getRequestURI();
+        Object servletName = request.getAttribute(RequestDispatcher.ERROR_SERVLET_NAME);
+        context.servletName = servletName instanceof String ? (String) servletName : null;
+        context.dispatcherType = request.getDispatcherType();
+        request.setAttribute(ATTRIBUTE, context);
+        return context;
+    }
+
+    /**
+     * WAS를 거치지 않고 오류를 처리하는 곳(InPlaceErrorPageFilter)에서 속성을 다시 읽지 않고 바로 만듦
+     */
+    static ErrorContext of(HttpServletRequest request, int status, String message, Throwable exception,
+                           String servletName) {
+        ErrorContext context = acquire();
+        context.status = status;
+        context.exception = exception;
+        context.exceptionType = exception != null ? exception.getClass() : null;
+        context.message = exception != null ? exception.getMessage() : message != null && !message.isEmpty() ? message : null;
+        context.requestUri = request.getRequestURI();
+        context.servletName = servletName;
+        context.dispatcherType = request.getDispatcherType();
+        request.setAttribute(ATTRIBUTE, context);
+        return context;
+    }
+
+    public static ErrorContext current(HttpServletRequest request) {
+        Object context = request.getAttribute(ATTRIBUTE);
+        return context instanceof ErrorContext ? (ErrorContext) context : null;
+    }
+
+    /**
+     * 요청이 끝났을 때 풀에 돌려줌
+     */
+    public static void release(HttpServletRequest request) {
+        ErrorContext context = current(request);
+        if (context == null) {
+            return;
+        }
+        request.removeAttribute(ATTRIBUTE);
+        context.exception = null;
+        context.exceptionType = null;
+        context.message = null;
+        context.requestUri = null;
+        context.servletName = null;
+        context.dispatcherType = null;
+        int start = ThreadLocalRandom.current().nextInt(POOL_SIZE);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (POOL.compareAndSet((start + i) % POOL_SIZE, null, context)) {
+                return;
+            }
+        }
+        //풀이 가득 차면 버림
+    }
+
+    /**
+     * 풀에 있는 객체 수 (요청이 끝날 때 돌려주지 않는 경로가 없는지 테스트에서 확인)
+     */
+    static int pooled() {
+        int pooled = 0;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (POOL.get(i) != null) {
+                pooled++;
+            }
+        }
+        return pooled;
+    }
+
+    private static ErrorContext acquire() {
+        int start = ThreadLocalRandom.current().nextInt(POOL_SIZE);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            int index = (start + i) % POOL_SIZE;
+            if (POOL.get(index) != null) {
+                ErrorContext context = POOL.getAndSet(index, null);
+                if (context != null) {
+                    return context;
+                }
+            }
+        }
+        return new ErrorContext();
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @JsonIgnore
+    public Throwable getException() {
+        return exception;
+    }
+
+    @JsonIgnore
+    public Class<?> getExceptionType() {
+        return exceptionType;
+    }
+
+    @JsonIgnore
+    public String getRequestUri() {
+        return requestUri;
+    }
+
+    @JsonIgnore
+    public String getServletName() {
+        return servletName;
+    }
+
+    @JsonIgnore
+    public DispatcherType getDispatcherType() {
+        return dispatcherType;
+    }
+}
@@ -0,0 +1,18 @@
+package hello.exception.servlet;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * ErrorPageController(/error-page/**)가 만든 ErrorContext를 뷰 렌더링까지 끝난 뒤 풀에 돌려줌
+ * 다른 인터셉터의 afterCompletion에서도 쓸 수 있도록 가장 먼저 등록 (afterCompletion은 등록 역순으로 호출)
+ */
+public class ErrorContextInterceptor implements HandlerInterceptor {
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ErrorContext.release(request);
+    }
+}
@@ -0,0 +1,384 @@
+package hello.exception.servlet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.metrics.ErrorMetrics;
+import hello.exception.metrics.ErrorPageMetricsInterceptor;
+import hello.exception.negotiation.ErrorResponseNegotiator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.server.ErrorPage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * [WAS 재요청 없이 오류 페이지 렌더링] exception.error-page.mode=in-place
+ *
+ * 기존 흐름(redispatch)
+ * 컨트롤러 예외/sendError -> WAS -> ERROR 디스패치로 /error-page/* 재요청
+ * -> 필터, 서블릿, 인터셉터, 핸들러 매핑, ErrorPageController 다시 호출
+ *
+ * in-place 흐름
+ * 이 필터가 sendError와 예외를 가로채고 WAS와 똑같이 javax.servlet.error.* 속성과 상태 코드를 설정한 뒤
+ * 원래 요청 안에서 ErrorPageController 메서드를 직접 호출해서 뷰(JSON)를 렌더링함
+ *
+ * WebServerCustomizer.errorPages()에 없는 상태 코드/예외나 렌더링에 실패한 경우에는
+ * 원래대로 WAS에 넘겨서 기존 오류 처리(BasicErrorController 등)를 따름
+ */
+@Slf4j
+public class InPlaceErrorPageFilter extends OncePerRequestFilter {
+
+    private final ErrorPage[] errorPages;
+    private final ErrorPageController errorPageController;
+    //DispatcherServlet과 같은 순서의 ViewResolver 목록
+    private final List<ViewResolver> viewResolvers;
+    private final ObjectMapper objectMapper;
+    //인터셉터를 거치지 않으므로 ErrorPageMetricsInterceptor 대신 직접 기록
+    private final ErrorMetrics errorMetrics;
+    //ErrorPageController의 produces 매핑과 같은 기준으로 JSON / HTML 선택
+    private final ErrorResponseNegotiator negotiator;
+
+    public InPlaceErrorPageFilter(ErrorPage[] errorPages, ErrorPageController errorPageController,
+                                  List<ViewResolver> viewResolvers, ObjectMapper objectMapper,
+                                  ErrorMetrics errorMetrics, ErrorResponseNegotiator negotiator) {
+        this.errorPages = errorPages.clone();
+        this.errorPageController = errorPageController;
+        this.viewResolvers = List.copyOf(viewResolvers);
+        this.objectMapper = objectMapper;
+        this.errorMetrics = errorMetrics;
+        this.negotiator = negotiator;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ErrorCapturingResponse wrapped = new ErrorCapturingResponse(response);
+        try {
+            chain.doFilter(request, wrapped);
+        } catch (ServletException | IOException | RuntimeException e) {
+            if (!handleException(request, response, e)) {
+                throw e;
+            }
+            return;
+        }
+        if (wrapped.errorStatus != 0) {
+            handleSendError(request, response, wrapped.errorStatus, wrapped.errorMessage);
+        }
+    }
+
+    private boolean handleException(HttpServletRequest request, HttpServletResponse response, Exception thrown) {
+        //WAS(StandardHostValve)와 같이 ServletException은 root cause로 한 번 더 찾음
+        Throwable realError = thrown;
+        if (thrown instanceof ServletException && ((ServletException) thrown).getRootCause() != null) {
+            realError = ((ServletException) thrown).getRootCause();
+        }
+        ErrorPage errorPage = findErrorPage(thrown.getClass());
+        if (errorPage == null && realError != thrown) {
+            errorPage = findErrorPage(realError.getClass());
+        }
+        if (errorPage == null || response.isCommitted()) {
+            return false;
+        }
+        request.setAttribute(RequestDispatcher.ERROR_STATUS_CODE, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        request.setAttribute(RequestDispatcher.ERROR_MESSAGE, thrown.getMessage());
+        request.setAttribute(RequestDispatcher.ERROR_EXCEPTION, realError);
+        request.setAttribute(RequestDispatcher.ERROR_EXCEPTION_TYPE, realError.getClass());
+        String servletName = setCommonAttributes(request);
+        //속성을 다시 읽지 않도록 같은 값으로 ErrorContext를 바로 만들어 둠
+        ErrorContext.of(request, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, thrown.getMessage(), realError, servletName);
+        if (!render(errorPage.getPath(), request, response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR)) {
+            return false;
+        }
+        //WAS(StandardHostValve)는 요청이 끝난 뒤 이 속성이 남아 있으면 예외로 보고 오류 페이지를 다시 처리함
+        request.removeAttribute(RequestDispatcher.ERROR_EXCEPTION);
+        return true;
+    }
+
+    private void handleSendError(HttpServletRequest request, HttpServletResponse response,
+                                 int status, String message) throws IOException {
+        ErrorPage errorPage = findErrorPage(status);
+        if (errorPage != null && !response.isCommitted()) {
+            request.setAttribute(RequestDispatcher.ERROR_STATUS_CODE, status);
+            request.setAttribute(RequestDispatcher.ERROR_MESSAGE, message != null ? message : "");
+            String servletName = setCommonAttributes(request);
+            ErrorContext.of(request, status, message, null, servletName);
+            if (render(errorPage.getPath(), request, response, status)) {
+                return;
+            }
+        }
+        //등록된 오류 페이지가 없으면 WAS의 기본 오류 처리로 넘김
+        if (message != null) {
+            response.sendError(status, message);
+        } else {
+            response.sendError(status);
+        }
+    }
+
+    private String setCommonAttributes(HttpServletRequest request) {
+        String servletName = request.getHttpServletMapping().getServletName();
+        request.setAttribute(RequestDispatcher.ERROR_SERVLET_NAME, servletName);
+        request.setAttribute(RequestDispatcher.ERROR_REQUEST_URI, request.getRequestURI());
+        return servletName;
+    }
+
+    /**
+     * ErrorPage 경로에 매핑된 ErrorPageController 메서드를 핸들러 매핑 없이 직접 호출
+     */
+    private boolean render(String location, HttpServletRequest request, HttpServletResponse response, int status) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        long start = System.nanoTime();
+        try {
+            response.resetBuffer();
+            response.setStatus(status);
+            switch (location) {
+                case "/error-page/404":
+                    renderView(errorPageController.errorPage404(request, response), request, response);
+                    record("errorPage404", request, start, ErrorPageMetricsInterceptor.responseBytes(request));
+                    return true;
+                case "/error-page/500":
+                    if (negotiator.negotiate(request) == ErrorResponseNegotiator.Representation.JSON) {
+                        int bytes = writeJson(errorPageController.errorPage500Api(request, response), response);
+                        record("errorPage500Api", request, start, bytes);
+                    } else {
+                        renderView(errorPageController.errorPage500(request, response), request, response);
+                        record("errorPage500", request, start, ErrorPageMetricsInterceptor.responseBytes(request));
+                    }
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (Exception e) {
+            log.warn("in-place error page failed, fallback to container: {}", location, e);
+            return false;
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            ErrorContext.release(request);
+        }
+    }
+
+    private void renderView(String viewName, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        Locale locale = RequestContextUtils.getLocale(request);
+        for (ViewResolver viewResolver : viewResolvers) {
+            View view = viewResolver.resolveViewName(viewName, locale);
+            if (view != null) {
+                Map<String, Object> model = new HashMap<>();
+                view.render(model, request, response);
+                return;
+            }
+        }
+        throw new IllegalStateException("view not found: " + viewName);
+    }
+
+    private int writeJson(ResponseEntity<?> entity, HttpServletResponse response) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(entity.getBody());
+        response.setStatus(entity.getStatusCodeValue());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(body);
+        return body.length;
+    }
+
+    private void record(String handler, HttpServletRequest request, long start, long bytes) {
+        errorMetrics.handler(handler).record(ErrorPageMetricsInterceptor.exceptionType(request), start, bytes);
+    }
+
+    private ErrorPage findErrorPage(int status) {
+        for (ErrorPage errorPage : errorPages) {
+            if (errorPage.getStatusCode() == status) {
+                return errorPage;
+            }
+        }
+        return null;
+    }
+
+    private ErrorPage findErrorPage(Class<?> exceptionType) {
+        //WAS와 같이 가장 가까운 부모 예외 타입의 오류 페이지를 찾음
+        for (Class<?> type = exceptionType; type != null; type = type.getSuperclass()) {
+            for (ErrorPage errorPage : errorPages) {
+                if (type.equals(errorPage.getException())) {
+                    return errorPage;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * sendError를 WAS에 넘기지 않고 상태 코드와 메시지만 기록
+     * WAS와 같이 sendError 이후에는 응답을 중지(suspend): 버퍼를 비우고, 이후 핸들러가 쓰는 바디, 상태 코드, flush는 무시
+     */
+    private static class ErrorCapturingResponse extends HttpServletResponseWrapper {
+
+        private int errorStatus;
+        private String errorMessage;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        ErrorCapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private boolean isSuspended() {
+            return errorStatus != 0;
+        }
+
+        @Override
+        public void sendError(int sc) {
+            sendError(sc, null);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) {
+            if (isCommitted()) {
+                throw new IllegalStateException("Cannot call sendError() after the response has been committed");
+            }
+            super.setStatus(sc);
+            this.errorStatus = sc;
+            this.errorMessage = msg;
+            resetBuffer();
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            if (!isSuspended()) {
+                super.setStatus(sc);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!isSuspended()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new SuspendableOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new SuspendableWriter(super.getWriter(), this);
+            }
+            return writer;
+        }
+    }
+
+    private static class SuspendableOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final ErrorCapturingResponse response;
+
+        SuspendableOutputStream(ServletOutputStream delegate, ErrorCapturingResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!response.isSuspended()) {
+                delegate.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!response.isSuspended()) {
+                delegate.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!response.isSuspended()) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            //오류 페이지를 같은 응답에 써야 하므로 중지된 뒤에는 닫지 않음
+            if (!response.isSuspended()) {
+                delegate.close();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private static class SuspendableWriter extends PrintWriter {
+
+        private final ErrorCapturingResponse response;
+
+        SuspendableWriter(PrintWriter delegate, ErrorCapturingResponse response) {
+            super(delegate);
+            this.response = response;
+        }
+
+        @Override
+        public void write(int c) {
+            if (!response.isSuspended()) {
+                super.write(c);
+            }
+        }
+
+        @Override
+        public void write(char[] buf, int off, int len) {
+            if (!response.isSuspended()) {
+                super.write(buf, off, len);
+            }
+        }
+
+        @Override
+        public void write(String s, int off, int len) {
+            if (!response.isSuspended()) {
+                super.write(s, off, len);
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (!response.isSuspended()) {
+                super.flush();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!response.isSuspended()) {
+                super.close();
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package hello.exception.servlet;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -16,6 +17,9 @@ import java.io.IOException;
 @Controller
 public class ServletExController {
 
+    //요청 값으로 요청 스레드를 오래 붙잡지 못하도록 제한
+    static final long MAX_BLOCKING_MILLIS = 1000;
+
     /**
      * 1.Exception(예외)
      * HTTP Status 500 - Internal Server Error
@@ -55,6 +59,17 @@ public class ServletExController {
         response.sendError(500);
     }
 
+    /**
+     * 외부 호출(블로킹 I/O)을 기다리다 실패한 경우
+     * 요청 스레드가 millis(0 ~ MAX_BLOCKING_MILLIS) 동안 블로킹된 뒤 예외 발생 -> 오류 페이지
+     * (톰캣 실행기별 비교: ErrorPathExecutorBenchmark)
+     */
+    @GetMapping("/error-blocking")
+    public void errorBlocking(@RequestParam(defaultValue = "50") long millis) throws InterruptedException {
+        Thread.sleep(Math.max(0, Math.min(millis, MAX_BLOCKING_MILLIS)));
+        throw new RuntimeException("블로킹 호출 실패!");
+    }
+
     //(서블릿 예외 처리 시작 Commit) 정리
     //서블릿 컨테이너가 제공하는 기본 예외 처리 화면은 사용자가 보기에 불편
     //의미 있는 오류 화면을 제공해보자
@@ -0,0 +1,66 @@
+package hello.exception.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.boot.web.servlet.error.ErrorController;
+import org.springframework.boot.autoconfigure.web.servlet.error.ErrorViewResolver;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ViewResolver;
+
+import java.util.List;
+
+/**
+ * [fast-start 프로필] --spring.profiles.active=fast-start (application-fast-start.properties)
+ * 오토스케일링으로 인스턴스를 자주 다시 띄우므로 시작 시간을 줄임
+ * - spring.main.lazy-initialization=true: 빈을 처음 사용할 때 생성
+ * - 단 오류 처리 빈은 지연시키지 않음 (첫 오류 응답이 빈 생성 비용까지 떠안지 않도록)
+ *   spring.mvc.servlet.load-on-startup=1 로 DispatcherServlet과 ExceptionResolver 체인도 시작 시점에 초기화
+ * - AppCDS 아카이브(./gradlew appCdsArchive), 시작 단계 타임라인(StartupTimeline)과 함께 사용
+ *
+ * lazy-initialization이 꺼져 있으면 이 필터는 아무 영향이 없음
+ */
+@Configuration(proxyBeanMethods = false)
+public class FastStartConfig {
+
+    //ExceptionResolver, 오류 페이지, 오류 JSON을 만드는 빈과 오류 경로에서 함께 호출되는 빈(저하 모드, 기록, 지표 등)이 있는 패키지
+    //오류 처리 패키지를 새로 만들면 여기에 추가 (FastStartConfigTest 참고)
+    private static final List<String> ERROR_HANDLING_PACKAGES = List.of(
+            "hello.exception.exhandler", "hello.exception.resolver", "hello.exception.servlet",
+            "hello.exception.view", "hello.exception.negotiation", "hello.exception.message",
+            "hello.exception.log", "hello.exception.storm", "hello.exception.binding",
+            "hello.exception.trace", "hello.exception.jfr", "hello.exception.journal",
+            "hello.exception.fault", "hello.exception.metrics", "hello.exception.cache");
+
+    private static final List<Class<?>> ERROR_HANDLING_TYPES = List.of(
+            HandlerExceptionResolver.class, ErrorAttributes.class, ErrorController.class,
+            ErrorViewResolver.class, ViewResolver.class, MessageSource.class);
+
+    /**
+     * LazyInitializationBeanFactoryPostProcessor가 사용하므로 다른 빈보다 먼저 만들어지도록 static
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerErrorHandling() {
+        return (beanName, beanDefinition, beanType) -> isErrorHandling(beanType);
+    }
+
+    static boolean isErrorHandling(Class<?> beanType) {
+        if (beanType == null) {
+            return false;
+        }
+        for (Class<?> type : ERROR_HANDLING_TYPES) {
+            if (type.isAssignableFrom(beanType)) {
+                return true;
+            }
+        }
+        if (AnnotatedElementUtils.hasAnnotation(beanType, ControllerAdvice.class)) {
+            return true;
+        }
+        String packageName = beanType.getPackageName();
+        return ERROR_HANDLING_PACKAGES.stream().anyMatch(packageName::startsWith);
+    }
+}
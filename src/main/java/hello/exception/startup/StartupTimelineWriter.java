@@ -0,0 +1,100 @@
+package hello.exception.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * [시작 단계 타임라인] exception.startup.timeline.enabled=true
+ * BufferingApplicationStartup으로 빈 생성, 컨텍스트 refresh 등 시작 단계별 시간을 기록하고
+ * 시작이 끝나면(ApplicationReadyEvent) 오래 걸린 순서로 파일에 남김
+ * (actuator startup 엔드포인트를 노출하면 /actuator/startup 으로도 조회 가능)
+ *
+ * ApplicationStartup은 컨텍스트를 만들기 전에 SpringApplication에 지정해야 하므로
+ * application.properties가 아니라 실행 인자(--exception.startup.timeline.enabled=true)나 시스템 프로퍼티로 켬
+ */
+@Slf4j
+@Component
+public class StartupTimelineWriter {
+
+    public static final String ENABLED = "exception.startup.timeline.enabled";
+    private static final int CAPACITY = 10_000;
+
+    private final Path file;
+    private final int top;
+
+    public StartupTimelineWriter(@Value("${exception.startup.timeline.file:build/startup-timeline.txt}") Path file,
+                           @Value("${exception.startup.timeline.top:30}") int top) {
+        this.file = file;
+        this.top = top;
+    }
+
+    /**
+     * ExceptionApplication.main()에서 사용, 꺼져 있으면 기록하지 않는 기본 ApplicationStartup
+     */
+    public static ApplicationStartup applicationStartup(String[] args) {
+        //Environment를 쓰면 로깅 설정 전이라 DEBUG 로그가 그대로 출력되므로 인자를 직접 확인
+        boolean enabled = Boolean.getBoolean(ENABLED);
+        for (String arg : args) {
+            if (arg.equals("--" + ENABLED) || arg.equals("--" + ENABLED + "=true")) {
+                enabled = true;
+            }
+        }
+        return enabled ? new BufferingApplicationStartup(CAPACITY) : ApplicationStartup.DEFAULT;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void dump(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        //버퍼를 비우지 않고 읽음 (/actuator/startup 조회와 함께 사용 가능)
+        StartupTimeline timeline = ((BufferingApplicationStartup) startup).getBufferedTimeline();
+        List<TimelineEvent> events = new ArrayList<>(timeline.getEvents());
+        events.sort(Comparator.comparing(TimelineEvent::getDuration).reversed());
+
+        StringBuilder text = new StringBuilder();
+        Duration ready = event.getTimeTaken();
+        text.append(String.format("startup steps: %d, ready in %dms%n", events.size(), ready != null ? ready.toMillis() : -1));
+        text.append(String.format("%10s  %-45s %s%n", "ms", "step", "tags"));
+        for (TimelineEvent timelineEvent : events.subList(0, Math.min(top, events.size()))) {
+            text.append(String.format("%10.1f  %-45s %s%n", timelineEvent.getDuration().toNanos() / 1_000_000.0,
+                    timelineEvent.getStartupStep().getName(), tags(timelineEvent.getStartupStep())));
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("startup timeline written: {} ({} steps)", file.toAbsolutePath(), events.size());
+    }
+
+    private static String tags(StartupStep step) {
+        StringBuilder tags = new StringBuilder();
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (tags.length() > 0) {
+                tags.append(", ");
+            }
+            tags.append(tag.getKey()).append('=').append(tag.getValue());
+        }
+        return tags.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package hello.exception.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * [AppCDS 학습 실행] exception.startup.training=true (./gradlew appCdsArchive 가 사용)
+ * 시작이 끝나면 정상 요청과 주요 오류 경로를 JSON, HTML로 한 번씩 호출해서
+ * 오류 처리에 필요한 클래스까지 모두 로드한 뒤 종료함
+ * -> JVM 종료 시점(-XX:ArchiveClassesAtExit)에 로드된 클래스가 AppCDS 아카이브에 저장됨
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exception.startup.training", havingValue = "true")
+public class StartupTraining {
+
+    private static final List<String> PATHS = List.of(
+            "/api/members/spring", "/api/members/ex", "/api/members/bad", "/api/members/user-ex",
+            "/api2/members/spring", "/api2/members/ex", "/api2/members/bad", "/api2/members/user-ex",
+            "/api/response-status-ex1", "/api/response-status-ex2", "/api/default-handler-ex?data=hello",
+            "/error-ex", "/error-404", "/error-400", "/error-500");
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void train(ApplicationReadyEvent event) throws IOException, InterruptedException {
+        ApplicationContext context = event.getApplicationContext();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        for (String path : PATHS) {
+            for (String accept : List.of("application/json", "text/html")) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Accept", accept)
+                        .build();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                log.info("training {} [{}] -> {}", path, accept, response.statusCode());
+            }
+        }
+        log.info("training finished, exit");
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,107 @@
+package hello.exception.storm;
+
+import hello.exception.exception.UserException;
+import hello.exception.exhandler.ErrorResultCache;
+import hello.exception.exhandler.ErrorResultWriter;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 저하 모드 응답
+ * 상태 코드마다 미리 직렬화한 ErrorResult JSON만 씀 (메시지 컨버터, 뷰 렌더링, 예외 메시지 사용 없음)
+ */
+@Component
+public class DegradedResponses {
+
+    private final ErrorResultWriter errorResultWriter;
+    private final Map<HttpStatus, ErrorResultCache.Entry> bodies;
+    private final String retryAfter;
+    //예외 타입 -> 상태 코드 (@ResponseStatus 조회를 한 번만)
+    private final ConcurrentMap<Class<?>, HttpStatus> statuses = new ConcurrentHashMap<>();
+
+    public DegradedResponses(ErrorResultCache errorResultCache, ErrorResultWriter errorResultWriter,
+                             ErrorStormProperties properties) {
+        this.errorResultWriter = errorResultWriter;
+        this.bodies = Map.of(
+                HttpStatus.BAD_REQUEST, errorResultCache.get("BAD", "잘못된 요청"),
+                HttpStatus.NOT_FOUND, errorResultCache.get("NOT-FOUND", "찾을 수 없음"),
+                HttpStatus.METHOD_NOT_ALLOWED, errorResultCache.get("METHOD", "지원하지 않는 메서드"),
+                HttpStatus.INTERNAL_SERVER_ERROR, errorResultCache.of(ErrorResultCache.INTERNAL_ERROR),
+                HttpStatus.SERVICE_UNAVAILABLE, errorResultCache.get("UNAVAILABLE", "잠시 후 다시 시도해 주세요"));
+        this.retryAfter = Long.toString(Math.max(1, properties.getRetryAfter().toSeconds()));
+    }
+
+    /**
+     * 요청 거절: 503 + Retry-After
+     */
+    public void writeShed(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        errorResultWriter.write(response, HttpStatus.SERVICE_UNAVAILABLE, bodies.get(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    /**
+     * 예외에 맞는 상태 코드와 고정 바디
+     */
+    public void writeError(HttpServletResponse response, Exception ex) throws IOException {
+        write(response, statusOf(ex));
+    }
+
+    /**
+     * 상태 코드만 있는 오류(sendError)
+     */
+    public void writeError(HttpServletResponse response, int status) throws IOException {
+        HttpStatus resolved = HttpStatus.resolve(status);
+        write(response, resolved != null && resolved.isError() ? resolved : HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private void write(HttpServletResponse response, HttpStatus status) throws IOException {
+        ErrorResultCache.Entry body = bodies.get(status);
+        if (body == null) {
+            body = bodies.get(status.is4xxClientError() ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        errorResultWriter.write(response, status, body);
+    }
+
+    /**
+     * 정상 모드에서 resolver 체인이 주는 상태 코드와 같게 (자주 나오는 예외만, 나머지는 500)
+     */
+    HttpStatus statusOf(Exception ex) {
+        if (ex instanceof ResponseStatusException) {
+            return ((ResponseStatusException) ex).getStatus();
+        }
+        return statuses.computeIfAbsent(ex.getClass(), DegradedResponses::statusOf);
+    }
+
+    private static HttpStatus statusOf(Class<?> type) {
+        ResponseStatus annotation = AnnotatedElementUtils.findMergedAnnotation(type, ResponseStatus.class);
+        if (annotation != null) {
+            return annotation.code();
+        }
+        if (IllegalArgumentException.class.isAssignableFrom(type) || UserException.class.isAssignableFrom(type)
+                || TypeMismatchException.class.isAssignableFrom(type)
+                || ServletRequestBindingException.class.isAssignableFrom(type)
+                || HttpMessageNotReadableException.class.isAssignableFrom(type)
+                || BindException.class.isAssignableFrom(type)) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (HttpRequestMethodNotSupportedException.class.isAssignableFrom(type)) {
+            return HttpStatus.METHOD_NOT_ALLOWED;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
@@ -0,0 +1,25 @@
+package hello.exception.storm;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/errorstorm: 엔드포인트별 상태(NORMAL, DEGRADED), 최근 window 오류율, 거절 수, 최근 상태 전환 이력
+ * (management.endpoints.web.exposure.include에 추가해야 노출됨)
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "errorstorm")
+public class ErrorStormEndpoint {
+
+    private final ErrorStormGuard errorStormGuard;
+
+    @ReadOperation
+    public Map<String, Object> errorStorm() {
+        return errorStormGuard.snapshot();
+    }
+}
@@ -0,0 +1,57 @@
+package hello.exception.storm;
+
+import hello.exception.log.ErrorLogDeduplicator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 저하 모드 엔드포인트에서 발생한 예외를 resolver 체인(@ExceptionHandler, MyHandlerExceptionResolver ...)보다 먼저 처리
+ * - 미리 직렬화한 고정 바디만 씀 (Thymeleaf 오류 페이지, WAS 오류 페이지 재요청 없음)
+ * - 로그는 log-sample개 중 하나만
+ *
+ * DispatcherServlet은 HandlerExceptionResolver 빈을 order 순서로 호출하므로
+ * DefaultErrorAttributes(가장 먼저, 예외만 기록) 다음, 스프링 MVC 기본 resolver 체인(order 0) 앞에 둠
+ */
+@Slf4j
+@Component
+public class ErrorStormExceptionResolver implements HandlerExceptionResolver, Ordered {
+
+    private final DegradedResponses degradedResponses;
+    private final ErrorLogDeduplicator errorLog;
+
+    public ErrorStormExceptionResolver(DegradedResponses degradedResponses, ErrorLogDeduplicator errorLog) {
+        this.degradedResponses = degradedResponses;
+        this.errorLog = errorLog;
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Exception ex) {
+        ErrorStormGuard.Endpoint endpoint = ErrorStormInterceptor.endpoint(request);
+        if (endpoint == null || !endpoint.isDegraded() || response.isCommitted()) {
+            return null;
+        }
+        if (endpoint.shouldLog()) {
+            errorLog.error(log, "[error-storm] " + endpoint.getName() + " degraded, sampled ex", ex);
+        }
+        try {
+            degradedResponses.writeError(response, ex);
+            return new ModelAndView();
+        } catch (IOException e) {
+            errorLog.error(log, "[error-storm] degraded response ex", e);
+            return null;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,290 @@
+package hello.exception.storm;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * [오류 폭주 감지]
+ * 컨트롤러 메서드(엔드포인트)마다 최근 window 동안의 오류율을 기록하고 정상 / 저하 모드를 전환
+ *
+ * - 정상 -> 저하: 요청이 min-requests 이상이고 오류율이 enter-error-rate 이상
+ * - 저하 -> 정상: min-degraded가 지났고 오류율이 exit-error-rate 미만 (오류가 멈추면 window가 지나면서 자동으로 회복)
+ * - 저하 모드에서 하는 일은 ErrorStormInterceptor(거절), ErrorStormExceptionResolver(고정 응답, 로그 샘플링)
+ *
+ * 상태와 최근 전환 이력: /actuator/errorstorm
+ * Micrometer: exception.storm.degraded(저하 모드 엔드포인트 수), exception.storm.transitions, exception.storm.shed
+ */
+@Slf4j
+@Component
+public class ErrorStormGuard {
+
+    public enum State {
+        NORMAL, DEGRADED
+    }
+
+    private final ErrorStormProperties properties;
+    private final LongSupplier nanoTime;
+    private final ConcurrentMap<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Deque<Transition> transitions = new ArrayDeque<>();
+    private final AtomicInteger degraded = new AtomicInteger();
+    private final LongAdder degradedTransitions = new LongAdder();
+    private final LongAdder recoveredTransitions = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    @Autowired
+    public ErrorStormGuard(ErrorStormProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(properties, System::nanoTime);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            bind(registry);
+        }
+    }
+
+    ErrorStormGuard(ErrorStormProperties properties, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+    }
+
+    public Endpoint endpoint(HandlerMethod handler) {
+        Endpoint endpoint = endpoints.get(handler.getMethod());
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(handler.getMethod(),
+                    method -> new Endpoint(handler.getBeanType().getSimpleName() + "#" + method.getName()));
+        }
+        return endpoint;
+    }
+
+    /**
+     * 엔드포인트별 상태 + 최근 전환 이력
+     */
+    public Map<String, Object> snapshot() {
+        long now = refresh();
+        Map<String, Object> byEndpoint = new TreeMap<>();
+        for (Endpoint endpoint : endpoints.values()) {
+            byEndpoint.put(endpoint.name, endpoint.snapshot(now));
+        }
+        List<Map<String, Object>> recent = new ArrayList<>();
+        synchronized (transitions) {
+            for (Transition transition : transitions) {
+                recent.add(transition.snapshot());
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("degraded", degraded.get());
+        result.put("shed", shed.sum());
+        result.put("endpoints", byEndpoint);
+        result.put("transitions", recent);
+        return result;
+    }
+
+    /**
+     * 요청이 없는 저하 모드 엔드포인트도 회복 조건 확인 (조회 시점에 상태가 최신이 되도록)
+     */
+    private long refresh() {
+        long now = nanoTime.getAsLong();
+        for (Endpoint endpoint : endpoints.values()) {
+            if (endpoint.state == State.DEGRADED) {
+                endpoint.evaluate(now);
+            }
+        }
+        return now;
+    }
+
+    private int degradedEndpoints() {
+        refresh();
+        return degraded.get();
+    }
+
+    private void bind(MeterRegistry registry) {
+        Gauge.builder("exception.storm.degraded", this, ErrorStormGuard::degradedEndpoints)
+                .description("저하 모드인 엔드포인트 수")
+                .register(registry);
+        FunctionCounter.builder("exception.storm.transitions", degradedTransitions, LongAdder::sum)
+                .description("정상 / 저하 모드 전환 횟수")
+                .tag("to", "degraded")
+                .register(registry);
+        FunctionCounter.builder("exception.storm.transitions", recoveredTransitions, LongAdder::sum)
+                .description("정상 / 저하 모드 전환 횟수")
+                .tag("to", "normal")
+                .register(registry);
+        FunctionCounter.builder("exception.storm.shed", shed, LongAdder::sum)
+                .description("저하 모드에서 503으로 거절한 요청 수")
+                .register(registry);
+    }
+
+    private void transitioned(Endpoint endpoint, State from, State to, long requests, double errorRate) {
+        if (to == State.DEGRADED) {
+            degraded.incrementAndGet();
+            degradedTransitions.increment();
+        } else {
+            degraded.decrementAndGet();
+            recoveredTransitions.increment();
+        }
+        log.warn("[error-storm] {} {} -> {} (error rate {}%, {} requests in {}s)", endpoint.name, from, to,
+                Math.round(errorRate * 100), requests, properties.getWindow().toSeconds());
+        synchronized (transitions) {
+            transitions.addLast(new Transition(Instant.now(), endpoint.name, from, to, requests, errorRate));
+            while (transitions.size() > properties.getMaxTransitions()) {
+                transitions.removeFirst();
+            }
+        }
+    }
+
+    public final class Endpoint {
+
+        private final String name;
+        private final SlidingWindow window;
+        private volatile State state = State.NORMAL;
+        private volatile long degradedSince;
+        private final AtomicLong arrivals = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final LongAdder shedCount = new LongAdder();
+        private final LongAdder sampledOut = new LongAdder();
+
+        private Endpoint(String name) {
+            this.name = name;
+            this.window = new SlidingWindow(properties.getWindow().toNanos(), properties.getBuckets());
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 저하 모드이면 회복 조건도 확인 (요청이 모두 거절되는 동안에도 window가 지나면 회복)
+         */
+        public boolean isDegraded() {
+            if (state == State.NORMAL) {
+                return false;
+            }
+            evaluate(nanoTime.getAsLong());
+            return state == State.DEGRADED;
+        }
+
+        /**
+         * 응답이 끝난 요청 기록 (거절한 요청은 기록하지 않음)
+         */
+        public void record(boolean error) {
+            long now = nanoTime.getAsLong();
+            window.record(now, error);
+            evaluate(now);
+        }
+
+        /**
+         * 거절할 요청이면 true, probe-every개 중 하나는 통과
+         */
+        public boolean shouldShed() {
+            if (arrivals.incrementAndGet() % properties.getProbeEvery() == 0) {
+                return false;
+            }
+            shedCount.increment();
+            shed.increment();
+            return true;
+        }
+
+        /**
+         * 로그를 남길 오류이면 true, log-sample개 중 하나 (처음 오류는 항상 남김)
+         */
+        public boolean shouldLog() {
+            if (failures.getAndIncrement() % properties.getLogSample() == 0) {
+                return true;
+            }
+            sampledOut.increment();
+            return false;
+        }
+
+        private void evaluate(long now) {
+            long requests = window.requests(now);
+            double errorRate = requests == 0 ? 0 : (double) window.errors(now) / requests;
+            State current = state;
+            if (current == State.NORMAL) {
+                if (requests >= properties.getMinRequests() && errorRate >= properties.getEnterErrorRate()) {
+                    transition(State.NORMAL, State.DEGRADED, now, requests, errorRate);
+                }
+            } else if (now - degradedSince >= properties.getMinDegraded().toNanos()
+                    && errorRate < properties.getExitErrorRate()) {
+                transition(State.DEGRADED, State.NORMAL, now, requests, errorRate);
+            }
+        }
+
+        private void transition(State from, State to, long now, long requests, double errorRate) {
+            synchronized (this) {
+                if (state != from) {
+                    return;
+                }
+                if (to == State.DEGRADED) {
+                    degradedSince = now;
+                    failures.set(0);
+                }
+                state = to;
+            }
+            transitioned(this, from, to, requests, errorRate);
+        }
+
+        private Map<String, Object> snapshot(long now) {
+            long requests = window.requests(now);
+            long errors = window.errors(now);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("state", state);
+            result.put("requests", requests);
+            result.put("errors", errors);
+            result.put("errorRate", requests == 0 ? 0.0 : (double) errors / requests);
+            result.put("shed", shedCount.sum());
+            result.put("logsSampledOut", sampledOut.sum());
+            return result;
+        }
+    }
+
+    private static final class Transition {
+
+        private final Instant at;
+        private final String endpoint;
+        private final State from;
+        private final State to;
+        private final long requests;
+        private final double errorRate;
+
+        private Transition(Instant at, String endpoint, State from, State to, long requests, double errorRate) {
+            this.at = at;
+            this.endpoint = endpoint;
+            this.from = from;
+            this.to = to;
+            this.requests = requests;
+            this.errorRate = errorRate;
+        }
+
+        private Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("at", at.toString());
+            result.put("endpoint", endpoint);
+            result.put("from", from);
+            result.put("to", to);
+            result.put("requests", requests);
+            result.put("errorRate", errorRate);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package hello.exception.storm;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * [컨트롤러 단위 오류 폭주 가드]
+ * - REQUEST: 컨트롤러 메서드마다 응답 결과(예외 또는 4xx, 5xx)를 ErrorStormGuard에 기록
+ *   저하 모드이고 shed=true면 컨트롤러를 호출하지 않고 503 + Retry-After (probe 요청은 통과)
+ * - ERROR: WAS가 오류 페이지를 다시 요청할 때 원래 엔드포인트가 저하 모드이면
+ *   ErrorPageController, BasicErrorController(Thymeleaf) 대신 고정 바디로 응답 (sendError로 끝난 요청)
+ *
+ * 다른 인터셉터보다 먼저 등록 (거절할 때 뒤쪽 인터셉터는 호출되지 않음)
+ */
+public class ErrorStormInterceptor implements HandlerInterceptor {
+
+    private static final String ENDPOINT = ErrorStormInterceptor.class.getName() + ".ENDPOINT";
+
+    private final ErrorStormGuard guard;
+    private final DegradedResponses degradedResponses;
+    private final boolean shed;
+
+    public ErrorStormInterceptor(ErrorStormGuard guard, DegradedResponses degradedResponses, boolean shed) {
+        this.guard = guard;
+        this.degradedResponses = degradedResponses;
+        this.shed = shed;
+    }
+
+    /**
+     * 이 요청이 기록되는 엔드포인트 (가드 대상이 아니면 null)
+     */
+    static ErrorStormGuard.Endpoint endpoint(HttpServletRequest request) {
+        Object endpoint = request.getAttribute(ENDPOINT);
+        return endpoint instanceof ErrorStormGuard.Endpoint ? (ErrorStormGuard.Endpoint) endpoint : null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ERROR) {
+            ErrorStormGuard.Endpoint endpoint = endpoint(request);
+            if (endpoint != null && endpoint.isDegraded()) {
+                Object status = request.getAttribute(RequestDispatcher.ERROR_STATUS_CODE);
+                degradedResponses.writeError(response,
+                        status instanceof Integer ? (Integer) status : HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                return false;
+            }
+            return true;
+        }
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        ErrorStormGuard.Endpoint endpoint = guard.endpoint((HandlerMethod) handler);
+        if (shed && endpoint.isDegraded() && endpoint.shouldShed()) {
+            degradedResponses.writeShed(response);
+            return false;
+        }
+        request.setAttribute(ENDPOINT, endpoint);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return;
+        }
+        ErrorStormGuard.Endpoint endpoint = endpoint(request);
+        if (endpoint != null) {
+            endpoint.record(ex != null || response.getStatus() >= 400);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package hello.exception.storm;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 오류 폭주(error storm) 감지와 저하 모드(degraded mode) 설정
+ * ex) exception.storm.enabled=true
+ *     exception.storm.enter-error-rate=0.5
+ *     exception.storm.shed=true
+ *
+ * enabled=false 이면 엔드포인트별 오류율을 기록하지 않고 항상 기존처럼 처리
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.storm")
+public class ErrorStormProperties {
+
+    private boolean enabled = false;
+
+    //오류율을 계산하는 구간(최근 window 동안), buckets개의 칸으로 나눠서 오래된 칸부터 버림
+    private Duration window = Duration.ofSeconds(10);
+    private int buckets = 10;
+
+    //구간 안의 요청이 이보다 적으면 오류율이 높아도 저하 모드로 바꾸지 않음
+    private int minRequests = 50;
+
+    //오류율이 enter-error-rate 이상이면 저하 모드, exit-error-rate 미만으로 내려가면 정상 모드 (사이 값은 현재 상태 유지)
+    private double enterErrorRate = 0.5;
+    private double exitErrorRate = 0.2;
+
+    //저하 모드로 바뀐 뒤 최소 유지 시간 (상태가 계속 뒤집히는 것 방지)
+    private Duration minDegraded = Duration.ofSeconds(5);
+
+    //true면 저하 모드 엔드포인트 요청을 컨트롤러 호출 없이 503 + Retry-After로 거절
+    private boolean shed = false;
+
+    //거절할 때 Retry-After 헤더 값
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    //거절 중에도 probe-every개 중 하나는 통과시켜서 오류율이 내려갔는지 확인
+    private int probeEvery = 10;
+
+    //저하 모드에서는 log-sample개 중 하나만 로그를 남김
+    private int logSample = 100;
+
+    //조회용으로 보관할 최근 상태 전환 개수
+    private int maxTransitions = 100;
+}
@@ -0,0 +1,63 @@
+package hello.exception.storm;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 최근 window 동안의 요청 수, 오류 수
+ * window를 같은 길이의 칸(bucket) 여러 개로 나누고, 시간이 지나 다시 돌아온 칸은 비우고 재사용
+ *
+ * 락 없이 AtomicLongArray만 사용하므로 칸을 비우는 순간에 들어온 기록 몇 개는 빠질 수 있음 (오류율 판단에는 충분)
+ */
+final class SlidingWindow {
+
+    private final long bucketNanos;
+    private final int buckets;
+    //칸마다 현재 담고 있는 시간 구간 번호 (nanoTime / bucketNanos)
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray requests;
+    private final AtomicLongArray errors;
+
+    SlidingWindow(long windowNanos, int buckets) {
+        this.buckets = buckets;
+        this.bucketNanos = Math.max(1, windowNanos / buckets);
+        this.epochs = new AtomicLongArray(buckets);
+        this.requests = new AtomicLongArray(buckets);
+        this.errors = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            epochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    void record(long now, boolean error) {
+        long epoch = Math.floorDiv(now, bucketNanos);
+        int index = (int) Math.floorMod(epoch, (long) buckets);
+        long current = epochs.get(index);
+        if (current != epoch && epochs.compareAndSet(index, current, epoch)) {
+            requests.set(index, 0);
+            errors.set(index, 0);
+        }
+        requests.incrementAndGet(index);
+        if (error) {
+            errors.incrementAndGet(index);
+        }
+    }
+
+    long requests(long now) {
+        return sum(requests, now);
+    }
+
+    long errors(long now) {
+        return sum(errors, now);
+    }
+
+    private long sum(AtomicLongArray counts, long now) {
+        long oldest = Math.floorDiv(now, bucketNanos) - buckets;
+        long sum = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (epochs.get(i) > oldest) {
+                sum += counts.get(i);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,36 @@
+package hello.exception.trace;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 오류 속성 "trace"의 값
+ * 만들 때는 예외만 들고 있고, JSON 직렬화(@JsonValue)나 뷰 렌더링(${trace} -> toString())에서
+ * 처음 문자열이 필요할 때 한 번만 렌더링함
+ * -> HTML 오류 페이지가 trace를 출력하지 않으면 스택 트레이스 문자열은 만들어지지 않음
+ */
+public final class StackTrace {
+
+    private final Throwable error;
+    private final StackTraceRenderer renderer;
+    private volatile String text;
+
+    StackTrace(Throwable error, StackTraceRenderer renderer) {
+        this.error = error;
+        this.renderer = renderer;
+    }
+
+    public boolean isRendered() {
+        return text != null;
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        String rendered = text;
+        if (rendered == null) {
+            rendered = renderer.render(error);
+            text = rendered;
+        }
+        return rendered;
+    }
+}
@@ -0,0 +1,77 @@
+package hello.exception.trace;
+
+import org.springframework.boot.web.error.ErrorAttributeOptions;
+import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.ServletException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * [스택 트레이스를 지연 생성하는 ErrorAttributes]
+ * DefaultErrorAttributes는 trace를 포함할 때마다 StringWriter + printStackTrace()로 전체 스택 트레이스를 만듦
+ * server.error.include-stacktrace=on_param 이면 ?trace 파라미터만으로 요청마다 큰 문자열이 할당됨
+ *
+ * 이 클래스는 나머지 속성은 DefaultErrorAttributes에 맡기고 trace만 StackTrace 객체로 바꿔서 넣음
+ * - 문자열은 직렬화, 뷰 렌더링에서 실제로 사용될 때 만들어짐
+ * - 깊이, 길이 제한과 fingerprint 캐시는 StackTraceRenderer (exception.trace.*)
+ *
+ * ErrorAttributes 빈이 있으면 스프링 부트는 DefaultErrorAttributes를 등록하지 않으므로
+ * BasicErrorController, ErrorJournalFilter 모두 이 빈을 사용함
+ */
+@Component
+public class StackTraceErrorAttributes extends DefaultErrorAttributes {
+
+    private static final String TRACE = "trace";
+    private static final String EXCEPTION = "exception";
+
+    private final StackTraceRenderer renderer;
+
+    public StackTraceErrorAttributes(StackTraceProperties properties) {
+        this.renderer = new StackTraceRenderer(properties);
+    }
+
+    @Override
+    public Map<String, Object> getErrorAttributes(WebRequest webRequest, ErrorAttributeOptions options) {
+        boolean includeStackTrace = options.isIncluded(ErrorAttributeOptions.Include.STACK_TRACE);
+        Map<String, Object> attributes = super.getErrorAttributes(webRequest,
+                options.excluding(ErrorAttributeOptions.Include.STACK_TRACE));
+        if (!includeStackTrace) {
+            return attributes;
+        }
+        Throwable error = getError(webRequest);
+        if (error == null) {
+            return attributes;
+        }
+        //DefaultErrorAttributes와 같이 서블릿 예외로 감싼 원인 예외의 스택 트레이스
+        while (error instanceof ServletException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return withTrace(attributes, new StackTrace(error, renderer));
+    }
+
+    /**
+     * DefaultErrorAttributes와 같은 순서 (exception 다음, 없으면 message 앞)
+     */
+    private static Map<String, Object> withTrace(Map<String, Object> attributes, StackTrace trace) {
+        Map<String, Object> ordered = new LinkedHashMap<>();
+        boolean added = false;
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            if (!added && !isBeforeTrace(entry.getKey())) {
+                ordered.put(TRACE, trace);
+                added = true;
+            }
+            ordered.put(entry.getKey(), entry.getValue());
+        }
+        if (!added) {
+            ordered.put(TRACE, trace);
+        }
+        return ordered;
+    }
+
+    private static boolean isBeforeTrace(String key) {
+        return key.equals("timestamp") || key.equals("status") || key.equals("error") || key.equals(EXCEPTION);
+    }
+}
@@ -0,0 +1,31 @@
+package hello.exception.trace;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 오류 응답(trace 속성)에 넣는 스택 트레이스 제한
+ * ex) exception.trace.max-frames=32
+ *     exception.trace.max-length=16384
+ *
+ * server.error.include-stacktrace=on_param 이면 클라이언트가 ?trace 만 붙여도 스택 트레이스가 만들어지므로
+ * 깊이와 길이를 제한해서 요청 하나가 만들 수 있는 문자열 크기를 고정함
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "exception.trace")
+public class StackTraceProperties {
+
+    //예외 하나당 출력할 스택 프레임 개수, 나머지는 "... n more"
+    private int maxFrames = 32;
+
+    //출력할 원인 예외(Caused by) 개수
+    private int maxCauses = 4;
+
+    //trace 문자열 최대 길이(문자 수), 넘으면 잘라내고 표시를 붙임
+    private int maxLength = 16 * 1024;
+
+    //스택 프레임 fingerprint -> 렌더링된 프레임 텍스트 최대 보관 개수, 가득 차면 새 fingerprint는 매번 렌더링
+    private int cacheMaxEntries = 256;
+}
@@ -0,0 +1,142 @@
+package hello.exception.trace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * [스택 트레이스 렌더링]
+ * Throwable.printStackTrace()와 같은 형식의 문자열을 만들되 깊이와 길이를 제한하고
+ * 같은 스택 프레임을 가진 예외는 이미 렌더링한 프레임 텍스트를 재사용
+ *
+ * - 첫 줄(예외 타입: 메시지)은 요청마다 값이 다를 수 있으므로 매번 만들고, 프레임 부분만 캐시
+ * - 캐시 키는 원인 예외 체인 전체의 프레임 해시(fingerprint), 조회된 항목은 프레임을 equals로 다시 비교
+ *   (해시가 충돌하면 캐시를 사용하지 않고 렌더링)
+ * - 예외마다 max-frames개까지만 출력하고 나머지는 printStackTrace()와 같이 "... n more"
+ * - Caused by는 max-causes개까지, 전체 길이는 max-length까지 (Suppressed는 출력하지 않음)
+ */
+final class StackTraceRenderer {
+
+    static final String TRUNCATED = "\n\t... (truncated)";
+
+    private final int maxFrames;
+    private final int maxCauses;
+    private final int maxLength;
+    private final int cacheMaxEntries;
+    private final ConcurrentMap<Integer, Frames> cache = new ConcurrentHashMap<>();
+
+    StackTraceRenderer(StackTraceProperties properties) {
+        this.maxFrames = properties.getMaxFrames();
+        this.maxCauses = properties.getMaxCauses();
+        this.maxLength = properties.getMaxLength();
+        this.cacheMaxEntries = properties.getCacheMaxEntries();
+    }
+
+    String render(Throwable error) {
+        List<Throwable> chain = chain(error);
+        Frames frames = frames(chain);
+        StringBuilder sb = new StringBuilder(Math.min(maxLength, 1024));
+        for (int i = 0; i < chain.size(); i++) {
+            if (i > 0) {
+                sb.append("Caused by: ");
+            }
+            sb.append(chain.get(i)).append('\n');
+            if (sb.length() > maxLength) {
+                break;
+            }
+            sb.append(frames.blocks[i]);
+        }
+        //max-causes를 넘었거나 순환 참조로 멈춘 경우
+        if (chain.get(chain.size() - 1).getCause() != null) {
+            sb.append("\t... (more causes)\n");
+        }
+        if (sb.length() > maxLength) {
+            sb.setLength(maxLength);
+            sb.append(TRUNCATED);
+        }
+        return sb.toString();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    //원인 예외 체인, 순환 참조는 같은 인스턴스가 다시 나오면 중단
+    private List<Throwable> chain(Throwable error) {
+        List<Throwable> chain = new ArrayList<>(2);
+        for (Throwable t = error; t != null && chain.size() <= maxCauses; t = t.getCause()) {
+            for (Throwable seen : chain) {
+                if (seen == t) {
+                    return chain;
+                }
+            }
+            chain.add(t);
+        }
+        return chain;
+    }
+
+    private Frames frames(List<Throwable> chain) {
+        StackTraceElement[][] traces = new StackTraceElement[chain.size()][];
+        int fingerprint = 1;
+        for (int i = 0; i < traces.length; i++) {
+            traces[i] = chain.get(i).getStackTrace();
+            fingerprint = 31 * fingerprint + Arrays.hashCode(traces[i]);
+        }
+        Frames cached = cache.get(fingerprint);
+        if (cached != null && Arrays.deepEquals(cached.traces, traces)) {
+            return cached;
+        }
+        Frames frames = new Frames(traces, blocks(traces));
+        if (cached == null && cache.size() < cacheMaxEntries) {
+            cache.putIfAbsent(fingerprint, frames);
+        }
+        return frames;
+    }
+
+    /**
+     * 예외마다 "\tat ..." 줄들, 감싼 예외와 겹치는 아래쪽 프레임은 printStackTrace()와 같이 "... n more"로 생략
+     */
+    private String[] blocks(StackTraceElement[][] traces) {
+        String[] blocks = new String[traces.length];
+        for (int i = 0; i < traces.length; i++) {
+            StackTraceElement[] trace = traces[i];
+            int unique = trace.length;
+            if (i > 0) {
+                StackTraceElement[] enclosing = traces[i - 1];
+                int m = trace.length - 1;
+                int n = enclosing.length - 1;
+                while (m >= 0 && n >= 0 && trace[m].equals(enclosing[n])) {
+                    m--;
+                    n--;
+                }
+                unique = m + 1;
+            }
+            int printed = Math.min(unique, maxFrames);
+            StringBuilder sb = new StringBuilder(printed * 64);
+            for (int j = 0; j < printed; j++) {
+                sb.append("\tat ").append(trace[j]).append('\n');
+                if (sb.length() > maxLength) {
+                    break;
+                }
+            }
+            if (printed < trace.length) {
+                sb.append("\t... ").append(trace.length - printed).append(" more\n");
+            }
+            blocks[i] = sb.toString();
+        }
+        return blocks;
+    }
+
+    private static final class Frames {
+
+        private final StackTraceElement[][] traces;
+        private final String[] blocks;
+
+        private Frames(StackTraceElement[][] traces, String[] blocks) {
+            this.traces = traces;
+            this.blocks = blocks;
+        }
+    }
+}
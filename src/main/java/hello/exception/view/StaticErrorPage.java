@@ -0,0 +1,165 @@
+package hello.exception.view;
+
+import hello.exception.metrics.ErrorMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.View;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 시작 시점에 한 번 렌더링한 오류 페이지 View
+ * 원본(identity)과 gzip 압축본, 각각의 ETag를 메모리에 보관하고 model은 사용하지 않음
+ *
+ * - Accept-Encoding에 gzip이 있으면 압축본을 그대로 전송
+ * - 2xx 응답(/error-page/404 직접 호출 등)에서 If-None-Match가 ETag와 같으면 304 (RFC 9110 13.1.2)
+ *   오류 응답(4xx, 5xx)에는 조건부 요청을 적용하지 않음
+ */
+public final class StaticErrorPage implements View {
+
+    private static final String CONTENT_TYPE = "text/html;charset=UTF-8";
+
+    private final String viewName;
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final String identityEtag;
+    private final String gzipEtag;
+
+    StaticErrorPage(String viewName, byte[] identity) {
+        this.viewName = viewName;
+        this.identity = identity;
+        this.gzip = gzip(identity);
+        String hash = hash(identity);
+        //인코딩이 다르면 바이트가 다르므로 strong ETag도 달라야 함
+        this.identityEtag = "\"" + hash + "\"";
+        this.gzipEtag = "\"" + hash + "-gzip\"";
+    }
+
+    public String getViewName() {
+        return viewName;
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzipped = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzipped ? gzipEtag : identityEtag;
+
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (isSuccessful(response.getStatus()) && matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzipped ? gzip : identity;
+        response.setContentType(CONTENT_TYPE);
+        if (gzipped) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        request.setAttribute(ErrorMetrics.RESPONSE_BYTES_ATTRIBUTE, body.length);
+    }
+
+    int size() {
+        return identity.length + gzip.length;
+    }
+
+    private static boolean isSuccessful(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * If-None-Match는 weak 비교 (W/ 접두사 무시)
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * gzip(x-gzip) 또는 *가 q=0이 아닌 값으로 있으면 압축본 전송
+     * gzip;q=0 처럼 명시적으로 거부하면 *가 있어도 원본 전송
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    accepted = !param.substring(2).trim().matches("0(\\.0{0,3})?");
+                }
+            }
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static byte[] gzip(byte[] source) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(source.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                //한 번만 압축하므로 최고 압축률 사용
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source);
+            StringBuilder sb = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                sb.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
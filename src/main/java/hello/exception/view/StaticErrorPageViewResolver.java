@@ -0,0 +1,125 @@
+package hello.exception.view;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * [미리 렌더링한 오류 페이지] exception.static-error-pages.enabled=true(기본)
+ *
+ * templates/error/*.html, templates/error-page/*.html 은 요청마다 달라지지 않는데
+ * 오류가 날 때마다 Thymeleaf가 템플릿을 다시 렌더링함
+ * -> 시작 시점에 한 번 렌더링해서 StaticErrorPage(원본 + gzip + ETag)로 보관하고 메모리에서 바로 전송
+ *
+ * 템플릿 분류
+ * - 정적: th 속성, 인라인 표현식이 없음 -> 로케일과 관계없이 한 번만 렌더링
+ * - 메시지만 사용: #{...}만 사용 -> exception.static-error-pages.locales 로케일마다 렌더링
+ * - model 사용: ${...}, *{...} 등 (ex. error/500.html) -> 여기서 처리하지 않고 Thymeleaf가 렌더링
+ *
+ * ThymeleafViewResolver보다 먼저 호출되도록 순서를 앞에 둠
+ * ContentNegotiatingViewResolver, InPlaceErrorPageFilter도 이 순서대로 ViewResolver를 사용함
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "exception.static-error-pages.enabled", havingValue = "true", matchIfMissing = true)
+public class StaticErrorPageViewResolver implements ViewResolver, Ordered {
+
+    private static final String TEMPLATE_PREFIX = "classpath:/templates/";
+    private static final String TEMPLATE_SUFFIX = ".html";
+
+    private static final Pattern TH_NAMESPACE = Pattern.compile("xmlns:th\\s*=\\s*\"[^\"]*\"");
+    private static final Pattern TH_PROCESSING = Pattern.compile("\\bth:|\\bdata-th-|\\[\\[|\\[\\(");
+    private static final Pattern MODEL_EXPRESSION = Pattern.compile("[$*@~]\\{");
+
+    //key: 뷰 이름, 로케일과 관계없는 페이지는 Locale.ROOT 하나만 가짐
+    private final Map<String, Map<Locale, StaticErrorPage>> pages = new HashMap<>();
+
+    public StaticErrorPageViewResolver(ITemplateEngine templateEngine,
+                                       @Value("${exception.static-error-pages.directories:error,error-page}") String[] directories,
+                                       @Value("${exception.static-error-pages.locales:}") String[] locales) throws IOException {
+        Set<Locale> targetLocales = new LinkedHashSet<>();
+        for (String locale : locales) {
+            if (StringUtils.hasText(locale)) {
+                targetLocales.add(Locale.forLanguageTag(locale.trim()));
+            }
+        }
+        if (targetLocales.isEmpty()) {
+            targetLocales.add(Locale.getDefault());
+        }
+
+        ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+        int dynamic = 0;
+        int bytes = 0;
+        for (String directory : directories) {
+            for (Resource resource : resourceResolver.getResources(TEMPLATE_PREFIX + directory + "/*" + TEMPLATE_SUFFIX)) {
+                String filename = resource.getFilename();
+                String viewName = directory + "/" + filename.substring(0, filename.length() - TEMPLATE_SUFFIX.length());
+                String source = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+
+                String processed = TH_NAMESPACE.matcher(source).replaceAll("");
+                if (!TH_PROCESSING.matcher(processed).find()) {
+                    bytes += register(templateEngine, viewName, Locale.ROOT, Locale.getDefault());
+                } else if (!MODEL_EXPRESSION.matcher(processed).find()) {
+                    for (Locale locale : targetLocales) {
+                        bytes += register(templateEngine, viewName, locale, locale);
+                    }
+                } else {
+                    dynamic++;
+                }
+            }
+        }
+        log.info("static error pages: {} pre-rendered ({} bytes), {} rendered by Thymeleaf", pages.size(), bytes, dynamic);
+    }
+
+    private int register(ITemplateEngine templateEngine, String viewName, Locale key, Locale renderLocale) {
+        byte[] body = templateEngine.process(viewName, new Context(renderLocale)).getBytes(StandardCharsets.UTF_8);
+        StaticErrorPage page = new StaticErrorPage(viewName, body);
+        pages.computeIfAbsent(viewName, k -> new HashMap<>()).put(key, page);
+        return page.size();
+    }
+
+    /**
+     * 요청 로케일 -> 언어 -> 로케일 무관 페이지 순서로 찾음
+     * 렌더링해 두지 않은 로케일이면 null을 반환해서 Thymeleaf가 처리하게 함
+     */
+    @Override
+    public View resolveViewName(String viewName, Locale locale) {
+        Map<Locale, StaticErrorPage> localized = pages.get(viewName);
+        if (localized == null) {
+            return null;
+        }
+        StaticErrorPage page = localized.get(locale);
+        if (page == null && locale != null) {
+            page = localized.get(new Locale(locale.getLanguage()));
+        }
+        if (page == null) {
+            page = localized.get(Locale.ROOT);
+        }
+        return page;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+}
@@ -0,0 +1,53 @@
+package hello.exception.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 회원 등록 검증 오류 (exception.binding.enabled=true -> BindingErrorResolver가 400 + 필드 오류 목록으로 응답)
+ */
+@SpringBootTest(properties = "exception.binding.enabled=true")
+@AutoConfigureMockMvc
+class ApiExceptionControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    /**
+     * 입력 값(${validatedValue})을 쓰는 메시지는 요청마다 그 값으로 만들어짐 (첫 요청의 메시지를 재사용하지 않음)
+     */
+    @Test
+    void validatedValueMessagePerRequest() throws Exception {
+        String first = nameError("a".repeat(21));
+        String second = nameError("b".repeat(25));
+
+        assertThat(first).isEqualTo("20자 이하로 입력해주세요. (입력: " + "a".repeat(21) + ")");
+        assertThat(second).isEqualTo("20자 이하로 입력해주세요. (입력: " + "b".repeat(25) + ")");
+    }
+
+    private String nameError(String name) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/members")
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+                        .content("{\"memberId\": \"a\", \"name\": \"" + name + "\", \"age\": 20}"))
+                .andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+        assertThat(body.get("code").asText()).isEqualTo("BIND");
+        JsonNode error = body.get("errors").get(0);
+        assertThat(error.get("field").asText()).isEqualTo("name");
+        return error.get("message").asText();
+    }
+}
@@ -0,0 +1,104 @@
+package hello.exception.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 회원 일괄 조회 JSON, NDJSON 응답
+ */
+@SpringBootTest(properties = "exception.member-batch.max-ids=4")
+@AutoConfigureMockMvc
+class ApiExceptionV2ControllerTest {
+
+    private static final String IDS = "[\"a\", \"bad\", \"user-ex\", \"b\"]";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    /**
+     * id 순서대로, 실패한 id는 ExControllerAdvice와 같은 상태 코드와 ErrorResult
+     */
+    @Test
+    void batchJson() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api2/members/batch")
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).content(IDS))
+                .andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        JsonNode items = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+        assertThat(items).hasSize(4);
+        assertItem(items.get(0), "a", 200, null);
+        assertItem(items.get(1), "bad", 400, "BAD");
+        assertItem(items.get(2), "user-ex", 400, "USER-EX");
+        assertItem(items.get(3), "b", 200, null);
+    }
+
+    /**
+     * 한 줄에 항목 하나, 끝난 순서이므로 id로 찾아서 확인
+     */
+    @Test
+    void batchNdjson() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api2/members/batch")
+                        .contentType(MediaType.APPLICATION_JSON).accept("application/x-ndjson").content(IDS))
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getContentType()).isEqualTo("application/x-ndjson");
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(4);
+        List<String> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode item = objectMapper.readTree(line);
+            String id = item.get("id").asText();
+            ids.add(id);
+            assertItem(item, id, id.equals("bad") || id.equals("user-ex") ? 400 : 200,
+                    id.equals("bad") ? "BAD" : id.equals("user-ex") ? "USER-EX" : null);
+        }
+        assertThat(ids).containsExactlyInAnyOrder("a", "bad", "user-ex", "b");
+    }
+
+    /**
+     * max-ids를 넘으면 두 형식 모두 조회 없이 400 BAD
+     */
+    @Test
+    void tooManyIds() throws Exception {
+        String ids = "[\"a\", \"b\", \"c\", \"d\", \"e\"]";
+        for (String accept : List.of("application/json", "application/x-ndjson")) {
+            MvcResult result = mockMvc.perform(post("/api2/members/batch")
+                            .contentType(MediaType.APPLICATION_JSON).accept(accept).content(ids))
+                    .andReturn();
+            assertThat(result.getResponse().getStatus()).as(accept).isEqualTo(400);
+            assertThat(objectMapper.readTree(result.getResponse().getContentAsByteArray()).get("code").asText())
+                    .isEqualTo("BAD");
+        }
+    }
+
+    private static void assertItem(JsonNode item, String id, int status, String errorCode) {
+        assertThat(item.get("id").asText()).isEqualTo(id);
+        assertThat(item.get("status").asInt()).isEqualTo(status);
+        if (errorCode == null) {
+            assertThat(item.get("member").get("name").asText()).isEqualTo("hello " + id);
+        } else {
+            assertThat(item.get("error").get("code").asText()).isEqualTo(errorCode);
+        }
+    }
+}
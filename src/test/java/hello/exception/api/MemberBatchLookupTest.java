@@ -0,0 +1,136 @@
+package hello.exception.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import hello.exception.exhandler.ErrorEncoders;
+import hello.exception.exhandler.ErrorResult;
+import hello.exception.exhandler.ErrorResultCache;
+import hello.exception.exhandler.ErrorResultMapping;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberBatchLookupTest {
+
+    private final StubLookup memberLookup = new StubLookup();
+    private final List<MemberBatchLookup> lookups = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        lookups.forEach(MemberBatchLookup::close);
+    }
+
+    /**
+     * findAll은 id 순서, inCompletionOrder는 끝난 순서 (느린 id가 뒤의 결과를 붙잡지 않음)
+     */
+    @Test
+    void ordering() throws Exception {
+        MemberBatchLookup batchLookup = batchLookup(4, 4);
+
+        List<MemberBatchItem> items = batchLookup.findAll(List.of("slow", "a", "bad", "b"));
+        assertThat(items).extracting(MemberBatchItem::getId).containsExactly("slow", "a", "bad", "b");
+        assertThat(items.get(2).getStatus()).isEqualTo(400);
+        assertThat(items.get(2).getError()).isEqualTo(new ErrorResult("BAD", "잘못된 입력 값"));
+
+        memberLookup.slow = new CountDownLatch(1);
+        Iterator<MemberBatchItem> completed = batchLookup.inCompletionOrder(List.of("slow", "a", "bad", "b"));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(completed.next().getId());
+        }
+        memberLookup.slow.countDown();
+        ids.add(completed.next().getId());
+        assertThat(completed.hasNext()).isFalse();
+        assertThat(ids.subList(0, 3)).containsExactlyInAnyOrder("a", "bad", "b");
+        assertThat(ids.get(3)).isEqualTo("slow");
+    }
+
+    /**
+     * 요청 하나가 동시에 실행하는 조회는 in-flight개 이하
+     */
+    @Test
+    void limitsInFlightLookups() {
+        MemberBatchLookup batchLookup = batchLookup(8, 2);
+        List<String> ids = IntStream.range(0, 50).mapToObj(i -> "m" + i).collect(Collectors.toList());
+
+        Iterator<MemberBatchItem> items = batchLookup.inCompletionOrder(ids);
+        int count = 0;
+        while (items.hasNext()) {
+            assertThat(items.next().getStatus()).isEqualTo(200);
+            count++;
+        }
+        assertThat(count).isEqualTo(50);
+        assertThat(memberLookup.maxRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void rejectsTooManyIds() {
+        MemberBatchLookup batchLookup = batchLookup(2, 2);
+        List<String> ids = IntStream.range(0, 101).mapToObj(i -> "m" + i).collect(Collectors.toList());
+
+        assertThatThrownBy(() -> batchLookup.inCompletionOrder(ids)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> batchLookup.findAll(ids)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(memberLookup.calls.get()).isZero();
+    }
+
+    private MemberBatchLookup batchLookup(int parallelism, int inFlight) {
+        ErrorEncoders encoders = new ErrorEncoders(new ObjectMapper(),
+                new MappingJackson2CborHttpMessageConverter(new ObjectMapper(new CBORFactory())),
+                new MappingJackson2SmileHttpMessageConverter(new ObjectMapper(new SmileFactory())));
+        MemberBatchLookup batchLookup = new MemberBatchLookup(memberLookup,
+                new ErrorResultMapping(new ErrorResultCache(encoders, 16)), parallelism, 100, inFlight, 100);
+        lookups.add(batchLookup);
+        return batchLookup;
+    }
+
+    /**
+     * bad는 IllegalArgumentException, slow는 latch가 열릴 때까지 대기, 동시에 실행 중인 조회 수를 기록
+     */
+    private static class StubLookup extends MemberLookup {
+
+        private volatile CountDownLatch slow = new CountDownLatch(0);
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        StubLookup() {
+            super(null, null);
+        }
+
+        @Override
+        public String findName(String endpoint, String id) {
+            calls.incrementAndGet();
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if ("slow".equals(id)) {
+                    slow.await(5, TimeUnit.SECONDS);
+                } else {
+                    Thread.sleep(1);
+                }
+                if ("bad".equals(id)) {
+                    throw new IllegalArgumentException("잘못된 입력 값");
+                }
+                return "hello " + id;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
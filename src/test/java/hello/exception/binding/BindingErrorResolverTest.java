@@ -0,0 +1,303 @@
+package hello.exception.binding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.api.ApiExceptionController;
+import hello.exception.metrics.ErrorMetrics;
+import hello.exception.negotiation.ErrorResponseNegotiator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.validator.constraintvalidation.HibernateConstraintValidatorContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.validation.MessageInterpolatorFactory;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindException;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Payload;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BindingErrorResolverTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * @RequestParam 타입 변환 실패 -> 400 + 필드 오류, 두 번째 요청부터는 캐시된 조각을 재사용
+     */
+    @Test
+    void typeMismatch() throws Exception {
+        BindingErrorResolver resolver = resolver(new BindingErrorProperties());
+        Method method = ApiExceptionController.class.getMethod("defaultException", Integer.class);
+        HandlerMethod handler = new HandlerMethod(new ApiExceptionController(null, null), method);
+        MethodArgumentTypeMismatchException ex = new MethodArgumentTypeMismatchException("he\"llo", Integer.class,
+                "data", new MethodParameter(method, 0), new NumberFormatException());
+
+        MockHttpServletResponse first = resolve(resolver, handler, ex);
+        MockHttpServletResponse second = resolve(resolver, handler, ex);
+
+        assertThat(first.getStatus()).isEqualTo(400);
+        assertThat(first.getContentLength()).isEqualTo(first.getContentAsByteArray().length);
+        JsonNode body = objectMapper.readTree(first.getContentAsByteArray());
+        assertThat(body.get("code").asText()).isEqualTo("BIND");
+        assertThat(body.get("message").asText()).isEqualTo("요청 값이 올바르지 않습니다.");
+        JsonNode error = body.get("errors").get(0);
+        assertThat(error.get("field").asText()).isEqualTo("data");
+        assertThat(error.get("code").asText()).isEqualTo("typeMismatch");
+        assertThat(error.get("message").asText()).isEqualTo("숫자를 입력해주세요.");
+        assertThat(error.get("rejected").asText()).isEqualTo("he\"llo");
+        assertThat(second.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+        assertThat(resolver.cachedFragments()).isEqualTo(1);
+    }
+
+    /**
+     * 검증 오류는 필드마다 하나씩, max-errors를 넘으면 잘림, 거부된 값은 max-rejected-length까지
+     */
+    @Test
+    void validationErrors() throws Exception {
+        BindingErrorProperties properties = new BindingErrorProperties();
+        properties.setMaxRejectedLength(4);
+        Form form = new Form();
+        form.name = " ";
+        form.age = 1000;
+        BindException ex = validate(form);
+
+        JsonNode body = objectMapper.readTree(resolve(resolver(properties), null, ex).getContentAsByteArray());
+        assertThat(body.get("errors")).hasSize(2);
+        assertThat(body.has("truncated")).isFalse();
+        for (JsonNode error : body.get("errors")) {
+            if (error.get("field").asText().equals("age")) {
+                assertThat(error.get("code").asText()).isEqualTo("Max");
+                assertThat(error.get("rejected").asInt()).isEqualTo(1000);
+            } else {
+                assertThat(error.get("code").asText()).isEqualTo("NotBlank");
+                assertThat(error.get("rejected").asText()).isEqualTo(" ");
+            }
+        }
+
+        properties.setMaxErrors(1);
+        form.name = "x".repeat(10);
+        form.age = 100;
+        ex = validate(form);
+        //직접 rejectValue 한 오류는 캐시하지 않음
+        ex.rejectValue("name", "duplicate", "이미 사용 중인 이름");
+        ex.rejectValue("age", "tooOld", "나이 확인 필요");
+        body = objectMapper.readTree(resolve(resolver(properties), null, ex).getContentAsByteArray());
+        assertThat(body.get("errors")).hasSize(1);
+        assertThat(body.get("truncated").asBoolean()).isTrue();
+        assertThat(body.get("errors").get(0).get("rejected").asText()).isEqualTo("xxxx...");
+    }
+
+    /**
+     * 기본은 꺼져 있음 -> 기존처럼 DefaultHandlerExceptionResolver(sendError 400) -> 오류 페이지 응답 형식
+     */
+    @Test
+    void disabledByDefault() throws Exception {
+        BindingErrorResolver resolver = new BindingErrorResolver(new BindingErrorProperties(), new StaticMessageSource(),
+                new ErrorResponseNegotiator(16),
+                new ErrorMetrics(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class)));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept", "application/json");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(resolver.canResolve(null, BindException.class)).isFalse();
+        assertThat(resolver.resolveException(request, response, null, validate(new Form()))).isNull();
+        assertThat(response.getContentLength()).isZero();
+    }
+
+    /**
+     * HTML 요청은 기존처럼 오류 페이지로 처리
+     */
+    @Test
+    void htmlIsNotHandled() throws Exception {
+        Form form = new Form();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept", "text/html");
+        assertThat(resolver(new BindingErrorProperties()).resolveException(request, new MockHttpServletResponse(),
+                null, validate(form))).isNull();
+    }
+
+    /**
+     * 검증기가 위반마다 추가한 메시지 파라미터가 있으면 캐시한 메시지를 쓰지 않음
+     */
+    @Test
+    void dynamicMessageParametersAreNotCached() throws Exception {
+        CachingMessageInterpolator interpolator =
+                new CachingMessageInterpolator(new MessageInterpolatorFactory().getObject(), 16);
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.setMessageInterpolator(interpolator);
+        validator.afterPropertiesSet();
+
+        NicknameForm form = new NicknameForm();
+        form.nickname = "spring-mvc";
+        BeanPropertyBindingResult first = new BeanPropertyBindingResult(form, "form");
+        validator.validate(form, first);
+        form.nickname = "spring-mvc2-exception";
+        BeanPropertyBindingResult second = new BeanPropertyBindingResult(form, "form");
+        validator.validate(form, second);
+        validator.destroy();
+
+        assertThat(first.getFieldError("nickname").getDefaultMessage()).isEqualTo("최대 5자, 현재 10자");
+        assertThat(second.getFieldError("nickname").getDefaultMessage()).isEqualTo("최대 5자, 현재 21자");
+        assertThat(interpolator.size()).isZero();
+    }
+
+    /**
+     * 검증 대상 값(${validatedValue})이나 위반마다 추가한 파라미터를 쓰는 메시지는
+     * BindingResult, ConstraintViolationException 모두 응답 조각을 캐시하지 않음 (값마다 다른 메시지)
+     */
+    @Test
+    void dynamicViolationMessagesAreNotCached() throws Exception {
+        BindingErrorResolver resolver = resolver(new BindingErrorProperties());
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.setMessageInterpolator(new CachingMessageInterpolator(new MessageInterpolatorFactory().getObject(), 16));
+        validator.afterPropertiesSet();
+
+        List<String> bindingMessages = new ArrayList<>();
+        List<String> violationMessages = new ArrayList<>();
+        for (String code : List.of("ABCD", "WXYZ12")) {
+            CodeForm form = new CodeForm();
+            form.code = code;
+            BeanPropertyBindingResult result = new BeanPropertyBindingResult(form, "form");
+            validator.validate(form, result);
+            bindingMessages.add(errorMessage(resolver, new BindException(result)));
+            violationMessages.add(errorMessage(resolver,
+                    new ConstraintViolationException(validator.getValidator().validate(form))));
+        }
+        NicknameForm nickname = new NicknameForm();
+        nickname.nickname = "spring-mvc";
+        String first = errorMessage(resolver, new ConstraintViolationException(validator.getValidator().validate(nickname)));
+        nickname.nickname = "spring-mvc2-exception";
+        String second = errorMessage(resolver, new ConstraintViolationException(validator.getValidator().validate(nickname)));
+        validator.destroy();
+
+        assertThat(bindingMessages).containsExactly("ABCD: 최대 3자", "WXYZ12: 최대 3자");
+        assertThat(violationMessages).containsExactly("ABCD: 최대 3자", "WXYZ12: 최대 3자");
+        assertThat(first).isEqualTo("최대 5자, 현재 10자");
+        assertThat(second).isEqualTo("최대 5자, 현재 21자");
+        assertThat(resolver.cachedFragments()).isZero();
+
+        //값을 쓰지 않는 메시지는 캐시
+        Form form = new Form();
+        form.name = " ";
+        errorMessage(resolver, validate(form));
+        assertThat(resolver.cachedFragments()).isEqualTo(1);
+    }
+
+    private String errorMessage(BindingErrorResolver resolver, Exception ex) throws Exception {
+        JsonNode body = objectMapper.readTree(resolve(resolver, null, ex).getContentAsByteArray());
+        return body.get("errors").get(0).get("message").asText();
+    }
+
+    private static BindException validate(Form form) throws Exception {
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.setMessageInterpolator(new CachingMessageInterpolator(new MessageInterpolatorFactory().getObject(), 16));
+        validator.afterPropertiesSet();
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(form, "form");
+        validator.validate(form, result);
+        validator.destroy();
+        return new BindException(result);
+    }
+
+    private static MockHttpServletResponse resolve(BindingErrorResolver resolver, Object handler, Exception ex) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept", "application/json");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(resolver.resolveException(request, response, handler, ex)).isNotNull();
+        return response;
+    }
+
+    private static BindingErrorResolver resolver(BindingErrorProperties properties) {
+        properties.setEnabled(true);
+        StaticMessageSource messageSource = new StaticMessageSource();
+        messageSource.addMessage("error.binding", Locale.getDefault(), "요청 값이 올바르지 않습니다.");
+        messageSource.addMessage("typeMismatch.java.lang.Integer", Locale.getDefault(), "숫자를 입력해주세요.");
+        return new BindingErrorResolver(properties, messageSource, new ErrorResponseNegotiator(16),
+                new ErrorMetrics(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class)));
+    }
+
+    public static class NicknameForm {
+        @MaxLength(5)
+        String nickname;
+
+        public String getNickname() {
+            return nickname;
+        }
+    }
+
+    @Target(ElementType.FIELD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Constraint(validatedBy = MaxLengthValidator.class)
+    public @interface MaxLength {
+        String message() default "최대 {value}자, 현재 {length}자";
+
+        Class<?>[] groups() default {};
+
+        Class<? extends Payload>[] payload() default {};
+
+        int value();
+    }
+
+    public static class MaxLengthValidator implements ConstraintValidator<MaxLength, String> {
+        private int max;
+
+        @Override
+        public void initialize(MaxLength constraint) {
+            max = constraint.value();
+        }
+
+        @Override
+        public boolean isValid(String value, ConstraintValidatorContext context) {
+            if (value == null || value.length() <= max) {
+                return true;
+            }
+            context.unwrap(HibernateConstraintValidatorContext.class).addMessageParameter("length", value.length());
+            return false;
+        }
+    }
+
+    public static class CodeForm {
+        @Size(max = 3, message = "${validatedValue}: 최대 {max}자")
+        String code;
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    public static class Form {
+        @NotBlank
+        String name;
+        @Max(100)
+        Integer age;
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package hello.exception.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import hello.exception.exception.ExceptionFactory;
+import hello.exception.exception.StackTracePolicy;
+import hello.exception.exception.UserException;
+import hello.exception.exhandler.ErrorEncoders;
+import hello.exception.exhandler.ErrorResultCache;
+import hello.exception.exhandler.ErrorResultMapping;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NegativeLookupCacheTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * 실패할 때 한 번 만든 같은 타입, 같은 메시지의 스택 트레이스 없는 예외를 적중할 때마다 그대로 던짐
+     */
+    @Test
+    void throwsStoredStacklessCopy() {
+        NegativeLookupCache cache = cache(Duration.ofMinutes(1), 16);
+        IllegalArgumentException original = new IllegalArgumentException("잘못된 입력 값");
+        cache.put("bad", original);
+        cache.put("user-ex", new UserException("사용자 오류"));
+
+        NegativeLookupCache.Failure failure = cache.get("bad");
+        RuntimeException first = failure.getException();
+        RuntimeException second = cache.get("bad").getException();
+        assertThat(first).isSameAs(second).isNotSameAs(original)
+                .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("잘못된 입력 값");
+        assertThat(first.getStackTrace()).isEmpty();
+        assertThat(failure.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        RuntimeException user = cache.get("user-ex").getException();
+        assertThat(user).isSameAs(cache.get("user-ex").getException())
+                .isExactlyInstanceOf(UserException.class).hasMessage("사용자 오류");
+        assertThat(user.getStackTrace()).isEmpty();
+        //suppression을 끈 생성자, 공유하더라도 suppressed가 쌓여 다른 요청에 보이지 않음
+        user.addSuppressed(new IllegalStateException());
+        assertThat(cache.get("user-ex").getException().getSuppressed()).isEmpty();
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        NegativeLookupCache expired = cache(Duration.ZERO, 16);
+        expired.put("ex", new RuntimeException("잘못된 사용자"));
+        assertThat(expired.get("ex")).isNull();
+        assertThat(expired.snapshot().get("size")).isEqualTo(0);
+
+        NegativeLookupCache live = cache(Duration.ofMinutes(1), 16);
+        live.put("ex", new RuntimeException("잘못된 사용자"));
+        assertThat(live.get("ex")).isNotNull();
+        assertThat(live.invalidate("ex")).isTrue();
+        assertThat(live.get("ex")).isNull();
+    }
+
+    /**
+     * 가득 차면 새 id는 보관하지 않음, 만료된 항목이 있으면 정리하고 보관
+     */
+    @Test
+    void rejectsNewIdsWhenFull() {
+        NegativeLookupCache cache = cache(Duration.ofMinutes(1), 2);
+        cache.put("a", new IllegalArgumentException("a"));
+        cache.put("b", new IllegalArgumentException("b"));
+        cache.put("c", new IllegalArgumentException("c"));
+        //이미 있는 id는 덮어씀
+        cache.put("a", new IllegalArgumentException("a2"));
+
+        Map<String, Object> snapshot = cache.snapshot();
+        assertThat(snapshot.get("size")).isEqualTo(2);
+        assertThat(snapshot.get("rejected")).isEqualTo(1L);
+        assertThat(cache.get("c")).isNull();
+        assertThat(cache.get("a").getException()).hasMessage("a2");
+
+        NegativeLookupCache expiring = cache(Duration.ZERO, 1);
+        expiring.put("a", new IllegalArgumentException("a"));
+        expiring.put("b", new IllegalArgumentException("b"));
+        assertThat(expiring.snapshot().get("rejected")).isEqualTo(0L);
+    }
+
+    @Test
+    void recordsMetrics() {
+        NegativeLookupCache cache = cache(Duration.ofMinutes(1), 1);
+        cache.get("bad");
+        cache.put("bad", new IllegalArgumentException("잘못된 입력 값"));
+        cache.get("bad");
+        cache.get("bad");
+        cache.put("other", new IllegalArgumentException("x"));
+
+        assertThat(registry.get("member.lookup.negative-cache").tag("result", "hit").functionCounter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("member.lookup.negative-cache").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("member.lookup.negative-cache.rejected").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("member.lookup.negative-cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    /**
+     * 기본은 꺼져 있음, 인증 없는 삭제 작업이 있는 actuator 엔드포인트는 exception.negative-cache.enabled=true일 때만 등록
+     */
+    @Test
+    void endpointOnlyWhenEnabled() {
+        assertThat(new NegativeLookupCacheProperties().isEnabled()).isFalse();
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withBean(NegativeLookupCache.class, () -> cache(Duration.ofMinutes(1), 16))
+                .withUserConfiguration(NegativeLookupCacheEndpoint.class);
+        runner.run(context -> assertThat(context).doesNotHaveBean(NegativeLookupCacheEndpoint.class));
+        runner.withPropertyValues("exception.negative-cache.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(NegativeLookupCacheEndpoint.class));
+    }
+
+    private NegativeLookupCache cache(Duration ttl, int maxEntries) {
+        NegativeLookupCacheProperties properties = new NegativeLookupCacheProperties();
+        properties.setEnabled(true);
+        properties.setTtl(ttl);
+        properties.setMaxEntries(maxEntries);
+        ErrorEncoders encoders = new ErrorEncoders(new ObjectMapper(),
+                new MappingJackson2CborHttpMessageConverter(new ObjectMapper(new CBORFactory())),
+                new MappingJackson2SmileHttpMessageConverter(new ObjectMapper(new SmileFactory())));
+        return new NegativeLookupCache(properties, new ErrorResultMapping(new ErrorResultCache(encoders, 16)),
+                new ExceptionFactory(StackTracePolicy.fullStackTrace(), 16),
+                new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class));
+    }
+}
@@ -0,0 +1,72 @@
+package hello.exception.exhandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import hello.exception.exception.UserException;
+import hello.exception.negotiation.ErrorResponseNegotiator.Encoding;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorResultCacheTest {
+
+    private final ErrorEncoders encoders = new ErrorEncoders(new ObjectMapper(),
+            new MappingJackson2CborHttpMessageConverter(new ObjectMapper(new CBORFactory())),
+            new MappingJackson2SmileHttpMessageConverter(new ObjectMapper(new SmileFactory())));
+    private final ErrorResultCache cache = new ErrorResultCache(encoders, 16);
+    private final ErrorResultWriter writer = new ErrorResultWriter(cache);
+
+    /**
+     * 같은 ErrorResult를 인코딩마다 한 번만 직렬화하고, 읽으면 같은 값
+     */
+    @Test
+    void encodesOncePerEncoding() throws Exception {
+        ErrorResultCache.Entry entry = cache.get("BAD", "잘못된 입력 값");
+        for (Encoding encoding : Encoding.values()) {
+            byte[] bytes = cache.bytes(entry, encoding);
+            assertThat(cache.bytes(entry, encoding)).isSameAs(bytes);
+            JsonNode decoded = encoders.mapper(encoding).readTree(bytes);
+            assertThat(decoded.get("code").asText()).isEqualTo("BAD");
+            assertThat(decoded.get("message").asText()).isEqualTo("잘못된 입력 값");
+        }
+        assertThat(cache.bytes(entry, Encoding.CBOR).length).isLessThan(cache.bytes(entry, Encoding.JSON).length);
+    }
+
+    @Test
+    void writesContentTypeOfEncoding() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int bytes = writer.write(response, HttpStatus.BAD_REQUEST, cache.get("BAD", "x"), Encoding.SMILE);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getContentType()).isEqualTo("application/x-jackson-smile");
+        assertThat(response.getContentLength()).isEqualTo(bytes);
+        //Smile 헤더 ":)\n"
+        assertThat(response.getContentAsByteArray()).startsWith((byte) ':', (byte) ')', (byte) '\n');
+    }
+
+    /**
+     * 고정 메시지는 같은 Entry를 재사용하고, 예외 메시지는 캐시에 남기지 않음
+     */
+    @Test
+    void cachesOnlyFixedMessages() {
+        ErrorResultMapping mapping = new ErrorResultMapping(cache);
+        int initial = cache.size();
+
+        assertThat(cache.get("NOT-FOUND", "찾을 수 없음")).isSameAs(cache.get("NOT-FOUND", "찾을 수 없음"));
+        assertThat(cache.of(ErrorResultCache.INTERNAL_ERROR)).isSameAs(mapping.errorResultOf(new IllegalStateException()));
+        assertThat(cache.size()).isEqualTo(initial + 1);
+
+        for (int i = 0; i < 100; i++) {
+            ErrorResultCache.Entry entry = mapping.errorResultOf(new IllegalArgumentException("잘못된 id " + i));
+            assertThat(entry.getResult()).isEqualTo(new ErrorResult("BAD", "잘못된 id " + i));
+            mapping.errorResultOf(new UserException("사용자 오류 " + i));
+        }
+        assertThat(cache.size()).isEqualTo(initial + 1);
+    }
+}
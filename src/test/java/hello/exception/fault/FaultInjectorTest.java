@@ -0,0 +1,121 @@
+package hello.exception.fault;
+
+import hello.exception.exception.ExceptionFactory;
+import hello.exception.exception.FastExceptionProperties;
+import hello.exception.exception.UserException;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FaultInjectorTest {
+
+    /**
+     * 설정 키(illegal-argument, latency-jitter ...)가 바인딩되고 mix 비율대로 주입됨
+     */
+    @Test
+    void injectsConfiguredMix() {
+        FaultInjector injector = injector(Map.of(
+                "exception.fault.enabled", "true",
+                "exception.fault.seed", "42",
+                "exception.fault.endpoints.members-v2.mix.illegal-argument", "0.2",
+                "exception.fault.endpoints.members-v2.mix.user", "0.1"));
+
+        int illegal = 0;
+        int user = 0;
+        for (int i = 0; i < 10_000; i++) {
+            try {
+                injector.inject("members-v2");
+            } catch (IllegalArgumentException e) {
+                illegal++;
+            } catch (UserException e) {
+                user++;
+            }
+        }
+        assertThat(illegal).isBetween(1800, 2200);
+        assertThat(user).isBetween(850, 1150);
+        //설정이 없는 엔드포인트(default도 없음)는 주입하지 않음
+        injector.inject("members");
+    }
+
+    /**
+     * 같은 seed면 reset 후 같은 결과 순서, 다른 seed면 다른 순서
+     */
+    @Test
+    void sameSeedRepeatsSameSequence() {
+        FaultInjector injector = injector(Map.of(
+                "exception.fault.enabled", "true",
+                "exception.fault.seed", "7",
+                "exception.fault.endpoints.default.mix.runtime", "0.3",
+                "exception.fault.endpoints.default.mix.bad-request", "0.3"));
+
+        List<String> first = outcomes(injector, "members");
+        injector.reset(null, null);
+        assertThat(outcomes(injector, "members")).isEqualTo(first);
+        injector.reset(8L, null);
+        assertThat(outcomes(injector, "members")).isNotEqualTo(first);
+    }
+
+    @Test
+    void idsAndLatency() {
+        FaultInjector injector = injector(Map.of("exception.fault.ids.boom", "bad-request"));
+        assertThatThrownBy(() -> injector.injectById("bad")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> injector.injectById("boom")).hasMessage(null);
+        injector.injectById("spring");
+
+        injector.configure("members", Map.of(), Duration.ofMillis(20), Duration.ZERO, 1.0);
+        injector.reset(null, true);
+        long start = System.nanoTime();
+        injector.inject("members");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(20).toNanos());
+
+        assertThatThrownBy(() -> injector.configure("members", FaultInjectionEndpoint.parseMix("user=0.7,runtime=0.5"),
+                Duration.ZERO, Duration.ZERO, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        //max-latency(기본 1s)를 넘는 지연은 거절
+        assertThatThrownBy(() -> injector.configure("members", Map.of(), Duration.ofHours(1), Duration.ZERO, 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> injector.configure("members", Map.of(), Duration.ofMillis(800),
+                Duration.ofMillis(300), 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 인증 없는 쓰기 작업이 있는 actuator 엔드포인트는 exception.fault.enabled=true일 때만 등록
+     */
+    @Test
+    void endpointOnlyWhenEnabled() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withBean(FaultInjector.class, () -> injector(Map.of()))
+                .withUserConfiguration(FaultInjectionEndpoint.class);
+        runner.run(context -> assertThat(context).doesNotHaveBean(FaultInjectionEndpoint.class));
+        runner.withPropertyValues("exception.fault.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(FaultInjectionEndpoint.class));
+    }
+
+    private static List<String> outcomes(FaultInjector injector, String endpoint) {
+        List<String> outcomes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            try {
+                injector.inject(endpoint);
+                outcomes.add("ok");
+            } catch (RuntimeException e) {
+                outcomes.add(e.getClass().getSimpleName());
+            }
+        }
+        return outcomes;
+    }
+
+    private static FaultInjector injector(Map<String, String> properties) {
+        FaultInjectionProperties bound = new Binder(new MapConfigurationPropertySource(properties))
+                .bind("exception.fault", FaultInjectionProperties.class)
+                .orElseGet(FaultInjectionProperties::new);
+        return new FaultInjector(bound, new ExceptionFactory(new FastExceptionProperties()));
+    }
+}
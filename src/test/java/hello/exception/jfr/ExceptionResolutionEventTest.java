@@ -0,0 +1,141 @@
+package hello.exception.jfr;
+
+import hello.exception.api.ApiExceptionController;
+import hello.exception.api.ApiExceptionV2Controller;
+import hello.exception.servlet.ErrorPageController;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.handler.HandlerExceptionResolverComposite;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 녹화 중일 때 resolver 체인 한 바퀴, 오류 페이지 재요청마다 ExceptionResolutionEvent가 하나씩 기록되는지 확인
+ */
+@SpringBootTest
+class ExceptionResolutionEventTest {
+
+    @Autowired
+    HandlerExceptionResolverComposite handlerExceptionResolver;
+
+    @Autowired
+    ApiExceptionController apiExceptionController;
+
+    @Autowired
+    ApiExceptionV2Controller apiExceptionV2Controller;
+
+    @Autowired
+    ErrorPageController errorPageController;
+
+    @Autowired
+    ErrorAttributes errorAttributes;
+
+    @Test
+    void recordsResolverChainAndErrorDispatch(@TempDir Path dir) throws Exception {
+        HandlerExceptionResolver resolver = handlerExceptionResolver.getExceptionResolvers().get(0);
+        assertThat(resolver).isInstanceOf(RecordingExceptionResolver.class);
+        HandlerMethod api = new HandlerMethod(apiExceptionController, "getMember", String.class);
+        HandlerMethod api2 = new HandlerMethod(apiExceptionV2Controller, "getMember", String.class);
+
+        Path file = dir.resolve("exception.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ExceptionResolutionEvent.class);
+            recording.start();
+            resolve(resolver, api2, new IllegalStateException("상태 오류"));
+            resolve(resolver, api, new IllegalArgumentException("잘못된 입력 값"));
+            resolve(resolver, api, new ResponseStatusException(HttpStatus.NOT_FOUND));
+            resolve(resolver, api, new IllegalStateException("상태 오류"));
+            errorDispatch();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(ExceptionResolutionEvent.NAME))
+                .collect(Collectors.toList());
+        assertThat(events).hasSize(5);
+
+        assertEvent(events.get(0), IllegalStateException.class, "ExControllerAdvice#exHandle", 500, false);
+        assertThat(events.get(0).getString("handler")).isEqualTo("ApiExceptionV2Controller#getMember");
+        assertThat(events.get(0).getString("dispatcherType")).isEqualTo("REQUEST");
+        assertEvent(events.get(1), IllegalArgumentException.class, "MyHandlerExceptionResolver", 400, true);
+        assertEvent(events.get(2), ResponseStatusException.class, "ResponseStatusExceptionResolver", 404, true);
+        assertEvent(events.get(3), IllegalStateException.class, "unresolved", 500, true);
+        assertEvent(events.get(4), IllegalStateException.class, "ErrorPageController#errorPage500Api", 500, true);
+        assertThat(events.get(4).getString("dispatcherType")).isEqualTo("ERROR");
+        assertThat(events.get(4).getString("requestUri")).isEqualTo("/api/members/ex");
+    }
+
+    /**
+     * 녹화 중이 아니면 응답을 감싸지 않고 요청 속성도 남기지 않음
+     */
+    @Test
+    void notRecording() throws Exception {
+        MockHttpServletRequest request = errorRequest();
+        new ErrorDispatchRecordingInterceptor(errorAttributes).preHandle(request, new MockHttpServletResponse(), null);
+        assertThat(Collections.list(request.getAttributeNames()))
+                .noneMatch(name -> name.startsWith(ErrorDispatchRecordingInterceptor.class.getName()));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handlerExceptionResolver.resolveException(new MockHttpServletRequest(), response,
+                new HandlerMethod(apiExceptionController, "getMember", String.class),
+                new IllegalArgumentException("잘못된 입력 값"));
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
+    private static void resolve(HandlerExceptionResolver resolver, HandlerMethod handler, Exception ex) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/members/ex");
+        request.addHeader("Accept", "application/json");
+        resolver.resolveException(request, new MockHttpServletResponse(), handler, ex);
+    }
+
+    private void errorDispatch() throws Exception {
+        ErrorDispatchRecordingInterceptor interceptor = new ErrorDispatchRecordingInterceptor(errorAttributes);
+        MockHttpServletRequest request = errorRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod handler = new HandlerMethod(errorPageController, "errorPage500Api",
+                HttpServletRequest.class, HttpServletResponse.class);
+        interceptor.preHandle(request, response, handler);
+        response.setStatus(500);
+        interceptor.afterCompletion(request, response, handler, null);
+    }
+
+    private static MockHttpServletRequest errorRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/error-page/500");
+        request.setDispatcherType(DispatcherType.ERROR);
+        request.setAttribute(RequestDispatcher.ERROR_EXCEPTION_TYPE, IllegalStateException.class);
+        request.setAttribute(RequestDispatcher.ERROR_REQUEST_URI, "/api/members/ex");
+        request.setAttribute(RequestDispatcher.ERROR_STATUS_CODE, 500);
+        return request;
+    }
+
+    private static void assertEvent(RecordedEvent event, Class<?> exceptionType, String resolver, int status,
+                                    boolean redispatch) {
+        assertThat(event.getClass("exceptionType").getName()).isEqualTo(exceptionType.getName());
+        assertThat(event.getString("resolver")).isEqualTo(resolver);
+        assertThat(event.getInt("status")).isEqualTo(status);
+        assertThat(event.getBoolean("redispatch")).isEqualTo(redispatch);
+        assertThat(event.getDuration().isNegative()).isFalse();
+    }
+}
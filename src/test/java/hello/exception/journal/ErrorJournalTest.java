@@ -0,0 +1,140 @@
+package hello.exception.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorJournalTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 여러 스레드가 작은 세그먼트에 동시에 기록해도 이벤트가 빠지거나 섞이지 않고,
+     * 세그먼트마다 이름 레코드가 있어서 타입, handler를 그대로 읽을 수 있는지 확인
+     */
+    @Test
+    void concurrentAppendsAcrossSegments() throws Exception {
+        int threads = 8;
+        int perThread = 5000;
+        ErrorJournal journal = new ErrorJournal(directory, 64 * 1024, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    String type = i % 3 == 0 ? null : "java.lang.IllegalStateException" + (i % 3);
+                    journal.append(thread, "/api/members/" + i, 400 + i % 3, type, i, "handler" + thread);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        journal.close();
+
+        assertThat(ErrorJournal.segments(directory).size()).isGreaterThan(1);
+        Map<String, Integer> counts = new HashMap<>();
+        ErrorJournalReader.read(directory, event -> {
+            int i = event.fingerprint();
+            assertThat(event.uri()).isEqualTo("/api/members/" + i);
+            assertThat(event.status()).isEqualTo(400 + i % 3);
+            assertThat(event.type()).isEqualTo(i % 3 == 0 ? "none" : "java.lang.IllegalStateException" + (i % 3));
+            assertThat(event.handler()).isEqualTo("handler" + event.timestamp());
+            counts.merge(event.handler(), 1, Integer::sum);
+        });
+        assertThat(counts).hasSize(threads);
+        assertThat(counts.values()).allMatch(count -> count == perThread);
+    }
+
+    @Test
+    void keepsOnlyMaxSegments() throws Exception {
+        ErrorJournal journal = new ErrorJournal(directory, 4096, 2);
+        for (int i = 0; i < 1000; i++) {
+            journal.append(i, "/error-ex", 500, "java.lang.RuntimeException", 1, "ServletExController#errorEx");
+        }
+        journal.close();
+
+        assertThat(ErrorJournal.segments(directory)).hasSize(2);
+        long[] last = {-1};
+        ErrorJournalReader.read(directory, event -> {
+            assertThat(event.timestamp()).isGreaterThan(last[0]);
+            assertThat(event.type()).isEqualTo("java.lang.RuntimeException");
+            last[0] = event.timestamp();
+        });
+        assertThat(last[0]).isEqualTo(999);
+    }
+
+    /**
+     * 예약만 하고 길이를 쓰지 못한 레코드(본문까지 쓰고 종료, 아무것도 못 쓰고 종료)가 있어도
+     * 그 뒤에 발행된 레코드는 모두 읽힘
+     */
+    @Test
+    void skipsUnpublishedRecords() throws Exception {
+        ErrorJournal journal = new ErrorJournal(directory, 4096, 1);
+        for (int i = 0; i < 5; i++) {
+            journal.append(i, "/api/members/" + i, 500, "java.lang.RuntimeException", i, "MemberController#member");
+        }
+        journal.close();
+
+        Path segment = ErrorJournal.segments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            List<Integer> events = new ArrayList<>();
+            for (int offset = ErrorJournal.SEGMENT_HEADER; buffer.getInt(offset) > 0; offset += buffer.getInt(offset)) {
+                if (buffer.get(offset + 4) == ErrorJournal.EVENT) {
+                    events.add(offset);
+                }
+            }
+            //두 번째 이벤트: 본문은 있고 길이만 없음
+            buffer.putInt(events.get(1), 0);
+            //세 번째 이벤트: 예약한 자리 전체가 비어 있음
+            int third = events.get(2);
+            int length = buffer.getInt(third);
+            for (int i = 0; i < length; i++) {
+                buffer.put(third + i, (byte) 0);
+            }
+            buffer.force();
+        }
+
+        List<String> uris = new ArrayList<>();
+        ErrorJournalReader.read(directory, event -> {
+            assertThat(event.type()).isEqualTo("java.lang.RuntimeException");
+            uris.add(event.uri());
+        });
+        assertThat(uris).containsExactly("/api/members/0", "/api/members/3", "/api/members/4");
+    }
+
+    /**
+     * 재시작할 때마다 새 세그먼트를 열어도 max-segments개만 남음
+     */
+    @Test
+    void restartsKeepOnlyMaxSegments() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            ErrorJournal journal = new ErrorJournal(directory, 4096, 2);
+            journal.append(i, "/error-ex", 500, "java.lang.RuntimeException", 1, "ServletExController#errorEx");
+            journal.close();
+        }
+        assertThat(ErrorJournal.segments(directory)).hasSize(2);
+    }
+}
@@ -0,0 +1,307 @@
+package hello.exception.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * [오류 경로 부하 테스트] ./gradlew loadTest (별도 태스크, test에서는 제외, ./gradlew check -PloadGate 이면 check에 포함)
+ * 애플리케이션을 임의 포트로 띄우고 JDK HttpClient로 정상 요청과 오류 경로를 섞어서 동시에 보냄
+ * 경로마다 처리량, p50/p99/p999를 출력하고 load-test.properties의 기준을 넘으면 실패
+ *
+ * - 요청은 TARGETS 순서대로 돌아가며 보내므로 모든 경로가 같은 부하를 함께 받음
+ * - 오류 경로는 4xx, 5xx가 정상 응답이므로 경로마다 기대하는 상태 코드와 다르면(연결 실패 포함) 실패로 셈
+ * - 콘솔 로그 출력 시간이 측정값을 흔들지 않도록 hello.exception, Tomcat 오류 로그는 WARN 이상만 남김
+ * - 같은 id를 반복해서 보내므로 기본은 NegativeLookupCache를 끄고 매번 실제 오류 경로(예외 생성, resolver)를 측정
+ *   (-Pload.negative-cache=true 이면 켜고 측정 -> 같은 머신에서 두 번 실행해서 /api, /api2 오류 경로를 비교)
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.hello.exception=warn",
+        "logging.level.org.apache.catalina.core=off"})
+class ErrorPathLoadTest {
+
+    private static final String JSON = "application/json";
+    private static final String HTML = "text/html";
+
+    private static final List<Target> TARGETS = List.of(
+            //정상 요청 (비교 기준)
+            new Target("/api/members/spring", 200, JSON),
+            new Target("/api2/members/spring", 200, JSON),
+            //MyHandlerExceptionResolver, BasicErrorController
+            new Target("/api/members/ex", 500, JSON),
+            new Target("/api/members/bad", 400, JSON),
+            new Target("/api/members/user-ex", 400, JSON),
+            //ExControllerAdvice
+            new Target("/api2/members/ex", 500, JSON),
+            new Target("/api2/members/bad", 400, JSON),
+            new Target("/api2/members/user-ex", 400, JSON),
+            //ResponseStatusExceptionResolver, DefaultHandlerExceptionResolver
+            new Target("/api/response-status-ex1", 400, JSON),
+            new Target("/api/response-status-ex2", 404, JSON),
+            new Target("/api/default-handler-ex?data=hello", 400, JSON),
+            //서블릿 오류 페이지
+            new Target("/error-ex", 500, HTML),
+            new Target("/error-404", 404, HTML),
+            new Target("/error-400", 400, HTML),
+            new Target("/error-500", 500, HTML));
+
+    @LocalServerPort
+    int port;
+
+    @DynamicPropertySource
+    static void negativeCache(DynamicPropertyRegistry registry) throws IOException {
+        String enabled = config().getProperty("load.negative-cache");
+        registry.add("exception.negative-cache.enabled", () -> enabled);
+    }
+
+    @Test
+    void errorPathsStayWithinLatencyGates() throws Exception {
+        Properties config = config();
+        int concurrency = Integer.parseInt(config.getProperty("load.concurrency"));
+        Duration warmup = DurationStyle.detectAndParse(config.getProperty("load.warmup"));
+        Duration duration = DurationStyle.detectAndParse(config.getProperty("load.duration"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        List<PathStats> results;
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            run(client, concurrency, warmup);
+            results = run(client, concurrency, duration);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        String report = report(results, concurrency, duration, config.getProperty("load.negative-cache"));
+        System.out.println(report);
+        Path reportFile = Path.of(config.getProperty("load.report"));
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        Files.writeString(reportFile, report);
+
+        assertThat(violations(results, config)).as(report).isEmpty();
+    }
+
+    /**
+     * 최대 concurrency개의 요청을 동시에 보내고, 응답이 오면 바로 다음 경로로 요청을 보냄
+     */
+    private List<PathStats> run(HttpClient client, int concurrency, Duration duration) throws InterruptedException {
+        List<PathStats> stats = new ArrayList<>();
+        List<HttpRequest> requests = new ArrayList<>();
+        for (Target target : TARGETS) {
+            stats.add(new PathStats(target));
+            requests.add(HttpRequest.newBuilder(URI.create("http://localhost:" + port + target.path))
+                    .header("Accept", target.accept)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build());
+        }
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        int next = 0;
+        while (System.nanoTime() < end) {
+            if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            int index = next++ % TARGETS.size();
+            PathStats pathStats = stats.get(index);
+            long sent = System.nanoTime();
+            client.sendAsync(requests.get(index), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        pathStats.record(System.nanoTime() - sent, error == null ? response.statusCode() : -1);
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        for (PathStats pathStats : stats) {
+            pathStats.throughput = pathStats.count.sum() / seconds;
+        }
+        return stats;
+    }
+
+    private static String report(List<PathStats> results, int concurrency, Duration duration, String negativeCache) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("concurrency=%d, duration=%ds, negative-cache=%s%n",
+                concurrency, duration.toSeconds(), negativeCache));
+        report.append(String.format("%-36s %6s %9s %9s %9s %9s %9s %9s %10s%n",
+                "path", "status", "requests", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)", "unexpected"));
+        for (PathStats result : results) {
+            report.append(String.format("%-36s %6d %9d %9.0f %9.2f %9.2f %9.2f %9.2f %10d%n",
+                    result.target.path, result.target.status, result.count.sum(), result.throughput,
+                    result.latency.percentileMillis(0.50), result.latency.percentileMillis(0.99),
+                    result.latency.percentileMillis(0.999), result.latency.maxMillis(), result.unexpected.sum()));
+        }
+        return report.toString();
+    }
+
+    private static List<String> violations(List<PathStats> results, Properties config) {
+        List<String> violations = new ArrayList<>();
+        for (PathStats result : results) {
+            String path = result.target.path;
+            if (result.unexpected.sum() > 0) {
+                violations.add(String.format("%s: %d responses other than %d (last: %d)",
+                        path, result.unexpected.sum(), result.target.status, result.lastUnexpected.get()));
+            }
+            double p99 = result.latency.percentileMillis(0.99);
+            double p99Limit = gate(config, path, "p99-ms");
+            if (p99 > p99Limit) {
+                violations.add(String.format("%s: p99 %.2fms > %.0fms", path, p99, p99Limit));
+            }
+            double p999 = result.latency.percentileMillis(0.999);
+            double p999Limit = gate(config, path, "p999-ms");
+            if (p999 > p999Limit) {
+                violations.add(String.format("%s: p999 %.2fms > %.0fms", path, p999, p999Limit));
+            }
+            double minThroughput = gate(config, path, "min-throughput");
+            if (result.throughput < minThroughput) {
+                violations.add(String.format("%s: %.0f req/s < %.0f req/s", path, result.throughput, minThroughput));
+            }
+        }
+        return violations;
+    }
+
+    //경로별 값이 없으면 default 값
+    private static double gate(Properties config, String path, String name) {
+        String value = config.getProperty("load.gate." + path + "." + name,
+                config.getProperty("load.gate.default." + name));
+        return Double.parseDouble(value);
+    }
+
+    //load-test.properties + 시스템 프로퍼티(load.*)
+    private static Properties config() throws IOException {
+        Properties config = new Properties();
+        try (InputStream in = ErrorPathLoadTest.class.getResourceAsStream("/load-test.properties")) {
+            config.load(in);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("load.")) {
+                config.setProperty(name, System.getProperty(name));
+            }
+        }
+        return config;
+    }
+
+    private static final class Target {
+
+        private final String path;
+        private final int status;
+        private final String accept;
+
+        private Target(String path, int status, String accept) {
+            this.path = path;
+            this.status = status;
+            this.accept = accept;
+        }
+    }
+
+    private static final class PathStats {
+
+        private final Target target;
+        private final Histogram latency = new Histogram();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder unexpected = new LongAdder();
+        private final AtomicInteger lastUnexpected = new AtomicInteger();
+        private double throughput;
+
+        private PathStats(Target target) {
+            this.target = target;
+        }
+
+        //status -1: 연결 실패, 타임아웃
+        private void record(long nanos, int status) {
+            latency.record(nanos / 1000);
+            count.increment();
+            if (status != target.status) {
+                unexpected.increment();
+                lastUnexpected.set(status);
+            }
+        }
+    }
+
+    /**
+     * 마이크로초 히스토그램, 2의 거듭제곱 구간을 다시 32개로 나눔 (p999도 약 3% 오차로 구함)
+     * metrics.LatencyHistogram은 구간이 2배씩 커져서 회귀 기준으로 쓰기에는 너무 거침
+     */
+    static final class Histogram {
+
+        private static final int SUB_BITS = 5;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+        void record(long micros) {
+            counts.incrementAndGet(index(Math.max(micros, 0)));
+            total.increment();
+            maxMicros.accumulate(micros);
+        }
+
+        double percentileMillis(double quantile) {
+            long rank = Math.max(1, (long) Math.ceil(total.sum() * quantile));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    //구간 상한이 실제 최댓값보다 크면 최댓값으로
+                    return Math.min(upperMicros(i), maxMicros.get()) / 1000.0;
+                }
+            }
+            return maxMicros.get() / 1000.0;
+        }
+
+        double maxMillis() {
+            return maxMicros.get() / 1000.0;
+        }
+
+        static int index(long micros) {
+            if (micros < SUB_COUNT) {
+                return (int) micros;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+            return (shift + 1) * SUB_COUNT + (int) ((micros >>> shift) - SUB_COUNT);
+        }
+
+        static long upperMicros(int index) {
+            if (index < SUB_COUNT) {
+                return index;
+            }
+            int shift = index / SUB_COUNT - 1;
+            long sub = index % SUB_COUNT + SUB_COUNT;
+            return ((sub + 1) << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package hello.exception.log;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncErrorLogTest {
+
+    /**
+     * writer가 멈춘 동안 버퍼가 가득 차면 버리고 개수만 셈, 남은 기록은 writer 스레드에서 포맷팅
+     */
+    @Test
+    void dropsWhenFullAndFormatsOnWriterThread() throws Exception {
+        BlockingAppender appender = new BlockingAppender();
+        Logger logger = logger(appender);
+        AsyncErrorLog asyncLog = asyncLog(4, AsyncLogProperties.FullPolicy.DROP);
+
+        for (int i = 0; i < 20; i++) {
+            asyncLog.error(logger, "failed id={}", i, new IllegalStateException("ex" + i));
+        }
+        appender.release.countDown();
+        asyncLog.shutdown();
+
+        assertThat(asyncLog.dropped()).isGreaterThan(0);
+        assertThat(appender.events).hasSize((int) (20 - asyncLog.dropped()));
+        ILoggingEvent first = appender.events.get(0);
+        assertThat(first.getFormattedMessage()).isEqualTo("failed id=0");
+        assertThat(first.getThrowableProxy().getMessage()).isEqualTo("ex0");
+        assertThat(first.getThreadName()).isEqualTo("error-log-writer");
+        assertThat(first.getMDCPropertyMap()).containsEntry("requestThread", Thread.currentThread().getName());
+    }
+
+    /**
+     * BLOCK이면 여러 스레드가 작은 버퍼에 기록해도 유실 없이 모두 기록
+     */
+    @Test
+    void blocksWhenFull() throws Exception {
+        BlockingAppender appender = new BlockingAppender();
+        appender.release.countDown();
+        Logger logger = logger(appender);
+        AsyncErrorLog asyncLog = asyncLog(4, AsyncLogProperties.FullPolicy.BLOCK);
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    asyncLog.info(logger, "record {}", i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        asyncLog.shutdown();
+
+        assertThat(asyncLog.dropped()).isZero();
+        assertThat(appender.events).hasSize(4000);
+    }
+
+    /**
+     * 기본은 꺼져 있음, 버퍼 없이 요청 스레드에서 바로 기록
+     */
+    @Test
+    void writesOnCallingThreadByDefault() {
+        BlockingAppender appender = new BlockingAppender();
+        appender.release.countDown();
+        Logger logger = logger(appender);
+        AsyncErrorLog asyncLog = new AsyncErrorLog(new AsyncLogProperties(),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        asyncLog.error(logger, "failed id={}", 1, new IllegalStateException("ex"));
+
+        assertThat(appender.events).hasSize(1);
+        assertThat(appender.events.get(0).getThreadName()).isEqualTo(Thread.currentThread().getName());
+        assertThat(asyncLog.pending()).isZero();
+        asyncLog.shutdown();
+    }
+
+    /**
+     * 고정 인자 메서드(인자 2개까지)와 varargs 메서드가 같은 메시지를 남김
+     */
+    @Test
+    void fixedArityOverloads() {
+        BlockingAppender appender = new BlockingAppender();
+        appender.release.countDown();
+        Logger logger = logger(appender);
+        AsyncErrorLog asyncLog = asyncLog(16, AsyncLogProperties.FullPolicy.BLOCK);
+
+        asyncLog.info(logger, "none");
+        asyncLog.info(logger, "one {}", 1);
+        asyncLog.warn(logger, "two {} {}", 1, 2);
+        asyncLog.warn(logger, "three {} {} {}", 1, 2, 3);
+        asyncLog.error(logger, "ex", new IllegalStateException("e0"));
+        asyncLog.error(logger, "one {}", 1, new IllegalStateException("e1"));
+        asyncLog.error(logger, "{} [fp={}]", "two", "ab", new IllegalStateException("e2"));
+        asyncLog.shutdown();
+
+        assertThat(appender.events).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("none", "one 1", "two 1 2", "three 1 2 3", "ex", "one 1", "two [fp=ab]");
+        assertThat(appender.events.subList(4, 7)).extracting(event -> event.getThrowableProxy().getMessage())
+                .containsExactly("e0", "e1", "e2");
+    }
+
+    private static AsyncErrorLog asyncLog(int bufferSize, AsyncLogProperties.FullPolicy fullPolicy) {
+        AsyncLogProperties properties = new AsyncLogProperties();
+        properties.setEnabled(true);
+        properties.setBufferSize(bufferSize);
+        properties.setFullPolicy(fullPolicy);
+        return new AsyncErrorLog(properties, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    private static Logger logger(BlockingAppender appender) {
+        LoggerContext context = new LoggerContext();
+        appender.setContext(context);
+        appender.start();
+        Logger logger = context.getLogger("async-test");
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private static final class BlockingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            event.prepareForDeferredProcessing();
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package hello.exception.log;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorLogDeduplicatorTest {
+
+    private final CapturingAppender appender = new CapturingAppender();
+    private final Logger logger = logger(appender);
+    private final AsyncErrorLog asyncLog = new AsyncErrorLog(new AsyncLogProperties(),
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+    @AfterEach
+    void reset() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * 같은 위치의 예외는 처음 한 번만 스택 트레이스를 남기고, 요약 주기마다 반복 횟수를 한 줄로 남김
+     * 반복이 없던 주기에는 요약하지 않음
+     */
+    @Test
+    void suppressesRepeatsUntilSummary() {
+        ErrorLogDeduplicator deduplicator = deduplicator(16);
+        for (int i = 0; i < 5; i++) {
+            deduplicator.error(logger, "[test] ex", failure("id=" + i));
+        }
+        deduplicator.summarize();
+        deduplicator.error(logger, "[test] ex", failure("id=5"));
+        deduplicator.summarize();
+        deduplicator.summarize();
+        asyncLog.shutdown();
+
+        String fp = Integer.toHexString(deduplicator.fingerprint(failure("other")));
+        assertThat(appender.events).hasSize(3);
+        ILoggingEvent first = appender.events.get(0);
+        assertThat(first.getFormattedMessage()).isEqualTo("[test] ex [fp=" + fp + "]");
+        assertThat(first.getThrowableProxy().getMessage()).isEqualTo("id=0");
+        assertThat(appender.events.get(1).getFormattedMessage())
+                .startsWith("[test] ex [fp=" + fp + "] java.lang.IllegalStateException repeated 4 times in last ")
+                .endsWith("(total 5)");
+        assertThat(appender.events.get(1).getThrowableProxy()).isNull();
+        assertThat(appender.events.get(2).getFormattedMessage())
+                .contains("repeated 1 times").endsWith("(total 6)");
+    }
+
+    /**
+     * 같은 예외라도 메시지가 다르면, 같은 메시지라도 위치나 원인 타입이 다르면 따로 기록
+     */
+    @Test
+    void separatesByMessageAndFingerprint() {
+        ErrorLogDeduplicator deduplicator = deduplicator(16);
+        IllegalStateException e = failure("x");
+        deduplicator.error(logger, "[a] ex", e);
+        deduplicator.error(logger, "[b] ex", e);
+        deduplicator.error(logger, "[a] ex", new IllegalStateException("y"));
+        deduplicator.error(logger, "[a] ex", new IllegalStateException("z", e));
+        deduplicator.error(logger, "[a] ex", failure("repeat"));
+        asyncLog.shutdown();
+
+        assertThat(appender.events).hasSize(4);
+        assertThat(deduplicator.fingerprint(e)).isEqualTo(deduplicator.fingerprint(failure("other")))
+                .isNotEqualTo(deduplicator.fingerprint(new IllegalStateException("z", e)));
+    }
+
+    /**
+     * 보관 한도를 넘으면 중복 제거 없이 기록, 요약 시점에 반복이 없던 fingerprint부터 정리
+     */
+    @Test
+    void logsEverythingWhenFull() {
+        ErrorLogDeduplicator deduplicator = deduplicator(1);
+        deduplicator.error(logger, "[a] ex", failure("1"));
+        deduplicator.error(logger, "[b] ex", failure("2"));
+        deduplicator.error(logger, "[b] ex", failure("3"));
+        deduplicator.summarize();
+        deduplicator.error(logger, "[b] ex", failure("4"));
+        deduplicator.error(logger, "[b] ex", failure("5"));
+        asyncLog.shutdown();
+
+        assertThat(appender.events).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("[a] ex [fp=" + Integer.toHexString(deduplicator.fingerprint(failure("0"))) + "]",
+                        "[b] ex", "[b] ex", "[b] ex [fp=" + Integer.toHexString(deduplicator.fingerprint(failure("0"))) + "]");
+    }
+
+    /**
+     * 요청 안에서 기록한 예외는 ErrorJournalFilter가 fingerprint를 다시 계산하지 않음
+     */
+    @Test
+    void remembersFingerprintForRequest() {
+        ErrorLogDeduplicator deduplicator = deduplicator(16);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        IllegalStateException e = failure("x");
+        deduplicator.error(logger, "[a] ex", e);
+        asyncLog.shutdown();
+
+        assertThat(request.getAttribute(ErrorLogDeduplicator.FINGERPRINT_ATTRIBUTE)).isNotNull();
+        assertThat(deduplicator.fingerprint(request, e)).isEqualTo(deduplicator.fingerprint(e));
+        //다른 예외이면 계산
+        IllegalStateException other = new IllegalStateException("y");
+        assertThat(deduplicator.fingerprint(request, other)).isEqualTo(deduplicator.fingerprint(other));
+    }
+
+    private ErrorLogDeduplicator deduplicator(int maxFingerprints) {
+        ErrorLogProperties properties = new ErrorLogProperties();
+        //요약은 테스트에서 직접 호출
+        properties.setSummaryInterval(Duration.ofHours(1));
+        properties.setMaxFingerprints(maxFingerprints);
+        //failure()를 부른 위치와 상관없이 같은 fingerprint
+        properties.setFrames(1);
+        return new ErrorLogDeduplicator(properties, asyncLog);
+    }
+
+    //항상 같은 위치에서 만든 예외
+    private static IllegalStateException failure(String message) {
+        return new IllegalStateException(message);
+    }
+
+    private static Logger logger(CapturingAppender appender) {
+        LoggerContext context = new LoggerContext();
+        appender.setContext(context);
+        appender.start();
+        Logger logger = context.getLogger("dedup-test");
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private static final class CapturingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            event.prepareForDeferredProcessing();
+            events.add(event);
+        }
+    }
+}
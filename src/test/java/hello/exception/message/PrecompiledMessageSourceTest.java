@@ -0,0 +1,93 @@
+package hello.exception.message;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PrecompiledMessageSource가 스프링 부트 기본 ResourceBundleMessageSource와 같은 메시지를 반환하는지 확인
+ * (코드 x 로케일 x 인자) 조합마다 두 MessageSource의 결과(또는 예외 타입)를 비교
+ */
+class PrecompiledMessageSourceTest {
+
+    @TestFactory
+    List<DynamicTest> sameMessagesAsResourceBundleMessageSource() {
+        ResourceBundleMessageSource expected = new ResourceBundleMessageSource();
+        expected.setBasenames("testmessages");
+        expected.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        PrecompiledMessageSource actual = new PrecompiledMessageSource(
+                new String[]{"testmessages"}, StandardCharsets.UTF_8, true, false);
+
+        List<String> codes = List.of("error.bad", "hello", "quoted", "invalid", "plain.quote", "only.base", "missing");
+        List<Locale> locales = Arrays.asList(Locale.ROOT, Locale.ENGLISH, Locale.US, Locale.KOREAN, Locale.KOREA,
+                Locale.FRANCE, Locale.JAPAN, null);
+        List<Object[]> argsList = Arrays.asList(null, new Object[0], new Object[]{"spring", 1234},
+                new Object[]{new DefaultMessageSourceResolvable(new String[]{"error.bad"}, "x")});
+
+        List<DynamicTest> tests = new ArrayList<>();
+        for (String code : codes) {
+            for (Locale locale : locales) {
+                for (Object[] args : argsList) {
+                    String name = code + " / " + locale + " / " + Arrays.toString(args);
+                    tests.add(DynamicTest.dynamicTest(name, () -> {
+                        assertThat(result(() -> actual.getMessage(code, args, "default {0}", locale)))
+                                .isEqualTo(result(() -> expected.getMessage(code, args, "default {0}", locale)));
+                        assertThat(result(() -> actual.getMessage(code, args, locale)))
+                                .isEqualTo(result(() -> expected.getMessage(code, args, locale)));
+                        DefaultMessageSourceResolvable resolvable =
+                                new DefaultMessageSourceResolvable(new String[]{"missing", code}, args);
+                        assertThat(result(() -> actual.getMessage(resolvable, locale)))
+                                .isEqualTo(result(() -> expected.getMessage(resolvable, locale)));
+                    }));
+                }
+            }
+        }
+        return tests;
+    }
+
+    /**
+     * 번들이 없는 로케일은 모두 같은 번들 체인을 사용 -> 로케일이 아무리 많이 들어와도 카탈로그를 새로 펼치지 않음
+     * 로케일 캐시가 가득 찬 뒤에도 같은 메시지, 숫자 형식은 요청 로케일을 따름
+     */
+    @Test
+    void cachesByBundleChain() {
+        MessageCatalog catalog = new MessageCatalog(Map.of("messages", Map.of(
+                Locale.ROOT, Map.of("hello", "Hello {0}"),
+                Locale.KOREAN, Map.of("hello", "안녕 {0}"))), false, Locale.KOREAN);
+        //[ko, ROOT], [ROOT]
+        assertThat(catalog.size()).isEqualTo(2);
+
+        for (int i = 0; i < 500; i++) {
+            Locale locale = new Locale("x" + i, "YY");
+            assertThat(catalog.get("hello", locale).message()).isEqualTo("Hello {0}");
+        }
+        assertThat(catalog.get("hello", new Locale("ko", "KR")).message()).isEqualTo("안녕 {0}");
+        assertThat(catalog.size()).isEqualTo(2);
+
+        assertThat(catalog.get("hello", Locale.GERMANY).format(new Object[]{1234}, Locale.GERMANY))
+                .isEqualTo("Hello 1.234");
+        assertThat(catalog.get("hello", Locale.US).format(new Object[]{1234}, Locale.US))
+                .isEqualTo("Hello 1,234");
+    }
+
+    //반환값 또는 예외 타입
+    private static Object result(Supplier<String> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+}
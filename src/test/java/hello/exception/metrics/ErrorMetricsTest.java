@@ -0,0 +1,104 @@
+package hello.exception.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 예외를 처리한 곳(handler) x 예외 타입마다 횟수와 응답 크기가 기록되는지 확인
+ * 바디를 직접 쓴 경우에는 실제로 쓴 바이트 수, 뷰나 WAS 오류 페이지가 바디를 만드는 경우에는 크기를 기록하지 않음
+ * (다른 테스트와 컨텍스트를 공유하므로 요청 전후 차이로 비교)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ErrorMetricsTest {
+
+    private static final String USER_EX = "hello.exception.exception.UserException";
+    private static final String ILLEGAL = "java.lang.IllegalArgumentException";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ErrorMetrics errorMetrics;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void recordsWrittenBodySize() throws Exception {
+        long[] before = stats("MyHandlerExceptionResolver", USER_EX);
+        int json = perform("/api/members/user-ex", "application/json").getResponse().getContentAsByteArray().length;
+        int cbor = perform("/api/members/user-ex", "application/cbor").getResponse().getContentAsByteArray().length;
+        long[] after = stats("MyHandlerExceptionResolver", USER_EX);
+
+        assertThat(json).isPositive();
+        //{횟수, 크기를 기록한 횟수, 바이트 합계}
+        assertThat(after[0] - before[0]).isEqualTo(2);
+        assertThat(after[1] - before[1]).isEqualTo(2);
+        assertThat(after[2] - before[2]).isEqualTo(json + cbor);
+
+        before = stats("illegalExHandle", ILLEGAL);
+        int advice = perform("/api2/members/bad", "application/json").getResponse().getContentAsByteArray().length;
+        after = stats("illegalExHandle", ILLEGAL);
+        assertThat(after[0] - before[0]).isEqualTo(1);
+        assertThat(after[2] - before[2]).isEqualTo(advice);
+    }
+
+    @Test
+    void countsWithoutSizeWhenBodyIsRenderedElsewhere() throws Exception {
+        long[] before = stats("MyHandlerExceptionResolver", USER_EX);
+        perform("/api/members/user-ex", "text/html");
+        long[] after = stats("MyHandlerExceptionResolver", USER_EX);
+        assertThat(after[0] - before[0]).isEqualTo(1);
+        assertThat(after[1] - before[1]).isZero();
+
+        //sendError -> 바디는 WAS 오류 페이지가 만듦
+        before = stats("MyHandlerExceptionResolver", ILLEGAL);
+        perform("/api/members/bad", "application/json");
+        after = stats("MyHandlerExceptionResolver", ILLEGAL);
+        assertThat(after[0] - before[0]).isEqualTo(1);
+        assertThat(after[1] - before[1]).isZero();
+        assertThat(after[2] - before[2]).isZero();
+    }
+
+    @Test
+    void publishesMicrometerMeters() throws Exception {
+        perform("/api/members/user-ex", "application/json");
+
+        FunctionTimer timer = meterRegistry.get("exception.resolution")
+                .tag("handler", "MyHandlerExceptionResolver").tag("exception", USER_EX).functionTimer();
+        FunctionCounter size = meterRegistry.get("exception.response.size")
+                .tag("handler", "MyHandlerExceptionResolver").tag("exception", USER_EX).functionCounter();
+        long[] stats = stats("MyHandlerExceptionResolver", USER_EX);
+        assertThat(timer.count()).isEqualTo(stats[0]);
+        assertThat(size.count()).isEqualTo(stats[2]);
+    }
+
+    private MvcResult perform(String uri, String accept) throws Exception {
+        return mockMvc.perform(get(uri).header("Accept", accept)).andReturn();
+    }
+
+    @SuppressWarnings("unchecked")
+    private long[] stats(String handler, String exception) {
+        Map<String, Object> byType = (Map<String, Object>) errorMetrics.snapshot().get(handler);
+        Map<String, Object> stats = byType != null ? (Map<String, Object>) byType.get(exception) : null;
+        if (stats == null) {
+            return new long[3];
+        }
+        Map<String, Object> size = (Map<String, Object>) stats.get("responseSize");
+        return new long[]{((Number) stats.get("count")).longValue(), ((Number) size.get("count")).longValue(),
+                ((Number) size.get("totalBytes")).longValue()};
+    }
+}
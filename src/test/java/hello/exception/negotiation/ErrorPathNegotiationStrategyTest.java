@@ -0,0 +1,71 @@
+package hello.exception.negotiation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+import org.springframework.web.accept.ParameterContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.RequestDispatcher;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ContentNegotiationManager의 전략 목록은 스프링 부트 설정 그대로이고 Accept 헤더 전략만 오류 재요청에서 ErrorResponseNegotiator 사용
+ */
+@SpringBootTest(properties = {
+        "spring.mvc.contentnegotiation.favor-parameter=true",
+        "spring.mvc.contentnegotiation.media-types.json=application/json"})
+class ErrorPathNegotiationStrategyTest {
+
+    @Autowired
+    @Qualifier("mvcContentNegotiationManager")
+    ContentNegotiationManager manager;
+
+    @Test
+    void keepsConfiguredStrategies() throws Exception {
+        assertThat(manager.getStrategies()).hasSize(2);
+        assertThat(manager.getStrategies().get(0)).isInstanceOf(ParameterContentNegotiationStrategy.class);
+        assertThat(manager.getStrategies().get(1)).isInstanceOf(ErrorPathNegotiationStrategy.class);
+
+        //favor-parameter가 Accept 헤더보다 먼저 적용됨
+        MockHttpServletRequest request = request("text/html", false);
+        request.setParameter("format", "json");
+        assertThat(manager.resolveMediaTypes(new ServletWebRequest(request))).containsExactly(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * 일반 요청은 HeaderContentNegotiationStrategy가 매번 파싱, 오류 재요청은 ErrorResponseNegotiator의 캐시된 목록
+     */
+    @Test
+    void usesNegotiatorOnlyForErrorDispatch() throws Exception {
+        String accept = "text/html, application/json;q=0.9";
+        List<MediaType> expected = new HeaderContentNegotiationStrategy().resolveMediaTypes(webRequest(accept, false));
+
+        List<MediaType> normal = manager.resolveMediaTypes(webRequest(accept, false));
+        assertThat(normal).isEqualTo(expected).isNotSameAs(manager.resolveMediaTypes(webRequest(accept, false)));
+
+        List<MediaType> error = manager.resolveMediaTypes(webRequest(accept, true));
+        assertThat(error).isEqualTo(expected).isSameAs(manager.resolveMediaTypes(webRequest(accept, true)));
+    }
+
+    private static NativeWebRequest webRequest(String accept, boolean errorDispatch) {
+        return new ServletWebRequest(request(accept, errorDispatch));
+    }
+
+    private static MockHttpServletRequest request(String accept, boolean errorDispatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept", accept);
+        if (errorDispatch) {
+            request.setAttribute(RequestDispatcher.ERROR_STATUS_CODE, 500);
+        }
+        return request;
+    }
+}
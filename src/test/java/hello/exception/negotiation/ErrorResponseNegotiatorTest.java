@@ -0,0 +1,115 @@
+package hello.exception.negotiation;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.condition.ProducesRequestCondition;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static hello.exception.negotiation.ErrorResponseNegotiator.Representation.HTML;
+import static hello.exception.negotiation.ErrorResponseNegotiator.Representation.JSON;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ErrorResponseNegotiator가 스프링 MVC와 같은 선택을 하는지 확인
+ * - resolveMediaTypes(): HeaderContentNegotiationStrategy와 같은 목록(또는 예외 타입)
+ * - negotiate(): ErrorPageController의 produces = application/json 매핑과 produces 없는 매핑 중 스프링이 고르는 쪽
+ */
+class ErrorResponseNegotiatorTest {
+
+    private static final List<String> ACCEPTS = List.of(
+            "application/json", "application/json, */*", "*/*", "text/html",
+            "text/html, application/json", "application/json, text/html",
+            "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8",
+            "application/*", "application/json;q=0.5, text/html", "application/json;q=0, */*",
+            "image/png, application/json", "application/problem+json", "text/*, application/json",
+            "", "not a media type");
+
+    @TestFactory
+    List<DynamicTest> sameChoiceAsSpringMvc() {
+        ErrorResponseNegotiator negotiator = new ErrorResponseNegotiator(256);
+        HeaderContentNegotiationStrategy expected = new HeaderContentNegotiationStrategy();
+        ProducesRequestCondition json = new ProducesRequestCondition(MediaType.APPLICATION_JSON_VALUE);
+        ProducesRequestCondition html = new ProducesRequestCondition();
+
+        List<DynamicTest> tests = new ArrayList<>();
+        for (String accept : ACCEPTS) {
+            tests.add(DynamicTest.dynamicTest("[" + accept + "]", () -> {
+                assertThat(result(() -> negotiator.resolveMediaTypes(webRequest(accept))))
+                        .isEqualTo(result(() -> expected.resolveMediaTypes(webRequest(accept))));
+
+                HttpServletRequest request = webRequest(accept).getNativeRequest(HttpServletRequest.class);
+                ErrorResponseNegotiator.Representation spring = HTML;
+                try {
+                    ProducesRequestCondition matched = json.getMatchingCondition(request);
+                    if (matched != null && matched.compareTo(html, request) < 0) {
+                        spring = JSON;
+                    }
+                } catch (IllegalStateException | IllegalArgumentException e) {
+                    //잘못된 Accept 값 -> 406, 오류 응답은 HTML
+                }
+                assertThat(negotiator.negotiate(accept)).isEqualTo(spring);
+                //두 번째 조회는 캐시에서
+                assertThat(negotiator.negotiate(accept)).isEqualTo(spring);
+            }));
+        }
+        return tests;
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws Exception {
+        ErrorResponseNegotiator negotiator = new ErrorResponseNegotiator(2);
+        List<MediaType> json = negotiator.resolveMediaTypes(webRequest("application/json"));
+        List<MediaType> html = negotiator.resolveMediaTypes(webRequest("text/html"));
+        negotiator.negotiate("application/json");
+        negotiator.negotiate("*/*");
+        assertThat(negotiator.size()).isEqualTo(2);
+
+        //가장 오래 사용하지 않은 text/html이 제거되고 application/json은 캐시된 목록을 그대로 반환
+        assertThat(negotiator.resolveMediaTypes(webRequest("application/json"))).isSameAs(json);
+        assertThat(negotiator.resolveMediaTypes(webRequest("text/html"))).isNotSameAs(html).isEqualTo(html);
+        assertThat(negotiator.negotiate((String) null)).isEqualTo(HTML);
+    }
+
+    /**
+     * CBOR, Smile은 JSON, 와일드카드보다 먼저 명시한 경우에만
+     */
+    @Test
+    void binaryEncodingOnlyWhenPreferred() {
+        ErrorResponseNegotiator negotiator = new ErrorResponseNegotiator(256);
+        assertThat(negotiator.encoding("application/cbor")).isEqualTo(ErrorResponseNegotiator.Encoding.CBOR);
+        assertThat(negotiator.encoding("application/x-jackson-smile, application/json;q=0.5"))
+                .isEqualTo(ErrorResponseNegotiator.Encoding.SMILE);
+        assertThat(negotiator.encoding("application/json, application/cbor")).isEqualTo(ErrorResponseNegotiator.Encoding.JSON);
+        assertThat(negotiator.encoding("application/cbor;q=0.5, application/json")).isEqualTo(ErrorResponseNegotiator.Encoding.JSON);
+        assertThat(negotiator.encoding("text/html, application/cbor")).isEqualTo(ErrorResponseNegotiator.Encoding.CBOR);
+        assertThat(negotiator.encoding("*/*")).isEqualTo(ErrorResponseNegotiator.Encoding.JSON);
+        assertThat(negotiator.encoding((String) null)).isEqualTo(ErrorResponseNegotiator.Encoding.JSON);
+        //바이너리 요청이어도 JSON / HTML 선택은 그대로
+        assertThat(negotiator.negotiate("application/cbor")).isEqualTo(HTML);
+    }
+
+    private static NativeWebRequest webRequest(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept", accept);
+        return new ServletWebRequest(request);
+    }
+
+    private static Object result(Callable<?> call) {
+        try {
+            return call.call();
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+}
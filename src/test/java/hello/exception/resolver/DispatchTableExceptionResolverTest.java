@@ -0,0 +1,267 @@
+package hello.exception.resolver;
+
+import hello.exception.api.ApiExceptionController;
+import hello.exception.api.ApiExceptionV2Controller;
+import hello.exception.exception.BadRequestException;
+import hello.exception.exception.ExceptionFactory;
+import hello.exception.exception.StackTracePolicy;
+import hello.exception.exception.StackTraceMode;
+import hello.exception.exception.UserException;
+import hello.exception.jfr.ExceptionResolutionEvent;
+import hello.exception.jfr.RecordingExceptionResolver;
+import hello.exception.servlet.ServletExController;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.HandlerExceptionResolverComposite;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * DispatchTableExceptionResolver가 기존 ExceptionResolver 체인과 같은 결과를 내는지 확인
+ * (핸들러 x 예외 x Accept) 조합마다 기존 체인과 디스패치 테이블을 각각 실행해서
+ * 반환한 ModelAndView, 상태 코드, sendError 메시지, 응답 바디를 비교
+ * (JFR 기록 resolver로 감싸지 않은 기본 resolver 목록을 그대로 비교하기 위해 exception.jfr.enabled=false)
+ *
+ * exception.jfr.enabled=true 일 때처럼 RecordingExceptionResolver로 감싼 체인, 감싼 디스패치 테이블도
+ * 녹화 중이 아닐 때와 녹화 중일 때(응답을 감싸는 경로) 각각 같은 결과, 같은 resolver 순서인지 비교
+ */
+@SpringBootTest(properties = "exception.jfr.enabled=false")
+class DispatchTableExceptionResolverTest {
+
+    @Autowired
+    ApplicationContext context;
+
+    @Autowired
+    ApiExceptionController apiExceptionController;
+
+    @Autowired
+    ApiExceptionV2Controller apiExceptionV2Controller;
+
+    @Autowired
+    ServletExController servletExController;
+
+    HandlerExceptionResolverComposite chain;
+    DispatchTableExceptionResolver dispatchTable;
+    //WebConfig가 exception.jfr.enabled=true일 때 만드는 것과 같은 resolver
+    RecordingExceptionResolver recordingChain;
+    RecordingExceptionResolver recordingDispatchTable;
+
+    @BeforeEach
+    void setUp() {
+        chain = context.getBean("handlerExceptionResolver", HandlerExceptionResolverComposite.class);
+        dispatchTable = new DispatchTableExceptionResolver(chain.getExceptionResolvers());
+        dispatchTable.precompile(context);
+        recordingChain = new RecordingExceptionResolver(chain.getExceptionResolvers());
+        recordingDispatchTable = new RecordingExceptionResolver(List.of(dispatchTable));
+    }
+
+    @TestFactory
+    List<DynamicTest> sameResultAsResolverChain() throws Exception {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Case c : cases()) {
+            tests.add(DynamicTest.dynamicTest(c.name, () -> {
+                assertSameResult(dispatchTable, c);
+                //녹화 중이 아니면 응답을 감싸지 않고 그대로 호출
+                assertSameResult(recordingChain, c);
+                assertSameResult(recordingDispatchTable, c);
+            }));
+        }
+        return tests;
+    }
+
+    /**
+     * 녹화 중이면 응답을 감싸서 호출하고 처리한 resolver를 기록
+     * 결과가 같고, 기록된 resolver가 기존 체인에서 처음 처리한 resolver와 같은지 확인
+     * (ExceptionHandlerExceptionResolver는 처리한 @ExceptionHandler 메서드 이름으로 기록됨)
+     */
+    @Test
+    void recordingPreservesResolverOrderAndResult(@TempDir Path dir) throws Exception {
+        List<HandlerExceptionResolver> delegates = chain.getExceptionResolvers();
+        //요청 URI -> 기존 체인에서 처음 처리한 resolver (파일의 이벤트 순서는 기록 순서와 다를 수 있으므로 URI로 찾음)
+        Map<String, String> expected = new LinkedHashMap<>();
+        Path file = dir.resolve("parity.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ExceptionResolutionEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            for (Case c : cases()) {
+                String resolvedBy = resolvedBy(delegates, c);
+                for (RecordingExceptionResolver resolver : List.of(recordingChain, recordingDispatchTable)) {
+                    String uri = "/parity/" + expected.size();
+                    assertSameResult(resolver, c, uri);
+                    expected.put(uri, c.name + " -> " + resolvedBy);
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, String> recorded = new LinkedHashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String uri = event.getEventType().getName().equals(ExceptionResolutionEvent.NAME)
+                    ? event.getString("requestUri") : null;
+            if (uri == null || !expected.containsKey(uri)) {
+                continue;
+            }
+            String resolver = event.getString("resolver");
+            String name = expected.get(uri).substring(0, expected.get(uri).indexOf(" -> "));
+            recorded.put(uri, name + " -> " + (resolver.contains("#")
+                    ? ExceptionHandlerExceptionResolver.class.getSimpleName() : resolver));
+        }
+        assertThat(recorded).containsExactlyInAnyOrderEntriesOf(expected);
+    }
+
+    private List<Case> cases() throws Exception {
+        Map<String, Object> handlers = new LinkedHashMap<>();
+        handlers.put("api", handlerMethod(apiExceptionController, "getMember", String.class));
+        handlers.put("api2", handlerMethod(apiExceptionV2Controller, "getMember", String.class));
+        handlers.put("servlet", handlerMethod(servletExController, "errorEx"));
+        handlers.put("none", null);
+
+        ExceptionFactory stackless = new ExceptionFactory(
+                new StackTracePolicy(true, StackTraceMode.SHARED, Map.of()), 8);
+        MethodParameter parameter = new MethodParameter(
+                ApiExceptionController.class.getMethod("defaultException", Integer.class), 0);
+
+        Map<String, Supplier<Exception>> exceptions = new LinkedHashMap<>();
+        exceptions.put("RuntimeException", () -> new RuntimeException("잘못된 사용자"));
+        exceptions.put("IllegalArgumentException", () -> new IllegalArgumentException("잘못된 입력 값"));
+        exceptions.put("NumberFormatException", () -> new NumberFormatException("숫자 아님"));
+        exceptions.put("IllegalStateException", () -> new IllegalStateException("상태 오류"));
+        exceptions.put("UserException", () -> new UserException("사용자 오류"));
+        exceptions.put("UserException(shared)", () -> stackless.userException("사용자 오류"));
+        exceptions.put("UserException(cause)", () -> new UserException("사용자 오류", new IllegalStateException()));
+        exceptions.put("RuntimeException(cause=IllegalArgument)", () -> new RuntimeException(new IllegalArgumentException("x")));
+        exceptions.put("BadRequestException", BadRequestException::new);
+        exceptions.put("ResponseStatusException", () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "error.bad",
+                new IllegalArgumentException()));
+        exceptions.put("MethodArgumentTypeMismatchException", () -> new MethodArgumentTypeMismatchException(
+                "hello", Integer.class, "data", parameter, new NumberFormatException()));
+        exceptions.put("MissingServletRequestParameterException",
+                () -> new MissingServletRequestParameterException("data", "Integer"));
+
+        List<Case> cases = new ArrayList<>();
+        for (Map.Entry<String, Object> handler : handlers.entrySet()) {
+            for (Map.Entry<String, Supplier<Exception>> exception : exceptions.entrySet()) {
+                for (String accept : Arrays.asList("application/json", "text/html")) {
+                    String name = handler.getKey() + " / " + exception.getKey() + " / " + accept;
+                    cases.add(new Case(name, handler.getValue(), exception.getValue(), accept));
+                }
+            }
+        }
+        return cases;
+    }
+
+    @Test
+    void routeSkipsResolversThatCannotHandle() throws Exception {
+        HandlerMethod api = handlerMethod(apiExceptionController, "getMember", String.class);
+        HandlerMethod api2 = handlerMethod(apiExceptionV2Controller, "getMember", String.class);
+        List<HandlerExceptionResolver> delegates = dispatchTable.getDelegates();
+
+        //ApiExceptionController에는 @ExceptionHandler가 없으므로 MyHandlerExceptionResolver로 바로 이동
+        assertThat(delegates.get(dispatchTable.route(api, new UserException("x"))))
+                .isInstanceOf(MyHandlerExceptionResolver.class);
+        //ApiExceptionV2Controller는 ExControllerAdvice(ExceptionHandlerExceptionResolver)가 처리
+        assertThat(dispatchTable.route(api2, new UserException("x"))).isZero();
+        //아무도 처리하지 않는 예외는 체인을 호출하지 않음
+        assertThat(dispatchTable.route(api, new IllegalStateException())).isEqualTo(delegates.size());
+    }
+
+    private void assertSameResult(HandlerExceptionResolver resolver, Case c) {
+        assertSameResult(resolver, c, "/test");
+    }
+
+    private void assertSameResult(HandlerExceptionResolver resolver, Case c, String uri) {
+        Result expected = resolve(chain, c.handler, c.exception.get(), c.accept, "/test");
+        Result actual = resolve(resolver, c.handler, c.exception.get(), c.accept, uri);
+        assertThat(actual).as(resolver.getClass().getSimpleName() + ": " + c.name)
+                .usingRecursiveComparison().isEqualTo(expected);
+    }
+
+    //기존 체인에서 처음으로 처리한 resolver, 아무도 처리하지 않으면 unresolved
+    private String resolvedBy(List<HandlerExceptionResolver> delegates, Case c) {
+        for (HandlerExceptionResolver delegate : delegates) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test");
+            request.addHeader("Accept", c.accept);
+            if (delegate.resolveException(request, new MockHttpServletResponse(), c.handler, c.exception.get()) != null) {
+                return delegate.getClass().getSimpleName();
+            }
+        }
+        return "unresolved";
+    }
+
+    private Result resolve(HandlerExceptionResolver resolver, Object handler, Exception ex, String accept, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Accept", accept);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ModelAndView mav = resolver.resolveException(request, response, handler, ex);
+        return new Result(mav, response);
+    }
+
+    private static HandlerMethod handlerMethod(Object bean, String name, Class<?>... parameterTypes) throws Exception {
+        return new HandlerMethod(bean, bean.getClass().getMethod(name, parameterTypes));
+    }
+
+    static class Case {
+        final String name;
+        final Object handler;
+        final Supplier<Exception> exception;
+        final String accept;
+
+        Case(String name, Object handler, Supplier<Exception> exception, String accept) {
+            this.name = name;
+            this.handler = handler;
+            this.exception = exception;
+            this.accept = accept;
+        }
+    }
+
+    static class Result {
+        final boolean resolved;
+        final String viewName;
+        final boolean emptyView;
+        final int status;
+        final String errorMessage;
+        final String contentType;
+        final String body;
+
+        Result(ModelAndView mav, MockHttpServletResponse response) {
+            this.resolved = mav != null;
+            this.viewName = mav != null ? mav.getViewName() : null;
+            this.emptyView = mav != null && mav.isEmpty();
+            this.status = response.getStatus();
+            this.errorMessage = response.getErrorMessage();
+            this.contentType = response.getContentType();
+            this.body = new String(response.getContentAsByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package hello.exception.server;
+
+import hello.exception.ExceptionApplication;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 톰캣 커넥터 실행기(default, platform, virtual)와 관계없이 오류 처리 결과(상태 코드, Content-Type, 바디)가 같은지 확인
+ * 오류 페이지 모드마다 default 실행기 응답을 기준으로 비교
+ * (virtual은 JDK 21 미만이면 platform으로 대체되므로 그때는 platform과 같은 실행기로 확인됨)
+ */
+class ConnectorExecutorParityTest {
+
+    private static final String JSON = "application/json";
+    private static final String HTML = "text/html";
+
+    //경로, Accept
+    private static final String[][] PATHS = {
+            {"/error-ex", HTML},
+            {"/error-404", HTML},
+            {"/error-500", HTML},
+            {"/error-blocking?millis=10", HTML},
+            {"/api/members/ex", JSON},
+            {"/api/members/bad", JSON},
+            {"/api/members/user-ex", JSON},
+            {"/api2/members/ex", JSON},
+            {"/api2/members/bad", JSON},
+            {"/api/response-status-ex2", JSON},
+            {"/api/default-handler-ex?data=hello", JSON}};
+
+    //BasicErrorController 응답(JSON, 오류 화면)의 시각은 요청마다 다름
+    private static final Pattern TIMESTAMP = Pattern.compile("(timestamp\"?:\\s*\"?)[^\"<]*");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"boot", "redispatch", "in-place"})
+    void sameErrorResponsesOnEveryExecutor(String errorPageMode) throws Exception {
+        List<String> expected = responses("default", errorPageMode);
+
+        assertThat(responses("platform", errorPageMode)).isEqualTo(expected);
+        assertThat(responses("virtual", errorPageMode)).isEqualTo(expected);
+    }
+
+    private List<String> responses(String executorMode, String errorPageMode) throws Exception {
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(ExceptionApplication.class).run(
+                        "--server.port=0",
+                        "--exception.server.executor.mode=" + executorMode,
+                        "--exception.error-page.mode=" + errorPageMode,
+                        "--logging.level.hello.exception=warn",
+                        "--logging.level.org.apache.catalina.core=off")) {
+            TomcatWebServer server = (TomcatWebServer) context.getWebServer();
+            assertExecutor(executorMode,
+                    ((AbstractProtocol<?>) server.getTomcat().getConnector().getProtocolHandler()).getExecutor());
+
+            List<String> responses = new ArrayList<>();
+            for (String[] path : PATHS) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path[0]))
+                        .header("Accept", path[1])
+                        .timeout(Duration.ofSeconds(10))
+                        .GET()
+                        .build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                responses.add(path[0] + " " + response.statusCode() + " "
+                        + response.headers().firstValue("Content-Type").orElse("") + " "
+                        + TIMESTAMP.matcher(response.body()).replaceAll("$1"));
+            }
+            return responses;
+        }
+    }
+
+    private static void assertExecutor(String executorMode, Executor executor) {
+        if ("default".equals(executorMode)) {
+            return;
+        }
+        ExecutorService probe = "virtual".equals(executorMode) ? ConnectorExecutors.virtual() : null;
+        if (probe != null) {
+            probe.shutdown();
+            assertThat(executor).isNotInstanceOf(ThreadPoolExecutor.class);
+        } else {
+            assertThat(executor).isInstanceOf(ThreadPoolExecutor.class);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package hello.exception.servlet;
+
+import hello.exception.log.AsyncErrorLog;
+import hello.exception.log.AsyncLogProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.View;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * ErrorContext 풀: 요청이 끝나면 돌려주고 다음 오류 요청이 재사용함
+ * 풀은 static이므로 요청 하나가 끝난 뒤 풀 크기는 max(이전 크기, 1) (하나 꺼내서 돌려줌, 비어 있었으면 새로 만들어서 돌려줌)
+ * 돌려주지 않는 경로가 있으면 풀 크기가 줄어듦
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "exception.error-page.mode=redispatch")
+class ErrorContextTest {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    /**
+     * 돌려준 객체는 값을 지우고 다음 요청에서 재사용, 같은 요청에서 두 번 돌려줘도 풀에는 한 번만 들어감
+     */
+    @Test
+    void releaseAndReuse() {
+        MockHttpServletRequest first = errorRequest("/first", 500, new IllegalStateException("first"));
+        ErrorContext context = ErrorContext.capture(first);
+        assertThat(ErrorContext.capture(first)).isSameAs(context);
+        assertThat(context.getMessage()).isEqualTo("first");
+        int before = ErrorContext.pooled();
+
+        ErrorContext.release(first);
+        ErrorContext.release(first);
+        assertThat(ErrorContext.pooled()).isEqualTo(before + 1);
+        assertThat(ErrorContext.current(first)).isNull();
+        assertThat(context.getException()).isNull();
+        assertThat(context.getRequestUri()).isNull();
+
+        //예외 없이 sendError로 온 요청, 이전 요청의 값이 남아 있지 않음
+        MockHttpServletRequest second = errorRequest("/second", 404, null);
+        second.setAttribute(RequestDispatcher.ERROR_MESSAGE, "not found");
+        ErrorContext reused = ErrorContext.capture(second);
+        assertThat(ErrorContext.pooled()).isEqualTo(before);
+        assertThat(reused.getStatus()).isEqualTo(404);
+        assertThat(reused.getMessage()).isEqualTo("not found");
+        assertThat(reused.getException()).isNull();
+        assertThat(reused.getExceptionType()).isNull();
+        assertThat(reused.getRequestUri()).isEqualTo("/second");
+        ErrorContext.release(second);
+    }
+
+    /**
+     * WAS 재요청(/error-page/**)으로 처리한 예외, sendError 모두 요청이 끝나면 풀로 돌아감
+     */
+    @Test
+    void releasedAfterErrorRedispatch() throws Exception {
+        for (String[] request : new String[][]{
+                {"/error-ex", "text/html", "500"},
+                {"/error-404", "text/html", "404"},
+                {"/error-500", "application/json", "500"},
+                {"/api/members/ex", "application/json", "500"}}) {
+            int before = ErrorContext.pooled();
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.ACCEPT, request[1]);
+            ResponseEntity<String> response = restTemplate.exchange(request[0], HttpMethod.GET,
+                    new HttpEntity<>(headers), String.class);
+
+            assertThat(response.getStatusCodeValue()).as(request[0]).isEqualTo(Integer.parseInt(request[2]));
+            awaitPooled(Math.max(before, 1));
+        }
+    }
+
+    /**
+     * 오류 페이지 렌더링 중 예외가 나도 afterCompletion(ErrorContextInterceptor)에서 돌려줌
+     */
+    @Test
+    void releasedWhenRenderingFails() throws Exception {
+        View failing = (model, request, response) -> {
+            throw new IllegalStateException("render failed");
+        };
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ErrorPageController(asyncLog()))
+                .addInterceptors(new ErrorContextInterceptor())
+                .setViewResolvers((viewName, locale) -> failing)
+                .build();
+        AtomicReference<HttpServletRequest> captured = new AtomicReference<>();
+        int before = ErrorContext.pooled();
+
+        assertThatThrownBy(() -> mockMvc.perform(get("/error-page/500")
+                .requestAttr(RequestDispatcher.ERROR_STATUS_CODE, 500)
+                .requestAttr(RequestDispatcher.ERROR_EXCEPTION, new RuntimeException("ex"))
+                .with(request -> {
+                    captured.set(request);
+                    return request;
+                })))
+                .hasRootCauseMessage("render failed");
+        assertThat(ErrorContext.current(captured.get())).isNull();
+        assertThat(ErrorContext.pooled()).isEqualTo(Math.max(before, 1));
+    }
+
+    private static MockHttpServletRequest errorRequest(String uri, int status, Throwable exception) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/error-page/" + status);
+        request.setDispatcherType(DispatcherType.ERROR);
+        request.setAttribute(RequestDispatcher.ERROR_STATUS_CODE, status);
+        request.setAttribute(RequestDispatcher.ERROR_REQUEST_URI, uri);
+        if (exception != null) {
+            request.setAttribute(RequestDispatcher.ERROR_EXCEPTION, exception);
+        }
+        return request;
+    }
+
+    //afterCompletion은 응답을 보낸 뒤에 실행될 수 있으므로 잠시 기다림
+    private static void awaitPooled(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (ErrorContext.pooled() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(ErrorContext.pooled()).isEqualTo(expected);
+    }
+
+    private static AsyncErrorLog asyncLog() {
+        return new AsyncErrorLog(new AsyncLogProperties(),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+}
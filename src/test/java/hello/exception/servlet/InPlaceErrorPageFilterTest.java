@@ -0,0 +1,91 @@
+package hello.exception.servlet;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * exception.error-page.mode=in-place: 예외, sendError 모두 WAS 재요청 없이 원래 요청 안에서 오류 페이지를 렌더링
+ */
+@SpringBootTest(properties = "exception.error-page.mode=in-place")
+@AutoConfigureMockMvc
+class InPlaceErrorPageFilterTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    FilterRegistrationBean<InPlaceErrorPageFilter> inPlaceErrorPageFilter;
+
+    /**
+     * 컨트롤러 예외 -> 500 오류 페이지, WAS가 다시 처리하지 않도록 javax.servlet.error.exception은 지움
+     */
+    @Test
+    void thrownException() throws Exception {
+        MvcResult result = mockMvc.perform(get("/error-ex").accept("text/html")).andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(500);
+        assertThat(result.getResponse().getContentAsString(StandardCharsets.UTF_8)).contains("500 오류 화면");
+        assertThat(result.getRequest().getAttribute(RequestDispatcher.ERROR_EXCEPTION)).isNull();
+        assertThat(result.getRequest().getAttribute(RequestDispatcher.ERROR_EXCEPTION_TYPE))
+                .isEqualTo(RuntimeException.class);
+        assertThat(result.getRequest().getAttribute(RequestDispatcher.ERROR_REQUEST_URI)).isEqualTo("/error-ex");
+        //렌더링이 끝나면 ErrorContext는 풀로 돌아감
+        assertThat(ErrorContext.current(result.getRequest())).isNull();
+    }
+
+    @Test
+    void sendError() throws Exception {
+        MvcResult result = mockMvc.perform(get("/error-404").accept("text/html")).andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(404);
+        assertThat(result.getResponse().getContentAsString(StandardCharsets.UTF_8)).contains("404 오류 화면");
+        assertThat(result.getRequest().getAttribute(RequestDispatcher.ERROR_STATUS_CODE)).isEqualTo(404);
+        assertThat(result.getRequest().getAttribute(RequestDispatcher.ERROR_MESSAGE)).isEqualTo("404오류!");
+        assertThat(ErrorContext.current(result.getRequest())).isNull();
+    }
+
+    /**
+     * sendError 이후 핸들러가 쓰는 바디, 상태 코드, flush는 응답에 반영되지 않음 (WAS처럼 응답 중지)
+     */
+    @Test
+    void sendErrorSuspendsResponse() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/late-write");
+        request.addHeader("Accept", "text/html");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.getOutputStream().write("before".getBytes(StandardCharsets.UTF_8));
+                resp.sendError(404);
+                resp.setStatus(200);
+                resp.getOutputStream().write("after".getBytes(StandardCharsets.UTF_8));
+                resp.flushBuffer();
+            }
+        };
+
+        inPlaceErrorPageFilter.getFilter().doFilter(request, response, new MockFilterChain(servlet));
+
+        String body = response.getContentAsString(StandardCharsets.UTF_8);
+        assertThat(response.getStatus()).isEqualTo(404);
+        assertThat(body).contains("404 오류 화면").doesNotContain("before").doesNotContain("after");
+        assertThat(response.getErrorMessage()).isNull();
+    }
+}
@@ -0,0 +1,48 @@
+package hello.exception.startup;
+
+import hello.exception.ExceptionApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * fast-start 프로필: 지연 초기화 중에도 오류 처리 패키지의 빈은 시작 시점에 만들어지고, 관리 엔드포인트가 노출되는지 확인
+ */
+class FastStartConfigTest {
+
+    @Test
+    void errorHandlingBeansAreEager(@TempDir Path journal) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ExceptionApplication.class)
+                .profiles("fast-start")
+                .run("--server.port=0",
+                        "--exception.journal.enabled=true",
+                        "--exception.journal.directory=" + journal,
+                        "--exception.fault.enabled=true")) {
+            ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+            Set<String> packages = new HashSet<>();
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                Class<?> type = beanFactory.getType(name, false);
+                if (type == null || !beanFactory.getBeanDefinition(name).isSingleton()
+                        || !FastStartConfig.isErrorHandling(type)) {
+                    continue;
+                }
+                assertThat(beanFactory.containsSingleton(name)).as(name).isTrue();
+                packages.add(type.getPackageName());
+            }
+            //resolver, jfr 패키지의 resolver는 WebConfig가 직접 만들어서 빈이 아님
+            assertThat(packages).contains("hello.exception.storm", "hello.exception.binding",
+                    "hello.exception.trace", "hello.exception.journal", "hello.exception.fault");
+
+            assertThat(context.getEnvironment().getProperty("management.endpoints.web.exposure.include"))
+                    .contains("errorstorm", "faultinjection");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package hello.exception.startup;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [첫 오류 응답까지 걸리는 시간 비교]
+ * ExceptionApplication을 새 JVM으로 띄우고, JVM 시작부터 /api/members/ex 가 처음 500(JSON)을 응답할 때까지 걸린 시간을 측정
+ * 기본 설정 / fast-start 프로필 / fast-start + AppCDS 아카이브를 번갈아 runs번씩 실행해서 비교
+ *
+ * 실행: ./gradlew startupComparison -Pstartup.runs=5 (appCdsArchive를 먼저 만듦)
+ * 옵션: --classpath=앱 클래스패스(AppCDS 아카이브를 만들 때와 같아야 함) --archive=jsa 파일 --runs=N --java=java 실행 파일
+ */
+public class StartupComparison {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("classpath", System.getProperty("java.class.path"));
+        options.put("archive", "build/cds/exception.jsa");
+        options.put("runs", "5");
+        options.put("java", Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        int runs = Integer.parseInt(options.get("runs"));
+
+        Map<String, List<String>> jvmArgs = new LinkedHashMap<>();
+        Map<String, List<String>> appArgs = new LinkedHashMap<>();
+        jvmArgs.put("default", List.of());
+        appArgs.put("default", List.of());
+        jvmArgs.put("fast-start", List.of());
+        appArgs.put("fast-start", List.of("--spring.profiles.active=fast-start"));
+        Path archive = Path.of(options.get("archive"));
+        if (Files.exists(archive)) {
+            jvmArgs.put("fast-start+appcds", List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:auto"));
+            appArgs.put("fast-start+appcds", List.of("--spring.profiles.active=fast-start"));
+        } else {
+            System.out.println("no AppCDS archive: " + archive.toAbsolutePath() + " (./gradlew appCdsArchive)");
+        }
+
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        jvmArgs.keySet().forEach(variant -> results.put(variant, new ArrayList<>()));
+        //순서에 따른 영향(파일 캐시 등)을 줄이기 위해 한 바퀴씩 번갈아 실행
+        for (int run = 0; run < runs; run++) {
+            for (String variant : jvmArgs.keySet()) {
+                long millis = timeToFirstError(options.get("java"), options.get("classpath"),
+                        jvmArgs.get(variant), appArgs.get(variant));
+                results.get(variant).add(millis);
+                System.out.printf("run %d %-18s %6dms%n", run + 1, variant, millis);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("time to first error response, runs=%d%n", runs);
+        System.out.printf("%-18s %8s %8s %8s%n", "variant", "min(ms)", "p50(ms)", "max(ms)");
+        for (Map.Entry<String, List<Long>> entry : results.entrySet()) {
+            List<Long> sorted = new ArrayList<>(entry.getValue());
+            Collections.sort(sorted);
+            System.out.printf("%-18s %8d %8d %8d%n", entry.getKey(),
+                    sorted.get(0), sorted.get((sorted.size() - 1) / 2), sorted.get(sorted.size() - 1));
+        }
+    }
+
+    private static long timeToFirstError(String java, String classpath, List<String> jvmArgs, List<String> appArgs)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.add("hello.exception.ExceptionApplication");
+        command.add("--server.port=" + port);
+        //다른 실행의 저널과 섞이지 않도록 끔
+        command.add("--exception.journal.enabled=false");
+        command.addAll(appArgs);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/members/ex"))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(10))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("application exited: " + process.exitValue() + " " + command);
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 500) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (ConnectException | HttpTimeoutException e) {
+                    //아직 포트가 열리지 않음
+                }
+                Thread.sleep(5);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
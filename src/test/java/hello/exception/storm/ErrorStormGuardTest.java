@@ -0,0 +1,97 @@
+package hello.exception.storm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorStormGuardTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    /**
+     * 오류율이 올라가면 저하 모드, min-degraded가 지나고 오류가 window 밖으로 빠지면 자동 회복
+     */
+    @Test
+    void degradesAndRecovers() throws Exception {
+        ErrorStormGuard guard = new ErrorStormGuard(properties(), now::get);
+        ErrorStormGuard.Endpoint endpoint = guard.endpoint(handler());
+
+        //요청이 min-requests보다 적으면 모두 실패해도 정상 모드
+        record(endpoint, 9, true);
+        assertThat(endpoint.isDegraded()).isFalse();
+
+        record(endpoint, 1, true);
+        assertThat(endpoint.isDegraded()).isTrue();
+
+        //min-degraded 전에는 성공이 섞여도 유지
+        advance(Duration.ofMillis(500));
+        record(endpoint, 100, false);
+        assertThat(endpoint.isDegraded()).isTrue();
+
+        //실패 10건이 들어 있던 칸이 window 밖으로 빠지면 회복
+        advance(Duration.ofSeconds(10));
+        assertThat(endpoint.isDegraded()).isFalse();
+
+        Map<String, Object> snapshot = guard.snapshot();
+        assertThat(snapshot.get("degraded")).isEqualTo(0);
+        List<?> transitions = (List<?>) snapshot.get("transitions");
+        assertThat(transitions).hasSize(2);
+        assertThat(((Map<?, ?>) transitions.get(0)).get("to")).isEqualTo(ErrorStormGuard.State.DEGRADED);
+        assertThat(((Map<?, ?>) transitions.get(1)).get("to")).isEqualTo(ErrorStormGuard.State.NORMAL);
+    }
+
+    /**
+     * 거절 중에도 probe-every개 중 하나는 통과, 로그는 log-sample개 중 하나
+     */
+    @Test
+    void shedsWithProbesAndSamplesLogs() throws Exception {
+        ErrorStormGuard guard = new ErrorStormGuard(properties(), now::get);
+        ErrorStormGuard.Endpoint endpoint = guard.endpoint(handler());
+        record(endpoint, 10, true);
+
+        int passed = 0;
+        int logged = 0;
+        for (int i = 0; i < 100; i++) {
+            if (!endpoint.shouldShed()) {
+                passed++;
+            }
+            if (endpoint.shouldLog()) {
+                logged++;
+            }
+        }
+        assertThat(passed).isEqualTo(25);
+        assertThat(logged).isEqualTo(10);
+        assertThat(guard.snapshot().get("shed")).isEqualTo(75L);
+    }
+
+    private void record(ErrorStormGuard.Endpoint endpoint, int count, boolean error) {
+        for (int i = 0; i < count; i++) {
+            endpoint.record(error);
+        }
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private static HandlerMethod handler() throws NoSuchMethodException {
+        return new HandlerMethod(new ErrorStormGuardTest(), ErrorStormGuardTest.class.getDeclaredMethod("handler"));
+    }
+
+    private static ErrorStormProperties properties() {
+        ErrorStormProperties properties = new ErrorStormProperties();
+        properties.setEnabled(true);
+        properties.setMinRequests(10);
+        properties.setMinDegraded(Duration.ofSeconds(1));
+        properties.setProbeEvery(4);
+        properties.setLogSample(10);
+        return properties;
+    }
+}
@@ -0,0 +1,109 @@
+package hello.exception.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.error.ErrorAttributeOptions;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.RequestDispatcher;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StackTraceErrorAttributesTest {
+
+    /**
+     * 제한을 넘지 않으면 printStackTrace()와 같은 문자열
+     */
+    @Test
+    void rendersLikePrintStackTrace() {
+        StackTraceRenderer renderer = new StackTraceRenderer(properties(1000, 8, 1024 * 1024));
+        Throwable error = wrapped("잘못된 사용자");
+
+        assertThat(renderer.render(error)).isEqualTo(printStackTrace(error));
+    }
+
+    /**
+     * 프레임 수, 원인 예외 수, 전체 길이 제한
+     */
+    @Test
+    void capsDepthAndLength() {
+        Throwable error = new IllegalStateException("outer", deep(40));
+
+        String frames = new StackTraceRenderer(properties(3, 0, 1024 * 1024)).render(error);
+        assertThat(frames.lines().filter(line -> line.startsWith("\tat "))).hasSize(3);
+        assertThat(frames).doesNotContain("Caused by").endsWith("\t... (more causes)\n");
+
+        String length = new StackTraceRenderer(properties(1000, 8, 200)).render(error);
+        assertThat(length).hasSize(200 + StackTraceRenderer.TRUNCATED.length()).endsWith(StackTraceRenderer.TRUNCATED);
+    }
+
+    /**
+     * 같은 위치에서 발생한 예외는 메시지가 달라도 프레임 텍스트를 재사용
+     */
+    @Test
+    void reusesFramesForSameFingerprint() {
+        StackTraceRenderer renderer = new StackTraceRenderer(properties(1000, 8, 1024 * 1024));
+        for (int i = 0; i < 10; i++) {
+            Throwable error = wrapped("id=" + i);
+            assertThat(renderer.render(error)).isEqualTo(printStackTrace(error));
+        }
+        assertThat(renderer.size()).isEqualTo(1);
+    }
+
+    /**
+     * trace 속성은 직렬화될 때 렌더링되고 DefaultErrorAttributes와 같은 위치에 들어감
+     */
+    @Test
+    void traceIsRenderedOnlyWhenSerialized() throws Exception {
+        StackTraceErrorAttributes errorAttributes = new StackTraceErrorAttributes(properties(1000, 8, 1024 * 1024));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/error");
+        Throwable error = wrapped("잘못된 사용자");
+        request.setAttribute(RequestDispatcher.ERROR_EXCEPTION, error);
+        request.setAttribute(RequestDispatcher.ERROR_STATUS_CODE, 500);
+        request.setAttribute(RequestDispatcher.ERROR_REQUEST_URI, "/api/members/ex");
+
+        Map<String, Object> attributes = errorAttributes.getErrorAttributes(new ServletWebRequest(request),
+                ErrorAttributeOptions.of(ErrorAttributeOptions.Include.EXCEPTION, ErrorAttributeOptions.Include.STACK_TRACE));
+        assertThat(attributes.keySet()).containsExactly("timestamp", "status", "error", "exception", "trace", "path");
+        StackTrace trace = (StackTrace) attributes.get("trace");
+        assertThat(trace.isRendered()).isFalse();
+
+        String json = new ObjectMapper().writeValueAsString(attributes);
+        assertThat(trace.isRendered()).isTrue();
+        assertThat(new ObjectMapper().readTree(json).get("trace").asText()).isEqualTo(printStackTrace(error));
+
+        Map<String, Object> withoutTrace = errorAttributes.getErrorAttributes(new ServletWebRequest(request),
+                ErrorAttributeOptions.defaults());
+        assertThat(withoutTrace).doesNotContainKey("trace");
+    }
+
+    private static Throwable wrapped(String message) {
+        try {
+            throw new IllegalArgumentException(message);
+        } catch (IllegalArgumentException e) {
+            return new RuntimeException("wrapped", e);
+        }
+    }
+
+    private static Throwable deep(int depth) {
+        return depth == 0 ? new IllegalArgumentException("deep") : deep(depth - 1);
+    }
+
+    private static StackTraceProperties properties(int maxFrames, int maxCauses, int maxLength) {
+        StackTraceProperties properties = new StackTraceProperties();
+        properties.setMaxFrames(maxFrames);
+        properties.setMaxCauses(maxCauses);
+        properties.setMaxLength(maxLength);
+        return properties;
+    }
+
+    private static String printStackTrace(Throwable error) {
+        StringWriter writer = new StringWriter();
+        error.printStackTrace(new PrintWriter(writer));
+        return writer.toString();
+    }
+}